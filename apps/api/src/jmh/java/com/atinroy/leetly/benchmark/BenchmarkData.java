@@ -0,0 +1,179 @@
+package com.atinroy.leetly.benchmark;
+
+import com.atinroy.leetly.problem.model.AttemptFacts;
+import com.atinroy.leetly.problem.model.Difficulty;
+import com.atinroy.leetly.problem.model.Mistake;
+import com.atinroy.leetly.problem.model.Outcome;
+import com.atinroy.leetly.problem.model.Pattern;
+import com.atinroy.leetly.problem.model.Problem;
+import com.atinroy.leetly.problem.model.ProblemStatus;
+import com.atinroy.leetly.problem.model.Topic;
+import com.atinroy.leetly.review.model.CardState;
+import com.atinroy.leetly.review.model.Rating;
+import com.atinroy.leetly.review.model.ReviewCard;
+import com.atinroy.leetly.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Seeded synthetic data shaped like real usage: about four attempts per problem, a
+ * two-year history, and catalog-sized topic and pattern pools.
+ */
+final class BenchmarkData {
+
+    static final LocalDateTime NOW = LocalDateTime.of(2026, 6, 1, 12, 0);
+
+    private static final int TOPICS = 40;
+    private static final int PATTERNS = 60;
+    private static final int HISTORY_DAYS = 730;
+
+    private BenchmarkData() {}
+
+    record UserHistory(User user, List<Problem> problems, List<AttemptFacts> attempts, List<Object[]> mistakeCounts) {}
+
+    record ProblemPage(List<Problem> problems, List<Object[]> attemptCountRows, List<ReviewCard> reviewCards) {}
+
+    static UserHistory history(int attemptCount, long seed) {
+        Random random = new Random(seed);
+        User user = user();
+        List<Topic> topics = topics();
+        List<Pattern> patterns = patterns();
+
+        List<Problem> problems = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, attemptCount / 4); i++) {
+            problems.add(problem(i + 1L, user, random, topics, patterns));
+        }
+
+        List<AttemptFacts> attempts = new ArrayList<>(attemptCount);
+        Map<Long, Integer> attemptNumbers = new HashMap<>();
+        for (int i = 0; i < attemptCount; i++) {
+            Problem problem = problems.get(random.nextInt(problems.size()));
+            int attemptNumber = attemptNumbers.merge(problem.getId(), 1, Integer::sum);
+            LocalDateTime createdDate = NOW.minusDays(random.nextInt(HISTORY_DAYS)).minusMinutes(random.nextInt(1440));
+            Outcome outcome = random.nextInt(3) == 0 ? Outcome.ACCEPTED : Outcome.values()[random.nextInt(Outcome.values().length)];
+            attempts.add(new AttemptFacts(problem.getId(), createdDate, attemptNumber, outcome, 5 + random.nextInt(60)));
+        }
+
+        List<Object[]> mistakeCounts = new ArrayList<>();
+        for (Mistake mistake : Mistake.values()) {
+            mistakeCounts.add(new Object[]{mistake, (long) random.nextInt(Math.max(1, attemptCount / 5))});
+        }
+        return new UserHistory(user, problems, attempts, mistakeCounts);
+    }
+
+    static ProblemPage problemPage(int size, long seed) {
+        Random random = new Random(seed);
+        User user = user();
+        List<Topic> topics = topics();
+        List<Pattern> patterns = patterns();
+
+        List<Problem> problems = new ArrayList<>(size);
+        List<Object[]> attemptCountRows = new ArrayList<>(size);
+        List<ReviewCard> reviewCards = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Problem problem = problem(i + 1L, user, random, topics, patterns);
+            problems.add(problem);
+            attemptCountRows.add(new Object[]{problem.getId(), (long) (1 + random.nextInt(8))});
+            if (random.nextBoolean()) {
+                ReviewCard card = reviewCard(i + 1L, random);
+                card.setProblem(problem);
+                reviewCards.add(card);
+            }
+        }
+        return new ProblemPage(problems, attemptCountRows, reviewCards);
+    }
+
+    static List<ReviewCard> deck(int size, long seed) {
+        Random random = new Random(seed);
+        List<ReviewCard> cards = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            cards.add(reviewCard(i + 1L, random));
+        }
+        return cards;
+    }
+
+    static Rating[] ratings(int size, long seed) {
+        Random random = new Random(seed);
+        Rating[] ratings = new Rating[size];
+        for (int i = 0; i < size; i++) {
+            // Mostly GOOD, as in real review logs.
+            int roll = random.nextInt(10);
+            ratings[i] = roll == 0 ? Rating.AGAIN : roll == 1 ? Rating.HARD : roll == 9 ? Rating.EASY : Rating.GOOD;
+        }
+        return ratings;
+    }
+
+    private static User user() {
+        User user = new User();
+        user.setId(1L);
+        return user;
+    }
+
+    private static Problem problem(long id, User user, Random random, List<Topic> topics, List<Pattern> patterns) {
+        Problem problem = new Problem();
+        problem.setId(id);
+        problem.setUser(user);
+        problem.setLeetcodeId(id);
+        problem.setTitle("Problem " + id);
+        problem.setUrl("https://leetcode.com/problems/problem-" + id + "/");
+        problem.setDifficulty(Difficulty.values()[random.nextInt(Difficulty.values().length)]);
+        problem.setStatus(ProblemStatus.values()[random.nextInt(ProblemStatus.values().length)]);
+        LocalDateTime attemptedAt = NOW.minusDays(random.nextInt(HISTORY_DAYS));
+        problem.setLastAttemptedAt(attemptedAt);
+        problem.setCreatedDate(attemptedAt.minusDays(random.nextInt(30)));
+        if (problem.getStatus() != ProblemStatus.UNSEEN && problem.getStatus() != ProblemStatus.ATTEMPTED) {
+            problem.setFirstSolvedAt(attemptedAt);
+            problem.setSolvedAt(attemptedAt);
+        }
+        for (int i = random.nextInt(4); i > 0; i--) {
+            problem.getTopics().add(topics.get(random.nextInt(topics.size())));
+        }
+        for (int i = random.nextInt(3); i > 0; i--) {
+            problem.getPatterns().add(patterns.get(random.nextInt(patterns.size())));
+        }
+        return problem;
+    }
+
+    private static ReviewCard reviewCard(long id, Random random) {
+        ReviewCard card = new ReviewCard();
+        card.setId(id);
+        card.setState(CardState.values()[random.nextInt(CardState.values().length)]);
+        if (card.getState() != CardState.NEW) {
+            card.setStability(0.5 + random.nextDouble() * 120);
+            card.setDifficulty(1 + random.nextDouble() * 9);
+            card.setReps(1 + random.nextInt(20));
+            card.setLapses(random.nextInt(4));
+            card.setScheduledDays(random.nextInt(90));
+            card.setLastReview(NOW.minusDays(random.nextInt(120)));
+        }
+        card.setDue(NOW.plusDays(random.nextInt(60) - 30));
+        return card;
+    }
+
+    private static List<Topic> topics() {
+        List<Topic> topics = new ArrayList<>(TOPICS);
+        for (int i = 0; i < TOPICS; i++) {
+            Topic topic = new Topic();
+            topic.setId(i + 1L);
+            topic.setName("Topic " + (i + 1));
+            topics.add(topic);
+        }
+        return topics;
+    }
+
+    private static List<Pattern> patterns() {
+        List<Pattern> patterns = new ArrayList<>(PATTERNS);
+        for (int i = 0; i < PATTERNS; i++) {
+            Pattern pattern = new Pattern();
+            pattern.setId(i + 1L);
+            pattern.setName("Pattern " + (i + 1));
+            patterns.add(pattern);
+        }
+        return patterns;
+    }
+}
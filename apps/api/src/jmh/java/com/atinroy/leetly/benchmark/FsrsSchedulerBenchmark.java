@@ -0,0 +1,64 @@
+package com.atinroy.leetly.benchmark;
+
+import com.atinroy.leetly.review.model.Rating;
+import com.atinroy.leetly.review.model.ReviewCard;
+import com.atinroy.leetly.review.service.FsrsScheduler;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code FsrsScheduler.schedule} across a 10k-card deck in mixed states, reported per
+ * card. Cards are not mutated, so every invocation schedules the same deck.
+ * {@code scheduleBatch} works in place, so its batch is reloaded before each invocation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+@State(Scope.Benchmark)
+public class FsrsSchedulerBenchmark {
+
+    static final int DECK_SIZE = 10_000;
+
+    private final FsrsScheduler scheduler = new FsrsScheduler();
+    private ReviewCard[] deck;
+    private Rating[] ratings;
+    private byte[] ratingValues;
+    private FsrsScheduler.CardBatch batch;
+
+    @Setup
+    public void setUp() {
+        deck = BenchmarkData.deck(DECK_SIZE, 42).toArray(ReviewCard[]::new);
+        ratings = BenchmarkData.ratings(DECK_SIZE, 7);
+        ratingValues = new byte[DECK_SIZE];
+        for (int i = 0; i < DECK_SIZE; i++) {
+            ratingValues[i] = (byte) ratings[i].value();
+        }
+        batch = new FsrsScheduler.CardBatch(DECK_SIZE);
+    }
+
+    @Setup(Level.Invocation)
+    public void loadBatch() {
+        for (int i = 0; i < DECK_SIZE; i++) {
+            batch.set(i, deck[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DECK_SIZE)
+    public void scheduleDeck(Blackhole blackhole) {
+        for (int i = 0; i < DECK_SIZE; i++) {
+            blackhole.consume(scheduler.schedule(deck[i], ratings[i], BenchmarkData.NOW));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DECK_SIZE)
+    public void scheduleDeckBatch(Blackhole blackhole) {
+        scheduler.scheduleBatch(batch, ratingValues, BenchmarkData.NOW);
+        blackhole.consume(batch.dueSeconds);
+    }
+}
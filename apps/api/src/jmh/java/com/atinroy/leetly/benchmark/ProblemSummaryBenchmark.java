@@ -0,0 +1,47 @@
+package com.atinroy.leetly.benchmark;
+
+import com.atinroy.leetly.problem.dto.ProblemSummaryDto;
+import com.atinroy.leetly.review.model.ReviewCard;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Enrichment of one problem-list page: building the attempt-count and review-card
+ * lookups from query rows and mapping each problem with {@code ProblemSummaryDto.of},
+ * as {@code ProblemService.findAll} does after its three queries return.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+@State(Scope.Benchmark)
+public class ProblemSummaryBenchmark {
+
+    @Param({"100"})
+    int pageSize;
+
+    private BenchmarkData.ProblemPage page;
+
+    @Setup
+    public void setUp() {
+        page = BenchmarkData.problemPage(pageSize, 42);
+    }
+
+    @Benchmark
+    public List<ProblemSummaryDto> enrichPage() {
+        Map<Long, Long> attemptCounts = page.attemptCountRows()
+                .stream().collect(Collectors.toMap(row -> (Long) row[0], row -> (Long) row[1]));
+
+        Map<Long, ReviewCard> reviewCardMap = page.reviewCards()
+                .stream().collect(Collectors.toMap(rc -> rc.getProblem().getId(), rc -> rc));
+
+        return page.problems().stream()
+                .map(p -> ProblemSummaryDto.of(p, attemptCounts, reviewCardMap))
+                .toList();
+    }
+}
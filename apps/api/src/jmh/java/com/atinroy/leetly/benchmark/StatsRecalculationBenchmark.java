@@ -0,0 +1,58 @@
+package com.atinroy.leetly.benchmark;
+
+import com.atinroy.leetly.problem.repository.AttemptEventRepository;
+import com.atinroy.leetly.problem.repository.AttemptRepository;
+import com.atinroy.leetly.problem.repository.ProblemRepository;
+import com.atinroy.leetly.user.model.User;
+import com.atinroy.leetly.user.model.UserStats;
+import com.atinroy.leetly.user.repository.DailyStatRepository;
+import com.atinroy.leetly.user.repository.UserPatternCountRepository;
+import com.atinroy.leetly.user.repository.UserStatsRepository;
+import com.atinroy.leetly.user.service.StatsService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full stats recompute from history ({@code StatsService.recomputeStats}), the work
+ * behind every stale-row rebuild and every user the drift job verifies.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+@State(Scope.Benchmark)
+public class StatsRecalculationBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    int attempts;
+
+    private StatsService statsService;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        BenchmarkData.UserHistory history = BenchmarkData.history(attempts, 42);
+        user = history.user();
+        statsService = new StatsService(
+                RepositoryStubs.stub(UserStatsRepository.class, Map.of()),
+                RepositoryStubs.stub(ProblemRepository.class, Map.of(
+                        "findAllByUser", args -> history.problems())),
+                RepositoryStubs.stub(AttemptRepository.class, Map.of(
+                        "streamFactsByUser", args -> history.attempts().stream(),
+                        "countMistakesByUser", args -> history.mistakeCounts())),
+                RepositoryStubs.stub(DailyStatRepository.class, Map.of()),
+                new ObjectMapper(),
+                RepositoryStubs.stub(AttemptEventRepository.class, Map.of()),
+                RepositoryStubs.stub(UserPatternCountRepository.class, Map.of())
+        );
+    }
+
+    @Benchmark
+    public UserStats recomputeStats() {
+        return statsService.recomputeStats(user);
+    }
+}
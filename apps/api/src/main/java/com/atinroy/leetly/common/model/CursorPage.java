@@ -0,0 +1,15 @@
+package com.atinroy.leetly.common.model;
+
+import java.util.List;
+
+/**
+ * A page from a keyset (cursor) listing. {@code nextCursor} is an opaque token for the
+ * following page, or null on the last page. {@code totalElements} is only filled in
+ * when the caller asked for it, since counting is what keyset pages avoid.
+ */
+public record CursorPage<T>(
+        List<T> content,
+        int size,
+        String nextCursor,
+        Long totalElements
+) {}
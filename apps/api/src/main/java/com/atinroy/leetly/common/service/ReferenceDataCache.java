@@ -0,0 +1,337 @@
+package com.atinroy.leetly.common.service;
+
+import com.atinroy.leetly.common.exception.ResourceNotFoundException;
+import com.atinroy.leetly.problem.dto.PatternDto;
+import com.atinroy.leetly.problem.dto.TopicDto;
+import com.atinroy.leetly.problem.model.Pattern;
+import com.atinroy.leetly.problem.model.Topic;
+import com.atinroy.leetly.problem.repository.PatternRepository;
+import com.atinroy.leetly.problem.repository.TopicRepository;
+import com.atinroy.leetly.user.dto.ThemeDto;
+import com.atinroy.leetly.user.model.Theme;
+import com.atinroy.leetly.user.repository.ThemeRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.WebRequest;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Topics, patterns and themes kept in memory as one immutable, versioned snapshot.
+ * They change only with the catalog sync or the odd admin edit, so lookups, mask bits,
+ * mapper names and the JSON of the list endpoints are served without a query.
+ *
+ * The snapshot is loaded on first use and replaced after the catalog sync and after
+ * each committed edit on this instance. It is also reloaded every
+ * {@code refresh-interval}, which bounds how long another instance's edits go unseen;
+ * a reload that finds nothing changed keeps the current snapshot and its version.
+ */
+@Slf4j
+@Component
+public class ReferenceDataCache {
+
+    private final TopicRepository topicRepository;
+    private final PatternRepository patternRepository;
+    private final ThemeRepository themeRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+    private volatile Snapshot current;
+
+    public ReferenceDataCache(TopicRepository topicRepository,
+                              PatternRepository patternRepository,
+                              ThemeRepository themeRepository,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry) {
+        this.topicRepository = topicRepository;
+        this.patternRepository = patternRepository;
+        this.themeRepository = themeRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // Refreshes run from afterCommit, where the finished transaction is still bound.
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        Gauge.builder("leetly.reference.data.version", this, cache -> cache.current == null ? 0 : cache.current.version())
+                .description("Version of the in-memory topic, pattern and theme snapshot")
+                .register(meterRegistry);
+    }
+
+    /** A response body with its strong ETag, computed once per snapshot. */
+    public record Serialized(byte[] body, String etag) {
+
+        /** The body as JSON with its ETag, or null once {@code request} was answered 304 Not Modified. */
+        public ResponseEntity<byte[]> toResponse(WebRequest request) {
+            if (request.checkNotModified(etag)) {
+                return null;
+            }
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(body);
+        }
+    }
+
+    /**
+     * An immutable copy of the reference data with lookup maps and the serialized list
+     * responses. Topics and patterns keep the order they were loaded in (by name); themes
+     * are ordered by id.
+     */
+    public static final class Snapshot {
+
+        private final long version;
+        private final List<TopicDto> topics;
+        private final List<PatternDto> patterns;
+        private final List<ThemeDto> themes;
+        private final Map<Long, TopicDto> topicsById;
+        private final Map<String, TopicDto> topicsByName;
+        private final Map<Long, Integer> topicMaskBits;
+        private final Map<Long, PatternDto> patternsById;
+        private final Map<String, PatternDto> patternsByName;
+        private final Map<Long, Integer> patternMaskBits;
+        private final Map<Long, List<PatternDto>> patternsByTopic;
+        private final Map<Long, ThemeDto> themesById;
+        private final Map<String, ThemeDto> themesByName;
+        private final Serialized topicsJson;
+        private final Serialized patternsJson;
+        private final Serialized themesJson;
+
+        private Snapshot(long version, List<Topic> topics, List<Pattern> patterns, List<Theme> themes,
+                         ObjectMapper objectMapper) {
+            this.version = version;
+            this.topics = topics.stream().map(TopicDto::from).toList();
+            this.patterns = patterns.stream().map(PatternDto::from).toList();
+            this.themes = themes.stream().map(ThemeDto::from)
+                    .sorted(Comparator.comparing(ThemeDto::id)).toList();
+
+            Map<Long, TopicDto> topicsById = new HashMap<>();
+            Map<String, TopicDto> topicsByName = new HashMap<>();
+            for (TopicDto topic : this.topics) {
+                topicsById.put(topic.id(), topic);
+                topicsByName.put(topic.name(), topic);
+            }
+            Map<Long, PatternDto> patternsById = new HashMap<>();
+            Map<String, PatternDto> patternsByName = new HashMap<>();
+            Map<Long, List<PatternDto>> patternsByTopic = new HashMap<>();
+            for (PatternDto pattern : this.patterns) {
+                patternsById.put(pattern.id(), pattern);
+                patternsByName.put(pattern.name(), pattern);
+                if (pattern.topicId() != null) {
+                    patternsByTopic.computeIfAbsent(pattern.topicId(), id -> new ArrayList<>()).add(pattern);
+                }
+            }
+            Map<Long, ThemeDto> themesById = new HashMap<>();
+            Map<String, ThemeDto> themesByName = new HashMap<>();
+            for (ThemeDto theme : this.themes) {
+                themesById.put(theme.id(), theme);
+                themesByName.put(theme.name(), theme);
+            }
+            Map<Long, Integer> topicMaskBits = new HashMap<>();
+            topics.stream().filter(t -> t.getMaskBit() != null).forEach(t -> topicMaskBits.put(t.getId(), t.getMaskBit()));
+            Map<Long, Integer> patternMaskBits = new HashMap<>();
+            patterns.stream().filter(p -> p.getMaskBit() != null).forEach(p -> patternMaskBits.put(p.getId(), p.getMaskBit()));
+
+            this.topicsById = Map.copyOf(topicsById);
+            this.topicsByName = Map.copyOf(topicsByName);
+            this.topicMaskBits = Map.copyOf(topicMaskBits);
+            this.patternsById = Map.copyOf(patternsById);
+            this.patternsByName = Map.copyOf(patternsByName);
+            this.patternMaskBits = Map.copyOf(patternMaskBits);
+            this.patternsByTopic = patternsByTopic.entrySet().stream()
+                    .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, e -> List.copyOf(e.getValue())));
+            this.themesById = Map.copyOf(themesById);
+            this.themesByName = Map.copyOf(themesByName);
+            this.topicsJson = serialize(objectMapper, this.topics);
+            this.patternsJson = serialize(objectMapper, this.patterns);
+            this.themesJson = serialize(objectMapper, this.themes);
+        }
+
+        /** Builds a snapshot from loaded entities; {@code patterns} must have their topics initialized. */
+        public static Snapshot of(long version, List<Topic> topics, List<Pattern> patterns, List<Theme> themes,
+                                  ObjectMapper objectMapper) {
+            return new Snapshot(version, topics, patterns, themes, objectMapper);
+        }
+
+        public long version() {
+            return version;
+        }
+
+        public List<TopicDto> topics() {
+            return topics;
+        }
+
+        public TopicDto topic(long id) {
+            return findTopic(id).orElseThrow(() -> new ResourceNotFoundException("Topic not found: " + id));
+        }
+
+        public Optional<TopicDto> findTopic(long id) {
+            return Optional.ofNullable(topicsById.get(id));
+        }
+
+        public Optional<TopicDto> findTopicByName(String name) {
+            return Optional.ofNullable(topicsByName.get(name));
+        }
+
+        /** The topic's mask bit, or null when it has none or is unknown. */
+        public Integer topicMaskBit(long id) {
+            return topicMaskBits.get(id);
+        }
+
+        public List<PatternDto> patterns() {
+            return patterns;
+        }
+
+        public PatternDto pattern(long id) {
+            return findPattern(id).orElseThrow(() -> new ResourceNotFoundException("Pattern not found: " + id));
+        }
+
+        public Optional<PatternDto> findPattern(long id) {
+            return Optional.ofNullable(patternsById.get(id));
+        }
+
+        public Optional<PatternDto> findPatternByName(String name) {
+            return Optional.ofNullable(patternsByName.get(name));
+        }
+
+        /** The pattern's mask bit, or null when it has none or is unknown. */
+        public Integer patternMaskBit(long id) {
+            return patternMaskBits.get(id);
+        }
+
+        /** Patterns under the topic, by name. */
+        public List<PatternDto> patternsByTopic(long topicId) {
+            topic(topicId);
+            return patternsByTopic.getOrDefault(topicId, List.of());
+        }
+
+        public List<ThemeDto> themes() {
+            return themes;
+        }
+
+        public ThemeDto theme(long id) {
+            return findTheme(id).orElseThrow(() -> new ResourceNotFoundException("Theme not found: " + id));
+        }
+
+        public Optional<ThemeDto> findTheme(long id) {
+            return Optional.ofNullable(themesById.get(id));
+        }
+
+        public Optional<ThemeDto> findThemeByName(String name) {
+            return Optional.ofNullable(themesByName.get(name));
+        }
+
+        public Serialized topicsJson() {
+            return topicsJson;
+        }
+
+        public Serialized patternsJson() {
+            return patternsJson;
+        }
+
+        public Serialized themesJson() {
+            return themesJson;
+        }
+
+        boolean sameContentAs(Snapshot other) {
+            return topicsJson.etag().equals(other.topicsJson.etag())
+                    && patternsJson.etag().equals(other.patternsJson.etag())
+                    && themesJson.etag().equals(other.themesJson.etag())
+                    && topicMaskBits.equals(other.topicMaskBits)
+                    && patternMaskBits.equals(other.patternMaskBits);
+        }
+    }
+
+    /** The current snapshot, loading it on first use. */
+    public Snapshot current() {
+        Snapshot snapshot = current;
+        if (snapshot == null) {
+            synchronized (this) {
+                if (current == null) {
+                    current = load(1);
+                    log.info("Loaded reference data snapshot v1");
+                }
+                snapshot = current;
+            }
+        }
+        return snapshot;
+    }
+
+    /** Reloads the snapshot, keeping the current one, version included, if nothing changed. */
+    public synchronized void refresh() {
+        Snapshot previous = current;
+        Snapshot loaded = load(previous == null ? 1 : previous.version() + 1);
+        if (previous != null && loaded.sameContentAs(previous)) {
+            return;
+        }
+        current = loaded;
+        log.info("Loaded reference data snapshot v{}", loaded.version());
+    }
+
+    /** Reloads the snapshot once the current transaction commits, e.g. after an edit. */
+    public void refreshAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refresh();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                refresh();
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.reference-data.refresh-interval:PT5M}",
+            initialDelayString = "${app.reference-data.refresh-interval:PT5M}")
+    public void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.error("Reference data refresh failed; keeping snapshot v{}",
+                    current == null ? 0 : current.version(), e);
+        }
+    }
+
+    private Snapshot load(long version) {
+        return Objects.requireNonNull(readOnlyTransaction.execute(status -> Snapshot.of(version,
+                topicRepository.findAllByOrderByNameAsc(),
+                patternRepository.findAllByOrderByNameAsc(),
+                themeRepository.findAll(),
+                objectMapper)));
+    }
+
+    private static Serialized serialize(ObjectMapper objectMapper, List<?> values) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(values);
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return new Serialized(body, "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"");
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize reference data", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is unavailable", e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.atinroy.leetly.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+
+/**
+ * Which database the app is running against, for the few paths with a Postgres-only
+ * fast path (native search, set-based catalog sync) and a portable fallback used on
+ * H2 in tests. Detected once, on first use.
+ */
+@Slf4j
+@Component
+public class DatabasePlatform {
+
+    private final DataSource dataSource;
+    private volatile Boolean postgres;
+
+    public DatabasePlatform(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    public boolean isPostgres() {
+        Boolean resolved = postgres;
+        if (resolved == null) {
+            resolved = detect();
+            postgres = resolved;
+        }
+        return resolved;
+    }
+
+    private boolean detect() {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            log.info("Running against {}", product);
+            return "PostgreSQL".equals(product);
+        } catch (MetaDataAccessException e) {
+            log.warn("Could not detect the database; using portable fallbacks", e);
+            return false;
+        }
+    }
+}
@@ -1,32 +1,34 @@
 package com.atinroy.leetly.problem.controller;
 
+import com.atinroy.leetly.common.service.ReferenceDataCache;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import com.atinroy.leetly.problem.dto.PatternDto;
-import com.atinroy.leetly.problem.mapper.PatternMapper;
-import com.atinroy.leetly.problem.model.Pattern;
-import com.atinroy.leetly.problem.service.PatternService;
 
 @RestController
 @RequestMapping("/api/patterns")
 @RequiredArgsConstructor
 public class PatternController {
 
-    private final PatternService patternService;
-    private final PatternMapper patternMapper;
+    private final ReferenceDataCache referenceDataCache;
 
+    /** The serialized pattern list from the reference-data snapshot, or 304 when the ETag matches. */
     @GetMapping
-    public List<PatternDto> findAll(@RequestParam(required = false) Long topicId) {
-        List<Pattern> patterns = topicId != null
-                ? patternService.findByTopic(topicId)
-                : patternService.findAll();
-        return patterns.stream().map(patternMapper::toDto).toList();
+    public ResponseEntity<byte[]> findAll(WebRequest request) {
+        return referenceDataCache.current().patternsJson().toResponse(request);
+    }
+
+    @GetMapping(params = "topicId")
+    public List<PatternDto> findByTopic(@RequestParam long topicId) {
+        return referenceDataCache.current().patternsByTopic(topicId);
     }
 
     @GetMapping("/{id}")
     public PatternDto findById(@PathVariable long id) {
-        return patternMapper.toDto(patternService.findById(id));
+        return referenceDataCache.current().pattern(id);
     }
 }
@@ -1,6 +1,8 @@
 package com.atinroy.leetly.problem.controller;
 
+import com.atinroy.leetly.common.model.CursorPage;
 import com.atinroy.leetly.common.model.PagedResponse;
+import com.atinroy.leetly.problem.model.MembershipMatch;
 import com.atinroy.leetly.review.model.ReviewCard;
 import com.atinroy.leetly.review.repository.ReviewCardRepository;
 import com.atinroy.leetly.user.model.User;
@@ -10,6 +12,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.data.web.SortDefault;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
@@ -24,6 +27,8 @@ import com.atinroy.leetly.problem.dto.UpdateStatusRequest;
 import com.atinroy.leetly.problem.mapper.ProblemMapper;
 import com.atinroy.leetly.problem.service.ProblemService;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/problems")
 @RequiredArgsConstructor
@@ -40,11 +45,40 @@ public class ProblemController {
             @PageableDefault(size = 20, sort = {"createdDate", "id"}, direction = Sort.Direction.DESC) Pageable pageable,
             @RequestParam(required = false) String difficulty,
             @RequestParam(required = false) String status,
-            @RequestParam(required = false) Long topicId,
-            @RequestParam(required = false) Long patternId,
+            @RequestParam(required = false) List<Long> topicId,
+            @RequestParam(defaultValue = "ANY") MembershipMatch topicMatch,
+            @RequestParam(required = false) List<Long> patternId,
+            @RequestParam(defaultValue = "ANY") MembershipMatch patternMatch,
+            @RequestParam(required = false) String search) {
+        User user = userService.getOrCreate(jwt.getSubject());
+        return PagedResponse.of(problemService.findAll(user, pageable, difficulty, status, topicId, topicMatch, patternId, patternMatch, search));
+    }
+
+    @GetMapping("/scroll")
+    public CursorPage<ProblemSummaryDto> scroll(
+            @AuthenticationPrincipal Jwt jwt,
+            @SortDefault(sort = {"createdDate", "id"}, direction = Sort.Direction.DESC) Sort sort,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            @RequestParam(required = false) String difficulty,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) List<Long> topicId,
+            @RequestParam(defaultValue = "ANY") MembershipMatch topicMatch,
+            @RequestParam(required = false) List<Long> patternId,
+            @RequestParam(defaultValue = "ANY") MembershipMatch patternMatch,
             @RequestParam(required = false) String search) {
         User user = userService.getOrCreate(jwt.getSubject());
-        return PagedResponse.of(problemService.findAll(user, pageable, difficulty, status, topicId, patternId, search));
+        return problemService.scroll(user, sort, size, cursor, includeTotal, difficulty, status, topicId, topicMatch, patternId, patternMatch, search);
+    }
+
+    @GetMapping("/search")
+    public List<ProblemSummaryDto> search(
+            @AuthenticationPrincipal Jwt jwt,
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        User user = userService.getOrCreate(jwt.getSubject());
+        return problemService.search(user, q, limit);
     }
 
     @GetMapping("/{id}")
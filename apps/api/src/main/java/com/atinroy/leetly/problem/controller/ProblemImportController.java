@@ -0,0 +1,70 @@
+package com.atinroy.leetly.problem.controller;
+
+import com.atinroy.leetly.problem.dto.ProblemImportProgress;
+import com.atinroy.leetly.problem.service.ProblemImportService;
+import com.atinroy.leetly.user.model.User;
+import com.atinroy.leetly.user.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Bulk import of a user's problems. The body is read as it arrives and the response is
+ * newline-delimited JSON: one {@link ProblemImportProgress} per committed batch, then a
+ * last one with {@code done} set.
+ */
+@RestController
+@RequestMapping("/api/problems/import")
+@RequiredArgsConstructor
+public class ProblemImportController {
+
+    static final String NDJSON = "application/x-ndjson";
+
+    private final UserService userService;
+    private final ProblemImportService problemImportService;
+    private final ObjectMapper objectMapper;
+
+    @PostMapping(consumes = {MediaType.APPLICATION_JSON_VALUE, NDJSON}, produces = NDJSON)
+    public void importJson(@AuthenticationPrincipal Jwt jwt, InputStream body, HttpServletResponse response)
+            throws IOException {
+        User user = userService.getOrCreate(jwt.getSubject());
+        Consumer<ProblemImportProgress> progress = progressWriter(response);
+        progress.accept(problemImportService.importJson(user, body, progress));
+    }
+
+    @PostMapping(consumes = "text/csv", produces = NDJSON)
+    public void importCsv(@AuthenticationPrincipal Jwt jwt, InputStream body, HttpServletResponse response)
+            throws IOException {
+        User user = userService.getOrCreate(jwt.getSubject());
+        Consumer<ProblemImportProgress> progress = progressWriter(response);
+        progress.accept(problemImportService.importCsv(user, body, progress));
+    }
+
+    // Writes each event as one line and flushes it, so the client sees batches as they commit.
+    // The content type is set with the first event, leaving earlier errors to the usual handler.
+    private Consumer<ProblemImportProgress> progressWriter(HttpServletResponse response) {
+        return event -> {
+            try {
+                if (!response.isCommitted()) {
+                    response.setContentType(NDJSON);
+                }
+                OutputStream out = response.getOutputStream();
+                out.write(objectMapper.writeValueAsBytes(event));
+                out.write('\n');
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+}
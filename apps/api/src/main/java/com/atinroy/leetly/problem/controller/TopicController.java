@@ -1,28 +1,28 @@
 package com.atinroy.leetly.problem.controller;
 
+import com.atinroy.leetly.common.service.ReferenceDataCache;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.List;
 import com.atinroy.leetly.problem.dto.TopicDto;
-import com.atinroy.leetly.problem.mapper.TopicMapper;
-import com.atinroy.leetly.problem.service.TopicService;
 
 @RestController
 @RequestMapping("/api/topics")
 @RequiredArgsConstructor
 public class TopicController {
 
-    private final TopicService topicService;
-    private final TopicMapper topicMapper;
+    private final ReferenceDataCache referenceDataCache;
 
+    /** The serialized topic list from the reference-data snapshot, or 304 when the ETag matches. */
     @GetMapping
-    public List<TopicDto> findAll() {
-        return topicService.findAll().stream().map(topicMapper::toDto).toList();
+    public ResponseEntity<byte[]> findAll(WebRequest request) {
+        return referenceDataCache.current().topicsJson().toResponse(request);
     }
 
     @GetMapping("/{id}")
     public TopicDto findById(@PathVariable long id) {
-        return topicMapper.toDto(topicService.findById(id));
+        return referenceDataCache.current().topic(id);
     }
 }
@@ -0,0 +1,18 @@
+package com.atinroy.leetly.problem.dto;
+
+import java.util.List;
+
+/**
+ * One problem in a bulk import, as read from JSON or CSV. Difficulty is matched
+ * case-insensitively; topics and patterns are catalog names, and names the catalog does
+ * not know are ignored. Imported problems start UNSEEN like created ones, so there is
+ * no status: it follows from the attempts logged afterwards.
+ */
+public record ImportProblemRow(
+        Long leetcodeId,
+        String title,
+        String url,
+        String difficulty,
+        List<String> topics,
+        List<String> patterns
+) {}
@@ -0,0 +1,7 @@
+package com.atinroy.leetly.problem.dto;
+
+/** A rejected import row, numbered from 1 in the order rows were read. */
+public record ProblemImportError(
+        long row,
+        String message
+) {}
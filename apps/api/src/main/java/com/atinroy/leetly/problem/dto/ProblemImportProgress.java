@@ -0,0 +1,18 @@
+package com.atinroy.leetly.problem.dto;
+
+import java.util.List;
+
+/**
+ * Running totals of a bulk import, sent after each committed batch and once more with
+ * {@code done} set. {@code errors} holds the rows rejected since the previous event;
+ * {@code failure} says why the input could not be read to the end, if it could not.
+ */
+public record ProblemImportProgress(
+        long processed,
+        long imported,
+        long duplicates,
+        long rejected,
+        List<ProblemImportError> errors,
+        boolean done,
+        String failure
+) {}
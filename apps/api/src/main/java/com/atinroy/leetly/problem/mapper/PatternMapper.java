@@ -1,14 +1,31 @@
 package com.atinroy.leetly.problem.mapper;
 
+import com.atinroy.leetly.common.service.ReferenceDataCache;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import org.mapstruct.Named;
+import org.springframework.beans.factory.annotation.Autowired;
 import com.atinroy.leetly.problem.dto.PatternDto;
+import com.atinroy.leetly.problem.dto.TopicDto;
 import com.atinroy.leetly.problem.model.Pattern;
+import com.atinroy.leetly.problem.model.Topic;
 
 @Mapper(componentModel = "spring")
-public interface PatternMapper {
+public abstract class PatternMapper {
+
+    @Autowired
+    protected ReferenceDataCache referenceDataCache;
 
     @Mapping(target = "topicId", source = "topic.id")
-    @Mapping(target = "topicName", source = "topic.name")
-    PatternDto toDto(Pattern pattern);
+    @Mapping(target = "topicName", source = "topic", qualifiedByName = "topicName")
+    public abstract PatternDto toDto(Pattern pattern);
+
+    // From the snapshot, so mapping a problem's patterns does not load each pattern's topic.
+    @Named("topicName")
+    protected String topicName(Topic topic) {
+        if (topic == null) {
+            return null;
+        }
+        return referenceDataCache.current().findTopic(topic.getId()).map(TopicDto::name).orElse(null);
+    }
 }
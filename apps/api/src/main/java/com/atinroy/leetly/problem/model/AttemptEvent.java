@@ -0,0 +1,95 @@
+package com.atinroy.leetly.problem.model;
+
+import com.atinroy.leetly.common.model.BaseEntity;
+import com.atinroy.leetly.user.model.User;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outbox row written in the same transaction as a logged attempt. It carries
+ * everything the stats projection needs, so the worker that drains it never has
+ * to reload the attempt to compute counter deltas. An event whose application keeps
+ * failing is dead-lettered rather than deleted.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "attempt_events",
+        indexes = {
+                @Index(name = "idx_attempt_events_user", columnList = "user_id, id")
+        })
+public class AttemptEvent extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(nullable = false)
+    private Long problemId;
+
+    @Column(nullable = false)
+    private Long attemptId;
+
+    @Column(nullable = false)
+    private int attemptNumber;
+
+    @Column(nullable = false)
+    private LocalDate attemptDate;
+
+    @Enumerated(EnumType.STRING)
+    private Difficulty difficulty;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ProblemStatus previousStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ProblemStatus newStatus;
+
+    @Column(nullable = false)
+    private int durationMinutes;
+
+    // Bit i set when the attempt recorded Mistake.values()[i].
+    @Column(nullable = false)
+    private int mistakeMask;
+
+    @Column(nullable = false)
+    private boolean firstSolve;
+
+    @Column(nullable = false)
+    private int failedAttempts;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    // Not claimed again before this time after a failure.
+    private LocalDateTime retryAt;
+
+    // Set once failedAttempts reaches the limit; the worker stops claiming the event.
+    private LocalDateTime deadLetteredAt;
+
+    public void setMistakes(List<Mistake> mistakes) {
+        int mask = 0;
+        for (Mistake mistake : mistakes) {
+            mask |= 1 << mistake.ordinal();
+        }
+        mistakeMask = mask;
+    }
+
+    public List<Mistake> getMistakes() {
+        List<Mistake> mistakes = new ArrayList<>();
+        for (Mistake mistake : Mistake.values()) {
+            if ((mistakeMask & (1 << mistake.ordinal())) != 0) {
+                mistakes.add(mistake);
+            }
+        }
+        return mistakes;
+    }
+}
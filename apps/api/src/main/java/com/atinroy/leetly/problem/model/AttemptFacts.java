@@ -0,0 +1,16 @@
+package com.atinroy.leetly.problem.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * The columns of an attempt that stats rebuilds need, read as a scalar projection so
+ * a user's history can be streamed without loading or managing Attempt entities.
+ */
+public record AttemptFacts(
+        Long problemId,
+        LocalDateTime createdDate,
+        int attemptNumber,
+        Outcome outcome,
+        Integer durationMinutes
+) {
+}
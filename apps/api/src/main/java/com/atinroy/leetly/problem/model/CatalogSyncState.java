@@ -0,0 +1,25 @@
+package com.atinroy.leetly.problem.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/** Checksum of the last canonical catalog applied to topics and patterns, keyed by catalog. */
+@Getter
+@Setter
+@Entity
+@Table(name = "catalog_sync_state")
+public class CatalogSyncState {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(nullable = false, length = 64)
+    private String checksum;
+
+    @Column(name = "synced_at", nullable = false)
+    private LocalDateTime syncedAt;
+}
@@ -0,0 +1,7 @@
+package com.atinroy.leetly.problem.model;
+
+/** How a filter on several topics or patterns combines them. */
+public enum MembershipMatch {
+    ANY,
+    ALL
+}
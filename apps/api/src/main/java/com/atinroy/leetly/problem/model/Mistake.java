@@ -1,5 +1,9 @@
 package com.atinroy.leetly.problem.model;
 
+/**
+ * Ordinals are persisted (user_stats.mistake_counts, attempt_events.mistake_mask):
+ * add new values at the end and never reorder or remove existing ones.
+ */
 public enum Mistake {
     WRONG_PATTERN,
     OFF_BY_ONE,
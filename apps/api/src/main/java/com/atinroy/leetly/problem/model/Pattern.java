@@ -17,6 +17,10 @@ public class Pattern extends BaseEntity {
     @Column(length = 1000)
     private String description;
 
+    // This pattern's bit in problems.pattern_mask; null once all 64 are taken.
+    @Column(name = "mask_bit", unique = true)
+    private Integer maskBit;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "topic_id")
     private Topic topic;
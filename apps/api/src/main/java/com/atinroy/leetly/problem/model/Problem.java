@@ -15,7 +15,10 @@ import java.util.List;
 @Getter
 @Setter
 @Entity
-@Table(name = "problems")
+@Table(name = "problems",
+        indexes = {
+                @Index(name = "idx_problem_user_first_solved", columnList = "user_id, first_solved_at")
+        })
 public class Problem extends BaseEntity {
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
@@ -42,6 +45,22 @@ public class Problem extends BaseEntity {
     @Column(name = "last_attempted_at")
     private LocalDateTime lastAttemptedAt;
 
+    // First and most recent accepted attempt; kept in step with attempt writes so
+    // solve-date lookups never have to scan attempt history.
+    @Column(name = "first_solved_at")
+    private LocalDateTime firstSolvedAt;
+
+    @Column(name = "solved_at")
+    private LocalDateTime solvedAt;
+
+    // Bitmasks of the problem's topics and patterns by their mask bits, kept in step
+    // with the join tables so membership filters need no join.
+    @Column(name = "topic_mask", nullable = false)
+    private long topicMask;
+
+    @Column(name = "pattern_mask", nullable = false)
+    private long patternMask;
+
     @Column(name = "ai_review", columnDefinition = "TEXT")
     private String aiReview;
 
@@ -20,6 +20,10 @@ public class Topic extends BaseEntity {
     @Column(length = 1000)
     private String description;
 
+    // This topic's bit in problems.topic_mask; null once all 64 are taken.
+    @Column(name = "mask_bit", unique = true)
+    private Integer maskBit;
+
     @OneToMany(mappedBy = "topic", fetch = FetchType.LAZY)
     private List<Pattern> patterns = new ArrayList<>();
 }
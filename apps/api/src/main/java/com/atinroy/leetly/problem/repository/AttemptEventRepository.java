@@ -0,0 +1,54 @@
+package com.atinroy.leetly.problem.repository;
+
+import com.atinroy.leetly.problem.model.AttemptEvent;
+import com.atinroy.leetly.user.model.User;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AttemptEventRepository extends JpaRepository<AttemptEvent, Long> {
+
+    // Users with pending events, the one waiting longest first. A user with an event
+    // waiting out a retry delay is held back whole, so later events can't overtake it.
+    @Query("""
+            SELECT e.user.id FROM AttemptEvent e
+            WHERE e.deadLetteredAt IS NULL
+            GROUP BY e.user.id
+            HAVING MAX(e.retryAt) IS NULL OR MAX(e.retryAt) <= :now
+            ORDER BY MIN(e.id)
+            """)
+    List<Long> findUserIdsWithPendingEvents(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Lock timeout -2 is SKIP LOCKED, so several workers can drain disjoint batches.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM AttemptEvent e WHERE e.user.id = :userId AND e.deadLetteredAt IS NULL ORDER BY e.id")
+    List<AttemptEvent> findPendingByUserForUpdate(@Param("userId") long userId, Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM AttemptEvent e WHERE e.user = :user AND e.deadLetteredAt IS NULL ORDER BY e.id")
+    List<AttemptEvent> findByUserForUpdate(@Param("user") User user);
+
+    @Query("SELECT MAX(e.id) FROM AttemptEvent e WHERE e.user = :user")
+    Optional<Long> findMaxIdByUser(@Param("user") User user);
+
+    @Query("SELECT COUNT(e) FROM AttemptEvent e WHERE e.deadLetteredAt IS NULL")
+    long countPending();
+
+    @Query("SELECT COUNT(e) FROM AttemptEvent e WHERE e.deadLetteredAt IS NOT NULL")
+    long countDeadLettered();
+
+    @Query("SELECT MIN(e.createdDate) FROM AttemptEvent e WHERE e.deadLetteredAt IS NULL")
+    Optional<LocalDateTime> findOldestCreatedDate();
+}
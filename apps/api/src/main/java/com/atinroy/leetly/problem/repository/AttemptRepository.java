@@ -2,14 +2,18 @@ package com.atinroy.leetly.problem.repository;
 
 import com.atinroy.leetly.user.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 import com.atinroy.leetly.problem.model.Attempt;
+import com.atinroy.leetly.problem.model.AttemptFacts;
 import com.atinroy.leetly.problem.model.Outcome;
 import com.atinroy.leetly.problem.model.Problem;
 
@@ -18,6 +22,19 @@ public interface AttemptRepository extends JpaRepository<Attempt, Long> {
 
     List<Attempt> findByUserOrderByCreatedDateAsc(User user);
 
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query("""
+            SELECT new com.atinroy.leetly.problem.model.AttemptFacts(
+                a.problem.id, a.createdDate, a.attemptNumber, a.outcome, a.durationMinutes)
+            FROM Attempt a
+            WHERE a.user = :user
+            ORDER BY a.createdDate, a.id
+            """)
+    Stream<AttemptFacts> streamFactsByUser(@Param("user") User user);
+
+    @Query("SELECT m, COUNT(a) FROM Attempt a JOIN a.mistakes m WHERE a.user = :user GROUP BY m")
+    List<Object[]> countMistakesByUser(@Param("user") User user);
+
     List<Attempt> findByProblemAndUser(Problem problem, User user);
 
     Optional<Attempt> findByIdAndProblemIdAndUser(Long id, Long problemId, User user);
@@ -29,6 +46,12 @@ public interface AttemptRepository extends JpaRepository<Attempt, Long> {
     @Query("SELECT MAX(a.createdDate) FROM Attempt a WHERE a.problem = :problem AND a.user = :user")
     Optional<LocalDateTime> findMaxCreatedDateByProblemAndUser(@Param("problem") Problem problem, @Param("user") User user);
 
+    @Query("SELECT MIN(a.createdDate) FROM Attempt a WHERE a.problem = :problem AND a.user = :user AND a.outcome = com.atinroy.leetly.problem.model.Outcome.ACCEPTED")
+    Optional<LocalDateTime> findFirstAcceptedDateByProblemAndUser(@Param("problem") Problem problem, @Param("user") User user);
+
+    @Query("SELECT MAX(a.createdDate) FROM Attempt a WHERE a.problem = :problem AND a.user = :user AND a.outcome = com.atinroy.leetly.problem.model.Outcome.ACCEPTED")
+    Optional<LocalDateTime> findLastAcceptedDateByProblemAndUser(@Param("problem") Problem problem, @Param("user") User user);
+
     @Query("SELECT a.problem.id, COUNT(a) FROM Attempt a WHERE a.problem.id IN :ids AND a.user = :user GROUP BY a.problem.id")
     List<Object[]> countByProblemIdsAndUser(@Param("ids") List<Long> ids, @Param("user") User user);
 }
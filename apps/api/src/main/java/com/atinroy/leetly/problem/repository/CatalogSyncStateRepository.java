@@ -0,0 +1,20 @@
+package com.atinroy.leetly.problem.repository;
+
+import com.atinroy.leetly.problem.model.CatalogSyncState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface CatalogSyncStateRepository extends JpaRepository<CatalogSyncState, String> {
+
+    @Query("SELECT s.checksum FROM CatalogSyncState s WHERE s.name = :name")
+    Optional<String> findChecksum(@Param("name") String name);
+
+    // Blocks until this transaction holds the advisory lock `key`; released on commit or rollback.
+    @Query(nativeQuery = true, value = "SELECT 1 FROM (SELECT pg_advisory_xact_lock(:key)) AS locked")
+    int lockForTransaction(@Param("key") long key);
+}
@@ -2,10 +2,14 @@ package com.atinroy.leetly.problem.repository;
 
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import com.atinroy.leetly.problem.model.Pattern;
 import com.atinroy.leetly.problem.model.Topic;
 
@@ -23,4 +27,62 @@ public interface PatternRepository extends JpaRepository<Pattern, Long> {
     List<Pattern> findByTopicOrderByNameAsc(Topic topic);
 
     Optional<Pattern> findByName(String name);
+
+    @Query("SELECT p.maskBit FROM Pattern p WHERE p.maskBit IS NOT NULL")
+    Set<Integer> findUsedMaskBits();
+
+    // The set-based catalog sync below takes the catalog as a JSON array of
+    // {name, description, topicName, namedAlgorithm}.
+
+    /** Inserts catalog patterns that are missing and updates changed ones, resolving topics by name. */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            INSERT INTO patterns (name, description, topic_id, named_algorithm, created_date, last_modified_date)
+            SELECT s.name, s.description, t.id, s."namedAlgorithm", LOCALTIMESTAMP, LOCALTIMESTAMP
+            FROM jsonb_to_recordset(CAST(:catalog AS jsonb))
+                AS s(name text, description text, "topicName" text, "namedAlgorithm" boolean)
+            LEFT JOIN topics t ON t.name = s."topicName"
+            ON CONFLICT (name) DO UPDATE
+            SET description = EXCLUDED.description,
+                topic_id = EXCLUDED.topic_id,
+                named_algorithm = EXCLUDED.named_algorithm,
+                last_modified_date = LOCALTIMESTAMP
+            WHERE (patterns.description, patterns.topic_id, patterns.named_algorithm)
+                IS DISTINCT FROM (EXCLUDED.description, EXCLUDED.topic_id, EXCLUDED.named_algorithm)
+            """)
+    void upsertCatalog(@Param("catalog") String catalogJson);
+
+    /** Deletes patterns not in the catalog, clearing their bits from problem masks. */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            WITH removed AS (
+                DELETE FROM patterns
+                WHERE name NOT IN (SELECT s.name FROM jsonb_to_recordset(CAST(:catalog AS jsonb)) AS s(name text))
+                RETURNING mask_bit
+            ), cleared AS (
+                SELECT COALESCE(bit_or(CAST(1 AS BIGINT) << mask_bit), 0) AS mask FROM removed
+            )
+            UPDATE problems
+            SET pattern_mask = pattern_mask & ~(SELECT mask FROM cleared)
+            WHERE pattern_mask & (SELECT mask FROM cleared) <> 0
+            """)
+    void pruneCatalog(@Param("catalog") String catalogJson);
+
+    /** Gives patterns without a mask bit the lowest free bits, in name order. */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            WITH free AS (
+                SELECT b AS mask_bit, row_number() OVER (ORDER BY b) AS rn
+                FROM generate_series(0, 63) AS b
+                WHERE b NOT IN (SELECT mask_bit FROM patterns WHERE mask_bit IS NOT NULL)
+            ), pending AS (
+                SELECT id, row_number() OVER (ORDER BY name) AS rn FROM patterns WHERE mask_bit IS NULL
+            )
+            UPDATE patterns p
+            SET mask_bit = free.mask_bit
+            FROM pending
+            JOIN free ON free.rn = pending.rn
+            WHERE p.id = pending.id
+            """)
+    void assignMissingMaskBits();
 }
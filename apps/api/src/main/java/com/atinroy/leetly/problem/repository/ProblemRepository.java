@@ -4,11 +4,13 @@ import com.atinroy.leetly.user.model.User;
 import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import com.atinroy.leetly.problem.model.Problem;
@@ -21,6 +23,56 @@ public interface ProblemRepository extends JpaRepository<Problem, Long>, JpaSpec
     @Query("SELECT DISTINCT p FROM Problem p WHERE p.user = :user")
     List<Problem> findAllByUser(@Param("user") User user);
 
+    @Query("SELECT COUNT(p) FROM Problem p JOIN p.topics t WHERE p.user = :user AND t.id = :topicId AND p.id <> :problemId")
+    long countOtherWithTopic(@Param("user") User user, @Param("topicId") long topicId, @Param("problemId") long problemId);
+
+    @Query("SELECT COUNT(p) FROM Problem p JOIN p.patterns pt WHERE p.user = :user AND pt.id = :patternId AND p.id <> :problemId")
+    long countOtherWithPattern(@Param("user") User user, @Param("patternId") long patternId, @Param("problemId") long problemId);
+
+    /** Rows are (pattern id, number of the user's problems tagged with it). */
+    @Query("SELECT pt.id, COUNT(p) FROM Problem p JOIN p.patterns pt WHERE p.user = :user GROUP BY pt.id")
+    List<Object[]> countByPatternForUser(@Param("user") User user);
+
+    /**
+     * Ids of the user's problems matching a search, best first: an exact LeetCode id,
+     * then titles starting with {@code term}, then by trigram word similarity. A problem
+     * matches on its id, on every word of {@code prefixQuery} prefixing a title word, or
+     * on a title close enough to {@code term} to absorb typos. Postgres only; see
+     * ProblemSearchService for the fallback.
+     */
+    @Query(nativeQuery = true, value = """
+            SELECT p.id
+            FROM problems p
+            WHERE p.user_id = :userId
+              AND (CAST(p.leetcode_id AS TEXT) = :term
+                   OR p.search_vector @@ to_tsquery('simple', :prefixQuery)
+                   OR :term <% lower(p.title))
+            ORDER BY CAST(p.leetcode_id AS TEXT) = :term DESC,
+                     lower(p.title) LIKE :term || '%' DESC,
+                     word_similarity(:term, lower(p.title)) DESC,
+                     p.id DESC
+            LIMIT :limit
+            """)
+    List<Long> searchRanked(@Param("userId") long userId, @Param("term") String term,
+                            @Param("prefixQuery") String prefixQuery, @Param("limit") int limit);
+
+    /** Rows of [Long id, Long leetcodeId, String title] for the in-process search index. */
+    @Query("SELECT p.id, p.leetcodeId, p.title FROM Problem p WHERE p.user = :user")
+    List<Object[]> findSearchRowsByUser(@Param("user") User user);
+
+    /** Clears {@code bit} from every problem's topic mask, before its topic is deleted and the bit reused. */
+    @Modifying
+    @Query("UPDATE Problem p SET p.topicMask = bitand(p.topicMask, :keep) WHERE bitand(p.topicMask, :bit) <> 0")
+    int clearTopicMaskBit(@Param("bit") long bit, @Param("keep") long keep);
+
+    /** Clears {@code bit} from every problem's pattern mask, before its pattern is deleted and the bit reused. */
+    @Modifying
+    @Query("UPDATE Problem p SET p.patternMask = bitand(p.patternMask, :keep) WHERE bitand(p.patternMask, :bit) <> 0")
+    int clearPatternMaskBit(@Param("bit") long bit, @Param("keep") long keep);
+
+    @Query("SELECT MIN(p.firstSolvedAt) FROM Problem p WHERE p.user = :user")
+    Optional<LocalDateTime> findFirstSolvedAt(@Param("user") User user);
+
     /**
      * Acquires a pessimistic write lock on the problem row before the caller
      * counts and inserts an attempt. This serialises concurrent attempt creation
@@ -2,6 +2,9 @@ package com.atinroy.leetly.problem.repository;
 
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import com.atinroy.leetly.problem.model.Topic;
 
@@ -9,4 +12,55 @@ import com.atinroy.leetly.problem.model.Topic;
 public interface TopicRepository extends JpaRepository<Topic, Long> {
     java.util.List<Topic> findAllByOrderByNameAsc();
     Optional<Topic> findByName(String name);
+
+    @Query("SELECT t.maskBit FROM Topic t WHERE t.maskBit IS NOT NULL")
+    java.util.Set<Integer> findUsedMaskBits();
+
+    // The set-based catalog sync below takes the catalog as a JSON array of {name, description}.
+
+    /** Inserts catalog topics that are missing and updates changed descriptions. */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            INSERT INTO topics (name, description, created_date, last_modified_date)
+            SELECT s.name, s.description, LOCALTIMESTAMP, LOCALTIMESTAMP
+            FROM jsonb_to_recordset(CAST(:catalog AS jsonb)) AS s(name text, description text)
+            ON CONFLICT (name) DO UPDATE
+            SET description = EXCLUDED.description, last_modified_date = LOCALTIMESTAMP
+            WHERE topics.description IS DISTINCT FROM EXCLUDED.description
+            """)
+    void upsertCatalog(@Param("catalog") String catalogJson);
+
+    /** Deletes topics not in the catalog, clearing their bits from problem masks. */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            WITH removed AS (
+                DELETE FROM topics
+                WHERE name NOT IN (SELECT s.name FROM jsonb_to_recordset(CAST(:catalog AS jsonb)) AS s(name text))
+                RETURNING mask_bit
+            ), cleared AS (
+                SELECT COALESCE(bit_or(CAST(1 AS BIGINT) << mask_bit), 0) AS mask FROM removed
+            )
+            UPDATE problems
+            SET topic_mask = topic_mask & ~(SELECT mask FROM cleared)
+            WHERE topic_mask & (SELECT mask FROM cleared) <> 0
+            """)
+    void pruneCatalog(@Param("catalog") String catalogJson);
+
+    /** Gives topics without a mask bit the lowest free bits, in name order. */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            WITH free AS (
+                SELECT b AS mask_bit, row_number() OVER (ORDER BY b) AS rn
+                FROM generate_series(0, 63) AS b
+                WHERE b NOT IN (SELECT mask_bit FROM topics WHERE mask_bit IS NOT NULL)
+            ), pending AS (
+                SELECT id, row_number() OVER (ORDER BY name) AS rn FROM topics WHERE mask_bit IS NULL
+            )
+            UPDATE topics t
+            SET mask_bit = free.mask_bit
+            FROM pending
+            JOIN free ON free.rn = pending.rn
+            WHERE t.id = pending.id
+            """)
+    void assignMissingMaskBits();
 }
@@ -0,0 +1,163 @@
+package com.atinroy.leetly.problem.service;
+
+import com.atinroy.leetly.problem.model.Attempt;
+import com.atinroy.leetly.problem.model.AttemptEvent;
+import com.atinroy.leetly.problem.model.Problem;
+import com.atinroy.leetly.problem.model.ProblemStatus;
+import com.atinroy.leetly.problem.repository.AttemptEventRepository;
+import com.atinroy.leetly.problem.repository.AttemptRepository;
+import com.atinroy.leetly.review.service.ReviewService;
+import com.atinroy.leetly.user.model.User;
+import com.atinroy.leetly.user.service.StatsService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outbox stage between logging an attempt and the work that follows it. Attempts
+ * only record an {@link AttemptEvent}; stats, daily stats and review scheduling are
+ * applied later in batches, coalesced per user.
+ *
+ * Each user's events are applied in their own transaction, so a failure holds back
+ * only that user. A failed user's events are retried one at a time after a doubling
+ * delay. The event that keeps failing is dead-lettered after {@code max-attempts}
+ * tries, and its user's stats are rebuilt from history, which counts the attempt.
+ */
+@Slf4j
+@Service
+@Transactional
+public class AttemptEventService {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final AttemptEventRepository attemptEventRepository;
+    private final AttemptRepository attemptRepository;
+    private final StatsService statsService;
+    private final ReviewService reviewService;
+    private final int maxAttempts;
+
+    public AttemptEventService(AttemptEventRepository attemptEventRepository,
+                               AttemptRepository attemptRepository,
+                               StatsService statsService,
+                               ReviewService reviewService,
+                               @Value("${app.attempt-events.max-attempts:5}") int maxAttempts) {
+        this.attemptEventRepository = attemptEventRepository;
+        this.attemptRepository = attemptRepository;
+        this.statsService = statsService;
+        this.reviewService = reviewService;
+        this.maxAttempts = maxAttempts;
+    }
+
+    public void publish(Attempt attempt, ProblemStatus previousStatus, boolean isFirstSolve) {
+        Problem problem = attempt.getProblem();
+
+        AttemptEvent event = new AttemptEvent();
+        event.setUser(attempt.getUser());
+        event.setProblemId(problem.getId());
+        event.setAttemptId(attempt.getId());
+        event.setAttemptNumber(attempt.getAttemptNumber());
+        event.setAttemptDate(attempt.getCreatedDate() != null ? attempt.getCreatedDate().toLocalDate() : LocalDate.now());
+        event.setDifficulty(problem.getDifficulty());
+        event.setPreviousStatus(previousStatus);
+        event.setNewStatus(problem.getStatus());
+        event.setDurationMinutes(attempt.getDurationMinutes() != null ? attempt.getDurationMinutes() : 0);
+        event.setMistakes(attempt.getMistakes());
+        event.setFirstSolve(isFirstSolve);
+        attemptEventRepository.save(event);
+    }
+
+    /** Users with pending events, longest waiting first. */
+    @Transactional(readOnly = true)
+    public List<Long> findUsersWithPendingEvents(int limit) {
+        return attemptEventRepository.findUserIdsWithPendingEvents(LocalDateTime.now(), PageRequest.of(0, limit));
+    }
+
+    /**
+     * Claims and applies up to {@code batchSize} of one user's pending events, skipping
+     * rows another worker holds. Returns the events processed so the caller can record
+     * lag. A failure rolls back only this user's work; report it with {@link #recordFailure}.
+     */
+    public List<AttemptEvent> processUser(long userId, int batchSize) {
+        List<AttemptEvent> events = claim(userId, batchSize);
+        process(events);
+        return events;
+    }
+
+    /**
+     * Counts a failed {@link #processUser} against the events it claimed and delays
+     * their retry. Events that reach {@code max-attempts} are dead-lettered and the
+     * user's stats marked stale.
+     */
+    public void recordFailure(long userId, int batchSize, RuntimeException failure) {
+        List<AttemptEvent> events = claim(userId, batchSize);
+        if (events.isEmpty()) {
+            return;
+        }
+
+        String error = String.valueOf(failure);
+        error = error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> deadLettered = new ArrayList<>();
+        for (AttemptEvent event : events) {
+            event.setFailedAttempts(event.getFailedAttempts() + 1);
+            event.setLastError(error);
+            event.setRetryAt(now.plusSeconds(1L << Math.min(event.getFailedAttempts(), 10)));
+            if (event.getFailedAttempts() >= maxAttempts) {
+                event.setDeadLetteredAt(now);
+                deadLettered.add(event.getId());
+            }
+        }
+        if (!deadLettered.isEmpty()) {
+            log.error("Dead-lettered attempt events {} for user {} after {} attempts: {}",
+                    deadLettered, userId, maxAttempts, error);
+            // The counters never saw these events; rebuild them from history on next read.
+            statsService.markStale(events.getFirst().getUser());
+        }
+    }
+
+    // Once a batch has failed, its events go one at a time so only the bad one keeps failing.
+    private List<AttemptEvent> claim(long userId, int batchSize) {
+        List<AttemptEvent> events = attemptEventRepository.findPendingByUserForUpdate(userId, PageRequest.of(0, batchSize));
+        if (!events.isEmpty() && events.getFirst().getFailedAttempts() > 0) {
+            return List.of(events.getFirst());
+        }
+        return events;
+    }
+
+    /**
+     * Applies the user's pending events inline. Attempt edits and deletes call this
+     * first so their corrective deltas land after the deltas they correct.
+     */
+    public void drainUser(User user) {
+        process(attemptEventRepository.findByUserForUpdate(user));
+    }
+
+    private void process(List<AttemptEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+
+        User user = events.getFirst().getUser();
+        statsService.applyAttemptEvents(user, events);
+        events.forEach(event -> applyReview(user, event));
+        attemptEventRepository.deleteAllInBatch(events);
+    }
+
+    private void applyReview(User user, AttemptEvent event) {
+        // The attempt is gone if its problem was deleted while the event was queued.
+        attemptRepository.findById(event.getAttemptId()).ifPresent(attempt -> {
+            Problem problem = attempt.getProblem();
+            if (event.isFirstSolve()) {
+                reviewService.autoEnrollOnFirstSolve(problem, user);
+            }
+            reviewService.onAttemptLogged(problem, user, attempt);
+        });
+    }
+}
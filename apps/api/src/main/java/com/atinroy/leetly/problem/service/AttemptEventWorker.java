@@ -0,0 +1,100 @@
+package com.atinroy.leetly.problem.service;
+
+import com.atinroy.leetly.problem.model.AttemptEvent;
+import com.atinroy.leetly.problem.repository.AttemptEventRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the attempt event outbox. Each poll applies the pending users' events, one
+ * user per transaction, until a pass makes no progress, then refreshes the queue
+ * depth and lag gauges. A user whose events fail is reported back to the service and
+ * the pass moves on to the next user.
+ */
+@Slf4j
+@Component
+public class AttemptEventWorker {
+
+    private final AttemptEventService attemptEventService;
+    private final AttemptEventRepository attemptEventRepository;
+    private final int batchSize;
+    private final Timer processingLag;
+    private final AtomicLong pendingEvents = new AtomicLong();
+    private final AtomicLong oldestPendingSeconds = new AtomicLong();
+    private final AtomicLong deadLetteredEvents = new AtomicLong();
+
+    public AttemptEventWorker(
+            AttemptEventService attemptEventService,
+            AttemptEventRepository attemptEventRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.attempt-events.batch-size:500}") int batchSize) {
+        this.attemptEventService = attemptEventService;
+        this.attemptEventRepository = attemptEventRepository;
+        this.batchSize = batchSize;
+        this.processingLag = Timer.builder("leetly.attempt.events.lag")
+                .description("Time from an attempt being logged to its stats and review updates being applied")
+                .register(meterRegistry);
+        Gauge.builder("leetly.attempt.events.pending", pendingEvents, AtomicLong::get)
+                .description("Attempt events waiting to be applied")
+                .register(meterRegistry);
+        Gauge.builder("leetly.attempt.events.oldest.age", oldestPendingSeconds, AtomicLong::get)
+                .description("Age of the oldest attempt event waiting to be applied")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("leetly.attempt.events.dead", deadLetteredEvents, AtomicLong::get)
+                .description("Attempt events set aside after repeated failures")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.attempt-events.poll-interval-ms:1000}")
+    public void drain() {
+        try {
+            int applied;
+            do {
+                applied = 0;
+                for (long userId : attemptEventService.findUsersWithPendingEvents(batchSize)) {
+                    applied += drainUser(userId);
+                }
+            } while (applied > 0);
+        } catch (RuntimeException e) {
+            log.error("Failed to apply attempt events", e);
+        } finally {
+            refreshGauges();
+        }
+    }
+
+    private int drainUser(long userId) {
+        List<AttemptEvent> events;
+        try {
+            events = attemptEventService.processUser(userId, batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Failed to apply attempt events for user {}", userId, e);
+            attemptEventService.recordFailure(userId, batchSize, e);
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (AttemptEvent event : events) {
+            processingLag.record(Duration.between(event.getCreatedDate(), now));
+        }
+        return events.size();
+    }
+
+    private void refreshGauges() {
+        LocalDateTime now = LocalDateTime.now();
+        pendingEvents.set(attemptEventRepository.countPending());
+        deadLetteredEvents.set(attemptEventRepository.countDeadLettered());
+        oldestPendingSeconds.set(attemptEventRepository.findOldestCreatedDate()
+                .map(oldest -> Duration.between(oldest, now).toSeconds())
+                .orElse(0L));
+    }
+}
@@ -1,7 +1,6 @@
 package com.atinroy.leetly.problem.service;
 
 import com.atinroy.leetly.common.exception.ResourceNotFoundException;
-import com.atinroy.leetly.review.service.ReviewService;
 import com.atinroy.leetly.user.service.StatsService;
 import com.atinroy.leetly.user.model.User;
 import lombok.RequiredArgsConstructor;
@@ -27,7 +26,7 @@ public class AttemptService {
     private final AttemptRepository attemptRepository;
     private final ProblemRepository problemRepository;
     private final StatsService statsService;
-    private final ReviewService reviewService;
+    private final AttemptEventService attemptEventService;
 
     @Transactional(readOnly = true)
     public List<Attempt> findByProblem(long problemId, User user) {
@@ -75,6 +74,7 @@ public class AttemptService {
                 .findByProblemAndUserAndOutcome(problem, user, Outcome.ACCEPTED)
                 .stream().filter(a -> !a.getId().equals(savedAttempt.getId())).findAny().isEmpty();
         boolean isFirstSolve = isAccepted && noOtherAccepted;
+        ProblemStatus previousStatus = problem.getStatus();
 
         if (isFirstSolve) {
             problem.setStatus(ProblemStatus.SOLVED);
@@ -83,20 +83,23 @@ public class AttemptService {
         }
 
         problem.setLastAttemptedAt(savedAttempt.getCreatedDate());
+        if (isAccepted) {
+            if (problem.getFirstSolvedAt() == null) {
+                problem.setFirstSolvedAt(savedAttempt.getCreatedDate());
+            }
+            problem.setSolvedAt(savedAttempt.getCreatedDate());
+        }
         problemRepository.save(problem);
 
-        statsService.updateOnAttempt(user, savedAttempt, isFirstSolve);
-
-        if (isFirstSolve) {
-            reviewService.autoEnrollOnFirstSolve(problem, user);
-        }
-        reviewService.onAttemptLogged(problem, user, savedAttempt);
+        // Stats, daily stats and review scheduling are applied by AttemptEventWorker.
+        attemptEventService.publish(savedAttempt, previousStatus, isFirstSolve);
 
         return savedAttempt;
     }
 
     public Attempt update(long id, long problemId, User user, LogAttemptRequest request) {
         Attempt attempt = findByIdAndProblem(id, problemId, user);
+        attemptEventService.drainUser(user);
         statsService.adjustOnAttemptUpdate(user, attempt, request);
         attempt.setLanguage(request.language());
         attempt.setCode(request.code());
@@ -112,17 +115,29 @@ public class AttemptService {
         attempt.setNotes(request.notes());
         attempt.setStartedAt(request.startedAt());
         attempt.setEndedAt(request.endedAt());
-        return attemptRepository.save(attempt);
+        Attempt savedAttempt = attemptRepository.save(attempt);
+
+        refreshSolveDates(attempt.getProblem(), user);
+        return savedAttempt;
     }
 
     public void delete(long id, long problemId, User user) {
         Attempt attempt = findByIdAndProblem(id, problemId, user);
         Problem problem = attempt.getProblem();
+        attemptEventService.drainUser(user);
         statsService.adjustOnAttemptDelete(user, attempt, attemptRepository);
         attemptRepository.delete(attempt);
 
         problem.setLastAttemptedAt(
                 attemptRepository.findMaxCreatedDateByProblemAndUser(problem, user).orElse(null));
+        refreshSolveDates(problem, user);
+    }
+
+    private void refreshSolveDates(Problem problem, User user) {
+        problem.setFirstSolvedAt(
+                attemptRepository.findFirstAcceptedDateByProblemAndUser(problem, user).orElse(null));
+        problem.setSolvedAt(
+                attemptRepository.findLastAcceptedDateByProblemAndUser(problem, user).orElse(null));
         problemRepository.save(problem);
     }
 
@@ -0,0 +1,40 @@
+package com.atinroy.leetly.problem.service;
+
+import java.util.Collection;
+import java.util.function.Function;
+
+/**
+ * Topics and patterns each own one bit (0-63) of the {@code topic_mask} and
+ * {@code pattern_mask} columns on problems, so membership filters are bitwise checks
+ * rather than joins. Past 64 of either, new ones get no bit and are filtered through
+ * the join table instead.
+ */
+final class MembershipBits {
+
+    static final int SIZE = Long.SIZE;
+
+    private MembershipBits() {
+    }
+
+    /** The lowest bit not in {@code used}, or null when all are taken. */
+    static Integer lowestFree(Collection<Integer> used) {
+        for (int bit = 0; bit < SIZE; bit++) {
+            if (!used.contains(bit)) {
+                return bit;
+            }
+        }
+        return null;
+    }
+
+    /** The mask with the bit of each of {@code members} set; members without a bit are skipped. */
+    static <T> long mask(Collection<T> members, Function<T, Integer> bitOf) {
+        long mask = 0;
+        for (T member : members) {
+            Integer bit = bitOf.apply(member);
+            if (bit != null) {
+                mask |= 1L << bit;
+            }
+        }
+        return mask;
+    }
+}
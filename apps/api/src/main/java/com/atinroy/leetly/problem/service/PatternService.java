@@ -1,14 +1,15 @@
 package com.atinroy.leetly.problem.service;
 
 import com.atinroy.leetly.common.exception.ResourceNotFoundException;
+import com.atinroy.leetly.common.service.ReferenceDataCache;
+import com.atinroy.leetly.problem.dto.PatternDto;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
 import com.atinroy.leetly.problem.model.Pattern;
-import com.atinroy.leetly.problem.model.Topic;
 import com.atinroy.leetly.problem.repository.PatternRepository;
+import com.atinroy.leetly.problem.repository.ProblemRepository;
 
 @Service
 @Transactional
@@ -16,46 +17,55 @@ import com.atinroy.leetly.problem.repository.PatternRepository;
 public class PatternService {
 
     private final PatternRepository patternRepository;
+    private final ProblemRepository problemRepository;
     private final TopicService topicService;
+    private final ReferenceDataCache referenceDataCache;
 
-    @Transactional(readOnly = true)
-    public List<Pattern> findAll() {
-        return patternRepository.findAllByOrderByNameAsc();
+    public PatternDto findById(long id) {
+        return referenceDataCache.current().pattern(id);
     }
 
-    @Transactional(readOnly = true)
-    public Pattern findById(long id) {
-        return patternRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Pattern not found: " + id));
-    }
-
-    @Transactional(readOnly = true)
-    public List<Pattern> findByTopic(long topicId) {
-        Topic topic = topicService.findById(topicId);
-        return patternRepository.findByTopicOrderByNameAsc(topic);
+    /** An uninitialized reference to the pattern for associations, after checking it exists. */
+    public Pattern reference(long id) {
+        findById(id);
+        return patternRepository.getReferenceById(id);
     }
 
     public Pattern create(String name, String description, Long topicId, boolean namedAlgorithm) {
         Pattern pattern = new Pattern();
         pattern.setName(name);
         pattern.setDescription(description);
+        pattern.setMaskBit(MembershipBits.lowestFree(patternRepository.findUsedMaskBits()));
         pattern.setNamedAlgorithm(namedAlgorithm);
         if (topicId != null) {
-            pattern.setTopic(topicService.findById(topicId));
+            pattern.setTopic(topicService.reference(topicId));
         }
-        return patternRepository.save(pattern);
+        Pattern saved = patternRepository.save(pattern);
+        referenceDataCache.refreshAfterCommit();
+        return saved;
     }
 
     public Pattern update(long id, String name, String description, Long topicId, boolean namedAlgorithm) {
-        Pattern pattern = findById(id);
+        Pattern pattern = patternRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Pattern not found: " + id));
         pattern.setName(name);
         pattern.setDescription(description);
         pattern.setNamedAlgorithm(namedAlgorithm);
-        pattern.setTopic(topicId != null ? topicService.findById(topicId) : null);
-        return patternRepository.save(pattern);
+        pattern.setTopic(topicId != null ? topicService.reference(topicId) : null);
+        Pattern saved = patternRepository.save(pattern);
+        referenceDataCache.refreshAfterCommit();
+        return saved;
     }
 
     public void delete(long id) {
-        patternRepository.deleteById(id);
+        patternRepository.findById(id).ifPresent(pattern -> {
+            // Free the bit so a later pattern can take it without inheriting memberships.
+            if (pattern.getMaskBit() != null) {
+                long bit = 1L << pattern.getMaskBit();
+                problemRepository.clearPatternMaskBit(bit, ~bit);
+            }
+            patternRepository.delete(pattern);
+            referenceDataCache.refreshAfterCommit();
+        });
     }
 }
@@ -1,21 +1,37 @@
 package com.atinroy.leetly.problem.service;
 
+import com.atinroy.leetly.common.service.ReferenceDataCache;
+import com.atinroy.leetly.config.DatabasePlatform;
+import com.atinroy.leetly.problem.model.CatalogSyncState;
 import com.atinroy.leetly.problem.model.Pattern;
 import com.atinroy.leetly.problem.model.Topic;
+import com.atinroy.leetly.problem.repository.CatalogSyncStateRepository;
 import com.atinroy.leetly.problem.repository.PatternRepository;
+import com.atinroy.leetly.problem.repository.ProblemRepository;
 import com.atinroy.leetly.problem.repository.TopicRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class ProblemCatalogSyncService {
@@ -103,24 +119,87 @@ public class ProblemCatalogSyncService {
             new PatternSeed("Union Find", "Merge and query connected components with disjoint sets.", "Union Find", false)
     );
 
+    // Bump when the sync itself changes in a way existing databases need re-applied.
+    private static final int SYNC_VERSION = 1;
+    private static final String CATALOG_NAME = "problem-catalog";
+    // Advisory lock key serialising catalog syncs across nodes ("leetcat" in ASCII).
+    private static final long SYNC_LOCK_KEY = 0x6c656574636174L;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String TOPICS_JSON = toJson(TOPICS);
+    private static final String PATTERNS_JSON = toJson(PATTERNS);
+    static final String CHECKSUM = checksum(SYNC_VERSION + "\n" + TOPICS_JSON + "\n" + PATTERNS_JSON);
+
     private final TopicRepository topicRepository;
     private final PatternRepository patternRepository;
+    private final ProblemRepository problemRepository;
+    private final CatalogSyncStateRepository catalogSyncStateRepository;
+    private final DatabasePlatform databasePlatform;
+    private final ReferenceDataCache referenceDataCache;
 
+    /**
+     * Brings topics and patterns in line with the canonical catalog, unless the stored
+     * checksum says this catalog was already applied. On Postgres the sync runs once
+     * across nodes under an advisory lock, as a few set-based statements; elsewhere
+     * it falls back to per-row saves. Either way the reference-data snapshot is loaded
+     * once the transaction commits.
+     */
     @EventListener(ApplicationReadyEvent.class)
     @Transactional
     public void syncCanonicalCatalog() {
-        syncTopics();
-        syncPatterns();
-        prunePatterns();
-        pruneTopics();
+        referenceDataCache.refreshAfterCommit();
+        if (isApplied()) {
+            log.debug("Canonical catalog {} already applied", CHECKSUM);
+            return;
+        }
+        long start = System.nanoTime();
+        if (databasePlatform.isPostgres()) {
+            catalogSyncStateRepository.lockForTransaction(SYNC_LOCK_KEY);
+            // Another node may have synced while this one waited for the lock.
+            if (isApplied()) {
+                return;
+            }
+            patternRepository.pruneCatalog(PATTERNS_JSON);
+            topicRepository.upsertCatalog(TOPICS_JSON);
+            patternRepository.upsertCatalog(PATTERNS_JSON);
+            topicRepository.pruneCatalog(TOPICS_JSON);
+            topicRepository.assignMissingMaskBits();
+            patternRepository.assignMissingMaskBits();
+        } else {
+            syncTopics();
+            syncPatterns();
+            prunePatterns();
+            pruneTopics();
+        }
+
+        CatalogSyncState state = catalogSyncStateRepository.findById(CATALOG_NAME).orElseGet(() -> {
+            CatalogSyncState created = new CatalogSyncState();
+            created.setName(CATALOG_NAME);
+            return created;
+        });
+        state.setChecksum(CHECKSUM);
+        state.setSyncedAt(LocalDateTime.now());
+        catalogSyncStateRepository.save(state);
+        log.info("Applied canonical catalog {} in {} ms", CHECKSUM, Duration.ofNanos(System.nanoTime() - start).toMillis());
+    }
+
+    private boolean isApplied() {
+        return catalogSyncStateRepository.findChecksum(CATALOG_NAME).filter(CHECKSUM::equals).isPresent();
     }
 
     private void syncTopics() {
+        Set<Integer> usedBits = new HashSet<>(topicRepository.findUsedMaskBits());
         for (TopicSeed seed : TOPICS) {
             Topic topic = topicRepository.findByName(seed.name())
                     .orElseGet(Topic::new);
             topic.setName(seed.name());
             topic.setDescription(seed.description());
+            if (topic.getMaskBit() == null) {
+                topic.setMaskBit(MembershipBits.lowestFree(usedBits));
+                if (topic.getMaskBit() != null) {
+                    usedBits.add(topic.getMaskBit());
+                }
+            }
             topicRepository.save(topic);
         }
     }
@@ -131,11 +210,18 @@ public class ProblemCatalogSyncService {
             topicsByName.put(topic.getName(), topic);
         }
 
+        Set<Integer> usedBits = new HashSet<>(patternRepository.findUsedMaskBits());
         for (PatternSeed seed : PATTERNS) {
             Pattern pattern = patternRepository.findByName(seed.name())
                     .orElseGet(Pattern::new);
             pattern.setName(seed.name());
             pattern.setDescription(seed.description());
+            if (pattern.getMaskBit() == null) {
+                pattern.setMaskBit(MembershipBits.lowestFree(usedBits));
+                if (pattern.getMaskBit() != null) {
+                    usedBits.add(pattern.getMaskBit());
+                }
+            }
             pattern.setTopic(topicsByName.get(seed.topicName()));
             pattern.setNamedAlgorithm(seed.namedAlgorithm());
             patternRepository.save(pattern);
@@ -150,6 +236,10 @@ public class ProblemCatalogSyncService {
 
         for (Pattern pattern : patternRepository.findAllByOrderByNameAsc()) {
             if (!canonicalNames.contains(pattern.getName())) {
+                if (pattern.getMaskBit() != null) {
+                    long bit = 1L << pattern.getMaskBit();
+                    problemRepository.clearPatternMaskBit(bit, ~bit);
+                }
                 patternRepository.delete(pattern);
             }
         }
@@ -163,11 +253,32 @@ public class ProblemCatalogSyncService {
 
         for (Topic topic : topicRepository.findAllByOrderByNameAsc()) {
             if (!canonicalNames.contains(topic.getName())) {
+                if (topic.getMaskBit() != null) {
+                    long bit = 1L << topic.getMaskBit();
+                    problemRepository.clearTopicMaskBit(bit, ~bit);
+                }
                 topicRepository.delete(topic);
             }
         }
     }
 
+    private static String toJson(List<?> seeds) {
+        try {
+            return MAPPER.writeValueAsString(seeds);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the canonical catalog", e);
+        }
+    }
+
+    private static String checksum(String content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is unavailable", e);
+        }
+    }
+
     private record TopicSeed(String name, String description) {}
 
     private record PatternSeed(String name, String description, String topicName, boolean namedAlgorithm) {}
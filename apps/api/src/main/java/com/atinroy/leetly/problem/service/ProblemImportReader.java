@@ -0,0 +1,205 @@
+package com.atinroy.leetly.problem.service;
+
+import com.atinroy.leetly.problem.dto.ImportProblemRow;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads bulk-import rows one at a time, so an import holds at most one batch of the
+ * body in memory. JSON is an array of objects or newline-delimited objects; CSV needs
+ * a header row naming its columns. Malformed input, as opposed to a bad row, ends the
+ * read with an {@link IllegalArgumentException}.
+ */
+abstract class ProblemImportReader implements Closeable {
+
+    // Longest CSV field accepted; titles and URLs are far shorter.
+    static final int MAX_FIELD_LENGTH = 4096;
+
+    private static final List<String> REQUIRED_COLUMNS = List.of("leetcodeid", "title", "url", "difficulty");
+    private static final Map<String, String> COLUMN_ALIASES = Map.of("id", "leetcodeid", "tags", "topics");
+
+    /** A parsed row, or why the row could not be read. */
+    record Entry(ImportProblemRow row, String error) {}
+
+    /** The next entry, or null once the input is exhausted. */
+    abstract Entry next() throws IOException;
+
+    static ProblemImportReader json(ObjectMapper objectMapper, InputStream in) throws IOException {
+        MappingIterator<ImportProblemRow> values = objectMapper.readerFor(ImportProblemRow.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .readValues(in);
+        return new Json(values);
+    }
+
+    static ProblemImportReader csv(InputStream in) {
+        return new Csv(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+    }
+
+    private static final class Json extends ProblemImportReader {
+
+        private final MappingIterator<ImportProblemRow> values;
+
+        private Json(MappingIterator<ImportProblemRow> values) {
+            this.values = values;
+        }
+
+        @Override
+        Entry next() throws IOException {
+            try {
+                if (!values.hasNextValue()) {
+                    return null;
+                }
+                return new Entry(values.nextValue(), null);
+            } catch (JsonMappingException e) {
+                // The iterator skips past the bad value on the next call.
+                return new Entry(null, e.getOriginalMessage());
+            } catch (JsonProcessingException e) {
+                JsonLocation location = e.getLocation();
+                throw new IllegalArgumentException("Malformed JSON"
+                        + (location != null ? " at line " + location.getLineNr() : "") + ": " + e.getOriginalMessage());
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            values.close();
+        }
+    }
+
+    private static final class Csv extends ProblemImportReader {
+
+        private final Reader in;
+        private Map<String, Integer> columns;
+
+        private Csv(Reader in) {
+            this.in = in;
+        }
+
+        @Override
+        Entry next() throws IOException {
+            if (columns == null) {
+                List<String> header = readRecord();
+                if (header == null) {
+                    return null;
+                }
+                columns = columns(header);
+            }
+            List<String> fields;
+            do {
+                fields = readRecord();
+                if (fields == null) {
+                    return null;
+                }
+            } while (fields.stream().allMatch(String::isBlank));
+
+            String leetcodeId = field(fields, "leetcodeid");
+            Long id;
+            try {
+                id = leetcodeId == null ? null : Long.valueOf(leetcodeId);
+            } catch (NumberFormatException e) {
+                return new Entry(null, "leetcodeId is not a number: " + leetcodeId);
+            }
+            return new Entry(new ImportProblemRow(id, field(fields, "title"), field(fields, "url"),
+                    field(fields, "difficulty"),
+                    names(field(fields, "topics")), names(field(fields, "patterns"))), null);
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+        private static Map<String, Integer> columns(List<String> header) {
+            Map<String, Integer> columns = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                String name = header.get(i).toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", "");
+                columns.putIfAbsent(COLUMN_ALIASES.getOrDefault(name, name), i);
+            }
+            for (String required : REQUIRED_COLUMNS) {
+                if (!columns.containsKey(required)) {
+                    throw new IllegalArgumentException("CSV header must name the columns " + REQUIRED_COLUMNS);
+                }
+            }
+            return columns;
+        }
+
+        private String field(List<String> fields, String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= fields.size()) {
+                return null;
+            }
+            String value = fields.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        // Topics and patterns share one field, separated by ';' or '|'.
+        private static List<String> names(String field) {
+            if (field == null) {
+                return List.of();
+            }
+            return Arrays.stream(field.split("[;|]")).map(String::trim).filter(name -> !name.isEmpty()).toList();
+        }
+
+        // One RFC 4180 record: quoted fields may hold commas, doubled quotes and line breaks.
+        private List<String> readRecord() throws IOException {
+            int c = in.read();
+            if (c == -1) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        throw new IllegalArgumentException("Unterminated quoted CSV field");
+                    }
+                    if (c == '"') {
+                        c = in.read();
+                        if (c != '"') {
+                            quoted = false;
+                            continue;
+                        }
+                    }
+                    append(field, c);
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n' || c == -1) {
+                    fields.add(field.toString());
+                    return fields;
+                } else if (c != '\r') {
+                    append(field, c);
+                }
+                c = in.read();
+            }
+        }
+
+        private static void append(StringBuilder field, int c) {
+            if (field.length() == MAX_FIELD_LENGTH) {
+                throw new IllegalArgumentException("CSV field longer than " + MAX_FIELD_LENGTH + " characters");
+            }
+            field.append((char) c);
+        }
+    }
+}
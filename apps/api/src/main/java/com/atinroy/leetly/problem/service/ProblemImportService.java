@@ -0,0 +1,315 @@
+package com.atinroy.leetly.problem.service;
+
+import com.atinroy.leetly.common.exception.ResourceNotFoundException;
+import com.atinroy.leetly.common.service.ReferenceDataCache;
+import com.atinroy.leetly.problem.dto.ImportProblemRow;
+import com.atinroy.leetly.problem.dto.PatternDto;
+import com.atinroy.leetly.problem.dto.ProblemImportError;
+import com.atinroy.leetly.problem.dto.ProblemImportProgress;
+import com.atinroy.leetly.problem.dto.TopicDto;
+import com.atinroy.leetly.problem.model.Difficulty;
+import com.atinroy.leetly.problem.model.ProblemStatus;
+import com.atinroy.leetly.user.model.User;
+import com.atinroy.leetly.user.repository.ProblemListRepository;
+import com.atinroy.leetly.user.service.StatsService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Imports a user's problems in bulk from a streamed JSON or CSV export. Rows are read
+ * incrementally and written in batches of {@code batch-size}, each in its own
+ * transaction: the problems with one JDBC batch insert that skips LeetCode ids the user
+ * already has (idx_problem_user_leetcode_id), then their topics, patterns and default
+ * list entries with one batch each.
+ *
+ * Progress is reported after every committed batch. Input that turns malformed part
+ * way ends the import with the rows read until then; a failure keeps the batches
+ * already committed, and importing the same file again skips them as duplicates.
+ */
+@Slf4j
+@Service
+public class ProblemImportService {
+
+    // Rejected rows reported over a whole import; later ones are only counted.
+    static final int MAX_REPORTED_ERRORS = 100;
+
+    private static final String INSERT_PROBLEM = """
+            INSERT INTO problems (user_id, leetcode_id, title, url, difficulty, status,
+                                  topic_mask, pattern_mask, created_date, last_modified_date)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT DO NOTHING
+            """;
+    private static final String SELECT_IMPORTED_IDS =
+            "SELECT leetcode_id, id FROM problems WHERE user_id = :userId AND leetcode_id IN (:leetcodeIds)";
+    private static final String INSERT_TOPIC = "INSERT INTO problem_topics (problem_id, topic_id) VALUES (?, ?)";
+    private static final String INSERT_PATTERN = "INSERT INTO problem_patterns (problem_id, pattern_id) VALUES (?, ?)";
+    private static final String INSERT_LIST_ENTRY =
+            "INSERT INTO problem_list_problems (problem_list_id, problem_id) VALUES (?, ?)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ProblemListRepository problemListRepository;
+    private final StatsService statsService;
+    private final ReferenceDataCache referenceDataCache;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate writeTransaction;
+    private final int batchSize;
+    private final Counter importedRows;
+    private final Counter duplicateRows;
+    private final Counter rejectedRows;
+
+    public ProblemImportService(NamedParameterJdbcTemplate jdbcTemplate,
+                                ProblemListRepository problemListRepository,
+                                StatsService statsService,
+                                ReferenceDataCache referenceDataCache,
+                                ObjectMapper objectMapper,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.problem-import.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.problemListRepository = problemListRepository;
+        this.statsService = statsService;
+        this.referenceDataCache = referenceDataCache;
+        this.objectMapper = objectMapper;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.importedRows = rowCounter(meterRegistry, "imported");
+        this.duplicateRows = rowCounter(meterRegistry, "duplicate");
+        this.rejectedRows = rowCounter(meterRegistry, "rejected");
+    }
+
+    /** Imports a JSON array, or newline-delimited JSON objects, of {@link ImportProblemRow}s. */
+    public ProblemImportProgress importJson(User user, InputStream body, Consumer<ProblemImportProgress> progress)
+            throws IOException {
+        try (ProblemImportReader reader = ProblemImportReader.json(objectMapper, body)) {
+            return importRows(user, reader, progress);
+        }
+    }
+
+    /**
+     * Imports CSV with a header row. The leetcodeId (or id), title, url and difficulty
+     * columns are required; topics (or tags) and patterns are optional, with several
+     * names in one field separated by ';' or '|'. Other columns are ignored.
+     */
+    public ProblemImportProgress importCsv(User user, InputStream body, Consumer<ProblemImportProgress> progress)
+            throws IOException {
+        try (ProblemImportReader reader = ProblemImportReader.csv(body)) {
+            return importRows(user, reader, progress);
+        }
+    }
+
+    ProblemImportProgress importRows(User user, ProblemImportReader reader, Consumer<ProblemImportProgress> progress)
+            throws IOException {
+        long defaultListId = problemListRepository.findDefaultIdByUser(user)
+                .orElseThrow(() -> new ResourceNotFoundException("Default problem list not found for user: " + user.getId()));
+        ReferenceDataCache.Snapshot reference = referenceDataCache.current();
+        Tally tally = new Tally();
+        Set<Long> seen = new HashSet<>();
+        List<PendingProblem> batch = new ArrayList<>(batchSize);
+        long start = System.nanoTime();
+
+        String failure = null;
+        try {
+            ProblemImportReader.Entry entry;
+            while ((entry = reader.next()) != null) {
+                tally.processed++;
+                String error = entry.error();
+                PendingProblem pending = null;
+                if (error == null) {
+                    try {
+                        pending = PendingProblem.of(entry.row(), reference);
+                    } catch (IllegalArgumentException e) {
+                        error = e.getMessage();
+                    }
+                }
+                if (error != null) {
+                    tally.reject(tally.processed, error);
+                } else if (!seen.add(pending.leetcodeId())) {
+                    tally.duplicates++;
+                } else {
+                    batch.add(pending);
+                    if (batch.size() == batchSize) {
+                        write(user, defaultListId, batch, tally);
+                        progress.accept(tally.snapshot(false, null));
+                        batch.clear();
+                    }
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // Malformed input: nothing after this point can be read, but earlier rows still count.
+            failure = e.getMessage();
+        }
+        if (!batch.isEmpty()) {
+            write(user, defaultListId, batch, tally);
+        }
+
+        ProblemImportProgress done = tally.snapshot(true, failure);
+        importedRows.increment(done.imported());
+        duplicateRows.increment(done.duplicates());
+        rejectedRows.increment(done.rejected());
+        log.info("Imported {} of {} problems for user {} ({} duplicates, {} rejected) in {} ms",
+                done.imported(), done.processed(), user.getId(), done.duplicates(), done.rejected(),
+                (System.nanoTime() - start) / 1_000_000);
+        return done;
+    }
+
+    private void write(User user, long defaultListId, List<PendingProblem> batch, Tally tally) {
+        int imported = writeTransaction.execute(status -> {
+            JdbcTemplate jdbc = jdbcTemplate.getJdbcTemplate();
+            LocalDateTime now = LocalDateTime.now();
+            List<Object[]> rows = new ArrayList<>(batch.size());
+            for (PendingProblem problem : batch) {
+                rows.add(new Object[]{user.getId(), problem.leetcodeId(), problem.title(), problem.url(),
+                        problem.difficulty().name(), ProblemStatus.UNSEEN.name(),
+                        problem.topicMask(), problem.patternMask(), now, now});
+            }
+            int[] counts = jdbc.batchUpdate(INSERT_PROBLEM, rows);
+
+            // A count of 0 is a LeetCode id the user already had; only new problems get tagged.
+            Map<Long, PendingProblem> inserted = new HashMap<>();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] != 0) {
+                    inserted.put(batch.get(i).leetcodeId(), batch.get(i));
+                }
+            }
+            if (inserted.isEmpty()) {
+                return 0;
+            }
+
+            List<Object[]> topics = new ArrayList<>();
+            List<Object[]> patterns = new ArrayList<>();
+            List<Object[]> listEntries = new ArrayList<>(inserted.size());
+            jdbcTemplate.query(SELECT_IMPORTED_IDS,
+                    Map.of("userId", user.getId(), "leetcodeIds", inserted.keySet()),
+                    (RowCallbackHandler) rs -> {
+                        long problemId = rs.getLong("id");
+                        PendingProblem problem = inserted.get(rs.getLong("leetcode_id"));
+                        problem.topicIds().forEach(topicId -> topics.add(new Object[]{problemId, topicId}));
+                        problem.patternIds().forEach(patternId -> patterns.add(new Object[]{problemId, patternId}));
+                        listEntries.add(new Object[]{defaultListId, problemId});
+                    });
+            if (!topics.isEmpty()) {
+                jdbc.batchUpdate(INSERT_TOPIC, topics);
+            }
+            if (!patterns.isEmpty()) {
+                jdbc.batchUpdate(INSERT_PATTERN, patterns);
+            }
+            jdbc.batchUpdate(INSERT_LIST_ENTRY, listEntries);
+            // Topic coverage and pattern counts move with the new problems; rebuild on next read.
+            statsService.markStale(user);
+            return inserted.size();
+        });
+        tally.imported += imported;
+        tally.duplicates += batch.size() - imported;
+    }
+
+    private static Counter rowCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("leetly.problem.import.rows")
+                .tag("result", result)
+                .description("Rows read by bulk problem imports, by outcome")
+                .register(meterRegistry);
+    }
+
+    private record PendingProblem(long leetcodeId, String title, String url, Difficulty difficulty,
+                                  List<Long> topicIds, List<Long> patternIds, long topicMask, long patternMask) {
+
+        // Mirrors CreateProblemRequest's validation and the problems column sizes.
+        static PendingProblem of(ImportProblemRow row, ReferenceDataCache.Snapshot reference) {
+            if (row.leetcodeId() == null || row.leetcodeId() <= 0) {
+                throw new IllegalArgumentException("leetcodeId must be a positive number");
+            }
+            String title = required(row.title(), "title", 255);
+            String url = required(row.url(), "url", 2048);
+            Difficulty difficulty = parse(Difficulty.class, row.difficulty(), "difficulty");
+
+            List<Long> topicIds = ids(row.topics(), name -> reference.findTopicByName(name).map(TopicDto::id));
+            List<Long> patternIds = ids(row.patterns(), name -> reference.findPatternByName(name).map(PatternDto::id));
+            return new PendingProblem(row.leetcodeId(), title, url, difficulty, topicIds, patternIds,
+                    MembershipBits.mask(topicIds, reference::topicMaskBit),
+                    MembershipBits.mask(patternIds, reference::patternMaskBit));
+        }
+
+        private static String required(String value, String field, int maxLength) {
+            if (value == null || value.isBlank()) {
+                throw new IllegalArgumentException(field + " is required");
+            }
+            String trimmed = value.trim();
+            if (trimmed.length() > maxLength) {
+                throw new IllegalArgumentException(field + " is longer than " + maxLength + " characters");
+            }
+            return trimmed;
+        }
+
+        // Accepts any case and spaces or dashes for underscores, e.g. "Easy" or "solved with help".
+        private static <E extends Enum<E>> E parse(Class<E> type, String value, String field) {
+            String name = value == null ? "" : value.trim().toUpperCase(Locale.ROOT).replaceAll("[\\s-]+", "_");
+            try {
+                return Enum.valueOf(type, name);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(field + " must be one of " + Arrays.toString(type.getEnumConstants()));
+            }
+        }
+
+        private static List<Long> ids(List<String> names, Function<String, Optional<Long>> lookup) {
+            if (names == null) {
+                return List.of();
+            }
+            Set<Long> ids = new LinkedHashSet<>();
+            for (String name : names) {
+                if (name != null) {
+                    lookup.apply(name.trim()).ifPresent(ids::add);
+                }
+            }
+            return List.copyOf(ids);
+        }
+    }
+
+    private static final class Tally {
+
+        long processed;
+        long imported;
+        long duplicates;
+        long rejected;
+        long reported;
+        List<ProblemImportError> errors = new ArrayList<>();
+
+        void reject(long row, String message) {
+            rejected++;
+            if (reported < MAX_REPORTED_ERRORS) {
+                reported++;
+                errors.add(new ProblemImportError(row, message));
+            }
+        }
+
+        ProblemImportProgress snapshot(boolean done, String failure) {
+            ProblemImportProgress progress = new ProblemImportProgress(
+                    processed, imported, duplicates, rejected, List.copyOf(errors), done, failure);
+            errors = new ArrayList<>();
+            return progress;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.atinroy.leetly.problem.service;
+
+import com.atinroy.leetly.common.model.CursorPage;
+import com.atinroy.leetly.problem.model.Problem;
+import com.atinroy.leetly.problem.repository.ProblemRepository;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset pagination over problems, ordered by {@code createdDate} or
+ * {@code lastAttemptedAt} with {@code id} breaking ties in the same direction. Never
+ * attempted problems sort first ascending and last descending, as in the offset
+ * listing. A page continues after the last row of the previous one, so its cost does
+ * not grow with depth and no count query is needed.
+ *
+ * Cursors are opaque to clients: base64url of the sort they were issued for and the
+ * last row's key, so a cursor used with a different sort is rejected.
+ */
+public final class ProblemKeyset {
+
+    static final int MAX_SIZE = 100;
+
+    private static final List<String> SORTABLE = List.of("createdDate", "lastAttemptedAt");
+    private static final String SEPARATOR = "|";
+
+    private final String property;
+    private final Sort.Direction direction;
+
+    private ProblemKeyset(String property, Sort.Direction direction) {
+        this.property = property;
+        this.direction = direction;
+    }
+
+    /** The keyset for the first non-id order of {@code sort}, newest created first by default. */
+    public static ProblemKeyset of(Sort sort) {
+        Sort.Order primary = sort.stream()
+                .filter(order -> !"id".equals(order.getProperty()))
+                .findFirst()
+                .orElse(Sort.Order.desc("createdDate"));
+        if (!SORTABLE.contains(primary.getProperty())) {
+            throw new IllegalArgumentException("Cursor pagination supports sorting by " + SORTABLE);
+        }
+        return new ProblemKeyset(primary.getProperty(), primary.getDirection());
+    }
+
+    /**
+     * One page of {@code spec} after {@code cursor}, mapped with {@code toDtos}. Matches
+     * are only counted when {@code includeTotal} is set.
+     */
+    public <T> CursorPage<T> scroll(ProblemRepository problemRepository, Specification<Problem> spec,
+                                    int size, String cursor, boolean includeTotal,
+                                    Function<List<Problem>, List<T>> toDtos) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_SIZE);
+        }
+        // One extra row tells whether another page follows.
+        List<Problem> rows = problemRepository.findBy(spec.and(after(cursor)),
+                query -> query.sortBy(sort()).limit(size + 1).all());
+        boolean hasNext = rows.size() > size;
+        List<Problem> problems = hasNext ? rows.subList(0, size) : rows;
+        Long total = includeTotal ? problemRepository.count(spec) : null;
+        return new CursorPage<>(toDtos.apply(problems), size, hasNext ? cursorAfter(problems.getLast()) : null, total);
+    }
+
+    public Sort sort() {
+        Sort.Order key = new Sort.Order(direction, property, nullHandling());
+        return Sort.by(key, new Sort.Order(direction, "id"));
+    }
+
+    /** Rows after {@code cursor} in {@link #sort()} order; everything when it is null or blank. */
+    public Specification<Problem> after(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return (root, query, cb) -> cb.conjunction();
+        }
+        Position position = decode(cursor);
+        boolean descending = direction.isDescending();
+        return (root, query, cb) -> {
+            Path<LocalDateTime> key = root.get(property);
+            Path<Long> id = root.get("id");
+            Predicate idAfter = descending ? cb.lessThan(id, position.id()) : cb.greaterThan(id, position.id());
+
+            if (position.value() == null) {
+                Predicate sameNullBand = cb.and(cb.isNull(key), idAfter);
+                // Ascending, the nulls come first and every valued row follows them.
+                return descending ? sameNullBand : cb.or(sameNullBand, cb.isNotNull(key));
+            }
+            Predicate beyond = descending
+                    ? cb.lessThan(key, position.value())
+                    : cb.greaterThan(key, position.value());
+            Predicate after = cb.or(beyond, cb.and(cb.equal(key, position.value()), idAfter));
+            // Descending, the nulls come last, after every valued row.
+            return descending ? cb.or(after, cb.isNull(key)) : after;
+        };
+    }
+
+    /** The cursor continuing after {@code last}. */
+    public String cursorAfter(Problem last) {
+        LocalDateTime value = "createdDate".equals(property) ? last.getCreatedDate() : last.getLastAttemptedAt();
+        String raw = String.join(SEPARATOR, property, direction.name(),
+                value == null ? "" : value.toString(), String.valueOf(last.getId()));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Position decode(String cursor) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", -1);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (!parts[0].equals(property) || !parts[1].equals(direction.name())) {
+            throw new IllegalArgumentException("Cursor does not match the requested sort");
+        }
+        try {
+            LocalDateTime value = parts[2].isEmpty() ? null : LocalDateTime.parse(parts[2]);
+            return new Position(value, Long.parseLong(parts[3]));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private Sort.NullHandling nullHandling() {
+        if (!"lastAttemptedAt".equals(property)) {
+            return Sort.NullHandling.NATIVE;
+        }
+        return direction.isAscending() ? Sort.NullHandling.NULLS_FIRST : Sort.NullHandling.NULLS_LAST;
+    }
+
+    private record Position(LocalDateTime value, long id) {}
+}
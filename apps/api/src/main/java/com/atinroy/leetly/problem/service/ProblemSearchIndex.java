@@ -0,0 +1,130 @@
+package com.atinroy.leetly.problem.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * In-process equivalent of the Postgres problem search, for databases without
+ * pg_trgm (the H2 test profile). Matching and ranking mirror
+ * {@code ProblemRepository.searchRanked}: an exact LeetCode id, every query word
+ * prefixing a title word, or a pg_trgm-style word similarity of at least
+ * {@link #WORD_SIMILARITY_THRESHOLD}; ranked by id match, title prefix, similarity,
+ * then newest id.
+ */
+final class ProblemSearchIndex {
+
+    // pg_trgm.word_similarity_threshold's default, which the <% operator uses.
+    static final double WORD_SIMILARITY_THRESHOLD = 0.6;
+
+    private record Entry(long id, String leetcodeId, String title, List<String> words, List<String> trigrams) {}
+
+    private record Hit(Entry entry, boolean idMatch, boolean titlePrefix, double similarity) {}
+
+    private final List<Entry> entries;
+
+    private ProblemSearchIndex(List<Entry> entries) {
+        this.entries = entries;
+    }
+
+    /** Builds the index from rows of [Long id, Long leetcodeId, String title]. */
+    static ProblemSearchIndex of(List<Object[]> rows) {
+        List<Entry> entries = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            String title = normalize((String) row[2]);
+            List<String> words = words(title);
+            entries.add(new Entry((Long) row[0], String.valueOf(row[1]), title, words, trigrams(words)));
+        }
+        return new ProblemSearchIndex(entries);
+    }
+
+    /** Ids of the entries matching {@code term}, a {@link #normalize normalized} query, best first. */
+    List<Long> search(String term, int limit) {
+        List<String> queryWords = words(term);
+        Set<String> queryTrigrams = new HashSet<>(trigrams(queryWords));
+        List<Hit> hits = new ArrayList<>();
+        for (Entry entry : entries) {
+            boolean idMatch = entry.leetcodeId().equals(term);
+            double similarity = wordSimilarity(queryTrigrams, entry.trigrams());
+            if (idMatch || prefixesEveryWord(queryWords, entry.words()) || similarity >= WORD_SIMILARITY_THRESHOLD) {
+                hits.add(new Hit(entry, idMatch, entry.title().startsWith(term), similarity));
+            }
+        }
+        return hits.stream()
+                .sorted(Comparator.comparing(Hit::idMatch).reversed()
+                        .thenComparing(Comparator.comparing(Hit::titlePrefix).reversed())
+                        .thenComparing(Comparator.comparingDouble(Hit::similarity).reversed())
+                        .thenComparing(Comparator.comparingLong((Hit hit) -> hit.entry().id()).reversed()))
+                .limit(limit)
+                .map(hit -> hit.entry().id())
+                .toList();
+    }
+
+    /** Lower-cased words of {@code text} separated by single spaces, as both engines compare them. */
+    static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+
+    /** A to_tsquery expression requiring every word of {@code term} as a prefix, e.g. "two:* & su:*". */
+    static String prefixQuery(String term) {
+        return String.join(" & ", words(term).stream().map(word -> word + ":*").toList());
+    }
+
+    private static List<String> words(String normalized) {
+        return normalized.isEmpty() ? List.of() : List.of(normalized.split(" "));
+    }
+
+    private static boolean prefixesEveryWord(List<String> queryWords, List<String> titleWords) {
+        if (queryWords.isEmpty()) {
+            return false;
+        }
+        for (String queryWord : queryWords) {
+            if (titleWords.stream().noneMatch(word -> word.startsWith(queryWord))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Trigrams of each word padded like pg_trgm ("  w", " wo", ..., "rd "), in title order.
+    private static List<String> trigrams(List<String> words) {
+        List<String> trigrams = new ArrayList<>();
+        for (String word : words) {
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add(padded.substring(i, i + 3));
+            }
+        }
+        return trigrams;
+    }
+
+    /**
+     * pg_trgm's word_similarity: the best Jaccard similarity between the query's
+     * trigrams and those of any contiguous extent of the title's trigrams.
+     */
+    private static double wordSimilarity(Set<String> query, List<String> title) {
+        if (query.isEmpty()) {
+            return 0.0;
+        }
+        double best = 0.0;
+        for (int start = 0; start < title.size(); start++) {
+            if (!query.contains(title.get(start))) {
+                continue;
+            }
+            Set<String> extent = new HashSet<>();
+            int common = 0;
+            for (int end = start; end < title.size(); end++) {
+                String trigram = title.get(end);
+                if (extent.add(trigram) && query.contains(trigram)) {
+                    common++;
+                }
+                int union = query.size() + extent.size() - common;
+                best = Math.max(best, (double) common / union);
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,60 @@
+package com.atinroy.leetly.problem.service;
+
+import com.atinroy.leetly.config.DatabasePlatform;
+import com.atinroy.leetly.problem.repository.ProblemRepository;
+import com.atinroy.leetly.user.model.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Ranked, typo-tolerant search over a user's problems for typeahead. On Postgres it
+ * runs against the title tsvector and trigram indexes; elsewhere (H2 in tests) it
+ * scores the user's titles with {@link ProblemSearchIndex}, which matches and ranks
+ * the same way. {@code app.problem-search.engine} forces {@code postgres} or
+ * {@code memory}; the default {@code auto} picks by database.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ProblemSearchService {
+
+    static final int MAX_LIMIT = 50;
+
+    private final ProblemRepository problemRepository;
+    private final DatabasePlatform databasePlatform;
+    private final String engine;
+
+    public ProblemSearchService(ProblemRepository problemRepository,
+                                DatabasePlatform databasePlatform,
+                                @Value("${app.problem-search.engine:auto}") String engine) {
+        this.problemRepository = problemRepository;
+        this.databasePlatform = databasePlatform;
+        this.engine = engine;
+    }
+
+    /** Ids of the user's problems matching {@code query}, best first; empty for a blank query. */
+    public List<Long> search(User user, String query, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        String term = query == null ? "" : ProblemSearchIndex.normalize(query);
+        if (term.isEmpty()) {
+            return List.of();
+        }
+        if (usePostgres()) {
+            return problemRepository.searchRanked(user.getId(), term, ProblemSearchIndex.prefixQuery(term), limit);
+        }
+        return ProblemSearchIndex.of(problemRepository.findSearchRowsByUser(user)).search(term, limit);
+    }
+
+    private boolean usePostgres() {
+        return switch (engine) {
+            case "postgres" -> true;
+            case "memory" -> false;
+            case "auto" -> databasePlatform.isPostgres();
+            default -> throw new IllegalStateException("Unknown app.problem-search.engine: " + engine);
+        };
+    }
+}
@@ -1,16 +1,20 @@
 package com.atinroy.leetly.problem.service;
 
 import com.atinroy.leetly.common.exception.ResourceNotFoundException;
+import com.atinroy.leetly.common.model.CursorPage;
+import com.atinroy.leetly.common.service.ReferenceDataCache;
 import com.atinroy.leetly.problem.dto.ProblemSummaryDto;
 import com.atinroy.leetly.problem.repository.AttemptRepository;
 import com.atinroy.leetly.review.model.ReviewCard;
 import com.atinroy.leetly.review.repository.ReviewCardRepository;
-import com.atinroy.leetly.user.model.ProblemList;
+import com.atinroy.leetly.review.service.ReviewQueueCache;
 import com.atinroy.leetly.user.repository.ProblemListRepository;
 import com.atinroy.leetly.user.model.User;
+import com.atinroy.leetly.user.service.StatsService;
 import org.springframework.data.domain.PageRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
@@ -19,8 +23,11 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 import com.atinroy.leetly.problem.dto.CreateProblemRequest;
+import com.atinroy.leetly.problem.model.Difficulty;
+import com.atinroy.leetly.problem.model.MembershipMatch;
 import com.atinroy.leetly.problem.model.Pattern;
 import com.atinroy.leetly.problem.model.Problem;
 import com.atinroy.leetly.problem.model.ProblemStatus;
@@ -38,16 +45,72 @@ public class ProblemService {
     private final PatternService patternService;
     private final AttemptRepository attemptRepository;
     private final ReviewCardRepository reviewCardRepository;
+    private final StatsService statsService;
+    private final AttemptEventService attemptEventService;
+    private final ReviewQueueCache reviewQueueCache;
+    private final ProblemSearchService problemSearchService;
+    private final ReferenceDataCache referenceDataCache;
 
     @Transactional(readOnly = true)
-    public Page<ProblemSummaryDto> findAll(User user, Pageable pageable, String difficulty, String status, Long topicId, Long patternId, String search) {
-        Specification<Problem> filters = ProblemSpecification.buildSpec(difficulty, status, topicId, patternId, search);
+    public Page<ProblemSummaryDto> findAll(User user, Pageable pageable, String difficulty, String status,
+                                           List<Long> topicIds, MembershipMatch topicMatch,
+                                           List<Long> patternIds, MembershipMatch patternMatch, String search) {
+        Specification<Problem> filters = filterSpec(difficulty, status, topicIds, topicMatch, patternIds, patternMatch, search);
         Specification<Problem> ownedByUser = (root, query, cb) -> cb.equal(root.get("user"), user);
         Page<Problem> page = problemRepository.findAll(ownedByUser.and(filters), normalizeSort(pageable));
 
-        List<Long> ids = page.stream().map(Problem::getId).toList();
+        List<ProblemSummaryDto> summaries = toSummaries(page.getContent(), user);
+        return new PageImpl<>(summaries, page.getPageable(), page.getTotalElements());
+    }
+
+    /**
+     * Keyset-paginated variant of {@link #findAll}: continues after {@code cursor} and
+     * only counts matches when {@code includeTotal} is set.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ProblemSummaryDto> scroll(User user, Sort sort, int size, String cursor, boolean includeTotal,
+                                                String difficulty, String status,
+                                                List<Long> topicIds, MembershipMatch topicMatch,
+                                                List<Long> patternIds, MembershipMatch patternMatch, String search) {
+        Specification<Problem> filters = filterSpec(difficulty, status, topicIds, topicMatch, patternIds, patternMatch, search);
+        Specification<Problem> ownedByUser = (root, query, cb) -> cb.equal(root.get("user"), user);
+        return ProblemKeyset.of(sort).scroll(problemRepository, ownedByUser.and(filters), size, cursor, includeTotal,
+                problems -> toSummaries(problems, user));
+    }
+
+    /** Listing filters, with topic and pattern ids resolved to their mask bits from the reference-data snapshot. */
+    @Transactional(readOnly = true)
+    public Specification<Problem> filterSpec(String difficulty, String status,
+                                             List<Long> topicIds, MembershipMatch topicMatch,
+                                             List<Long> patternIds, MembershipMatch patternMatch,
+                                             String search) {
+        ReferenceDataCache.Snapshot reference = referenceDataCache.current();
+        ProblemSpecification.Membership topics = ProblemSpecification.Membership.of(topicIds, id -> {
+            reference.topic(id);
+            return reference.topicMaskBit(id);
+        }, topicMatch);
+        ProblemSpecification.Membership patterns = ProblemSpecification.Membership.of(patternIds, id -> {
+            reference.pattern(id);
+            return reference.patternMaskBit(id);
+        }, patternMatch);
+        return ProblemSpecification.buildSpec(difficulty, status, topics, patterns, search);
+    }
+
+    /** The user's problems best matching {@code query}, for typeahead; see {@link ProblemSearchService}. */
+    @Transactional(readOnly = true)
+    public List<ProblemSummaryDto> search(User user, String query, int limit) {
+        List<Long> ids = problemSearchService.search(user, query, limit);
+        Map<Long, Problem> byId = problemRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Problem::getId, p -> p));
+        // findAllById does not keep the ranking.
+        List<Problem> ranked = ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+        return toSummaries(ranked, user);
+    }
+
+    private List<ProblemSummaryDto> toSummaries(List<Problem> problems, User user) {
+        List<Long> ids = problems.stream().map(Problem::getId).toList();
         if (ids.isEmpty()) {
-            return page.map(ProblemSummaryDto::from);
+            return List.of();
         }
 
         Map<Long, Long> attemptCounts = attemptRepository.countByProblemIdsAndUser(ids, user)
@@ -56,7 +119,7 @@ public class ProblemService {
         Map<Long, ReviewCard> reviewCardMap = reviewCardRepository.findByUserAndProblemIdIn(user, ids)
                 .stream().collect(Collectors.toMap(rc -> rc.getProblem().getId(), rc -> rc));
 
-        return page.map(p -> ProblemSummaryDto.of(p, attemptCounts, reviewCardMap));
+        return problems.stream().map(p -> ProblemSummaryDto.of(p, attemptCounts, reviewCardMap)).toList();
     }
 
     private Pageable normalizeSort(Pageable pageable) {
@@ -103,57 +166,87 @@ public class ProblemService {
         problem.setAiReview(request.aiReview());
 
         Problem savedProblem = problemRepository.save(problem);
-        ProblemList defaultList = problemListRepository.findByUserAndIsDefaultTrue(user)
+        long defaultListId = problemListRepository.findDefaultIdByUser(user)
                 .orElseThrow(() -> new ResourceNotFoundException("Default problem list not found for user: " + user.getId()));
-        if (!defaultList.getProblems().contains(savedProblem)) {
-            defaultList.getProblems().add(savedProblem);
-            problemListRepository.save(defaultList);
-        }
+        problemListRepository.addProblem(defaultListId, savedProblem.getId());
 
         return savedProblem;
     }
 
     public Problem update(long id, CreateProblemRequest request, User user) {
         Problem problem = findById(id, user);
+        Difficulty previousDifficulty = problem.getDifficulty();
         problem.setLeetcodeId(request.leetcodeId());
         problem.setTitle(request.title());
         problem.setUrl(request.url());
         problem.setDifficulty(request.difficulty());
         problem.setAiReview(request.aiReview());
+        if (previousDifficulty != problem.getDifficulty()) {
+            // Queued attempt events carry the old difficulty; apply them before moving counters.
+            attemptEventService.drainUser(user);
+            statsService.adjustOnProblemChange(user, previousDifficulty, problem.getStatus(),
+                    problem.getDifficulty(), problem.getStatus());
+        }
         return problemRepository.save(problem);
     }
 
     public void delete(long id, User user) {
-        problemRepository.delete(findById(id, user));
+        Problem problem = findById(id, user);
+        // Queued attempt events outlive the cascade; apply them before their attempts go,
+        // or a rebuild before the worker drains would count the deleted attempts again.
+        attemptEventService.drainUser(user);
+        problemRepository.delete(problem);
+        // Cascaded attempts and tags make a delta impractical; rebuild on next read.
+        statsService.markStale(user);
+        // The problem's review card goes with it via ON DELETE CASCADE.
+        reviewQueueCache.invalidate(user.getId());
     }
 
     public Problem addTopic(long problemId, long topicId, User user) {
         Problem problem = findById(problemId, user);
-        Topic topic = topicService.findById(topicId);
-        if (!problem.getTopics().contains(topic)) {
+        if (problem.getTopics().stream().noneMatch(t -> t.getId() == topicId)) {
+            Topic topic = topicService.reference(topicId);
+            statsService.adjustOnTopicChange(user, problem, topicId, 1);
             problem.getTopics().add(topic);
+            problem.setTopicMask(topicMask(problem));
         }
         return problemRepository.save(problem);
     }
 
     public Problem removeTopics(long problemId, List<Long> topicIds, User user) {
         Problem problem = findById(problemId, user);
-        problem.getTopics().removeIf(t -> topicIds.contains(t.getId()));
+        List<Topic> removed = problem.getTopics().stream()
+                .filter(t -> topicIds.contains(t.getId()))
+                .toList();
+        for (Topic topic : removed) {
+            statsService.adjustOnTopicChange(user, problem, topic.getId(), -1);
+        }
+        problem.getTopics().removeAll(removed);
+        problem.setTopicMask(topicMask(problem));
         return problemRepository.save(problem);
     }
 
     public Problem addPattern(long problemId, long patternId, User user) {
         Problem problem = findById(problemId, user);
-        Pattern pattern = patternService.findById(patternId);
-        if (!problem.getPatterns().contains(pattern)) {
+        if (problem.getPatterns().stream().noneMatch(p -> p.getId() == patternId)) {
+            Pattern pattern = patternService.reference(patternId);
+            statsService.adjustOnPatternChange(user, problem, pattern, 1);
             problem.getPatterns().add(pattern);
+            problem.setPatternMask(patternMask(problem));
         }
         return problemRepository.save(problem);
     }
 
     public Problem removePattern(long problemId, long patternId, User user) {
         Problem problem = findById(problemId, user);
-        problem.getPatterns().removeIf(p -> p.getId().equals(patternId));
+        List<Pattern> removed = problem.getPatterns().stream()
+                .filter(p -> p.getId().equals(patternId))
+                .toList();
+        for (Pattern pattern : removed) {
+            statsService.adjustOnPatternChange(user, problem, pattern, -1);
+        }
+        problem.getPatterns().removeAll(removed);
+        problem.setPatternMask(patternMask(problem));
         return problemRepository.save(problem);
     }
 
@@ -168,7 +261,11 @@ public class ProblemService {
 
     public Problem updateStatus(long problemId, ProblemStatus status, User user) {
         Problem problem = findById(problemId, user);
+        ProblemStatus previousStatus = problem.getStatus();
         problem.setStatus(status);
+        attemptEventService.drainUser(user);
+        statsService.adjustOnProblemChange(user, problem.getDifficulty(), previousStatus,
+                problem.getDifficulty(), status);
         return problemRepository.save(problem);
     }
 
@@ -177,4 +274,15 @@ public class ProblemService {
         problem.setAiReview(aiReview);
         return problemRepository.save(problem);
     }
+
+    // Bits come from the snapshot so newly attached topic and pattern references stay uninitialized.
+    private long topicMask(Problem problem) {
+        ReferenceDataCache.Snapshot reference = referenceDataCache.current();
+        return MembershipBits.mask(problem.getTopics(), t -> reference.topicMaskBit(t.getId()));
+    }
+
+    private long patternMask(Problem problem) {
+        ReferenceDataCache.Snapshot reference = referenceDataCache.current();
+        return MembershipBits.mask(problem.getPatterns(), p -> reference.patternMaskBit(p.getId()));
+    }
 }
@@ -1,17 +1,60 @@
 package com.atinroy.leetly.problem.service;
 
-import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import org.springframework.data.jpa.domain.Specification;
 import com.atinroy.leetly.problem.model.Difficulty;
+import com.atinroy.leetly.problem.model.MembershipMatch;
 import com.atinroy.leetly.problem.model.Problem;
 import com.atinroy.leetly.problem.model.ProblemStatus;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.function.LongFunction;
+
 public final class ProblemSpecification {
 
     private ProblemSpecification() {
     }
 
-    public static Specification<Problem> buildSpec(String difficulty, String status, Long topicId, Long patternId, String search) {
+    /**
+     * Topics or patterns to filter by: the mask of their bits, the ids of those without a
+     * bit, and whether problems need {@code ANY} or {@code ALL} of them (ANY when null).
+     */
+    public record Membership(long mask, List<Long> unmaskedIds, MembershipMatch match) {
+
+        /** The membership filter for {@code ids}, or null when there are none. */
+        public static Membership of(Collection<Long> ids, LongFunction<Integer> maskBit, MembershipMatch match) {
+            if (ids == null || ids.isEmpty()) {
+                return null;
+            }
+            long mask = 0;
+            List<Long> unmaskedIds = new ArrayList<>();
+            for (long id : new LinkedHashSet<>(ids)) {
+                Integer bit = maskBit.apply(id);
+                if (bit == null) {
+                    unmaskedIds.add(id);
+                } else {
+                    mask |= 1L << bit;
+                }
+            }
+            return new Membership(mask, List.copyOf(unmaskedIds), match);
+        }
+    }
+
+    /**
+     * Filters for the problem listings; a null {@code topics} or {@code patterns} does
+     * not filter on them.
+     */
+    public static Specification<Problem> buildSpec(String difficulty, String status,
+                                                   Membership topics, Membership patterns,
+                                                   String search) {
         Specification<Problem> spec = (root, query, cb) -> cb.conjunction();
 
         if (difficulty != null && !difficulty.isBlank()) {
@@ -24,36 +67,72 @@ public final class ProblemSpecification {
                     cb.equal(root.get("status"), ProblemStatus.valueOf(status)));
         }
 
-        if (topicId != null) {
-            spec = spec.and((root, query, cb) -> {
-                query.distinct(true);
-                return cb.equal(root.join("topics", JoinType.INNER).get("id"), topicId);
-            });
+        if (topics != null) {
+            spec = spec.and(membership("topicMask", "topics", topics));
         }
 
-        if (patternId != null) {
-            spec = spec.and((root, query, cb) -> {
-                query.distinct(true);
-                return cb.equal(root.join("patterns", JoinType.INNER).get("id"), patternId);
-            });
+        if (patterns != null) {
+            spec = spec.and(membership("patternMask", "patterns", patterns));
         }
 
         if (search != null && !search.isBlank()) {
             String normalizedSearch = search.trim();
             String loweredSearch = normalizedSearch.toLowerCase();
+            Long leetcodeId = parseLeetcodeId(normalizedSearch);
 
+            // lower(title) LIKE '%x%' is served by the trigram index on lower(title); an OR
+            // with a non-indexable leetcode_id match would force a scan, so ids match exactly.
             spec = spec.and((root, query, cb) -> {
                 var titleMatch = cb.like(cb.lower(root.get("title")), "%" + loweredSearch + "%");
-                var leetcodeIdAsText = cb.function("concat", String.class, cb.literal(""), root.get("leetcodeId"));
-                var leetcodeIdMatch = cb.like(leetcodeIdAsText, "%" + normalizedSearch + "%");
-
-                return cb.or(
-                        titleMatch,
-                        leetcodeIdMatch
-                );
+                if (leetcodeId == null) {
+                    return titleMatch;
+                }
+                return cb.or(titleMatch, cb.equal(root.get("leetcodeId"), leetcodeId));
             });
         }
 
         return spec;
     }
+
+    // A bitwise check against the problem's mask column, with no join or DISTINCT. Members
+    // without a mask bit (past the 64th) are checked through the join table instead.
+    private static Specification<Problem> membership(String maskAttribute, String joinAttribute,
+                                                     Membership membership) {
+        boolean all = membership.match() == MembershipMatch.ALL;
+        long mask = membership.mask();
+        List<Long> unmaskedIds = membership.unmaskedIds();
+        return (root, query, cb) -> {
+            List<Predicate> parts = new ArrayList<>();
+            if (mask != 0) {
+                Expression<Long> masked = cb.function("bitand", Long.class, root.get(maskAttribute), cb.literal(mask));
+                parts.add(all ? cb.equal(masked, mask) : cb.notEqual(masked, 0L));
+            }
+            if (all) {
+                for (Long id : unmaskedIds) {
+                    parts.add(hasMember(root, query, cb, joinAttribute, List.of(id)));
+                }
+            } else if (!unmaskedIds.isEmpty()) {
+                parts.add(hasMember(root, query, cb, joinAttribute, unmaskedIds));
+            }
+            Predicate[] predicates = parts.toArray(Predicate[]::new);
+            return all ? cb.and(predicates) : cb.or(predicates);
+        };
+    }
+
+    private static Predicate hasMember(Root<Problem> root, CriteriaQuery<?> query, CriteriaBuilder cb,
+                                       String joinAttribute, List<Long> ids) {
+        Subquery<Long> members = query.subquery(Long.class);
+        Root<Problem> problem = members.from(Problem.class);
+        members.select(problem.get("id"))
+                .where(cb.equal(problem, root), problem.join(joinAttribute).get("id").in(ids));
+        return cb.exists(members);
+    }
+
+    private static Long parseLeetcodeId(String search) {
+        String digits = search.startsWith("#") ? search.substring(1) : search;
+        if (digits.isEmpty() || digits.length() > 18 || !digits.chars().allMatch(Character::isDigit)) {
+            return null;
+        }
+        return Long.parseLong(digits);
+    }
 }
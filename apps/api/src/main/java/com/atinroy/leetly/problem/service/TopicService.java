@@ -1,13 +1,15 @@
 package com.atinroy.leetly.problem.service;
 
 import com.atinroy.leetly.common.exception.ResourceNotFoundException;
+import com.atinroy.leetly.common.service.ReferenceDataCache;
+import com.atinroy.leetly.problem.dto.TopicDto;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
 import com.atinroy.leetly.problem.model.Topic;
 import com.atinroy.leetly.problem.repository.TopicRepository;
+import com.atinroy.leetly.problem.repository.ProblemRepository;
 
 @Service
 @Transactional
@@ -15,33 +17,48 @@ import com.atinroy.leetly.problem.repository.TopicRepository;
 public class TopicService {
 
     private final TopicRepository topicRepository;
+    private final ProblemRepository problemRepository;
+    private final ReferenceDataCache referenceDataCache;
 
-    @Transactional(readOnly = true)
-    public List<Topic> findAll() {
-        return topicRepository.findAllByOrderByNameAsc();
+    public TopicDto findById(long id) {
+        return referenceDataCache.current().topic(id);
     }
 
-    @Transactional(readOnly = true)
-    public Topic findById(long id) {
-        return topicRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Topic not found: " + id));
+    /** An uninitialized reference to the topic for associations, after checking it exists. */
+    public Topic reference(long id) {
+        findById(id);
+        return topicRepository.getReferenceById(id);
     }
 
     public Topic create(String name, String description) {
         Topic topic = new Topic();
         topic.setName(name);
         topic.setDescription(description);
-        return topicRepository.save(topic);
+        topic.setMaskBit(MembershipBits.lowestFree(topicRepository.findUsedMaskBits()));
+        Topic saved = topicRepository.save(topic);
+        referenceDataCache.refreshAfterCommit();
+        return saved;
     }
 
     public Topic update(long id, String name, String description) {
-        Topic topic = findById(id);
+        Topic topic = topicRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Topic not found: " + id));
         topic.setName(name);
         topic.setDescription(description);
-        return topicRepository.save(topic);
+        Topic saved = topicRepository.save(topic);
+        referenceDataCache.refreshAfterCommit();
+        return saved;
     }
 
     public void delete(long id) {
-        topicRepository.deleteById(id);
+        topicRepository.findById(id).ifPresent(topic -> {
+            // Free the bit so a later topic can take it without inheriting memberships.
+            if (topic.getMaskBit() != null) {
+                long bit = 1L << topic.getMaskBit();
+                problemRepository.clearTopicMaskBit(bit, ~bit);
+            }
+            topicRepository.delete(topic);
+            referenceDataCache.refreshAfterCommit();
+        });
     }
 }
@@ -2,6 +2,9 @@ package com.atinroy.leetly.review.controller;
 
 import com.atinroy.leetly.review.dto.*;
 import com.atinroy.leetly.review.mapper.ReviewMapper;
+import com.atinroy.leetly.review.model.ReviewLog;
+import com.atinroy.leetly.review.service.DailyReviewQueueService;
+import com.atinroy.leetly.review.service.ReviewForecastService;
 import com.atinroy.leetly.review.service.ReviewService;
 import com.atinroy.leetly.user.model.User;
 import com.atinroy.leetly.user.service.UserService;
@@ -9,11 +12,14 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -22,6 +28,8 @@ import java.util.List;
 public class ReviewController {
 
     private final ReviewService reviewService;
+    private final DailyReviewQueueService dailyReviewQueueService;
+    private final ReviewForecastService reviewForecastService;
     private final ReviewMapper reviewMapper;
     private final UserService userService;
 
@@ -48,14 +56,25 @@ public class ReviewController {
         return reviewService.findDueCards(user, pageable).map(reviewMapper::toDto);
     }
 
+    @GetMapping("/today")
+    public DailyReviewQueueDto today(@AuthenticationPrincipal Jwt jwt) {
+        User user = userService.getOrCreate(jwt.getSubject());
+        return dailyReviewQueueService.getToday(user);
+    }
+
     @GetMapping("/stats")
     public ReviewStatsDto stats(@AuthenticationPrincipal Jwt jwt) {
         User user = userService.getOrCreate(jwt.getSubject());
-        return new ReviewStatsDto(
-            reviewService.countDue(user),
-            reviewService.countUpcoming7Days(user),
-            reviewService.countTotal(user)
-        );
+        return reviewService.getStats(user);
+    }
+
+    @GetMapping("/forecast")
+    public ReviewForecastDto forecast(@RequestParam(defaultValue = "30") int days,
+                                      @RequestParam(defaultValue = "0") int newPerDay,
+                                      @RequestParam(defaultValue = "200") int trials,
+                                      @AuthenticationPrincipal Jwt jwt) {
+        User user = userService.getOrCreate(jwt.getSubject());
+        return reviewForecastService.forecast(user, days, newPerDay, trials);
     }
 
     @PostMapping("/{id}/review")
@@ -66,10 +85,30 @@ public class ReviewController {
         return reviewMapper.toDto(reviewService.quickReview(id, request.rating(), user));
     }
 
+    @PostMapping("/reviews")
+    public List<ReviewCardDto> bulkReview(@Valid @RequestBody BulkReviewRequest request,
+                                          @AuthenticationPrincipal Jwt jwt) {
+        User user = userService.getOrCreate(jwt.getSubject());
+        return reviewService.bulkReview(request.reviews(), user).stream().map(reviewMapper::toDto).toList();
+    }
+
     @GetMapping("/{id}/history")
-    public List<ReviewLogDto> history(@PathVariable long id,
-                                      @AuthenticationPrincipal Jwt jwt) {
+    public ReviewHistoryDto history(@PathVariable long id,
+                                    @RequestParam(required = false)
+                                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before,
+                                    @RequestParam(required = false) Long beforeId,
+                                    @RequestParam(defaultValue = "50") int size,
+                                    @AuthenticationPrincipal Jwt jwt) {
         User user = userService.getOrCreate(jwt.getSubject());
-        return reviewService.findHistory(id, user).stream().map(reviewMapper::toLogDto).toList();
+        Slice<ReviewLog> logs = reviewService.findHistory(id, user, before, beforeId, size);
+        ReviewLog last = logs.hasNext() ? logs.getContent().getLast() : null;
+        ReviewLogSummaryDto archived = before == null
+            ? reviewService.findArchivedSummary(id, user).map(reviewMapper::toSummaryDto).orElse(null)
+            : null;
+        return new ReviewHistoryDto(
+            logs.map(reviewMapper::toLogDto).getContent(),
+            last != null ? last.getReviewedAt() : null,
+            last != null ? last.getId() : null,
+            archived);
     }
 }
@@ -0,0 +1,9 @@
+package com.atinroy.leetly.review.dto;
+
+import com.atinroy.leetly.review.model.Rating;
+import jakarta.validation.constraints.NotNull;
+
+public record BulkReviewItem(
+    @NotNull Long cardId,
+    @NotNull Rating rating
+) {}
@@ -0,0 +1,12 @@
+package com.atinroy.leetly.review.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record BulkReviewRequest(
+    @NotEmpty @Size(max = 100) List<@Valid @NotNull BulkReviewItem> reviews
+) {}
@@ -0,0 +1,12 @@
+package com.atinroy.leetly.review.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record DailyReviewQueueDto(
+    LocalDate date,
+    String timezone,
+    LocalDateTime generatedAt,
+    List<DailyReviewQueueEntryDto> cards
+) {}
@@ -0,0 +1,14 @@
+package com.atinroy.leetly.review.dto;
+
+import com.atinroy.leetly.problem.model.Difficulty;
+
+import java.time.LocalDateTime;
+
+public record DailyReviewQueueEntryDto(
+    long cardId,
+    long problemId,
+    long leetcodeId,
+    String problemTitle,
+    Difficulty difficulty,
+    LocalDateTime due
+) {}
@@ -0,0 +1,10 @@
+package com.atinroy.leetly.review.dto;
+
+import java.time.LocalDate;
+
+public record ReviewForecastDayDto(
+    LocalDate date,
+    double expectedReviews,
+    int p90Reviews,
+    double expectedMinutes
+) {}
@@ -0,0 +1,13 @@
+package com.atinroy.leetly.review.dto;
+
+import java.util.List;
+
+public record ReviewForecastDto(
+    int days,
+    int newPerDay,
+    int trials,
+    int deckSize,
+    double expectedReviews,
+    double expectedMinutes,
+    List<ReviewForecastDayDto> daily
+) {}
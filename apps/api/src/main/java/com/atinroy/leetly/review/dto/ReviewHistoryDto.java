@@ -0,0 +1,16 @@
+package com.atinroy.leetly.review.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A page of review logs, newest first. When more follow, {@code nextBefore} and
+ * {@code nextBeforeId} are the cursor for the next page; {@code archived} summarizes
+ * logs that were archived and is only sent with the first page.
+ */
+public record ReviewHistoryDto(
+    List<ReviewLogDto> logs,
+    LocalDateTime nextBefore,
+    Long nextBeforeId,
+    ReviewLogSummaryDto archived
+) {}
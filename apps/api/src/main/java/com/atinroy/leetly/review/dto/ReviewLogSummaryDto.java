@@ -0,0 +1,14 @@
+package com.atinroy.leetly.review.dto;
+
+import java.time.LocalDateTime;
+
+public record ReviewLogSummaryDto(
+    int reviewCount,
+    int againCount,
+    int hardCount,
+    int goodCount,
+    int easyCount,
+    LocalDateTime firstReviewedAt,
+    LocalDateTime lastReviewedAt,
+    LocalDateTime archivedBefore
+) {}
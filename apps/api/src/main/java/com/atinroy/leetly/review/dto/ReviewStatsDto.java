@@ -1,7 +1,17 @@
 package com.atinroy.leetly.review.dto;
 
+import com.atinroy.leetly.review.model.CardState;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
 public record ReviewStatsDto(
     long dueNow,
     long upcoming7Days,
-    long totalEnrolled
+    long totalEnrolled,
+    long overdue,
+    LocalDate histogramStart,
+    List<Integer> dueByDay,
+    Map<CardState, Integer> byState
 ) {}
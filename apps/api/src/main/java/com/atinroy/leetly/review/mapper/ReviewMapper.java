@@ -2,8 +2,10 @@ package com.atinroy.leetly.review.mapper;
 
 import com.atinroy.leetly.review.dto.ReviewCardDto;
 import com.atinroy.leetly.review.dto.ReviewLogDto;
+import com.atinroy.leetly.review.dto.ReviewLogSummaryDto;
 import com.atinroy.leetly.review.model.ReviewCard;
 import com.atinroy.leetly.review.model.ReviewLog;
+import com.atinroy.leetly.review.model.ReviewLogSummary;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
@@ -21,4 +23,6 @@ public interface ReviewMapper {
 
     @Mapping(target = "attemptId", source = "attempt.id")
     ReviewLogDto toLogDto(ReviewLog log);
+
+    ReviewLogSummaryDto toSummaryDto(ReviewLogSummary summary);
 }
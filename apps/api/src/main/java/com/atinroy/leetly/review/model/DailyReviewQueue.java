@@ -0,0 +1,63 @@
+package com.atinroy.leetly.review.model;
+
+import com.atinroy.leetly.common.model.BaseEntity;
+import com.atinroy.leetly.user.model.User;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A user's review queue as of the start of their local day: the cards due by the end
+ * of {@code queueDate} in {@code timezone}, in due order. Entry i is spread across the
+ * arrays at index i, with the problem fields the review screen lists copied in.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "daily_review_queues")
+public class DailyReviewQueue extends BaseEntity {
+
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false, unique = true)
+    private User user;
+
+    // The user's local date the queue was built for.
+    @Column(name = "queue_date", nullable = false)
+    private LocalDate queueDate;
+
+    @Column(nullable = false)
+    private String timezone;
+
+    @Column(name = "generated_at", nullable = false)
+    private LocalDateTime generatedAt;
+
+    @Column(name = "card_ids", nullable = false)
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    private long[] cardIds;
+
+    @Column(name = "problem_ids", nullable = false)
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    private long[] problemIds;
+
+    @Column(name = "leetcode_ids", nullable = false)
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    private long[] leetcodeIds;
+
+    @Column(nullable = false)
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    private String[] titles;
+
+    // Difficulty names.
+    @Column(nullable = false)
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    private String[] difficulties;
+
+    @Column(name = "due_dates", nullable = false)
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    private LocalDateTime[] dueDates;
+}
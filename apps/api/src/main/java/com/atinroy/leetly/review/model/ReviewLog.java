@@ -13,8 +13,10 @@ import java.time.LocalDateTime;
 @Table(name = "review_logs")
 public class ReviewLog {
 
+    // Pooled sequence rather than IDENTITY so a session's logs go out as one JDBC batch.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "review_logs_id_seq")
+    @SequenceGenerator(name = "review_logs_id_seq", sequenceName = "review_logs_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
@@ -0,0 +1,14 @@
+package com.atinroy.leetly.review.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * The columns of a review log that FSRS training needs, read as a scalar projection so
+ * a user's history can be streamed without loading ReviewLog entities.
+ */
+public record ReviewLogFacts(
+        Long reviewCardId,
+        Rating rating,
+        LocalDateTime reviewedAt
+) {
+}
@@ -0,0 +1,47 @@
+package com.atinroy.leetly.review.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Counts for a card's review logs that were archived with their monthly partition.
+ * Written only by the database's archive_review_log_partition() function.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "review_log_summaries")
+public class ReviewLogSummary {
+
+    @Id
+    @Column(name = "review_card_id")
+    private Long reviewCardId;
+
+    @Column(name = "review_count", nullable = false)
+    private int reviewCount;
+
+    @Column(name = "again_count", nullable = false)
+    private int againCount;
+
+    @Column(name = "hard_count", nullable = false)
+    private int hardCount;
+
+    @Column(name = "good_count", nullable = false)
+    private int goodCount;
+
+    @Column(name = "easy_count", nullable = false)
+    private int easyCount;
+
+    @Column(name = "first_reviewed_at", nullable = false)
+    private LocalDateTime firstReviewedAt;
+
+    @Column(name = "last_reviewed_at", nullable = false)
+    private LocalDateTime lastReviewedAt;
+
+    // Every log of the card reviewed before this was archived.
+    @Column(name = "archived_before", nullable = false)
+    private LocalDateTime archivedBefore;
+}
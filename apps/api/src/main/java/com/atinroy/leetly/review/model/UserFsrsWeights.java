@@ -0,0 +1,45 @@
+package com.atinroy.leetly.review.model;
+
+import com.atinroy.leetly.common.model.BaseEntity;
+import com.atinroy.leetly.user.model.User;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * FSRS weights fitted to one user's review history. Users without a row, or whose
+ * history did not beat the defaults, are scheduled with the default weights.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "user_fsrs_weights")
+public class UserFsrsWeights extends BaseEntity {
+
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false, unique = true)
+    private User user;
+
+    @Column(nullable = false)
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    private double[] weights;
+
+    // The user's review log counter when the weights were fitted; retraining waits for it to
+    // grow. Unlike the live history it does not drop when old partitions are archived.
+    @Column(name = "review_count", nullable = false)
+    private long reviewCount;
+
+    // Mean log-loss of recall predictions with these weights and with the defaults.
+    @Column(name = "log_loss", nullable = false)
+    private double logLoss;
+
+    @Column(name = "default_log_loss", nullable = false)
+    private double defaultLogLoss;
+
+    @Column(name = "trained_at", nullable = false)
+    private LocalDateTime trainedAt;
+}
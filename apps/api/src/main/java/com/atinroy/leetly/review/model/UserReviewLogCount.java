@@ -0,0 +1,28 @@
+package com.atinroy.leetly.review.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Running total of review logs written for a user. Unlike review_logs it never shrinks
+ * when old partitions are archived, so it is what retraining compares against.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "user_review_log_counts")
+public class UserReviewLogCount {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "review_count", nullable = false)
+    private long reviewCount;
+
+    @Column(name = "last_reviewed_at", nullable = false)
+    private LocalDateTime lastReviewedAt;
+}
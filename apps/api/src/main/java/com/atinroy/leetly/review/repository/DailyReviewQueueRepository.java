@@ -0,0 +1,37 @@
+package com.atinroy.leetly.review.repository;
+
+import com.atinroy.leetly.review.model.DailyReviewQueue;
+import com.atinroy.leetly.user.model.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+public interface DailyReviewQueueRepository extends JpaRepository<DailyReviewQueue, Long> {
+
+    Optional<DailyReviewQueue> findByUser(User user);
+
+    Optional<DailyReviewQueue> findByUserId(long userId);
+
+    /**
+     * Users in {@code timezone} with review cards and no queue for {@code today} yet,
+     * limited to the stagger slots up to {@code slot} (user id modulo {@code slots}).
+     */
+    @Query("""
+            SELECT s.user.id FROM UserSettings s
+            WHERE s.timezone = :timezone
+              AND MOD(s.user.id, :slots) <= :slot
+              AND EXISTS (SELECT 1 FROM ReviewCard rc WHERE rc.user = s.user)
+              AND NOT EXISTS (SELECT 1 FROM DailyReviewQueue q WHERE q.user = s.user AND q.queueDate >= :today)
+            ORDER BY s.user.id
+            """)
+    List<Long> findUserIdsToMaterialize(@Param("timezone") String timezone,
+                                        @Param("slots") long slots,
+                                        @Param("slot") long slot,
+                                        @Param("today") LocalDate today,
+                                        Pageable pageable);
+}
@@ -3,7 +3,6 @@ package com.atinroy.leetly.review.repository;
 import com.atinroy.leetly.problem.model.Problem;
 import com.atinroy.leetly.review.model.ReviewCard;
 import com.atinroy.leetly.user.model.User;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -11,6 +10,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,19 +23,23 @@ public interface ReviewCardRepository extends JpaRepository<ReviewCard, Long> {
     Optional<ReviewCard> findByIdAndUser(Long id, User user);
 
     @EntityGraph(attributePaths = {"problem"})
-    @Query("SELECT rc FROM ReviewCard rc WHERE rc.user = :user AND rc.due <= :now ORDER BY rc.due ASC")
-    Page<ReviewCard> findDueCards(@Param("user") User user, @Param("now") LocalDateTime now, Pageable pageable);
+    List<ReviewCard> findByUserAndIdIn(User user, Collection<Long> ids);
 
-    @Query("SELECT rc FROM ReviewCard rc WHERE rc.user = :user AND rc.problem.id IN :problemIds")
-    List<ReviewCard> findByUserAndProblemIdIn(@Param("user") User user, @Param("problemIds") List<Long> problemIds);
+    // Rows of [Long id, LocalDateTime due, CardState state] for ReviewQueueCache, in due order.
+    @Query("SELECT rc.id, rc.due, rc.state FROM ReviewCard rc WHERE rc.user = :user ORDER BY rc.due, rc.id")
+    List<Object[]> findQueueByUser(@Param("user") User user);
+
+    // Cards due by `until` with their problems, in the same order as findQueueByUser.
+    @Query("SELECT rc FROM ReviewCard rc JOIN FETCH rc.problem WHERE rc.user = :user AND rc.due <= :until ORDER BY rc.due, rc.id")
+    List<ReviewCard> findDueByUser(@Param("user") User user, @Param("until") LocalDateTime until, Pageable pageable);
 
-    @Query("SELECT COUNT(rc) FROM ReviewCard rc WHERE rc.user = :user AND rc.due <= :now")
-    long countDue(@Param("user") User user, @Param("now") LocalDateTime now);
+    @Query("SELECT rc.id FROM ReviewCard rc WHERE rc.user = :user AND rc.id IN :ids AND rc.due <= :until")
+    List<Long> findDueIdsByUserAndIdIn(@Param("user") User user, @Param("ids") List<Long> ids, @Param("until") LocalDateTime until);
 
-    @Query("SELECT COUNT(rc) FROM ReviewCard rc WHERE rc.user = :user AND rc.due > :now AND rc.due <= :until")
-    long countUpcoming(@Param("user") User user, @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+    @Query("SELECT rc FROM ReviewCard rc WHERE rc.user = :user AND rc.problem.id IN :problemIds")
+    List<ReviewCard> findByUserAndProblemIdIn(@Param("user") User user, @Param("problemIds") List<Long> problemIds);
 
-    long countByUser(User user);
+    List<ReviewCard> findByUser(User user);
 
     void deleteByProblemAndUser(Problem problem, User user);
 
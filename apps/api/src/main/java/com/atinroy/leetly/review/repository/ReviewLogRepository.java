@@ -2,11 +2,78 @@ package com.atinroy.leetly.review.repository;
 
 import com.atinroy.leetly.review.model.ReviewCard;
 import com.atinroy.leetly.review.model.ReviewLog;
+import com.atinroy.leetly.review.model.ReviewLogFacts;
+import com.atinroy.leetly.user.model.User;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface ReviewLogRepository extends JpaRepository<ReviewLog, Long> {
 
-    List<ReviewLog> findByReviewCardOrderByReviewedAtDesc(ReviewCard reviewCard);
+    // First page of a card's history, newest first.
+    @Query("SELECT rl FROM ReviewLog rl WHERE rl.reviewCard = :card ORDER BY rl.reviewedAt DESC, rl.id DESC")
+    List<ReviewLog> findHistory(@Param("card") ReviewCard card, Pageable pageable);
+
+    // The page after the log (beforeAt, beforeId) in the same order.
+    @Query("""
+            SELECT rl FROM ReviewLog rl
+            WHERE rl.reviewCard = :card
+              AND (rl.reviewedAt < :beforeAt OR (rl.reviewedAt = :beforeAt AND rl.id < :beforeId))
+            ORDER BY rl.reviewedAt DESC, rl.id DESC
+            """)
+    List<ReviewLog> findHistoryBefore(@Param("card") ReviewCard card,
+                                      @Param("beforeAt") LocalDateTime beforeAt,
+                                      @Param("beforeId") long beforeId,
+                                      Pageable pageable);
+
+    // Rows of [CardState state, Rating rating, Long count]; state is the card's state before the review.
+    @Query("SELECT rl.state, rl.rating, COUNT(rl) FROM ReviewLog rl WHERE rl.reviewCard.user = :user GROUP BY rl.state, rl.rating")
+    List<Object[]> countRatingsByStateForUser(@Param("user") User user);
+
+    // Rows of [Rating rating, Double averageMinutes] over reviews logged from a timed attempt.
+    @Query("SELECT rl.rating, AVG(a.durationMinutes) FROM ReviewLog rl JOIN rl.attempt a " +
+           "WHERE rl.reviewCard.user = :user AND a.durationMinutes IS NOT NULL GROUP BY rl.rating")
+    List<Object[]> averageMinutesByRatingForUser(@Param("user") User user);
+
+    // Forward-only cursor over a user's history, grouped by card in review order. Cards with
+    // archived logs are left out: their remaining history no longer starts at the first review.
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("""
+            SELECT new com.atinroy.leetly.review.model.ReviewLogFacts(rl.reviewCard.id, rl.rating, rl.reviewedAt)
+            FROM ReviewLog rl
+            WHERE rl.reviewCard.user = :user
+            AND NOT EXISTS (SELECT 1 FROM ReviewLogSummary s WHERE s.reviewCardId = rl.reviewCard.id)
+            ORDER BY rl.reviewCard.id, rl.reviewedAt, rl.id
+            """)
+    Stream<ReviewLogFacts> streamFactsByUser(@Param("user") User user);
+
+    // Months (yyyy-MM) that have their own review_logs partition, oldest first.
+    @Query(nativeQuery = true, value = """
+            SELECT to_char(to_date(substring(c.relname FROM 13), 'YYYY_MM'), 'YYYY-MM')
+            FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = 'review_logs'::regclass
+              AND c.relname ~ '^review_logs_[0-9]{4}_[0-9]{2}$'
+            ORDER BY 1
+            """)
+    List<String> findPartitionMonths();
+
+    // Creates the month's partition if missing; true if it was created.
+    @Query(nativeQuery = true, value = "SELECT ensure_review_log_partition(:monthStart)")
+    boolean ensurePartition(@Param("monthStart") LocalDate monthStart);
+
+    // Folds the month's logs into review_log_summaries and drops the partition; returns logs archived.
+    @Query(nativeQuery = true, value = "SELECT archive_review_log_partition(:monthStart)")
+    int archivePartition(@Param("monthStart") LocalDate monthStart);
 }
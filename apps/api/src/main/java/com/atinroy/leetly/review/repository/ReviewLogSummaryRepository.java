@@ -0,0 +1,7 @@
+package com.atinroy.leetly.review.repository;
+
+import com.atinroy.leetly.review.model.ReviewLogSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ReviewLogSummaryRepository extends JpaRepository<ReviewLogSummary, Long> {
+}
@@ -0,0 +1,31 @@
+package com.atinroy.leetly.review.repository;
+
+import com.atinroy.leetly.review.model.UserFsrsWeights;
+import com.atinroy.leetly.user.model.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface UserFsrsWeightsRepository extends JpaRepository<UserFsrsWeights, Long> {
+
+    Optional<UserFsrsWeights> findByUser(User user);
+
+    Optional<UserFsrsWeights> findByUserId(long userId);
+
+    /**
+     * Users with at least minNewReviews review logs written since their weights were last
+     * fitted, never-fitted and least recently fitted first. Reads the per-user log counter
+     * rather than aggregating review_logs.
+     */
+    @Query("""
+            SELECT c.userId FROM UserReviewLogCount c
+            LEFT JOIN UserFsrsWeights fw ON fw.user.id = c.userId
+            WHERE c.reviewCount >= COALESCE(fw.reviewCount, 0) + :minNewReviews
+            ORDER BY fw.trainedAt ASC NULLS FIRST, c.userId
+            """)
+    List<Long> findUserIdsDueForTraining(@Param("minNewReviews") long minNewReviews, Pageable pageable);
+}
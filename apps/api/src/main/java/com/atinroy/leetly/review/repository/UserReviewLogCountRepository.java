@@ -0,0 +1,22 @@
+package com.atinroy.leetly.review.repository;
+
+import com.atinroy.leetly.review.model.UserReviewLogCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+public interface UserReviewLogCountRepository extends JpaRepository<UserReviewLogCount, Long> {
+
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            INSERT INTO user_review_log_counts (user_id, review_count, last_reviewed_at)
+            VALUES (:userId, :count, :now)
+            ON CONFLICT (user_id) DO UPDATE SET
+                review_count = user_review_log_counts.review_count + EXCLUDED.review_count,
+                last_reviewed_at = EXCLUDED.last_reviewed_at
+            """)
+    int increment(@Param("userId") long userId, @Param("count") long count, @Param("now") LocalDateTime now);
+}
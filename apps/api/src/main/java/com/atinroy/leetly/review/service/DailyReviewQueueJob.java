@@ -0,0 +1,103 @@
+package com.atinroy.leetly.review.service;
+
+import com.atinroy.leetly.review.repository.DailyReviewQueueRepository;
+import com.atinroy.leetly.user.repository.UserSettingsRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Materializes daily review queues as each timezone passes local midnight. Runs every
+ * minute. Users in a timezone are split into {@code spread-minutes} slots by user id,
+ * and slot k is built k minutes after local midnight, so a popular timezone's rollover
+ * is spread over that window instead of landing in one minute. Each run also picks up
+ * earlier slots still missing today's queue, e.g. after a restart. Runs take at most
+ * {@code batch-size} users per timezone, and the rest wait for the next minute.
+ */
+@Slf4j
+@Component
+public class DailyReviewQueueJob {
+
+    private final UserSettingsRepository userSettingsRepository;
+    private final DailyReviewQueueRepository dailyReviewQueueRepository;
+    private final DailyReviewQueueService dailyReviewQueueService;
+    private final int spreadMinutes;
+    private final int batchSize;
+    private final Timer runTimer;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public DailyReviewQueueJob(
+            UserSettingsRepository userSettingsRepository,
+            DailyReviewQueueRepository dailyReviewQueueRepository,
+            DailyReviewQueueService dailyReviewQueueService,
+            MeterRegistry meterRegistry,
+            @Value("${app.daily-review-queue.spread-minutes:60}") int spreadMinutes,
+            @Value("${app.daily-review-queue.batch-size:500}") int batchSize) {
+        this.userSettingsRepository = userSettingsRepository;
+        this.dailyReviewQueueRepository = dailyReviewQueueRepository;
+        this.dailyReviewQueueService = dailyReviewQueueService;
+        this.spreadMinutes = Math.max(1, spreadMinutes);
+        this.batchSize = batchSize;
+        this.runTimer = Timer.builder("leetly.review.daily.queue.run")
+                .description("Duration of a daily review queue materialization run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${app.daily-review-queue.cron:0 * * * * *}")
+    public void scheduledRun() {
+        if (!running.compareAndSet(false, true)) {
+            log.debug("Skipping daily review queue run: the previous one is still going");
+            return;
+        }
+        try {
+            run(Instant.now());
+        } catch (RuntimeException e) {
+            log.error("Daily review queue run failed", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /** Builds the queues due at {@code now}; returns how many were written. */
+    int run(Instant now) {
+        long start = System.nanoTime();
+        int built = 0;
+        for (String timezone : userSettingsRepository.findDistinctTimezones()) {
+            ZoneId zone = DailyReviewQueueService.parseZone(timezone);
+            ZonedDateTime local = now.atZone(zone);
+            LocalDate today = local.toLocalDate();
+            int minutesIntoDay = local.getHour() * 60 + local.getMinute();
+            int slot = Math.min(minutesIntoDay, spreadMinutes - 1);
+
+            List<Long> userIds = dailyReviewQueueRepository.findUserIdsToMaterialize(
+                    timezone, spreadMinutes, slot, today, PageRequest.of(0, batchSize));
+            for (long userId : userIds) {
+                try {
+                    dailyReviewQueueService.materialize(userId, zone, today);
+                    built++;
+                } catch (RuntimeException e) {
+                    log.error("Failed to build the daily review queue for user {}", userId, e);
+                }
+            }
+        }
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        runTimer.record(elapsed);
+        if (built > 0) {
+            log.info("Built {} daily review queues in {} ms", built, elapsed.toMillis());
+        }
+        return built;
+    }
+}
@@ -0,0 +1,183 @@
+package com.atinroy.leetly.review.service;
+
+import com.atinroy.leetly.problem.model.Difficulty;
+import com.atinroy.leetly.review.dto.DailyReviewQueueDto;
+import com.atinroy.leetly.review.dto.DailyReviewQueueEntryDto;
+import com.atinroy.leetly.review.model.DailyReviewQueue;
+import com.atinroy.leetly.review.model.ReviewCard;
+import com.atinroy.leetly.review.repository.DailyReviewQueueRepository;
+import com.atinroy.leetly.review.repository.ReviewCardRepository;
+import com.atinroy.leetly.user.model.User;
+import com.atinroy.leetly.user.model.UserSettings;
+import com.atinroy.leetly.user.repository.UserRepository;
+import com.atinroy.leetly.user.repository.UserSettingsRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Builds and serves each user's review queue for their local day. Review times are
+ * stored as server-local {@link LocalDateTime}s, so "due today" means due before the
+ * user's next local midnight expressed in the server's zone.
+ */
+@Service
+@Transactional
+public class DailyReviewQueueService {
+
+    private final DailyReviewQueueRepository dailyReviewQueueRepository;
+    private final ReviewCardRepository reviewCardRepository;
+    private final UserRepository userRepository;
+    private final UserSettingsRepository userSettingsRepository;
+    private final ReviewService reviewService;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final int maxCards;
+
+    public DailyReviewQueueService(
+            DailyReviewQueueRepository dailyReviewQueueRepository,
+            ReviewCardRepository reviewCardRepository,
+            UserRepository userRepository,
+            UserSettingsRepository userSettingsRepository,
+            ReviewService reviewService,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.daily-review-queue.max-cards:200}") int maxCards) {
+        this.dailyReviewQueueRepository = dailyReviewQueueRepository;
+        this.reviewCardRepository = reviewCardRepository;
+        this.userRepository = userRepository;
+        this.userSettingsRepository = userSettingsRepository;
+        this.reviewService = reviewService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.maxCards = maxCards;
+    }
+
+    /**
+     * The queue for the user's current local day, built now if the rollover job has not
+     * reached them yet. Cards reviewed since a stored queue was built, and so no longer
+     * due today, are left out. Only the build writes; serving a stored queue is read-only.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public DailyReviewQueueDto getToday(User user) {
+        DailyReviewQueueDto stored = readOnlyTransaction.execute(status -> findToday(user));
+        if (stored != null) {
+            return stored;
+        }
+        return writeTransaction.execute(status -> {
+            ZoneId zone = zoneOf(user);
+            DailyReviewQueue queue = materialize(user, zone, LocalDate.now(zone));
+            // Just built from review_cards, so every card in it is still due.
+            return toDto(queue, null);
+        });
+    }
+
+    // Today's stored queue without the cards reviewed since it was built, or null if it is missing or stale.
+    private DailyReviewQueueDto findToday(User user) {
+        ZoneId zone = zoneOf(user);
+        LocalDate today = LocalDate.now(zone);
+        return dailyReviewQueueRepository.findByUser(user)
+            .filter(q -> q.getQueueDate().equals(today) && q.getTimezone().equals(zone.getId()))
+            .map(queue -> toDto(queue, reviewService.findDueAmong(
+                user, Arrays.stream(queue.getCardIds()).boxed().toList(), endOfDay(zone, today))))
+            .orElse(null);
+    }
+
+    // `stillDue` of null keeps every card.
+    private static DailyReviewQueueDto toDto(DailyReviewQueue queue, Set<Long> stillDue) {
+        List<DailyReviewQueueEntryDto> cards = new ArrayList<>(queue.getCardIds().length);
+        for (int i = 0; i < queue.getCardIds().length; i++) {
+            if (stillDue == null || stillDue.contains(queue.getCardIds()[i])) {
+                cards.add(new DailyReviewQueueEntryDto(
+                    queue.getCardIds()[i],
+                    queue.getProblemIds()[i],
+                    queue.getLeetcodeIds()[i],
+                    queue.getTitles()[i],
+                    Difficulty.valueOf(queue.getDifficulties()[i]),
+                    queue.getDueDates()[i]));
+            }
+        }
+        return new DailyReviewQueueDto(queue.getQueueDate(), queue.getTimezone(), queue.getGeneratedAt(), cards);
+    }
+
+    public DailyReviewQueue materialize(long userId, ZoneId zone, LocalDate date) {
+        return materialize(userRepository.getReferenceById(userId), zone, date);
+    }
+
+    /** Writes the user's queue for {@code date}: up to max-cards cards due by the end of that day in {@code zone}. */
+    public DailyReviewQueue materialize(User user, ZoneId zone, LocalDate date) {
+        // Straight from the table rather than the deck cache, so the nightly run does
+        // not fill the cache with users who may not visit today.
+        List<ReviewCard> cards = reviewCardRepository.findDueByUser(
+            user, endOfDay(zone, date), PageRequest.of(0, maxCards));
+
+        int n = cards.size();
+        long[] cardIds = new long[n];
+        long[] problemIds = new long[n];
+        long[] leetcodeIds = new long[n];
+        String[] titles = new String[n];
+        String[] difficulties = new String[n];
+        LocalDateTime[] dueDates = new LocalDateTime[n];
+        for (int i = 0; i < n; i++) {
+            ReviewCard card = cards.get(i);
+            cardIds[i] = card.getId();
+            problemIds[i] = card.getProblem().getId();
+            leetcodeIds[i] = card.getProblem().getLeetcodeId();
+            titles[i] = card.getProblem().getTitle();
+            difficulties[i] = card.getProblem().getDifficulty().name();
+            dueDates[i] = card.getDue();
+        }
+
+        DailyReviewQueue queue = dailyReviewQueueRepository.findByUser(user).orElseGet(() -> {
+            DailyReviewQueue created = new DailyReviewQueue();
+            created.setUser(user);
+            return created;
+        });
+        queue.setQueueDate(date);
+        queue.setTimezone(zone.getId());
+        queue.setGeneratedAt(LocalDateTime.now());
+        queue.setCardIds(cardIds);
+        queue.setProblemIds(problemIds);
+        queue.setLeetcodeIds(leetcodeIds);
+        queue.setTitles(titles);
+        queue.setDifficulties(difficulties);
+        queue.setDueDates(dueDates);
+        return dailyReviewQueueRepository.save(queue);
+    }
+
+    private ZoneId zoneOf(User user) {
+        return userSettingsRepository.findByUser(user)
+            .map(UserSettings::getTimezone)
+            .map(DailyReviewQueueService::parseZone)
+            .orElse(ZoneOffset.UTC);
+    }
+
+    /** The zone for a stored timezone setting, falling back to UTC for unknown ids. */
+    static ZoneId parseZone(String timezone) {
+        try {
+            return ZoneId.of(timezone);
+        } catch (DateTimeException e) {
+            return ZoneOffset.UTC;
+        }
+    }
+
+    // The user's next local midnight after `date`, as a server-local timestamp.
+    static LocalDateTime endOfDay(ZoneId zone, LocalDate date) {
+        return date.plusDays(1).atStartOfDay(zone)
+            .withZoneSameInstant(ZoneId.systemDefault())
+            .toLocalDateTime();
+    }
+}
@@ -0,0 +1,257 @@
+package com.atinroy.leetly.review.service;
+
+import com.atinroy.leetly.review.model.CardState;
+import com.atinroy.leetly.review.model.Rating;
+import com.atinroy.leetly.review.model.ReviewLogFacts;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Fits FSRS weights to a user's review history.
+ *
+ * Each card's reviews are replayed through {@link FsrsScheduler}; every review of a card
+ * in REVIEW state is a recall prediction, scored by log-loss against whether the user
+ * rated it above AGAIN. The weights are fitted by gradient descent (Adam) on that loss.
+ * The replay has no closed-form gradient, so each step estimates it by central
+ * differences, evaluating the perturbed losses in parallel on a dedicated fork-join pool.
+ *
+ * Weights are fitted as log-ratios to the defaults, kept within a factor of
+ * {@link #MAX_RATIO} of them and lightly pulled towards them, so short histories cannot
+ * push the scheduler far from the defaults it was tuned for.
+ */
+@Component
+public class FsrsOptimizer {
+
+    private static final int SIZE = FsrsScheduler.Parameters.SIZE;
+    private static final long SECONDS_PER_DAY = 86_400;
+    private static final byte REVIEW = (byte) CardState.REVIEW.ordinal();
+    private static final int AGAIN = Rating.AGAIN.value();
+
+    static final double MAX_RATIO = 4.0;
+    private static final double MAX_LOG_RATIO = Math.log(MAX_RATIO);
+    private static final double REGULARIZATION = 1e-3;
+    private static final double STEP = 1e-3;
+    private static final double LEARNING_RATE = 0.02;
+    private static final double BETA1 = 0.9;
+    private static final double BETA2 = 0.999;
+    private static final double EPSILON = 1e-8;
+    private static final double MIN_PROBABILITY = 1e-6;
+
+    private final int iterations;
+    private final int minReviews;
+    private final ForkJoinPool pool;
+
+    public FsrsOptimizer(@Value("${app.fsrs-optimizer.iterations:150}") int iterations,
+                         @Value("${app.fsrs-optimizer.min-reviews:100}") int minReviews,
+                         @Value("${app.fsrs-optimizer.parallelism:0}") int parallelism) {
+        this.iterations = iterations;
+        this.minReviews = minReviews;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * The outcome of a fit. {@code trained} is false when the history had too few
+     * recall predictions or the fit did not beat the defaults, in which case
+     * {@code weights} are the defaults.
+     */
+    public record Fit(
+        double[] weights,
+        double logLoss,
+        double defaultLogLoss,
+        int predictions,
+        boolean trained
+    ) {}
+
+    /**
+     * A review history in parallel arrays: the reviews of card k are
+     * {@code [cardStarts[k], cardStarts[k + 1])}, in review order.
+     */
+    public static final class TrainingSet {
+
+        private int[] cardStarts = new int[64];
+        private byte[] ratings = new byte[256];
+        private long[] reviewedAtSeconds = new long[256];
+        private int cards;
+        private int reviews;
+
+        /**
+         * Reads {@code history}, which must be ordered by card and then review time. Each
+         * card is replayed from NEW, so its history must start at its first review.
+         */
+        public static TrainingSet from(Stream<ReviewLogFacts> history) {
+            TrainingSet set = new TrainingSet();
+            long currentCard = Long.MIN_VALUE;
+            Iterator<ReviewLogFacts> it = history.iterator();
+            while (it.hasNext()) {
+                ReviewLogFacts facts = it.next();
+                if (facts.reviewCardId() != currentCard) {
+                    currentCard = facts.reviewCardId();
+                    set.startCard();
+                }
+                set.add(facts.rating(), facts.reviewedAt().toEpochSecond(ZoneOffset.UTC));
+            }
+            set.startCard();
+            set.cards--;
+            return set;
+        }
+
+        public int reviews() {
+            return reviews;
+        }
+
+        private void startCard() {
+            if (cards == cardStarts.length) {
+                cardStarts = Arrays.copyOf(cardStarts, cards * 2);
+            }
+            cardStarts[cards++] = reviews;
+        }
+
+        private void add(Rating rating, long seconds) {
+            if (reviews == ratings.length) {
+                ratings = Arrays.copyOf(ratings, reviews * 2);
+                reviewedAtSeconds = Arrays.copyOf(reviewedAtSeconds, reviews * 2);
+            }
+            ratings[reviews] = (byte) rating.value();
+            reviewedAtSeconds[reviews++] = seconds;
+        }
+    }
+
+    // Summed log-loss and the number of predictions it covers.
+    private record Loss(double total, int predictions) {
+        double mean() {
+            return predictions == 0 ? 0.0 : total / predictions;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    public Fit fit(TrainingSet set) {
+        double[] defaults = FsrsScheduler.Parameters.DEFAULT.weights();
+        Loss defaultLoss = loss(set, FsrsScheduler.Parameters.DEFAULT);
+        if (defaultLoss.predictions() < minReviews) {
+            return new Fit(defaults, defaultLoss.mean(), defaultLoss.mean(), defaultLoss.predictions(), false);
+        }
+
+        double[] theta = new double[SIZE];
+        double[] best = theta.clone();
+        double bestObjective = defaultLoss.mean();
+        double[] m = new double[SIZE];
+        double[] v = new double[SIZE];
+
+        for (int t = 1; t <= iterations; t++) {
+            double[] current = theta;
+            // Index 2j is +STEP on weight j, 2j + 1 is -STEP, and the last is theta itself.
+            double[] objectives = pool.submit(() -> IntStream.rangeClosed(0, 2 * SIZE)
+                    .parallel()
+                    .mapToDouble(k -> objective(set, defaults, perturb(current, k)))
+                    .toArray())
+                .join();
+
+            double center = objectives[2 * SIZE];
+            if (center < bestObjective) {
+                bestObjective = center;
+                best = current.clone();
+            }
+
+            double[] next = current.clone();
+            for (int j = 0; j < SIZE; j++) {
+                double gradient = (objectives[2 * j] - objectives[2 * j + 1]) / (2 * STEP);
+                if (!Double.isFinite(gradient)) {
+                    gradient = 0.0;
+                }
+                m[j] = BETA1 * m[j] + (1 - BETA1) * gradient;
+                v[j] = BETA2 * v[j] + (1 - BETA2) * gradient * gradient;
+                double mHat = m[j] / (1 - Math.pow(BETA1, t));
+                double vHat = v[j] / (1 - Math.pow(BETA2, t));
+                next[j] = clamp(current[j] - LEARNING_RATE * mHat / (Math.sqrt(vHat) + EPSILON));
+            }
+            theta = next;
+        }
+
+        double finalObjective = objective(set, defaults, theta);
+        if (finalObjective < bestObjective) {
+            best = theta;
+        }
+
+        double[] weights = toWeights(defaults, best);
+        double logLoss = loss(set, FsrsScheduler.Parameters.of(weights)).mean();
+        if (!(logLoss < defaultLoss.mean())) {
+            return new Fit(defaults, defaultLoss.mean(), defaultLoss.mean(), defaultLoss.predictions(), false);
+        }
+        return new Fit(weights, logLoss, defaultLoss.mean(), defaultLoss.predictions(), true);
+    }
+
+    private static double[] perturb(double[] theta, int k) {
+        if (k == 2 * SIZE) {
+            return theta;
+        }
+        double[] perturbed = theta.clone();
+        perturbed[k / 2] += (k % 2 == 0) ? STEP : -STEP;
+        return perturbed;
+    }
+
+    private static double objective(TrainingSet set, double[] defaults, double[] theta) {
+        double penalty = 0.0;
+        for (double value : theta) {
+            penalty += value * value;
+        }
+        double mean = loss(set, FsrsScheduler.Parameters.of(toWeights(defaults, theta))).mean();
+        return Double.isFinite(mean) ? mean + REGULARIZATION * penalty : Double.POSITIVE_INFINITY;
+    }
+
+    private static Loss loss(TrainingSet set, FsrsScheduler.Parameters parameters) {
+        FsrsScheduler.CardBatch card = new FsrsScheduler.CardBatch(1);
+        byte[] rating = new byte[1];
+        double total = 0.0;
+        int predictions = 0;
+
+        for (int k = 0; k < set.cards; k++) {
+            card.states[0] = (byte) CardState.NEW.ordinal();
+            card.stability[0] = 0.0;
+            card.difficulty[0] = 0.0;
+            card.reps[0] = 0;
+            card.lapses[0] = 0;
+            card.scheduledDays[0] = 0;
+            card.lastReviewSeconds[0] = FsrsScheduler.CardBatch.NEVER_REVIEWED;
+
+            for (int r = set.cardStarts[k]; r < set.cardStarts[k + 1]; r++) {
+                long reviewedAt = set.reviewedAtSeconds[r];
+                if (card.states[0] == REVIEW) {
+                    int elapsedDays = (int) Math.max(0, (reviewedAt - card.lastReviewSeconds[0]) / SECONDS_PER_DAY);
+                    double p = FsrsScheduler.computeRetrievability(elapsedDays, card.stability[0]);
+                    p = Math.min(1 - MIN_PROBABILITY, Math.max(MIN_PROBABILITY, p));
+                    total -= set.ratings[r] == AGAIN ? Math.log(1 - p) : Math.log(p);
+                    predictions++;
+                }
+                rating[0] = set.ratings[r];
+                FsrsScheduler.scheduleBatch(parameters, card, rating, reviewedAt, 0);
+                card.lastReviewSeconds[0] = reviewedAt;
+                card.lastReviewNanos[0] = 0;
+            }
+        }
+        return new Loss(total, predictions);
+    }
+
+    private static double[] toWeights(double[] defaults, double[] theta) {
+        double[] weights = new double[SIZE];
+        for (int j = 0; j < SIZE; j++) {
+            weights[j] = defaults[j] * Math.exp(theta[j]);
+        }
+        return weights;
+    }
+
+    private static double clamp(double logRatio) {
+        return Math.max(-MAX_LOG_RATIO, Math.min(MAX_LOG_RATIO, logRatio));
+    }
+}
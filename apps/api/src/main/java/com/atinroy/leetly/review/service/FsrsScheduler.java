@@ -5,41 +5,105 @@ import com.atinroy.leetly.review.model.Rating;
 import com.atinroy.leetly.review.model.ReviewCard;
 import org.springframework.stereotype.Component;
 
-import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 
 /**
  * FSRS v5 spaced repetition scheduler.
  * Pure algorithm with no business logic dependencies.
  *
+ * The algorithm runs over a {@link CardBatch} of primitive arrays so bulk work
+ * (rescheduling a deck, simulation, log import) schedules any number of cards in one
+ * call without allocating per card. {@link #schedule} wraps a one-card batch.
+ *
  * Reference: https://github.com/open-spaced-repetition/fsrs4anki/wiki/The-Algorithm
  */
 @Component
 public class FsrsScheduler {
 
-    // FSRS v5 default parameters (from Anki defaults)
-    private static final double[] W = {
-        0.4072, 1.1829, 3.1262, 15.4722,  // w0-w3: initial stability for Again/Hard/Good/Easy
-        7.2102,                             // w4: difficulty mean reversion speed
-        0.5316,                             // w5: difficulty mean reversion target
-        1.0651,                             // w6: stability increase (hard penalty)
-        0.0046,                             // w7: stability increase (stability weight)
-        1.5418,                             // w8: stability increase (retrievability weight)
-        0.6136,                             // w9: stability increase (easy bonus / base)
-        1.0730,                             // w10: stability decrease (base)
-        0.2009,                             // w11: stability decrease (difficulty weight)
-        2.5893,                             // w12: stability decrease (stability weight)
-        0.0517,                             // w13: stability decrease (retrievability weight)
-        0.3005,                             // w14: stability short-term (base)
-        2.1214,                             // w15: stability short-term (rating weight)
-        0.2498,                             // w16: stability short-term (state weight)
-        2.9466,                             // w17: first difficulty from rating
-        0.4891,                             // w18: first difficulty base
-    };
-
     private static final double DECAY = -0.5;
     private static final double FACTOR = Math.pow(0.9, 1.0 / DECAY) - 1.0;
 
+    private static final byte NEW = (byte) CardState.NEW.ordinal();
+    private static final byte LEARNING = (byte) CardState.LEARNING.ordinal();
+    private static final byte REVIEW = (byte) CardState.REVIEW.ordinal();
+    private static final byte RELEARNING = (byte) CardState.RELEARNING.ordinal();
+    private static final CardState[] STATES = CardState.values();
+
+    private static final int AGAIN = Rating.AGAIN.value();
+    private static final int HARD = Rating.HARD.value();
+    private static final int EASY = Rating.EASY.value();
+
+    private static final long SECONDS_PER_MINUTE = 60;
+    private static final long SECONDS_PER_DAY = 86_400;
+
+    // {from, to, factor}: each day of interval inside a band widens the fuzz by factor days.
+    private static final double[][] FUZZ_BANDS = {
+        {2.5, 7.0, 0.15},
+        {7.0, 20.0, 0.10},
+        {20.0, Double.POSITIVE_INFINITY, 0.05}
+    };
+
+    /**
+     * The 19 FSRS weights, with the card-independent terms derived from them hoisted
+     * out of the per-card formulas. {@link #DEFAULT} holds the Anki defaults; per-user
+     * weights are fitted by {@link FsrsOptimizer}.
+     */
+    public static final class Parameters {
+
+        public static final int SIZE = 19;
+
+        // FSRS v5 default parameters (from Anki defaults)
+        private static final double[] DEFAULT_WEIGHTS = {
+            0.4072, 1.1829, 3.1262, 15.4722,  // w0-w3: initial stability for Again/Hard/Good/Easy
+            7.2102,                             // w4: difficulty mean reversion speed
+            0.5316,                             // w5: difficulty mean reversion target
+            1.0651,                             // w6: stability increase (hard penalty)
+            0.0046,                             // w7: stability increase (stability weight)
+            1.5418,                             // w8: stability increase (retrievability weight)
+            0.6136,                             // w9: stability increase (easy bonus / base)
+            1.0730,                             // w10: stability decrease (base)
+            0.2009,                             // w11: stability decrease (difficulty weight)
+            2.5893,                             // w12: stability decrease (stability weight)
+            0.0517,                             // w13: stability decrease (retrievability weight)
+            0.3005,                             // w14: stability short-term (base)
+            2.1214,                             // w15: stability short-term (rating weight)
+            0.2498,                             // w16: stability short-term (state weight)
+            2.9466,                             // w17: first difficulty from rating
+            0.4891,                             // w18: first difficulty base
+        };
+
+        public static final Parameters DEFAULT = new Parameters(DEFAULT_WEIGHTS.clone());
+
+        private final double[] w;
+        private final double expW7;
+        private final double difficultyReversionTarget;
+        private final double difficultyReversionKeep;
+
+        private Parameters(double[] w) {
+            this.w = w;
+            this.expW7 = Math.exp(w[7]);
+            this.difficultyReversionTarget = w[4] * w[18];
+            this.difficultyReversionKeep = 1.0 - w[4];
+        }
+
+        public static Parameters of(double[] weights) {
+            if (weights == null || weights.length != SIZE) {
+                throw new IllegalArgumentException("Expected " + SIZE + " FSRS weights");
+            }
+            for (double weight : weights) {
+                if (!Double.isFinite(weight)) {
+                    throw new IllegalArgumentException("FSRS weights must be finite");
+                }
+            }
+            return new Parameters(weights.clone());
+        }
+
+        public double[] weights() {
+            return w.clone();
+        }
+    }
+
     public record SchedulingResult(
         CardState state,
         double stability,
@@ -51,162 +115,285 @@ public class FsrsScheduler {
         int lapses
     ) {}
 
-    public SchedulingResult schedule(ReviewCard card, Rating rating, LocalDateTime now) {
-        CardState currentState = card.getState();
-        int elapsedDays = computeElapsedDays(card, now);
+    /**
+     * Structure-of-arrays card state. {@link #scheduleBatch} reads each card from index
+     * i and overwrites it with the scheduled state, so a batch can be rescheduled
+     * repeatedly (e.g. in simulation) without copying.
+     *
+     * Times are UTC epoch seconds of the naive {@link LocalDateTime}s the entities
+     * store; {@code lastReviewNanos} keeps elapsed-day boundaries exact. Due times share
+     * the nano-of-second of the {@code now} they were scheduled at.
+     */
+    public static final class CardBatch {
 
-        return switch (currentState) {
-            case NEW -> scheduleNew(card, rating, now);
-            case LEARNING, RELEARNING -> scheduleShortTerm(card, rating, now, elapsedDays);
-            case REVIEW -> scheduleReview(card, rating, now, elapsedDays);
-        };
-    }
+        /** Marks a card that has never been reviewed in {@link #lastReviewSeconds}. */
+        public static final long NEVER_REVIEWED = Long.MIN_VALUE;
 
-    private SchedulingResult scheduleNew(ReviewCard card, Rating rating, LocalDateTime now) {
-        double initStability = W[rating.value() - 1];
-        double initDifficulty = clampDifficulty(W[18] - W[17] * (rating.value() - 3));
+        public final int size;
+        public final byte[] states;
+        public final double[] stability;
+        public final double[] difficulty;
+        public final int[] reps;
+        public final int[] lapses;
+        public final int[] scheduledDays;
+        public final int[] elapsedDays;
+        public final long[] lastReviewSeconds;
+        public final int[] lastReviewNanos;
+        public final long[] dueSeconds;
 
-        if (rating == Rating.EASY) {
-            int interval = Math.max(1, (int) Math.round(initStability));
+        public CardBatch(int size) {
+            this.size = size;
+            this.states = new byte[size];
+            this.stability = new double[size];
+            this.difficulty = new double[size];
+            this.reps = new int[size];
+            this.lapses = new int[size];
+            this.scheduledDays = new int[size];
+            this.elapsedDays = new int[size];
+            this.lastReviewSeconds = new long[size];
+            this.lastReviewNanos = new int[size];
+            this.dueSeconds = new long[size];
+        }
+
+        public void set(int i, ReviewCard card) {
+            states[i] = (byte) card.getState().ordinal();
+            stability[i] = card.getStability();
+            difficulty[i] = card.getDifficulty();
+            reps[i] = card.getReps();
+            lapses[i] = card.getLapses();
+            scheduledDays[i] = card.getScheduledDays();
+            elapsedDays[i] = card.getElapsedDays();
+            LocalDateTime lastReview = card.getLastReview();
+            lastReviewSeconds[i] = lastReview != null ? lastReview.toEpochSecond(ZoneOffset.UTC) : NEVER_REVIEWED;
+            lastReviewNanos[i] = lastReview != null ? lastReview.getNano() : 0;
+            dueSeconds[i] = card.getDue() != null ? card.getDue().toEpochSecond(ZoneOffset.UTC) : 0;
+        }
+
+        /** An independent copy, e.g. one per simulation trial. */
+        public CardBatch copy() {
+            return copy(size);
+        }
+
+        /** An independent copy with room for {@code newSize - size} zeroed cards at the end. */
+        public CardBatch copy(int newSize) {
+            if (newSize < size) {
+                throw new IllegalArgumentException("Cannot shrink a batch of " + size + " to " + newSize);
+            }
+            CardBatch copy = new CardBatch(newSize);
+            System.arraycopy(states, 0, copy.states, 0, size);
+            System.arraycopy(stability, 0, copy.stability, 0, size);
+            System.arraycopy(difficulty, 0, copy.difficulty, 0, size);
+            System.arraycopy(reps, 0, copy.reps, 0, size);
+            System.arraycopy(lapses, 0, copy.lapses, 0, size);
+            System.arraycopy(scheduledDays, 0, copy.scheduledDays, 0, size);
+            System.arraycopy(elapsedDays, 0, copy.elapsedDays, 0, size);
+            System.arraycopy(lastReviewSeconds, 0, copy.lastReviewSeconds, 0, size);
+            System.arraycopy(lastReviewNanos, 0, copy.lastReviewNanos, 0, size);
+            System.arraycopy(dueSeconds, 0, copy.dueSeconds, 0, size);
+            return copy;
+        }
+
+        public CardState state(int i) {
+            return STATES[states[i]];
+        }
+
+        /** The card at {@code i} after {@link #scheduleBatch} ran with {@code now}. */
+        public SchedulingResult result(int i, LocalDateTime now) {
             return new SchedulingResult(
-                CardState.REVIEW,
-                initStability,
-                initDifficulty,
-                now.plusDays(interval),
-                interval,
-                0,
-                card.getReps() + 1,
-                card.getLapses()
+                state(i),
+                stability[i],
+                difficulty[i],
+                LocalDateTime.ofEpochSecond(dueSeconds[i], now.getNano(), ZoneOffset.UTC),
+                scheduledDays[i],
+                elapsedDays[i],
+                reps[i],
+                lapses[i]
             );
         }
+    }
 
-        long minutes = switch (rating) {
-            case AGAIN -> 1;
-            case HARD -> 5;
-            case GOOD -> 10;
-            default -> 10;
-        };
+    /**
+     * The intervals, {min, max} in days, that a review interval may be moved to without
+     * meaningfully changing recall: about 15% either way for short intervals, tapering to
+     * 5% for long ones. Intervals under three days stay put.
+     */
+    public static int[] fuzzRange(int interval) {
+        if (interval < 3) {
+            return new int[]{interval, interval};
+        }
+        double delta = 1.0;
+        for (double[] band : FUZZ_BANDS) {
+            delta += band[2] * Math.max(Math.min(interval, band[1]) - band[0], 0.0);
+        }
+        int max = (int) Math.round(interval + delta);
+        int min = Math.min(Math.max(2, (int) Math.round(interval - delta)), max);
+        return new int[]{min, max};
+    }
+
+    public SchedulingResult schedule(ReviewCard card, Rating rating, LocalDateTime now) {
+        return schedule(card, rating, now, Parameters.DEFAULT);
+    }
+
+    public SchedulingResult schedule(ReviewCard card, Rating rating, LocalDateTime now, Parameters parameters) {
+        CardBatch batch = new CardBatch(1);
+        batch.set(0, card);
+        scheduleBatch(batch, new byte[]{(byte) rating.value()}, now, parameters);
+        return batch.result(0, now);
+    }
+
+    public void scheduleBatch(CardBatch batch, byte[] ratings, LocalDateTime now) {
+        scheduleBatch(batch, ratings, now, Parameters.DEFAULT);
+    }
+
+    /**
+     * Schedules every card in {@code batch} for a review at {@code now}, in place.
+     * {@code ratings[i]} is the {@link Rating#value()} given to card i, or 0 to leave
+     * card i untouched. The card's last review time is left as is; callers record
+     * {@code now} as they apply it.
+     */
+    public void scheduleBatch(CardBatch batch, byte[] ratings, LocalDateTime now, Parameters parameters) {
+        if (ratings.length < batch.size) {
+            throw new IllegalArgumentException("Expected " + batch.size + " ratings but got " + ratings.length);
+        }
+        scheduleBatch(parameters, batch, ratings, now.toEpochSecond(ZoneOffset.UTC), now.getNano());
+    }
+
+    static void scheduleBatch(Parameters p, CardBatch batch, byte[] ratings, long nowSeconds, int nowNanos) {
+        for (int i = 0; i < batch.size; i++) {
+            int rating = ratings[i];
+            if (rating == 0) {
+                continue;
+            }
+            byte state = batch.states[i];
+            if (state == NEW) {
+                scheduleNew(p, batch, i, rating, nowSeconds);
+            } else {
+                int elapsedDays = computeElapsedDays(batch.lastReviewSeconds[i], batch.lastReviewNanos[i], nowSeconds, nowNanos);
+                if (state == REVIEW) {
+                    scheduleReview(p, batch, i, rating, nowSeconds, elapsedDays);
+                } else {
+                    scheduleShortTerm(p, batch, i, rating, nowSeconds, elapsedDays);
+                }
+            }
+        }
+    }
+
+    private static void scheduleNew(Parameters p, CardBatch batch, int i, int rating, long nowSeconds) {
+        double initStability = p.w[rating - 1];
+        double initDifficulty = clampDifficulty(p.w[18] - p.w[17] * (rating - 3));
+
+        batch.stability[i] = initStability;
+        batch.difficulty[i] = initDifficulty;
+        batch.elapsedDays[i] = 0;
+        batch.reps[i]++;
 
-        return new SchedulingResult(
-            CardState.LEARNING,
-            initStability,
-            initDifficulty,
-            now.plusMinutes(minutes),
-            0,
-            0,
-            card.getReps() + 1,
-            card.getLapses()
-        );
+        if (rating == EASY) {
+            int interval = Math.max(1, (int) Math.round(initStability));
+            batch.states[i] = REVIEW;
+            batch.dueSeconds[i] = nowSeconds + interval * SECONDS_PER_DAY;
+            batch.scheduledDays[i] = interval;
+            return;
+        }
+
+        long minutes = rating == AGAIN ? 1 : rating == HARD ? 5 : 10;
+        batch.states[i] = LEARNING;
+        batch.dueSeconds[i] = nowSeconds + minutes * SECONDS_PER_MINUTE;
+        batch.scheduledDays[i] = 0;
     }
 
-    private SchedulingResult scheduleShortTerm(ReviewCard card, Rating rating, LocalDateTime now, int elapsedDays) {
-        double s = card.getStability();
-        double d = card.getDifficulty();
+    private static void scheduleShortTerm(Parameters p, CardBatch batch, int i, int rating, long nowSeconds, int elapsedDays) {
+        double s = batch.stability[i];
+        double d = batch.difficulty[i];
 
-        double newS = s * Math.exp(W[14] * (rating.value() - 3 + W[15]) * Math.pow(s + 1, -W[16]));
+        double newS = s * Math.exp(p.w[14] * (rating - 3 + p.w[15]) * Math.pow(s + 1, -p.w[16]));
         newS = Math.max(0.01, newS);
 
-        double newD = updateDifficulty(d, rating);
+        batch.stability[i] = newS;
+        batch.difficulty[i] = updateDifficulty(p, d, rating);
+        batch.elapsedDays[i] = elapsedDays;
+        batch.reps[i]++;
 
-        if (rating == Rating.AGAIN || rating == Rating.HARD) {
-            long minutes = rating == Rating.AGAIN ? 1 : 5;
-            return new SchedulingResult(
-                card.getState(),
-                newS,
-                newD,
-                now.plusMinutes(minutes),
-                0,
-                elapsedDays,
-                card.getReps() + 1,
-                card.getLapses()
-            );
+        if (rating == AGAIN || rating == HARD) {
+            // State stays LEARNING/RELEARNING.
+            long minutes = rating == AGAIN ? 1 : 5;
+            batch.dueSeconds[i] = nowSeconds + minutes * SECONDS_PER_MINUTE;
+            batch.scheduledDays[i] = 0;
+            return;
         }
 
         int interval = Math.max(1, (int) Math.round(newS));
-        return new SchedulingResult(
-            CardState.REVIEW,
-            newS,
-            newD,
-            now.plusDays(interval),
-            interval,
-            elapsedDays,
-            card.getReps() + 1,
-            card.getLapses()
-        );
-    }
-
-    private SchedulingResult scheduleReview(ReviewCard card, Rating rating, LocalDateTime now, int elapsedDays) {
-        double s = card.getStability();
-        double d = card.getDifficulty();
+        batch.states[i] = REVIEW;
+        batch.dueSeconds[i] = nowSeconds + interval * SECONDS_PER_DAY;
+        batch.scheduledDays[i] = interval;
+    }
+
+    private static void scheduleReview(Parameters p, CardBatch batch, int i, int rating, long nowSeconds, int elapsedDays) {
+        double s = batch.stability[i];
+        double d = batch.difficulty[i];
         double retrievability = computeRetrievability(elapsedDays, s);
 
-        double newD = updateDifficulty(d, rating);
+        batch.difficulty[i] = updateDifficulty(p, d, rating);
+        batch.elapsedDays[i] = elapsedDays;
+        batch.reps[i]++;
 
-        if (rating == Rating.AGAIN) {
-            double newS = stabilityAfterFailure(d, s, retrievability);
-            return new SchedulingResult(
-                CardState.RELEARNING,
-                newS,
-                newD,
-                now.plusMinutes(1),
-                0,
-                elapsedDays,
-                card.getReps() + 1,
-                card.getLapses() + 1
-            );
+        if (rating == AGAIN) {
+            batch.stability[i] = stabilityAfterFailure(p, d, s, retrievability);
+            batch.states[i] = RELEARNING;
+            batch.dueSeconds[i] = nowSeconds + SECONDS_PER_MINUTE;
+            batch.scheduledDays[i] = 0;
+            batch.lapses[i]++;
+            return;
         }
 
-        double newS = stabilityAfterSuccess(d, s, retrievability, rating);
+        double newS = stabilityAfterSuccess(p, d, s, retrievability, rating);
         int interval = Math.max(1, (int) Math.round(newS));
-        if (rating == Rating.EASY) {
-            interval = Math.max(interval, card.getScheduledDays() + 1);
-        }
-
-        return new SchedulingResult(
-            CardState.REVIEW,
-            newS,
-            newD,
-            now.plusDays(interval),
-            interval,
-            elapsedDays,
-            card.getReps() + 1,
-            card.getLapses()
-        );
-    }
-
-    private double stabilityAfterSuccess(double d, double s, double r, Rating rating) {
-        double hardPenalty = (rating == Rating.HARD) ? W[6] : 1.0;
-        double easyBonus = (rating == Rating.EASY) ? W[9] : 1.0;
-        return s * (1.0 + Math.exp(W[7]) *
+        if (rating == EASY) {
+            interval = Math.max(interval, batch.scheduledDays[i] + 1);
+        }
+
+        batch.stability[i] = newS;
+        batch.states[i] = REVIEW;
+        batch.dueSeconds[i] = nowSeconds + interval * SECONDS_PER_DAY;
+        batch.scheduledDays[i] = interval;
+    }
+
+    private static double stabilityAfterSuccess(Parameters p, double d, double s, double r, int rating) {
+        double hardPenalty = (rating == HARD) ? p.w[6] : 1.0;
+        double easyBonus = (rating == EASY) ? p.w[9] : 1.0;
+        return s * (1.0 + p.expW7 *
             (11.0 - d) *
-            Math.pow(s, -W[8]) *
-            (Math.exp((1.0 - r) * W[9]) - 1.0) *
+            Math.pow(s, -p.w[8]) *
+            (Math.exp((1.0 - r) * p.w[9]) - 1.0) *
             hardPenalty *
             easyBonus);
     }
 
-    private double stabilityAfterFailure(double d, double s, double r) {
-        return W[10] *
-            Math.pow(d, -W[11]) *
-            (Math.pow(s + 1.0, W[12]) - 1.0) *
-            Math.exp((1.0 - r) * W[13]);
+    private static double stabilityAfterFailure(Parameters p, double d, double s, double r) {
+        return p.w[10] *
+            Math.pow(d, -p.w[11]) *
+            (Math.pow(s + 1.0, p.w[12]) - 1.0) *
+            Math.exp((1.0 - r) * p.w[13]);
     }
 
-    private double updateDifficulty(double d, Rating rating) {
-        double newD = d - W[5] * (rating.value() - 3);
-        newD = W[4] * W[18] + (1.0 - W[4]) * newD;
+    private static double updateDifficulty(Parameters p, double d, int rating) {
+        double newD = d - p.w[5] * (rating - 3);
+        newD = p.difficultyReversionTarget + p.difficultyReversionKeep * newD;
         return clampDifficulty(newD);
     }
 
-    private double computeRetrievability(int elapsedDays, double stability) {
+    static double computeRetrievability(int elapsedDays, double stability) {
         if (stability <= 0) return 0.0;
         return Math.pow(1.0 + FACTOR * elapsedDays / stability, DECAY);
     }
 
-    private int computeElapsedDays(ReviewCard card, LocalDateTime now) {
-        if (card.getLastReview() == null) return 0;
-        long days = Duration.between(card.getLastReview(), now).toDays();
-        return Math.max(0, (int) days);
+    // Whole days between the last review and now, as Duration.between(...).toDays().
+    private static int computeElapsedDays(long lastReviewSeconds, int lastReviewNanos, long nowSeconds, int nowNanos) {
+        if (lastReviewSeconds == CardBatch.NEVER_REVIEWED) return 0;
+        long seconds = nowSeconds - lastReviewSeconds;
+        if (nowNanos < lastReviewNanos) {
+            seconds--;
+        }
+        return Math.max(0, (int) (seconds / SECONDS_PER_DAY));
     }
 
     private static double clampDifficulty(double d) {
@@ -0,0 +1,164 @@
+package com.atinroy.leetly.review.service;
+
+import com.atinroy.leetly.review.model.ReviewLogFacts;
+import com.atinroy.leetly.review.model.UserFsrsWeights;
+import com.atinroy.leetly.review.model.UserReviewLogCount;
+import com.atinroy.leetly.review.repository.ReviewLogRepository;
+import com.atinroy.leetly.review.repository.UserFsrsWeightsRepository;
+import com.atinroy.leetly.review.repository.UserReviewLogCountRepository;
+import com.atinroy.leetly.user.model.User;
+import com.atinroy.leetly.user.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Refits per-user FSRS weights in the background. A run picks up to
+ * {@code max-users-per-run} users with enough new review logs since their last fit, least
+ * recently fitted first, and trains them one at a time, stopping early once
+ * {@code max-run-duration} has passed; the rest wait for the next run.
+ */
+@Slf4j
+@Component
+public class FsrsTrainingJob {
+
+    private final UserRepository userRepository;
+    private final ReviewLogRepository reviewLogRepository;
+    private final UserFsrsWeightsRepository userFsrsWeightsRepository;
+    private final UserReviewLogCountRepository userReviewLogCountRepository;
+    private final FsrsOptimizer fsrsOptimizer;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final int maxUsersPerRun;
+    private final long minNewReviews;
+    private final Duration maxRunDuration;
+    private final Timer fitTimer;
+    private final Timer runTimer;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public FsrsTrainingJob(
+            UserRepository userRepository,
+            ReviewLogRepository reviewLogRepository,
+            UserFsrsWeightsRepository userFsrsWeightsRepository,
+            UserReviewLogCountRepository userReviewLogCountRepository,
+            FsrsOptimizer fsrsOptimizer,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${app.fsrs-optimizer.max-users-per-run:200}") int maxUsersPerRun,
+            @Value("${app.fsrs-optimizer.min-new-reviews:50}") long minNewReviews,
+            @Value("${app.fsrs-optimizer.max-run-duration:PT30M}") Duration maxRunDuration) {
+        this.userRepository = userRepository;
+        this.reviewLogRepository = reviewLogRepository;
+        this.userFsrsWeightsRepository = userFsrsWeightsRepository;
+        this.userReviewLogCountRepository = userReviewLogCountRepository;
+        this.fsrsOptimizer = fsrsOptimizer;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.maxUsersPerRun = maxUsersPerRun;
+        this.minNewReviews = minNewReviews;
+        this.maxRunDuration = maxRunDuration;
+        this.fitTimer = Timer.builder("leetly.fsrs.optimizer.fit")
+                .description("Time to load one user's review history and fit their FSRS weights")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("leetly.fsrs.optimizer.run")
+                .description("Duration of a background FSRS retraining run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${app.fsrs-optimizer.cron:0 0 4 * * *}")
+    public void scheduledRun() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Skipping scheduled FSRS retraining: a run is already in progress");
+            return;
+        }
+        try {
+            run();
+        } catch (RuntimeException e) {
+            log.error("Scheduled FSRS retraining failed", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /** Retrains due users and returns how many were processed. */
+    int run() {
+        long start = System.nanoTime();
+        long deadline = start + maxRunDuration.toNanos();
+        List<Long> userIds = userFsrsWeightsRepository.findUserIdsDueForTraining(
+                minNewReviews, PageRequest.of(0, maxUsersPerRun));
+
+        int trained = 0;
+        int processed = 0;
+        for (long userId : userIds) {
+            if (System.nanoTime() > deadline) {
+                log.info("FSRS retraining reached its time budget; {} users left for the next run",
+                        userIds.size() - processed);
+                break;
+            }
+            try {
+                if (train(userId)) {
+                    trained++;
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to retrain FSRS weights for user {}", userId, e);
+            }
+            processed++;
+        }
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        runTimer.record(elapsed);
+        log.info("FSRS retraining processed {} users in {} ms; {} got fitted weights",
+                processed, elapsed.toMillis(), trained);
+        return processed;
+    }
+
+    /** Fits and stores one user's weights; returns whether they beat the defaults. */
+    boolean train(long userId) {
+        long start = System.nanoTime();
+        // Read before the history so logs written meanwhile still count as new next run.
+        long logsWritten = userReviewLogCountRepository.findById(userId)
+                .map(UserReviewLogCount::getReviewCount)
+                .orElse(0L);
+        // Read in its own transaction so the fit itself does not hold a connection.
+        FsrsOptimizer.TrainingSet set = readOnlyTransaction.execute(status -> {
+            User user = userRepository.getReferenceById(userId);
+            try (Stream<ReviewLogFacts> history = reviewLogRepository.streamFactsByUser(user)) {
+                return FsrsOptimizer.TrainingSet.from(history);
+            }
+        });
+        FsrsOptimizer.Fit fit = fsrsOptimizer.fit(set);
+
+        writeTransaction.executeWithoutResult(status -> {
+            UserFsrsWeights weights = userFsrsWeightsRepository.findByUserId(userId).orElseGet(() -> {
+                UserFsrsWeights created = new UserFsrsWeights();
+                created.setUser(userRepository.getReferenceById(userId));
+                return created;
+            });
+            weights.setWeights(fit.weights());
+            weights.setReviewCount(logsWritten);
+            weights.setLogLoss(fit.logLoss());
+            weights.setDefaultLogLoss(fit.defaultLogLoss());
+            weights.setTrainedAt(LocalDateTime.now());
+            userFsrsWeightsRepository.save(weights);
+        });
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        fitTimer.record(elapsed);
+        log.debug("Fitted FSRS weights for user {} from {} reviews ({} predictions) in {} ms: log-loss {} vs {} default",
+                userId, set.reviews(), fit.predictions(), elapsed.toMillis(), fit.logLoss(), fit.defaultLogLoss());
+        return fit.trained();
+    }
+}
@@ -0,0 +1,187 @@
+package com.atinroy.leetly.review.service;
+
+import com.atinroy.leetly.review.dto.ReviewForecastDayDto;
+import com.atinroy.leetly.review.dto.ReviewForecastDto;
+import com.atinroy.leetly.review.model.CardState;
+import com.atinroy.leetly.review.model.Rating;
+import com.atinroy.leetly.review.model.ReviewCard;
+import com.atinroy.leetly.review.repository.ReviewCardRepository;
+import com.atinroy.leetly.review.repository.ReviewLogRepository;
+import com.atinroy.leetly.user.model.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Projects a user's review workload by running {@link ReviewForecaster} over their
+ * current cards with their FSRS weights, with ratings and review times taken from
+ * their own review history.
+ *
+ * Not transactional: cards and history are read up front so the simulation does not
+ * hold a connection.
+ *
+ * Simulation cost grows with cards × days × trials, so trials are reduced until a request
+ * fits within {@code max-card-days} and requests too large for even one trial are
+ * rejected. Results are kept per user, day and arguments, so repeating a request the same
+ * day does not simulate again; the most recent {@code cache-size} are kept.
+ */
+@Service
+public class ReviewForecastService {
+
+    static final int MAX_DAYS = 365;
+    static final int MAX_NEW_PER_DAY = 100;
+    static final int MAX_TRIALS = 200;
+
+    // Buckets with fewer logged reviews than this fall back to the defaults below.
+    private static final int MIN_SAMPLES = 20;
+
+    private static final double[] DEFAULT_FIRST_RATINGS = {0.15, 0.15, 0.55, 0.15};
+    private static final double[] DEFAULT_SHORT_TERM_RATINGS = {0.15, 0.10, 0.70, 0.05};
+    private static final double[] DEFAULT_RECALL_RATINGS = {0.0, 0.15, 0.75, 0.10};
+
+    private final ReviewCardRepository reviewCardRepository;
+    private final ReviewLogRepository reviewLogRepository;
+    private final ReviewForecaster reviewForecaster;
+    private final ReviewService reviewService;
+    private final double defaultMinutesPerReview;
+    private final long maxCardDays;
+    // Access-ordered, so the least recently used result is evicted first.
+    private final Map<CacheKey, ReviewForecastDto> cache;
+
+    private record CacheKey(long userId, LocalDate day, int days, int newPerDay, int trials) {}
+
+    public ReviewForecastService(
+            ReviewCardRepository reviewCardRepository,
+            ReviewLogRepository reviewLogRepository,
+            ReviewForecaster reviewForecaster,
+            ReviewService reviewService,
+            @Value("${app.review-forecast.minutes-per-review:10}") double defaultMinutesPerReview,
+            @Value("${app.review-forecast.max-card-days:100000000}") long maxCardDays,
+            @Value("${app.review-forecast.cache-size:1000}") int cacheSize) {
+        this.reviewCardRepository = reviewCardRepository;
+        this.reviewLogRepository = reviewLogRepository;
+        this.reviewForecaster = reviewForecaster;
+        this.reviewService = reviewService;
+        this.defaultMinutesPerReview = defaultMinutesPerReview;
+        this.maxCardDays = maxCardDays;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, ReviewForecastDto> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    public ReviewForecastDto forecast(User user, int days, int newPerDay, int trials) {
+        if (days < 1 || days > MAX_DAYS) {
+            throw new IllegalArgumentException("days must be between 1 and " + MAX_DAYS);
+        }
+        if (newPerDay < 0 || newPerDay > MAX_NEW_PER_DAY) {
+            throw new IllegalArgumentException("newPerDay must be between 0 and " + MAX_NEW_PER_DAY);
+        }
+        if (trials < 1 || trials > MAX_TRIALS) {
+            throw new IllegalArgumentException("trials must be between 1 and " + MAX_TRIALS);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        CacheKey key = new CacheKey(user.getId(), now.toLocalDate(), days, newPerDay, trials);
+        synchronized (cache) {
+            ReviewForecastDto cached = cache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        ReviewForecastDto result = simulate(user, days, newPerDay, trials, now);
+        synchronized (cache) {
+            cache.put(key, result);
+        }
+        return result;
+    }
+
+    private ReviewForecastDto simulate(User user, int days, int newPerDay, int requestedTrials, LocalDateTime now) {
+        List<ReviewCard> cards = reviewCardRepository.findByUser(user);
+        // Every card the simulation may hold on each simulated day; review passes within a day are bounded.
+        long cardDaysPerTrial = Math.max(1, ((long) cards.size() + (long) newPerDay * days) * days);
+        if (cardDaysPerTrial > maxCardDays) {
+            throw new IllegalArgumentException("Forecast is too large for a deck of " + cards.size()
+                    + " cards; reduce days or newPerDay");
+        }
+        int trials = (int) Math.min(requestedTrials, maxCardDays / cardDaysPerTrial);
+
+        FsrsScheduler.CardBatch deck = new FsrsScheduler.CardBatch(cards.size());
+        for (int i = 0; i < cards.size(); i++) {
+            deck.set(i, cards.get(i));
+        }
+        ReviewForecaster.Model model = buildModel(user);
+        FsrsScheduler.Parameters parameters = reviewService.parametersFor(user);
+
+        // Seeded by user so repeated requests with the same inputs agree.
+        ReviewForecaster.Forecast forecast = reviewForecaster.forecast(
+                deck, newPerDay, days, trials, model, parameters, now, user.getId());
+
+        LocalDate today = now.toLocalDate();
+        List<ReviewForecastDayDto> daily = new ArrayList<>(days);
+        double totalReviews = 0;
+        double totalMinutes = 0;
+        for (int d = 0; d < days; d++) {
+            daily.add(new ReviewForecastDayDto(
+                    today.plusDays(d),
+                    round(forecast.meanReviews()[d]),
+                    forecast.p90Reviews()[d],
+                    round(forecast.meanMinutes()[d])));
+            totalReviews += forecast.meanReviews()[d];
+            totalMinutes += forecast.meanMinutes()[d];
+        }
+        return new ReviewForecastDto(days, newPerDay, trials, cards.size(),
+                round(totalReviews), round(totalMinutes), daily);
+    }
+
+    ReviewForecaster.Model buildModel(User user) {
+        long[] first = new long[4];
+        long[] shortTerm = new long[4];
+        long[] recall = new long[4];
+        for (Object[] row : reviewLogRepository.countRatingsByStateForUser(user)) {
+            CardState state = (CardState) row[0];
+            int r = ((Rating) row[1]).value() - 1;
+            long count = (Long) row[2];
+            switch (state) {
+                case NEW -> first[r] += count;
+                case LEARNING, RELEARNING -> shortTerm[r] += count;
+                case REVIEW -> recall[r] += count;
+            }
+        }
+        // Lapses come from retrievability in the simulation; only recalled ratings matter here.
+        recall[0] = 0;
+
+        double[] minutes = new double[4];
+        Arrays.fill(minutes, defaultMinutesPerReview);
+        for (Object[] row : reviewLogRepository.averageMinutesByRatingForUser(user)) {
+            minutes[((Rating) row[0]).value() - 1] = ((Number) row[1]).doubleValue();
+        }
+
+        return new ReviewForecaster.Model(
+                weights(first, DEFAULT_FIRST_RATINGS),
+                weights(shortTerm, DEFAULT_SHORT_TERM_RATINGS),
+                weights(recall, DEFAULT_RECALL_RATINGS),
+                minutes);
+    }
+
+    private static double[] weights(long[] counts, double[] defaults) {
+        long total = Arrays.stream(counts).sum();
+        if (total < MIN_SAMPLES) {
+            return defaults;
+        }
+        return Arrays.stream(counts).asDoubleStream().map(c -> c / total).toArray();
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+}
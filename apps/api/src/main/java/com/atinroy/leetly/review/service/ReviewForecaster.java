@@ -0,0 +1,221 @@
+package com.atinroy.leetly.review.service;
+
+import com.atinroy.leetly.review.model.CardState;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Monte Carlo review-workload simulation on top of {@link FsrsScheduler}.
+ *
+ * Each trial copies the deck, then walks forward one day at a time: every card due by
+ * the end of the day is rated and rescheduled with {@link FsrsScheduler#scheduleBatch},
+ * and learning steps that come back the same day are reviewed in further passes. Review
+ * cards are recalled with their FSRS retrievability; the remaining ratings are drawn
+ * from the {@link Model}. Trials run in parallel on a dedicated fork-join pool and are
+ * seeded individually, so a forecast is reproducible for a given seed.
+ */
+@Component
+public class ReviewForecaster {
+
+    private static final long SECONDS_PER_DAY = 86_400;
+    private static final int MAX_PASSES_PER_DAY = 4;
+    private static final long PASS_GAP_SECONDS = 10 * 60;
+
+    private static final byte NEW = (byte) CardState.NEW.ordinal();
+    private static final byte REVIEW = (byte) CardState.REVIEW.ordinal();
+
+    private final FsrsScheduler scheduler;
+    private final ForkJoinPool pool;
+
+    public ReviewForecaster(FsrsScheduler scheduler,
+                            @Value("${app.review-forecast.parallelism:0}") int parallelism) {
+        this.scheduler = scheduler;
+        // Half the cores by default, so forecasts leave room for the rest of the API.
+        this.pool = new ForkJoinPool(parallelism > 0
+                ? parallelism
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    }
+
+    /**
+     * Rating weights indexed by {@code Rating.value() - 1}, for cards rated for the first
+     * time, cards in (re)learning, and review cards that were recalled (the AGAIN weight
+     * of {@code recallRatings} is ignored). {@code minutesPerRating} is the time a review
+     * with that rating is expected to take.
+     */
+    public record Model(
+        double[] firstRatings,
+        double[] shortTermRatings,
+        double[] recallRatings,
+        double[] minutesPerRating
+    ) {}
+
+    /** Per-day results over {@code days} days, starting with the day of {@code start}. */
+    public record Forecast(
+        int trials,
+        double[] meanReviews,
+        int[] p90Reviews,
+        double[] meanMinutes
+    ) {}
+
+    private record Trial(int[] reviews, double[] minutes) {}
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Simulates {@code deck} plus {@code newPerDay} new cards introduced each day. The
+     * deck is not modified.
+     */
+    public Forecast forecast(FsrsScheduler.CardBatch deck, int newPerDay, int days, int trials,
+                             Model model, FsrsScheduler.Parameters parameters, LocalDateTime start, long seed) {
+        FsrsScheduler.CardBatch initial = withNewCards(deck, newPerDay, days, start);
+        double[][] cumulative = {
+            cumulative(model.firstRatings(), false),
+            cumulative(model.shortTermRatings(), false),
+            cumulative(model.recallRatings(), true),
+        };
+
+        List<Trial> results = pool.submit(() -> IntStream.range(0, trials)
+                .parallel()
+                .mapToObj(t -> simulate(initial, deck.size, newPerDay, days, cumulative,
+                        model.minutesPerRating(), parameters, start, seed + t))
+                .toList())
+            .join();
+
+        double[] meanReviews = new double[days];
+        int[] p90Reviews = new int[days];
+        double[] meanMinutes = new double[days];
+        int[] column = new int[trials];
+        for (int d = 0; d < days; d++) {
+            long reviews = 0;
+            double minutes = 0;
+            for (int t = 0; t < trials; t++) {
+                column[t] = results.get(t).reviews()[d];
+                reviews += column[t];
+                minutes += results.get(t).minutes()[d];
+            }
+            meanReviews[d] = (double) reviews / trials;
+            meanMinutes[d] = minutes / trials;
+            Arrays.sort(column);
+            p90Reviews[d] = column[Math.min(trials - 1, (int) Math.ceil(trials * 0.9) - 1)];
+        }
+        return new Forecast(trials, meanReviews, p90Reviews, meanMinutes);
+    }
+
+    private Trial simulate(FsrsScheduler.CardBatch initial, int existing, int newPerDay, int days,
+                           double[][] cumulative, double[] minutesPerRating, FsrsScheduler.Parameters parameters,
+                           LocalDateTime start, long seed) {
+        FsrsScheduler.CardBatch batch = initial.copy();
+        SplittableRandom random = new SplittableRandom(seed);
+        byte[] ratings = new byte[batch.size];
+        int[] reviews = new int[days];
+        double[] minutes = new double[days];
+
+        long startSeconds = start.toEpochSecond(ZoneOffset.UTC);
+        long firstDayEnd = start.toLocalDate().plusDays(1).atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+
+        for (int d = 0; d < days; d++) {
+            long dayEnd = firstDayEnd + d * SECONDS_PER_DAY;
+            int active = Math.min(batch.size, existing + newPerDay * (d + 1));
+
+            for (int pass = 0; pass < MAX_PASSES_PER_DAY; pass++) {
+                long reviewAt = startSeconds + d * SECONDS_PER_DAY + pass * PASS_GAP_SECONDS;
+                int due = 0;
+                for (int i = 0; i < active; i++) {
+                    if (batch.dueSeconds[i] < dayEnd) {
+                        ratings[i] = rate(batch, i, reviewAt, cumulative, random);
+                        due++;
+                    } else {
+                        ratings[i] = 0;
+                    }
+                }
+                if (due == 0) {
+                    break;
+                }
+
+                scheduler.scheduleBatch(batch, ratings, LocalDateTime.ofEpochSecond(reviewAt, 0, ZoneOffset.UTC), parameters);
+                for (int i = 0; i < active; i++) {
+                    if (ratings[i] != 0) {
+                        batch.lastReviewSeconds[i] = reviewAt;
+                        batch.lastReviewNanos[i] = 0;
+                        minutes[d] += minutesPerRating[ratings[i] - 1];
+                    }
+                }
+                reviews[d] += due;
+            }
+        }
+        return new Trial(reviews, minutes);
+    }
+
+    private static byte rate(FsrsScheduler.CardBatch batch, int i, long reviewAt,
+                             double[][] cumulative, SplittableRandom random) {
+        byte state = batch.states[i];
+        if (state == NEW) {
+            return sample(cumulative[0], random);
+        }
+        if (state != REVIEW) {
+            return sample(cumulative[1], random);
+        }
+        long lastReview = batch.lastReviewSeconds[i];
+        int elapsedDays = lastReview == FsrsScheduler.CardBatch.NEVER_REVIEWED
+            ? 0
+            : (int) Math.max(0, (reviewAt - lastReview) / SECONDS_PER_DAY);
+        double retrievability = FsrsScheduler.computeRetrievability(elapsedDays, batch.stability[i]);
+        if (random.nextDouble() >= retrievability) {
+            return 1;
+        }
+        return sample(cumulative[2], random);
+    }
+
+    private static byte sample(double[] cumulative, SplittableRandom random) {
+        double u = random.nextDouble();
+        for (int r = 0; r < cumulative.length - 1; r++) {
+            if (u < cumulative[r]) {
+                return (byte) (r + 1);
+            }
+        }
+        return (byte) cumulative.length;
+    }
+
+    private static double[] cumulative(double[] weights, boolean recalled) {
+        double[] cumulative = new double[weights.length];
+        double total = 0;
+        for (int r = 0; r < weights.length; r++) {
+            total += (recalled && r == 0) ? 0 : weights[r];
+            cumulative[r] = total;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("Rating weights must have a positive total");
+        }
+        for (int r = 0; r < weights.length; r++) {
+            cumulative[r] /= total;
+        }
+        return cumulative;
+    }
+
+    // The deck followed by newPerDay never-reviewed cards per day, each due from its day.
+    private static FsrsScheduler.CardBatch withNewCards(FsrsScheduler.CardBatch deck, int newPerDay,
+                                                       int days, LocalDateTime start) {
+        FsrsScheduler.CardBatch batch = deck.copy(deck.size + newPerDay * days);
+        long startSeconds = start.toEpochSecond(ZoneOffset.UTC);
+        long firstDayStart = start.toLocalDate().atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+        for (int i = deck.size; i < batch.size; i++) {
+            int day = (i - deck.size) / newPerDay;
+            batch.states[i] = NEW;
+            batch.lastReviewSeconds[i] = FsrsScheduler.CardBatch.NEVER_REVIEWED;
+            batch.dueSeconds[i] = day == 0 ? startSeconds : firstDayStart + day * SECONDS_PER_DAY;
+        }
+        return batch;
+    }
+}
@@ -0,0 +1,100 @@
+package com.atinroy.leetly.review.service;
+
+import com.atinroy.leetly.review.model.CardState;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Spreads review cards across days. Each review interval may move within
+ * {@link FsrsScheduler#fuzzRange}, and it moves to the day in that range with the
+ * fewest cards already due. Ties go to the day closest to the original interval.
+ * Without this, cards enrolled or reviewed together keep coming due on the same day.
+ *
+ * Due-per-day counts come from the user's cached deck
+ * ({@link ReviewQueueCache.Snapshot#countDueByDay}). The deck is kept current as
+ * reviews commit, so balancing costs no query when the deck is cached.
+ */
+@Component
+public class ReviewLoadBalancer {
+
+    private final boolean enabled;
+
+    public ReviewLoadBalancer(@Value("${app.review-load-balancing.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Starts placing the cards of one review request made at {@code now}. The deck is
+     * only fetched once a card needs balancing.
+     */
+    public Placement start(LocalDateTime now, Supplier<ReviewQueueCache.Snapshot> deck) {
+        return new Placement(now, deck);
+    }
+
+    /**
+     * Balances the cards of one request. Days picked earlier in the request count
+     * towards the load seen by later cards, since the deck does not show them until
+     * the request commits.
+     */
+    public final class Placement {
+
+        private final LocalDateTime now;
+        private final LocalDate today;
+        private final Supplier<ReviewQueueCache.Snapshot> deckSupplier;
+        private final Map<LocalDate, Integer> placed = new HashMap<>();
+        private ReviewQueueCache.Snapshot deck;
+
+        private Placement(LocalDateTime now, Supplier<ReviewQueueCache.Snapshot> deckSupplier) {
+            this.now = now;
+            this.today = now.toLocalDate();
+            this.deckSupplier = deckSupplier;
+        }
+
+        /** {@code result} with its interval moved to the least loaded day in range. */
+        public FsrsScheduler.SchedulingResult balance(FsrsScheduler.SchedulingResult result) {
+            if (!enabled || result.state() != CardState.REVIEW) {
+                return result;
+            }
+            int interval = result.scheduledDays();
+            int[] range = FsrsScheduler.fuzzRange(interval);
+            if (range[0] == range[1]) {
+                return result;
+            }
+            if (deck == null) {
+                deck = deckSupplier.get();
+            }
+
+            int[] due = deck.countDueByDay(today.plusDays(range[0]), range[1] - range[0] + 1);
+            int best = interval;
+            int bestLoad = Integer.MAX_VALUE;
+            for (int days = range[0]; days <= range[1]; days++) {
+                int load = due[days - range[0]] + placed.getOrDefault(today.plusDays(days), 0);
+                if (load < bestLoad
+                        || (load == bestLoad && Math.abs(days - interval) < Math.abs(best - interval))) {
+                    best = days;
+                    bestLoad = load;
+                }
+            }
+            placed.merge(today.plusDays(best), 1, Integer::sum);
+            if (best == interval) {
+                return result;
+            }
+            return new FsrsScheduler.SchedulingResult(
+                result.state(),
+                result.stability(),
+                result.difficulty(),
+                now.plusDays(best),
+                best,
+                result.elapsedDays(),
+                result.reps(),
+                result.lapses()
+            );
+        }
+    }
+}
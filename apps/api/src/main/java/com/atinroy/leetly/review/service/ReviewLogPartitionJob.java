@@ -0,0 +1,102 @@
+package com.atinroy.leetly.review.service;
+
+import com.atinroy.leetly.review.repository.ReviewLogRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Maintains the monthly partitions of review_logs. Each run creates partitions for
+ * the current month and the next {@code months-ahead}, then archives every month older
+ * than {@code retention-months}: its logs are folded into per-card review_log_summaries
+ * and the partition is dropped, one transaction per month.
+ *
+ * Archived logs no longer feed the forecast's rating model, and FSRS retraining leaves
+ * out every card with archived logs, since its replay must start at the first review.
+ * The retention should cover the history those are meant to learn from. A retention of
+ * 0 keeps every month.
+ */
+@Slf4j
+@Component
+public class ReviewLogPartitionJob {
+
+    private final ReviewLogRepository reviewLogRepository;
+    private final TransactionTemplate transaction;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final Counter archivedLogs;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public ReviewLogPartitionJob(
+            ReviewLogRepository reviewLogRepository,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${app.review-logs.months-ahead:3}") int monthsAhead,
+            @Value("${app.review-logs.retention-months:24}") int retentionMonths) {
+        this.reviewLogRepository = reviewLogRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.archivedLogs = Counter.builder("leetly.review.logs.archived")
+                .description("Review logs folded into per-card summaries when their partition was archived")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${app.review-logs.partition-cron:0 30 3 * * *}")
+    public void scheduledRun() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Skipping review log partition maintenance: a run is already in progress");
+            return;
+        }
+        try {
+            run(YearMonth.now());
+        } catch (RuntimeException e) {
+            log.error("Review log partition maintenance failed", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /** Creates upcoming partitions and archives expired ones; returns the number of months archived. */
+    int run(YearMonth current) {
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            Boolean created = transaction.execute(status -> reviewLogRepository.ensurePartition(month.atDay(1)));
+            if (Boolean.TRUE.equals(created)) {
+                log.info("Created review_logs partition for {}", month);
+            }
+        }
+
+        if (retentionMonths <= 0) {
+            return 0;
+        }
+        YearMonth cutoff = current.minusMonths(retentionMonths);
+        List<YearMonth> expired = reviewLogRepository.findPartitionMonths().stream()
+                .map(YearMonth::parse)
+                .filter(month -> month.isBefore(cutoff))
+                .toList();
+
+        int archived = 0;
+        for (YearMonth month : expired) {
+            int logs = Objects.requireNonNull(
+                    transaction.execute(status -> reviewLogRepository.archivePartition(month.atDay(1))));
+            if (logs < 0) {
+                continue;
+            }
+            archivedLogs.increment(logs);
+            archived++;
+            log.info("Archived review_logs partition for {} ({} logs)", month, logs);
+        }
+        return archived;
+    }
+}
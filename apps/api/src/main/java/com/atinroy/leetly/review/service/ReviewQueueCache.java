@@ -0,0 +1,349 @@
+package com.atinroy.leetly.review.service;
+
+import com.atinroy.leetly.review.model.CardState;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Per-user review decks kept in memory as (due, card id, state) entries sorted by due,
+ * so due pages, counts, the due-by-day histogram and the state breakdown are answered
+ * without querying review_cards.
+ *
+ * Decks are loaded on first use and updated when a review, enrollment or removal
+ * commits. Least recently used decks are evicted once the total size passes
+ * {@code max-bytes}. Decks are also reloaded after {@code ttl}, which bounds how long
+ * another instance's writes, or deletes that cascade from problems, can go unseen.
+ */
+@Component
+public class ReviewQueueCache {
+
+    // Array headers and the Deck object itself, roughly.
+    private static final long DECK_OVERHEAD_BYTES = 96;
+
+    private final long maxBytes;
+    private final long ttlNanos;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    // Access-ordered, so iteration starts at the least recently used deck.
+    private final LinkedHashMap<Long, Deck> decks = new LinkedHashMap<>(16, 0.75f, true);
+    // Loads in flight, flagged when a write for that user lands before the load installs.
+    private final Map<Long, boolean[]> loading = new HashMap<>();
+    private long totalBytes;
+
+    public ReviewQueueCache(MeterRegistry meterRegistry,
+                            @Value("${app.review-queue-cache.max-bytes:67108864}") long maxBytes,
+                            @Value("${app.review-queue-cache.ttl:PT5M}") Duration ttl) {
+        this.maxBytes = maxBytes;
+        this.ttlNanos = ttl.toNanos();
+        this.hits = Counter.builder("leetly.review.queue.cache.requests")
+                .tag("result", "hit")
+                .description("Review deck lookups served from the in-memory queue cache")
+                .register(meterRegistry);
+        this.misses = Counter.builder("leetly.review.queue.cache.requests")
+                .tag("result", "miss")
+                .description("Review deck lookups that loaded the deck from the database")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("leetly.review.queue.cache.evictions")
+                .description("Review decks evicted to stay within the memory budget")
+                .register(meterRegistry);
+        Gauge.builder("leetly.review.queue.cache.hit.ratio", this, ReviewQueueCache::hitRatio)
+                .description("Share of review deck lookups served from the cache")
+                .register(meterRegistry);
+        Gauge.builder("leetly.review.queue.cache.size", this, ReviewQueueCache::bytes)
+                .description("Approximate memory held by cached review decks")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * An immutable, sorted copy of a user's deck. Writes replace a deck's snapshot
+     * rather than changing it, so readers use it without locking or copying.
+     */
+    public static final class Snapshot {
+
+        private final long[] dueKeys;
+        private final long[] ids;
+        private final byte[] states;
+        // Cards per CardState ordinal, computed on first use; a new snapshot starts over.
+        private volatile int[] stateCounts;
+
+        private Snapshot(long[] dueKeys, long[] ids, byte[] states) {
+            this.dueKeys = dueKeys;
+            this.ids = ids;
+            this.states = states;
+        }
+
+        public int total() {
+            return ids.length;
+        }
+
+        /** Cards due at or before {@code time}. */
+        public int countDueBy(LocalDateTime time) {
+            return upperBound(dueKeys, key(time));
+        }
+
+        /** Cards due strictly before {@code time}. */
+        public int countDueBefore(LocalDateTime time) {
+            return upperBound(dueKeys, key(time) - 1);
+        }
+
+        /** Cards due after {@code from} and at or before {@code until}. */
+        public int countDueBetween(LocalDateTime from, LocalDateTime until) {
+            return Math.max(0, countDueBy(until) - countDueBy(from));
+        }
+
+        /** Cards due on each of the {@code days} days starting with {@code from}. */
+        public int[] countDueByDay(LocalDate from, int days) {
+            int[] counts = new int[days];
+            int before = countDueBefore(from.atStartOfDay());
+            for (int d = 0; d < days; d++) {
+                int through = countDueBefore(from.plusDays(d + 1).atStartOfDay());
+                counts[d] = through - before;
+                before = through;
+            }
+            return counts;
+        }
+
+        /** Number of cards in each state, indexed by {@link CardState#ordinal()}. */
+        public int[] countByState() {
+            int[] counts = stateCounts;
+            if (counts == null) {
+                counts = new int[CardState.values().length];
+                for (byte state : states) {
+                    counts[state]++;
+                }
+                stateCounts = counts;
+            }
+            return counts.clone();
+        }
+
+        /** Ids of the cards due by {@code time}, in due order, skipping the first {@code offset}. */
+        public List<Long> idsDueBy(LocalDateTime time, long offset, int limit) {
+            int end = countDueBy(time);
+            int start = (int) Math.min(offset, end);
+            return Arrays.stream(ids, start, Math.min(end, start + limit)).boxed().toList();
+        }
+
+        long bytes() {
+            return DECK_OVERHEAD_BYTES + 17L * ids.length;
+        }
+
+        Snapshot without(long id) {
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == id) {
+                    int n = ids.length - 1;
+                    long[] newDueKeys = new long[n];
+                    long[] newIds = new long[n];
+                    byte[] newStates = new byte[n];
+                    System.arraycopy(dueKeys, 0, newDueKeys, 0, i);
+                    System.arraycopy(ids, 0, newIds, 0, i);
+                    System.arraycopy(states, 0, newStates, 0, i);
+                    System.arraycopy(dueKeys, i + 1, newDueKeys, i, n - i);
+                    System.arraycopy(ids, i + 1, newIds, i, n - i);
+                    System.arraycopy(states, i + 1, newStates, i, n - i);
+                    return new Snapshot(newDueKeys, newIds, newStates);
+                }
+            }
+            return this;
+        }
+
+        Snapshot with(long id, long dueKey, byte state) {
+            Snapshot base = without(id);
+            int n = base.ids.length;
+            // Insert after cards with the same due time, keeping ties in load order.
+            int i = upperBound(base.dueKeys, dueKey);
+            long[] newDueKeys = new long[n + 1];
+            long[] newIds = new long[n + 1];
+            byte[] newStates = new byte[n + 1];
+            System.arraycopy(base.dueKeys, 0, newDueKeys, 0, i);
+            System.arraycopy(base.ids, 0, newIds, 0, i);
+            System.arraycopy(base.states, 0, newStates, 0, i);
+            newDueKeys[i] = dueKey;
+            newIds[i] = id;
+            newStates[i] = state;
+            System.arraycopy(base.dueKeys, i, newDueKeys, i + 1, n - i);
+            System.arraycopy(base.ids, i, newIds, i + 1, n - i);
+            System.arraycopy(base.states, i, newStates, i + 1, n - i);
+            return new Snapshot(newDueKeys, newIds, newStates);
+        }
+    }
+
+    private record Deck(Snapshot snapshot, long loadedAt) {}
+
+    /**
+     * The user's deck, loading it with {@code loader} on a miss. The loader returns
+     * rows of [Long id, LocalDateTime due, CardState state] ordered by due.
+     */
+    public Snapshot get(long userId, Supplier<List<Object[]>> loader) {
+        boolean[] invalidated;
+        synchronized (this) {
+            Deck deck = decks.get(userId);
+            if (deck != null && System.nanoTime() - deck.loadedAt() < ttlNanos) {
+                hits.increment();
+                return deck.snapshot();
+            }
+            misses.increment();
+            invalidated = loading.containsKey(userId) ? null : new boolean[1];
+            if (invalidated != null) {
+                loading.put(userId, invalidated);
+            }
+        }
+
+        long loadedAt = System.nanoTime();
+        Snapshot loaded;
+        try {
+            loaded = toSnapshot(loader.get());
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                if (invalidated != null) {
+                    loading.remove(userId);
+                }
+            }
+            throw e;
+        }
+
+        synchronized (this) {
+            // A concurrent load for the same user owns installation; only the first loader installs.
+            if (invalidated != null) {
+                loading.remove(userId);
+                if (!invalidated[0]) {
+                    replace(userId, new Deck(loaded, loadedAt));
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /** The user's deck if it is cached and fresh, or null; never loads it and is not counted as a lookup. */
+    public synchronized Snapshot peek(long userId) {
+        Deck deck = decks.get(userId);
+        return deck != null && System.nanoTime() - deck.loadedAt() < ttlNanos ? deck.snapshot() : null;
+    }
+
+    /** Records that {@code cardId} is in {@code state} and due at {@code due} once the current transaction commits. */
+    public void put(long userId, long cardId, LocalDateTime due, CardState state) {
+        long dueKey = key(due);
+        byte stateOrdinal = (byte) state.ordinal();
+        afterCommit(() -> update(userId, snapshot -> snapshot.with(cardId, dueKey, stateOrdinal)));
+    }
+
+    /** Records that {@code cardId} left the user's deck once the current transaction commits. */
+    public void remove(long userId, long cardId) {
+        afterCommit(() -> update(userId, snapshot -> snapshot.without(cardId)));
+    }
+
+    /** Drops the user's deck once the current transaction commits, e.g. after a bulk delete. */
+    public void invalidate(long userId) {
+        afterCommit(() -> update(userId, snapshot -> null));
+    }
+
+    synchronized double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0.0 : hits.count() / total;
+    }
+
+    synchronized long bytes() {
+        return totalBytes;
+    }
+
+    private synchronized void update(long userId, UnaryOperator<Snapshot> change) {
+        boolean[] invalidated = loading.get(userId);
+        if (invalidated != null) {
+            invalidated[0] = true;
+        }
+        Deck deck = decks.get(userId);
+        if (deck == null) {
+            return;
+        }
+        Snapshot changed = change.apply(deck.snapshot());
+        replace(userId, changed == null ? null : new Deck(changed, deck.loadedAt()));
+    }
+
+    private void replace(long userId, Deck deck) {
+        Deck previous = deck == null ? decks.remove(userId) : decks.put(userId, deck);
+        if (previous != null) {
+            totalBytes -= previous.snapshot().bytes();
+        }
+        if (deck == null) {
+            return;
+        }
+        totalBytes += deck.snapshot().bytes();
+
+        Iterator<Map.Entry<Long, Deck>> it = decks.entrySet().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            Map.Entry<Long, Deck> eldest = it.next();
+            if (eldest.getKey() == userId) {
+                continue;
+            }
+            totalBytes -= eldest.getValue().snapshot().bytes();
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    private static Snapshot toSnapshot(List<Object[]> rows) {
+        long[] dueKeys = new long[rows.size()];
+        long[] ids = new long[rows.size()];
+        byte[] states = new byte[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            Object[] row = rows.get(i);
+            ids[i] = (Long) row[0];
+            dueKeys[i] = key((LocalDateTime) row[1]);
+            states[i] = (byte) ((CardState) row[2]).ordinal();
+        }
+        return new Snapshot(dueKeys, ids, states);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // Nanoseconds since the epoch of the naive timestamp; exact until 2262.
+    private static long key(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + time.getNano();
+    }
+
+    // Index of the first key greater than `key`.
+    private static int upperBound(long[] keys, long key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -6,28 +6,56 @@ import com.atinroy.leetly.problem.model.Attempt;
 import com.atinroy.leetly.problem.model.Outcome;
 import com.atinroy.leetly.problem.model.Problem;
 import com.atinroy.leetly.problem.repository.ProblemRepository;
+import com.atinroy.leetly.review.dto.BulkReviewItem;
+import com.atinroy.leetly.review.dto.ReviewStatsDto;
 import com.atinroy.leetly.review.model.*;
 import com.atinroy.leetly.review.repository.ReviewCardRepository;
 import com.atinroy.leetly.review.repository.ReviewLogRepository;
+import com.atinroy.leetly.review.repository.ReviewLogSummaryRepository;
+import com.atinroy.leetly.review.repository.UserFsrsWeightsRepository;
+import com.atinroy.leetly.review.repository.UserReviewLogCountRepository;
 import com.atinroy.leetly.user.model.User;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
 @RequiredArgsConstructor
 public class ReviewService {
 
+    static final int HISTOGRAM_DAYS = 30;
+    static final int MAX_HISTORY_PAGE_SIZE = 200;
+
     private final ReviewCardRepository reviewCardRepository;
     private final ReviewLogRepository reviewLogRepository;
+    private final ReviewLogSummaryRepository reviewLogSummaryRepository;
     private final ProblemRepository problemRepository;
     private final FsrsScheduler fsrsScheduler;
+    private final UserFsrsWeightsRepository userFsrsWeightsRepository;
+    private final UserReviewLogCountRepository userReviewLogCountRepository;
+    private final ReviewQueueCache reviewQueueCache;
+    private final ReviewLoadBalancer reviewLoadBalancer;
 
     public ReviewCard enroll(long problemId, User user) {
         Problem problem = problemRepository.findByIdAndUser(problemId, user)
@@ -40,18 +68,52 @@ public class ReviewService {
         ReviewCard card = new ReviewCard();
         card.setProblem(problem);
         card.setUser(user);
-        return reviewCardRepository.save(card);
+        ReviewCard saved = reviewCardRepository.save(card);
+        reviewQueueCache.put(user.getId(), saved.getId(), saved.getDue(), saved.getState());
+        return saved;
     }
 
     public void remove(long cardId, User user) {
         ReviewCard card = reviewCardRepository.findByIdAndUser(cardId, user)
             .orElseThrow(() -> new ResourceNotFoundException("Review card not found: " + cardId));
         reviewCardRepository.delete(card);
+        reviewQueueCache.remove(user.getId(), cardId);
     }
 
     @Transactional(readOnly = true)
     public Page<ReviewCard> findDueCards(User user, Pageable pageable) {
-        return reviewCardRepository.findDueCards(user, LocalDateTime.now(), pageable);
+        LocalDateTime now = LocalDateTime.now();
+        ReviewQueueCache.Snapshot deck = deckOf(user);
+        List<Long> ids = pageable.isPaged()
+            ? deck.idsDueBy(now, pageable.getOffset(), pageable.getPageSize())
+            : deck.idsDueBy(now, 0, Integer.MAX_VALUE);
+
+        Map<Long, ReviewCard> cardsById = reviewCardRepository.findByUserAndIdIn(user, ids).stream()
+            .collect(Collectors.toMap(ReviewCard::getId, card -> card));
+        List<ReviewCard> cards = ids.stream().map(cardsById::get).filter(Objects::nonNull).toList();
+        if (cards.size() < ids.size()) {
+            // Cards removed behind the cache's back, e.g. by a problem delete cascade.
+            reviewQueueCache.invalidate(user.getId());
+        }
+        return new PageImpl<>(cards, pageable, deck.countDueBy(now));
+    }
+
+    /**
+     * Which of {@code cardIds} are due by {@code until}: from the deck if it is already
+     * cached, otherwise by looking up just those cards rather than loading the deck.
+     */
+    @Transactional(readOnly = true)
+    public Set<Long> findDueAmong(User user, List<Long> cardIds, LocalDateTime until) {
+        if (cardIds.isEmpty()) {
+            return Set.of();
+        }
+        ReviewQueueCache.Snapshot deck = reviewQueueCache.peek(user.getId());
+        List<Long> due = deck != null
+            ? deck.idsDueBy(until, 0, Integer.MAX_VALUE)
+            : reviewCardRepository.findDueIdsByUserAndIdIn(user, cardIds, until);
+        Set<Long> dueAmong = new HashSet<>(due);
+        dueAmong.retainAll(cardIds);
+        return dueAmong;
     }
 
     @Transactional(readOnly = true)
@@ -60,23 +122,94 @@ public class ReviewService {
             .orElseThrow(() -> new ResourceNotFoundException("Review card not found: " + cardId));
     }
 
+    /**
+     * A page of the card's history, newest first. Pass the last log of the previous
+     * page as ({@code before}, {@code beforeId}) to continue after it.
+     */
+    @Transactional(readOnly = true)
+    public Slice<ReviewLog> findHistory(long cardId, User user, LocalDateTime before, Long beforeId, int size) {
+        if (size < 1 || size > MAX_HISTORY_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_HISTORY_PAGE_SIZE);
+        }
+        if ((before == null) != (beforeId == null)) {
+            throw new IllegalArgumentException("before and beforeId must be given together");
+        }
+        ReviewCard card = findById(cardId, user);
+
+        // One extra row tells whether another page follows.
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<ReviewLog> logs = before == null
+            ? reviewLogRepository.findHistory(card, limit)
+            : reviewLogRepository.findHistoryBefore(card, before, beforeId, limit);
+        boolean hasNext = logs.size() > size;
+        return new SliceImpl<>(hasNext ? logs.subList(0, size) : logs, PageRequest.of(0, size), hasNext);
+    }
+
+    /** Counts for the card's logs that were archived with their monthly partition, if any. */
     @Transactional(readOnly = true)
-    public List<ReviewLog> findHistory(long cardId, User user) {
+    public Optional<ReviewLogSummary> findArchivedSummary(long cardId, User user) {
         ReviewCard card = findById(cardId, user);
-        return reviewLogRepository.findByReviewCardOrderByReviewedAtDesc(card);
+        return reviewLogSummaryRepository.findById(card.getId());
     }
 
     public ReviewCard quickReview(long cardId, Rating rating, User user) {
         ReviewCard card = reviewCardRepository.findByIdAndUser(cardId, user)
             .orElseThrow(() -> new ResourceNotFoundException("Review card not found: " + cardId));
 
-        return applyReview(card, rating, ReviewType.QUICK_ASSESSMENT, null);
+        return applyReview(card, user, rating, ReviewType.QUICK_ASSESSMENT, null);
+    }
+
+    /**
+     * Applies a whole review session in one transaction. Cards are loaded in one query
+     * and scheduled together; the logs and card updates are flushed as JDBC batches.
+     * Each card may appear at most once, and the session fails as a whole if any card
+     * is missing.
+     */
+    public List<ReviewCard> bulkReview(List<BulkReviewItem> reviews, User user) {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (BulkReviewItem review : reviews) {
+            if (!ids.add(review.cardId())) {
+                throw new IllegalArgumentException("Card reviewed more than once: " + review.cardId());
+            }
+        }
+
+        Map<Long, ReviewCard> cardsById = reviewCardRepository.findByUserAndIdIn(user, ids).stream()
+            .collect(Collectors.toMap(ReviewCard::getId, card -> card));
+        List<Long> missing = ids.stream().filter(id -> !cardsById.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            throw new ResourceNotFoundException("Review cards not found: " + missing);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<ReviewCard> cards = new ArrayList<>(reviews.size());
+        List<ReviewLog> logs = new ArrayList<>(reviews.size());
+        FsrsScheduler.CardBatch batch = new FsrsScheduler.CardBatch(reviews.size());
+        byte[] ratings = new byte[reviews.size()];
+        for (int i = 0; i < reviews.size(); i++) {
+            BulkReviewItem review = reviews.get(i);
+            ReviewCard card = cardsById.get(review.cardId());
+            cards.add(card);
+            logs.add(newLog(card, review.rating(), ReviewType.QUICK_ASSESSMENT, null, now));
+            batch.set(i, card);
+            ratings[i] = (byte) review.rating().value();
+        }
+        reviewLogRepository.saveAll(logs);
+        userReviewLogCountRepository.increment(user.getId(), logs.size(), now);
+
+        fsrsScheduler.scheduleBatch(batch, ratings, now, parametersFor(user));
+        ReviewLoadBalancer.Placement placement = reviewLoadBalancer.start(now, () -> deckOf(user));
+        for (int i = 0; i < cards.size(); i++) {
+            ReviewCard card = cards.get(i);
+            applyResult(card, placement.balance(batch.result(i, now)), now);
+            reviewQueueCache.put(user.getId(), card.getId(), card.getDue(), card.getState());
+        }
+        return reviewCardRepository.saveAll(cards);
     }
 
     public void onAttemptLogged(Problem problem, User user, Attempt attempt) {
         reviewCardRepository.findByProblemAndUser(problem, user).ifPresent(card -> {
             Rating rating = mapOutcomeToRating(attempt);
-            applyReview(card, rating, ReviewType.FULL_ATTEMPT, attempt);
+            applyReview(card, user, rating, ReviewType.FULL_ATTEMPT, attempt);
         });
     }
 
@@ -85,29 +218,64 @@ public class ReviewService {
             ReviewCard card = new ReviewCard();
             card.setProblem(problem);
             card.setUser(user);
-            reviewCardRepository.save(card);
+            ReviewCard saved = reviewCardRepository.save(card);
+            reviewQueueCache.put(user.getId(), saved.getId(), saved.getDue(), saved.getState());
         }
     }
 
+    /**
+     * Due counts, a due-by-day histogram for the next {@value #HISTOGRAM_DAYS} days and a
+     * per-state breakdown, all from one snapshot of the cached deck.
+     */
     @Transactional(readOnly = true)
-    public long countDue(User user) {
-        return reviewCardRepository.countDue(user, LocalDateTime.now());
+    public ReviewStatsDto getStats(User user) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate today = now.toLocalDate();
+        ReviewQueueCache.Snapshot deck = deckOf(user);
+
+        int[] stateCounts = deck.countByState();
+        Map<CardState, Integer> byState = new EnumMap<>(CardState.class);
+        for (CardState state : CardState.values()) {
+            byState.put(state, stateCounts[state.ordinal()]);
+        }
+
+        return new ReviewStatsDto(
+            deck.countDueBy(now),
+            deck.countDueBetween(now, now.plusDays(7)),
+            deck.total(),
+            deck.countDueBefore(today.atStartOfDay()),
+            today,
+            Arrays.stream(deck.countDueByDay(today, HISTOGRAM_DAYS)).boxed().toList(),
+            byState
+        );
     }
 
-    @Transactional(readOnly = true)
-    public long countUpcoming7Days(User user) {
-        LocalDateTime now = LocalDateTime.now();
-        return reviewCardRepository.countUpcoming(user, now, now.plusDays(7));
+    private ReviewQueueCache.Snapshot deckOf(User user) {
+        return reviewQueueCache.get(user.getId(), () -> reviewCardRepository.findQueueByUser(user));
     }
 
+    /** The user's fitted FSRS weights, or the defaults until the optimizer has fitted them. */
     @Transactional(readOnly = true)
-    public long countTotal(User user) {
-        return reviewCardRepository.countByUser(user);
+    public FsrsScheduler.Parameters parametersFor(User user) {
+        return userFsrsWeightsRepository.findByUser(user)
+            .map(weights -> FsrsScheduler.Parameters.of(weights.getWeights()))
+            .orElse(FsrsScheduler.Parameters.DEFAULT);
     }
 
-    private ReviewCard applyReview(ReviewCard card, Rating rating, ReviewType type, Attempt attempt) {
+    private ReviewCard applyReview(ReviewCard card, User user, Rating rating, ReviewType type, Attempt attempt) {
         LocalDateTime now = LocalDateTime.now();
+        reviewLogRepository.save(newLog(card, rating, type, attempt, now));
+        userReviewLogCountRepository.increment(user.getId(), 1, now);
+
+        FsrsScheduler.SchedulingResult result = fsrsScheduler.schedule(card, rating, now, parametersFor(user));
+        applyResult(card, reviewLoadBalancer.start(now, () -> deckOf(user)).balance(result), now);
 
+        ReviewCard saved = reviewCardRepository.save(card);
+        reviewQueueCache.put(user.getId(), saved.getId(), saved.getDue(), saved.getState());
+        return saved;
+    }
+
+    private static ReviewLog newLog(ReviewCard card, Rating rating, ReviewType type, Attempt attempt, LocalDateTime now) {
         ReviewLog log = new ReviewLog();
         log.setReviewCard(card);
         log.setRating(rating);
@@ -119,9 +287,10 @@ public class ReviewService {
         log.setReviewType(type);
         log.setAttempt(attempt);
         log.setReviewedAt(now);
-        reviewLogRepository.save(log);
+        return log;
+    }
 
-        FsrsScheduler.SchedulingResult result = fsrsScheduler.schedule(card, rating, now);
+    private static void applyResult(ReviewCard card, FsrsScheduler.SchedulingResult result, LocalDateTime now) {
         card.setState(result.state());
         card.setStability(result.stability());
         card.setDifficulty(result.difficulty());
@@ -131,8 +300,6 @@ public class ReviewService {
         card.setLapses(result.lapses());
         card.setScheduledDays(result.scheduledDays());
         card.setElapsedDays(result.elapsedDays());
-
-        return reviewCardRepository.save(card);
     }
 
     private Rating mapOutcomeToRating(Attempt attempt) {
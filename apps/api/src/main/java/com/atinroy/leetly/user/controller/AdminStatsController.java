@@ -0,0 +1,27 @@
+package com.atinroy.leetly.user.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.atinroy.leetly.user.dto.StatsRebuildReport;
+import com.atinroy.leetly.user.service.StatsRebuildService;
+
+@RestController
+@RequestMapping("/api/admin/stats")
+@RequiredArgsConstructor
+public class AdminStatsController {
+
+    private final StatsRebuildService statsRebuildService;
+
+    // Runs in the background; poll GET /rebuild for progress and the final report.
+    @PostMapping("/rebuild")
+    public ResponseEntity<StatsRebuildReport> rebuild(@RequestParam(defaultValue = "false") boolean repair) {
+        return ResponseEntity.accepted().body(statsRebuildService.start(repair));
+    }
+
+    @GetMapping("/rebuild")
+    public ResponseEntity<StatsRebuildReport> getLastReport() {
+        return ResponseEntity.of(statsRebuildService.getLastReport());
+    }
+}
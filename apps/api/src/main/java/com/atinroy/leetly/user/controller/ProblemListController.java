@@ -1,12 +1,15 @@
 package com.atinroy.leetly.user.controller;
 
+import com.atinroy.leetly.common.model.CursorPage;
 import com.atinroy.leetly.common.model.PagedResponse;
+import com.atinroy.leetly.problem.model.MembershipMatch;
 import com.atinroy.leetly.problem.dto.ProblemSummaryDto;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.data.web.SortDefault;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
@@ -52,12 +55,36 @@ public class ProblemListController {
             @PageableDefault(size = 20, sort = {"createdDate", "id"}, direction = Sort.Direction.DESC) Pageable pageable,
             @RequestParam(required = false) String difficulty,
             @RequestParam(required = false) String status,
-            @RequestParam(required = false) Long topicId,
-            @RequestParam(required = false) Long patternId,
+            @RequestParam(required = false) List<Long> topicId,
+            @RequestParam(defaultValue = "ANY") MembershipMatch topicMatch,
+            @RequestParam(required = false) List<Long> patternId,
+            @RequestParam(defaultValue = "ANY") MembershipMatch patternMatch,
             @RequestParam(required = false) String search
     ) {
         User user = userService.getOrCreate(jwt.getSubject());
-        return PagedResponse.of(problemListService.findProblems(id, user, pageable, difficulty, status, topicId, patternId, search));
+        return PagedResponse.of(problemListService.findProblems(id, user, pageable, difficulty, status, topicId, topicMatch, patternId, patternMatch, search));
+    }
+
+    @GetMapping("/{id}/problems/scroll")
+    @Transactional(readOnly = true)
+    public CursorPage<ProblemSummaryDto> scrollProblems(
+            @AuthenticationPrincipal Jwt jwt,
+            @PathVariable long id,
+            @SortDefault(sort = {"createdDate", "id"}, direction = Sort.Direction.DESC) Sort sort,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            @RequestParam(required = false) String difficulty,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) List<Long> topicId,
+            @RequestParam(defaultValue = "ANY") MembershipMatch topicMatch,
+            @RequestParam(required = false) List<Long> patternId,
+            @RequestParam(defaultValue = "ANY") MembershipMatch patternMatch,
+            @RequestParam(required = false) String search
+    ) {
+        User user = userService.getOrCreate(jwt.getSubject());
+        return problemListService.scrollProblems(id, user, sort, size, cursor, includeTotal,
+                difficulty, status, topicId, topicMatch, patternId, patternMatch, search);
     }
 
     @PostMapping
@@ -2,17 +2,22 @@ package com.atinroy.leetly.user.controller;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDate;
 import java.util.List;
 import com.atinroy.leetly.user.dto.DailyStatDto;
+import com.atinroy.leetly.user.dto.HeatmapDto;
 import com.atinroy.leetly.user.dto.UserStatsDto;
 import com.atinroy.leetly.user.mapper.DailyStatMapper;
 import com.atinroy.leetly.user.mapper.UserStatsMapper;
 import com.atinroy.leetly.user.model.User;
+import com.atinroy.leetly.user.model.UserStats;
 import com.atinroy.leetly.user.service.StatsService;
 import com.atinroy.leetly.user.service.UserService;
 
@@ -29,7 +34,8 @@ public class StatsController {
     @GetMapping
     public UserStatsDto getStats(@AuthenticationPrincipal Jwt jwt) {
         User user = userService.getOrCreate(jwt.getSubject());
-        return userStatsMapper.toDto(statsService.getByUser(user));
+        UserStats stats = statsService.getByUser(user);
+        return userStatsMapper.toDto(stats, statsService.getBreakdowns(user, stats));
     }
 
     @GetMapping("/daily")
@@ -47,4 +53,21 @@ public class StatsController {
         return statsService.getDailyStatsBetween(user, startDate, endDate).stream()
                 .map(dailyStatMapper::toDto).toList();
     }
+
+    @GetMapping("/heatmap")
+    public ResponseEntity<HeatmapDto> getHeatmap(@AuthenticationPrincipal Jwt jwt,
+                                                 @RequestParam(required = false) Integer year,
+                                                 WebRequest request) {
+        User user = userService.getOrCreate(jwt.getSubject());
+        int heatmapYear = year != null ? year : LocalDate.now().getYear();
+        String etag = statsService.getHeatmapETag(user, heatmapYear);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(statsService.getHeatmap(user, heatmapYear));
+    }
 }
@@ -1,11 +1,13 @@
 package com.atinroy.leetly.user.controller;
 
+import com.atinroy.leetly.common.service.ReferenceDataCache;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.List;
 import com.atinroy.leetly.user.dto.CreateThemeRequest;
 import com.atinroy.leetly.user.dto.ThemeDto;
 import com.atinroy.leetly.user.mapper.ThemeMapper;
@@ -18,15 +20,17 @@ public class ThemeController {
 
     private final ThemeService themeService;
     private final ThemeMapper themeMapper;
+    private final ReferenceDataCache referenceDataCache;
 
+    /** The serialized theme list from the reference-data snapshot, or 304 when the ETag matches. */
     @GetMapping
-    public List<ThemeDto> findAll() {
-        return themeService.findAll().stream().map(themeMapper::toDto).toList();
+    public ResponseEntity<byte[]> findAll(WebRequest request) {
+        return referenceDataCache.current().themesJson().toResponse(request);
     }
 
     @GetMapping("/{id}")
     public ThemeDto findById(@PathVariable long id) {
-        return themeMapper.toDto(themeService.findById(id));
+        return referenceDataCache.current().theme(id);
     }
 
     @PostMapping
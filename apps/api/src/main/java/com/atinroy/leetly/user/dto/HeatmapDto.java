@@ -0,0 +1,15 @@
+package com.atinroy.leetly.user.dto;
+
+/**
+ * One calendar year of daily activity, packed densely. {@code data} is base64 of
+ * {@code days} consecutive {@link #BYTES_PER_DAY}-byte records starting on January 1st,
+ * each holding solved, attempted and minutes as big-endian unsigned 16-bit counts
+ * (saturating at 65535). Days without activity are all zeros.
+ */
+public record HeatmapDto(
+        int year,
+        int days,
+        String data
+) {
+    public static final int BYTES_PER_DAY = 6;
+}
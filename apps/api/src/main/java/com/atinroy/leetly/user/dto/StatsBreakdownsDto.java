@@ -0,0 +1,8 @@
+package com.atinroy.leetly.user.dto;
+
+/** Breakdown maps serialized as JSON objects, e.g. {"WRONG_PATTERN": 5, "OFF_BY_ONE": 3}. */
+public record StatsBreakdownsDto(
+        String mistakeBreakdown,
+        String patternBreakdown
+) {
+}
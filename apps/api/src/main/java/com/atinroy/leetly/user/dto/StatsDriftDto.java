@@ -0,0 +1,9 @@
+package com.atinroy.leetly.user.dto;
+
+import java.util.List;
+
+public record StatsDriftDto(
+        long userId,
+        List<String> fields
+) {
+}
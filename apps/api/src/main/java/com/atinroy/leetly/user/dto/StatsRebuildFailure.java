@@ -0,0 +1,7 @@
+package com.atinroy.leetly.user.dto;
+
+public record StatsRebuildFailure(
+        long userId,
+        String message
+) {
+}
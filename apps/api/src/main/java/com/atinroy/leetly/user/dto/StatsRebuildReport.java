@@ -0,0 +1,26 @@
+package com.atinroy.leetly.user.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of a stats verification run. While {@code running} is set the counts cover
+ * the users walked so far.
+ */
+public record StatsRebuildReport(
+        boolean repair,
+        boolean running,
+        LocalDateTime startedAt,
+        long durationMillis,
+        int usersChecked,
+        int usersStale,
+        int usersSkipped,
+        int usersDrifted,
+        int usersRepaired,
+        int usersFailed,
+        Map<String, Integer> driftByField,
+        List<StatsDriftDto> samples,
+        List<StatsRebuildFailure> failures
+) {
+}
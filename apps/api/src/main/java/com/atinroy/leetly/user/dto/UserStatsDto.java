@@ -18,6 +18,7 @@ public record UserStatsDto(
         int currentStreak,
         int longestStreak,
         LocalDate lastSolvedDate,
+        LocalDate firstSolvedDate,
         int solvedThisWeek,
         int solvedThisMonth,
         int distinctTopicsCovered,
@@ -25,7 +26,7 @@ public record UserStatsDto(
         String mistakeBreakdown,
         String patternBreakdown
 ) {
-    public static UserStatsDto from(UserStats stats) {
+    public static UserStatsDto from(UserStats stats, StatsBreakdownsDto breakdowns) {
         return new UserStatsDto(
                 stats.getId(),
                 stats.getTotalSolved(),
@@ -41,12 +42,13 @@ public record UserStatsDto(
                 stats.getCurrentStreak(),
                 stats.getLongestStreak(),
                 stats.getLastSolvedDate(),
+                stats.getFirstSolvedDate(),
                 stats.getSolvedThisWeek(),
                 stats.getSolvedThisMonth(),
                 stats.getDistinctTopicsCovered(),
                 stats.getDistinctPatternsCovered(),
-                stats.getMistakeBreakdown(),
-                stats.getPatternBreakdown()
+                breakdowns.mistakeBreakdown(),
+                breakdowns.patternBreakdown()
         );
     }
 }
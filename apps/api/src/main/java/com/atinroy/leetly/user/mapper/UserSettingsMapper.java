@@ -1,14 +1,31 @@
 package com.atinroy.leetly.user.mapper;
 
+import com.atinroy.leetly.common.service.ReferenceDataCache;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import org.mapstruct.Named;
+import org.springframework.beans.factory.annotation.Autowired;
+import com.atinroy.leetly.user.dto.ThemeDto;
 import com.atinroy.leetly.user.dto.UserSettingsDto;
+import com.atinroy.leetly.user.model.Theme;
 import com.atinroy.leetly.user.model.UserSettings;
 
 @Mapper(componentModel = "spring")
-public interface UserSettingsMapper {
+public abstract class UserSettingsMapper {
+
+    @Autowired
+    protected ReferenceDataCache referenceDataCache;
 
     @Mapping(target = "themeId", source = "theme.id")
-    @Mapping(target = "themeName", source = "theme.name")
-    UserSettingsDto toDto(UserSettings settings);
+    @Mapping(target = "themeName", source = "theme", qualifiedByName = "themeName")
+    public abstract UserSettingsDto toDto(UserSettings settings);
+
+    // From the snapshot, so the settings' theme is not loaded just for its name.
+    @Named("themeName")
+    protected String themeName(Theme theme) {
+        if (theme == null) {
+            return null;
+        }
+        return referenceDataCache.current().findTheme(theme.getId()).map(ThemeDto::name).orElse(null);
+    }
 }
@@ -1,10 +1,15 @@
 package com.atinroy.leetly.user.mapper;
 
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import com.atinroy.leetly.user.dto.StatsBreakdownsDto;
 import com.atinroy.leetly.user.dto.UserStatsDto;
 import com.atinroy.leetly.user.model.UserStats;
 
 @Mapper(componentModel = "spring")
 public interface UserStatsMapper {
-    UserStatsDto toDto(UserStats stats);
+
+    @Mapping(target = "mistakeBreakdown", source = "breakdowns.mistakeBreakdown")
+    @Mapping(target = "patternBreakdown", source = "breakdowns.patternBreakdown")
+    UserStatsDto toDto(UserStats stats, StatsBreakdownsDto breakdowns);
 }
@@ -0,0 +1,205 @@
+package com.atinroy.leetly.user.model;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * One bit per calendar day on which the user solved something, addressed by epoch
+ * day. Bit {@code i} of {@code words[w]} is day {@code baseDay + 64 * w + i}, so
+ * streak queries run a word at a time and never materialize a {@link LocalDate} per
+ * day. Week and month counts stay on the stats row: they count solves, not days.
+ *
+ * <p>Serialized as an 8-byte base day followed by the words, big-endian.
+ */
+public final class SolveDayBitmap {
+
+    private static final long[] NO_WORDS = new long[0];
+
+    private long baseDay;
+    private long[] words = NO_WORDS;
+
+    public static SolveDayBitmap fromBytes(byte[] bytes) {
+        SolveDayBitmap bitmap = new SolveDayBitmap();
+        if (bytes == null || bytes.length < Long.BYTES) {
+            return bitmap;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        bitmap.baseDay = buffer.getLong();
+        bitmap.words = new long[buffer.remaining() / Long.BYTES];
+        buffer.asLongBuffer().get(bitmap.words);
+        return bitmap;
+    }
+
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES * (words.length + 1));
+        buffer.putLong(baseDay);
+        buffer.asLongBuffer().put(words);
+        return buffer.array();
+    }
+
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void set(LocalDate day) {
+        set(day.toEpochDay());
+    }
+
+    public void set(long epochDay) {
+        ensureCovers(epochDay);
+        long offset = epochDay - baseDay;
+        words[(int) (offset >>> 6)] |= 1L << offset;
+    }
+
+    public LocalDate lastDay() {
+        for (int w = words.length - 1; w >= 0; w--) {
+            if (words[w] != 0) {
+                return LocalDate.ofEpochDay(baseDay + ((long) w << 6) + 63 - Long.numberOfLeadingZeros(words[w]));
+            }
+        }
+        return null;
+    }
+
+    /** Length of the run of solve days that ends on {@code day}, 0 if {@code day} itself is unset. */
+    public int streakEndingAt(LocalDate day) {
+        long offset = day.toEpochDay() - baseDay;
+        if (!contains(offset)) {
+            return 0;
+        }
+
+        int w = (int) (offset >>> 6);
+        // Shift the day's bit to the top so leading ones count backwards from it.
+        int run = Long.numberOfLeadingZeros(~(words[w] << (63 - (offset & 63))));
+        if (run <= (offset & 63)) {
+            return run;
+        }
+        for (w--; w >= 0; w--) {
+            int ones = Long.numberOfLeadingZeros(~words[w]);
+            run += ones;
+            if (ones < 64) {
+                break;
+            }
+        }
+        return run;
+    }
+
+    /** Streak as of {@code today}: still alive if the last solve was today or yesterday. */
+    public int currentStreak(LocalDate today) {
+        int streak = streakEndingAt(today);
+        return streak > 0 ? streak : streakEndingAt(today.minusDays(1));
+    }
+
+    public int longestStreak() {
+        int longest = 0;
+        int run = 0;
+        for (long word : words) {
+            if (word == -1L) {
+                run += 64;
+                continue;
+            }
+            // Low bits extend the run carried in from the previous word.
+            run += Long.numberOfTrailingZeros(~word);
+            longest = Math.max(longest, Math.max(run, longestRunWithin(word)));
+            // High bits start the run carried into the next word.
+            run = Long.numberOfLeadingZeros(~word);
+        }
+        return Math.max(longest, run);
+    }
+
+    /** Equal when both hold the same days, however their words are aligned. */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SolveDayBitmap other)) {
+            return false;
+        }
+        int first = firstUsedWord();
+        int otherFirst = other.firstUsedWord();
+        if (first < 0 || otherFirst < 0) {
+            return first == otherFirst;
+        }
+        int length = lastUsedWord() - first + 1;
+        return baseDay + ((long) first << 6) == other.baseDay + ((long) otherFirst << 6)
+                && length == other.lastUsedWord() - otherFirst + 1
+                && Arrays.equals(words, first, first + length, other.words, otherFirst, otherFirst + length);
+    }
+
+    @Override
+    public int hashCode() {
+        int first = firstUsedWord();
+        if (first < 0) {
+            return 0;
+        }
+        int hash = Long.hashCode(baseDay + ((long) first << 6));
+        for (int w = first; w <= lastUsedWord(); w++) {
+            hash = 31 * hash + Long.hashCode(words[w]);
+        }
+        return hash;
+    }
+
+    private int firstUsedWord() {
+        for (int w = 0; w < words.length; w++) {
+            if (words[w] != 0) {
+                return w;
+            }
+        }
+        return -1;
+    }
+
+    private int lastUsedWord() {
+        for (int w = words.length - 1; w >= 0; w--) {
+            if (words[w] != 0) {
+                return w;
+            }
+        }
+        return -1;
+    }
+
+    private boolean contains(long offset) {
+        if (offset < 0 || offset >= (long) words.length << 6) {
+            return false;
+        }
+        return (words[(int) (offset >>> 6)] & (1L << offset)) != 0;
+    }
+
+    private static int longestRunWithin(long word) {
+        int length = 0;
+        while (word != 0) {
+            word &= word << 1;
+            length++;
+        }
+        return length;
+    }
+
+    private void ensureCovers(long epochDay) {
+        long alignedDay = Math.floorDiv(epochDay, 64) * 64;
+        if (words.length == 0) {
+            baseDay = alignedDay;
+            words = new long[1];
+            return;
+        }
+
+        if (alignedDay < baseDay) {
+            int prepend = (int) ((baseDay - alignedDay) >>> 6);
+            long[] grown = new long[words.length + prepend];
+            System.arraycopy(words, 0, grown, prepend, words.length);
+            words = grown;
+            baseDay = alignedDay;
+        }
+
+        int index = (int) ((epochDay - baseDay) >>> 6);
+        if (index >= words.length) {
+            long[] grown = new long[index + 1];
+            System.arraycopy(words, 0, grown, 0, words.length);
+            words = grown;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.atinroy.leetly.user.model;
+
+import com.atinroy.leetly.common.model.BaseEntity;
+import com.atinroy.leetly.problem.model.Pattern;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Number of the user's problems tagged with a pattern. Part of the stats projection:
+ * kept in step by deltas on tag changes and rebuilt alongside {@link UserStats}.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "user_pattern_counts",
+        indexes = {
+                @Index(name = "idx_user_pattern_count_user_pattern", columnList = "user_id, pattern_id", unique = true)
+        })
+public class UserPatternCount extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "pattern_id", nullable = false)
+    private Pattern pattern;
+
+    @Column(nullable = false)
+    private int problemCount = 0;
+}
@@ -64,6 +64,12 @@ public class UserStats extends BaseEntity {
 
     private LocalDate lastSolvedDate;
 
+    private LocalDate firstSolvedDate;
+
+    // Serialized SolveDayBitmap of every day with a solve; streaks are derived from it.
+    @Column(name = "solve_days")
+    private byte[] solveDays;
+
     // Progress windows
     @Column(nullable = false)
     private int solvedThisWeek = 0;
@@ -78,12 +84,23 @@ public class UserStats extends BaseEntity {
     @Column(nullable = false)
     private int distinctPatternsCovered = 0;
 
-    // Mistake breakdown — e.g. {"WRONG_PATTERN": 5, "OFF_BY_ONE": 3}
-    @Column(columnDefinition = "jsonb")
-    @JdbcTypeCode(SqlTypes.JSON)
-    private String mistakeBreakdown;
+    // Mistake counts indexed by Mistake ordinal; per-pattern counts live in UserPatternCount.
+    @Column(name = "mistake_counts")
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    private int[] mistakeCounts;
+
+    // Projection bookkeeping — counters above are maintained incrementally and only
+    // rebuilt from problems/attempts when the row is stale or from an older projection.
+    @Column(nullable = false)
+    private boolean stale = true;
+
+    @Column(nullable = false)
+    private int projectionVersion = 0;
+
+    // Day the week/month windows and current streak were last rolled forward to.
+    private LocalDate windowsAsOf;
 
-    @Column(columnDefinition = "jsonb")
-    @JdbcTypeCode(SqlTypes.JSON)
-    private String patternBreakdown;
+    // Highest attempt event (see AttemptEvent) already reflected in the counters.
+    @Column(nullable = false)
+    private long appliedEventId = 0;
 }
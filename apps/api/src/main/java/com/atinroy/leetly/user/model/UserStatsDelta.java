@@ -0,0 +1,90 @@
+package com.atinroy.leetly.user.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import com.atinroy.leetly.problem.model.Mistake;
+
+/**
+ * Signed changes to one {@link UserStats} row. The write path accumulates these
+ * in memory and applies them with a single UPDATE, so concurrent writers never
+ * read-modify-write the row.
+ */
+@Getter
+@Setter
+public class UserStatsDelta {
+
+    private int totalSolved;
+    private int totalSolvedWithHelp;
+    private int totalMastered;
+    private int totalAttempted;
+    private int easySolved;
+    private int mediumSolved;
+    private int hardSolved;
+    private int totalAttempts;
+    private int firstAttemptSolves;
+    private int totalTimeMinutes;
+    private int distinctTopicsCovered;
+    private int distinctPatternsCovered;
+
+    // Indexed by Mistake ordinal, matching the layout of UserStats#mistakeCounts.
+    private final int[] mistakeCounts = new int[Mistake.values().length];
+
+    // First solves recorded by this delta, the day of each, and the earliest and latest of those.
+    private int solves;
+    private final List<LocalDate> solveDates = new ArrayList<>();
+    private LocalDate firstSolveDate;
+    private LocalDate solveDate;
+
+    // The day the row's week and month windows are on once this applies; only solves dated
+    // within that day's week and month are added to them. Null means the latest solve's day.
+    private LocalDate windowsAsOf;
+
+    // Replacement solve-day bitmap and the streaks derived from it; null leaves all three unchanged.
+    private byte[] solveDays;
+    private int currentStreak;
+    private int longestStreak;
+
+    private boolean stale;
+
+    // Advances UserStats#appliedEventId; 0 leaves it unchanged.
+    private long appliedEventId;
+
+    public void recordSolve(LocalDate date) {
+        solves++;
+        solveDates.add(date);
+        if (firstSolveDate == null || date.isBefore(firstSolveDate)) {
+            firstSolveDate = date;
+        }
+        if (solveDate == null || date.isAfter(solveDate)) {
+            solveDate = date;
+        }
+    }
+
+    /** Solves recorded on or after {@code from}. */
+    public int solvesSince(LocalDate from) {
+        int count = 0;
+        for (LocalDate date : solveDates) {
+            if (!date.isBefore(from)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public void adjustMistake(Mistake mistake, int delta) {
+        mistakeCounts[mistake.ordinal()] += delta;
+    }
+
+    public boolean hasMistakeChanges() {
+        for (int count : mistakeCounts) {
+            if (count != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
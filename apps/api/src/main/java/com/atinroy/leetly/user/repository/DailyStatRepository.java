@@ -1,11 +1,13 @@
 package com.atinroy.leetly.user.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import com.atinroy.leetly.user.model.DailyStat;
@@ -16,8 +18,71 @@ public interface DailyStatRepository extends JpaRepository<DailyStat, Long> {
 
     Optional<DailyStat> findByUserAndDate(User user, LocalDate date);
 
-    List<DailyStat> findByUserAndDateBetween(User user, LocalDate from, LocalDate to);
+    @Query("""
+            SELECT d FROM DailyStat d
+            WHERE d.user = :user AND d.date BETWEEN :from AND :to
+              AND (d.solved > 0 OR d.attempted > 0 OR d.timeMinutes > 0)
+            ORDER BY d.date
+            """)
+    List<DailyStat> findActiveByUserAndDateBetween(@Param("user") User user,
+                                                   @Param("from") LocalDate from,
+                                                   @Param("to") LocalDate to);
 
     @Query("SELECT COALESCE(SUM(d.solved), 0) FROM DailyStat d WHERE d.user = :user AND d.date >= :startDate")
     int sumSolvedSince(@Param("user") User user, @Param("startDate") LocalDate startDate);
+
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            INSERT INTO daily_stats (user_id, date, solved, attempted, time_minutes, created_date, last_modified_date)
+            VALUES (:userId, :date, GREATEST(0, :solved), GREATEST(0, :attempted), GREATEST(0, :timeMinutes), :now, :now)
+            ON CONFLICT (user_id, date) DO UPDATE SET
+                solved = GREATEST(0, daily_stats.solved + :solved),
+                attempted = GREATEST(0, daily_stats.attempted + :attempted),
+                time_minutes = GREATEST(0, daily_stats.time_minutes + :timeMinutes),
+                last_modified_date = :now
+            """)
+    int upsertDelta(@Param("userId") long userId,
+                    @Param("date") LocalDate date,
+                    @Param("solved") int solved,
+                    @Param("attempted") int attempted,
+                    @Param("timeMinutes") int timeMinutes,
+                    @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(nativeQuery = true, value = "DELETE FROM daily_stats WHERE user_id = :userId")
+    int deleteByUserId(@Param("userId") long userId);
+
+    /**
+     * Rebuilds a user's rows from attempts: one attempt per row of activity, one solve
+     * on the day of each problem's first accepted attempt. Attempts whose outbox event
+     * is still queued are left for the worker to add; dead-lettered events never will
+     * be, so their attempts count here.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            INSERT INTO daily_stats (user_id, date, solved, attempted, time_minutes, created_date, last_modified_date)
+            SELECT :userId, activity.day, SUM(activity.solved), SUM(activity.attempted), SUM(activity.time_minutes), :now, :now
+            FROM (
+                SELECT CAST(a.created_date AS date) AS day, 0 AS solved, 1 AS attempted,
+                       COALESCE(a.duration_minutes, 0) AS time_minutes
+                FROM attempts a
+                WHERE a.user_id = :userId
+                  AND NOT EXISTS (
+                      SELECT 1 FROM attempt_events e
+                      WHERE e.attempt_id = a.id AND e.dead_lettered_at IS NULL
+                  )
+                UNION ALL
+                SELECT CAST(MIN(a.created_date) AS date), 1, 0, 0
+                FROM attempts a
+                WHERE a.user_id = :userId AND a.outcome = 'ACCEPTED'
+                GROUP BY a.problem_id
+                HAVING NOT EXISTS (
+                    SELECT 1 FROM attempt_events e
+                    WHERE e.user_id = :userId AND e.problem_id = a.problem_id AND e.first_solve
+                      AND e.dead_lettered_at IS NULL
+                )
+            ) activity
+            GROUP BY activity.day
+            """)
+    int insertFromAttempts(@Param("userId") long userId, @Param("now") LocalDateTime now);
 }
@@ -2,6 +2,9 @@ package com.atinroy.leetly.user.repository;
 
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -23,4 +26,13 @@ public interface ProblemListRepository extends JpaRepository<ProblemList, Long>
     Optional<ProblemList> findByIdAndUser(Long id, User user);
 
     Optional<ProblemList> findByUserAndIsDefaultTrue(User user);
+
+    @Query("SELECT pl.id FROM ProblemList pl WHERE pl.user = :user AND pl.isDefault = true")
+    Optional<Long> findDefaultIdByUser(@Param("user") User user);
+
+    // Adds a problem without loading the list's problems, as the mapped collection would.
+    @Modifying
+    @Query(nativeQuery = true,
+            value = "INSERT INTO problem_list_problems (problem_list_id, problem_id) VALUES (:listId, :problemId)")
+    void addProblem(@Param("listId") long listId, @Param("problemId") long problemId);
 }
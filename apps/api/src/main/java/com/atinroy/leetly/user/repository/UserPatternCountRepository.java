@@ -0,0 +1,56 @@
+package com.atinroy.leetly.user.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import com.atinroy.leetly.user.model.User;
+import com.atinroy.leetly.user.model.UserPatternCount;
+
+@Repository
+public interface UserPatternCountRepository extends JpaRepository<UserPatternCount, Long> {
+
+    /** Rows are (pattern name, problem count), ordered by name. */
+    @Query("""
+            SELECT c.pattern.name, c.problemCount FROM UserPatternCount c
+            WHERE c.user = :user AND c.problemCount > 0
+            ORDER BY c.pattern.name
+            """)
+    List<Object[]> findBreakdownByUser(@Param("user") User user);
+
+    /** Rows are (pattern id, problem count). */
+    @Query("SELECT c.pattern.id, c.problemCount FROM UserPatternCount c WHERE c.user = :user AND c.problemCount > 0")
+    List<Object[]> findCountsByUser(@Param("user") User user);
+
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            INSERT INTO user_pattern_counts (user_id, pattern_id, problem_count, created_date, last_modified_date)
+            VALUES (:userId, :patternId, GREATEST(0, :delta), :now, :now)
+            ON CONFLICT (user_id, pattern_id) DO UPDATE SET
+                problem_count = GREATEST(0, user_pattern_counts.problem_count + :delta),
+                last_modified_date = :now
+            """)
+    int upsertDelta(@Param("userId") long userId,
+                    @Param("patternId") long patternId,
+                    @Param("delta") int delta,
+                    @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(nativeQuery = true, value = "DELETE FROM user_pattern_counts WHERE user_id = :userId")
+    int deleteByUserId(@Param("userId") long userId);
+
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            INSERT INTO user_pattern_counts (user_id, pattern_id, problem_count, created_date, last_modified_date)
+            SELECT :userId, pp.pattern_id, COUNT(*), :now, :now
+            FROM problem_patterns pp
+            JOIN problems p ON p.id = pp.problem_id
+            WHERE p.user_id = :userId
+            GROUP BY pp.pattern_id
+            """)
+    int insertFromProblems(@Param("userId") long userId, @Param("now") LocalDateTime now);
+}
@@ -9,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -34,4 +35,8 @@ public interface UserRepository extends JpaRepository<User, Long> {
               lower(coalesce(p.displayName, u.username, u.keycloakId)) asc
             """)
     Page<User> searchForDirectory(@Param("viewerId") Long viewerId, @Param("search") String search, Pageable pageable);
+
+    /** Keyset page of user ids, for jobs that walk every user without OFFSET scans. */
+    @Query("SELECT u.id FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<Long> findIdsAfter(@Param("afterId") long afterId, Pageable pageable);
 }
@@ -2,8 +2,10 @@ package com.atinroy.leetly.user.repository;
 
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 import com.atinroy.leetly.user.model.User;
 import com.atinroy.leetly.user.model.UserSettings;
@@ -13,4 +15,7 @@ public interface UserSettingsRepository extends JpaRepository<UserSettings, Long
 
     @EntityGraph(attributePaths = "theme")
     Optional<UserSettings> findByUser(User user);
+
+    @Query("SELECT DISTINCT s.timezone FROM UserSettings s")
+    List<String> findDistinctTimezones();
 }
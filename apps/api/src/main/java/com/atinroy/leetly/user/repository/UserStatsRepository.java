@@ -1,14 +1,35 @@
 package com.atinroy.leetly.user.repository;
 
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 import com.atinroy.leetly.user.model.User;
 import com.atinroy.leetly.user.model.UserStats;
 
 @Repository
-public interface UserStatsRepository extends JpaRepository<UserStats, Long> {
+public interface UserStatsRepository extends JpaRepository<UserStats, Long>, UserStatsRepositoryCustom {
 
     Optional<UserStats> findByUser(User user);
+
+    @Query("SELECT s FROM UserStats s WHERE s.user.id = :userId")
+    Optional<UserStats> findByUserId(@Param("userId") long userId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM UserStats s WHERE s.user.id = :userId")
+    Optional<UserStats> findByUserIdForUpdate(@Param("userId") long userId);
+
+    @Modifying
+    @Query("UPDATE UserStats s SET s.stale = true WHERE s.user = :user")
+    int markStale(@Param("user") User user);
+
+    @Modifying
+    @Query("UPDATE UserStats s SET s.lastModifiedDate = :now WHERE s.user = :user")
+    int touch(@Param("user") User user, @Param("now") LocalDateTime now);
 }
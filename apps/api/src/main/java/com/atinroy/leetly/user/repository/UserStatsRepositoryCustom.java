@@ -0,0 +1,34 @@
+package com.atinroy.leetly.user.repository;
+
+import com.atinroy.leetly.user.model.UserStats;
+import com.atinroy.leetly.user.model.UserStatsDelta;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+public interface UserStatsRepositoryCustom {
+
+    /** The parts of a stats row a delta is computed against. */
+    record LockedStats(long appliedEventId, byte[] solveDays, LocalDate windowsAsOf) {
+    }
+
+    /**
+     * Row-locks the user's stats row so a concurrent rebuild can't move the event
+     * watermark or solve-day bitmap while a delta is being computed against them.
+     */
+    Optional<LockedStats> lockForDelta(long userId);
+
+    /**
+     * Row-locks a managed stats row and reloads it, so changes made to the entity
+     * afterwards start from what the event worker last committed and can't overwrite
+     * a delta it applies meanwhile.
+     */
+    void lockForUpdate(UserStats stats);
+
+    /**
+     * Applies {@code delta} to the user's stats row in one statement.
+     *
+     * @return the number of rows updated (0 when the user has no stats row)
+     */
+    int applyDelta(long userId, UserStatsDelta delta);
+}
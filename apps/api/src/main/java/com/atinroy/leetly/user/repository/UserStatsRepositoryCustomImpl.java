@@ -0,0 +1,145 @@
+package com.atinroy.leetly.user.repository;
+
+import com.atinroy.leetly.problem.model.Mistake;
+import com.atinroy.leetly.user.model.UserStats;
+import com.atinroy.leetly.user.model.UserStatsDelta;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+class UserStatsRepositoryCustomImpl implements UserStatsRepositoryCustom {
+
+    // Element-wise sum of the stored counts and :mistake<i> deltas, floored at zero.
+    private static final String MERGE_MISTAKES = IntStream.range(0, Mistake.values().length)
+            .mapToObj(i -> "GREATEST(0, COALESCE(mistake_counts[%d], 0) + :mistake%d)".formatted(i + 1, i))
+            .collect(Collectors.joining(", ", "ARRAY[", "]"));
+
+    private static final String APPLY_DELTA = """
+            UPDATE user_stats SET
+                total_solved = GREATEST(0, total_solved + :totalSolved),
+                total_solved_with_help = GREATEST(0, total_solved_with_help + :totalSolvedWithHelp),
+                total_mastered = GREATEST(0, total_mastered + :totalMastered),
+                total_attempted = GREATEST(0, total_attempted + :totalAttempted),
+                easy_solved = GREATEST(0, easy_solved + :easySolved),
+                medium_solved = GREATEST(0, medium_solved + :mediumSolved),
+                hard_solved = GREATEST(0, hard_solved + :hardSolved),
+                total_attempts = GREATEST(0, total_attempts + :totalAttempts),
+                first_attempt_solves = GREATEST(0, first_attempt_solves + :firstAttemptSolves),
+                total_time_minutes = GREATEST(0, total_time_minutes + :totalTimeMinutes),
+                distinct_topics_covered = GREATEST(0, distinct_topics_covered + :distinctTopicsCovered),
+                distinct_patterns_covered = GREATEST(0, distinct_patterns_covered + :distinctPatternsCovered),
+                mistake_counts = CASE WHEN :hasMistakes THEN %s ELSE mistake_counts END,
+                solve_days = CASE WHEN :hasSolveDays THEN :solveDays ELSE solve_days END,
+                current_streak = CASE WHEN :hasSolveDays THEN :currentStreak ELSE current_streak END,
+                longest_streak = CASE WHEN :hasSolveDays THEN :longestStreak ELSE longest_streak END,
+                solved_this_week = CASE
+                    WHEN NOT :hasSolves THEN solved_this_week
+                    WHEN windows_as_of IS NULL OR windows_as_of < :weekStart THEN :weekSolves
+                    ELSE solved_this_week + :weekSolves
+                END,
+                solved_this_month = CASE
+                    WHEN NOT :hasSolves THEN solved_this_month
+                    WHEN windows_as_of IS NULL OR windows_as_of < :monthStart THEN :monthSolves
+                    ELSE solved_this_month + :monthSolves
+                END,
+                last_solved_date = CASE
+                    WHEN :hasSolves THEN GREATEST(COALESCE(last_solved_date, :solveDate), :solveDate)
+                    ELSE last_solved_date
+                END,
+                first_solved_date = CASE
+                    WHEN :hasSolves THEN LEAST(COALESCE(first_solved_date, :firstSolveDate), :firstSolveDate)
+                    ELSE first_solved_date
+                END,
+                windows_as_of = CASE
+                    WHEN :hasSolves THEN GREATEST(COALESCE(windows_as_of, :windowsAsOf), :windowsAsOf)
+                    ELSE windows_as_of
+                END,
+                stale = stale OR :stale,
+                applied_event_id = GREATEST(applied_event_id, :appliedEventId),
+                last_modified_date = :now
+            WHERE user_id = :userId
+            """.formatted(MERGE_MISTAKES);
+
+    private static final byte[] NO_BYTES = new byte[0];
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<LockedStats> lockForDelta(long userId) {
+        List<?> rows = entityManager.createNativeQuery(
+                        "SELECT applied_event_id, solve_days, windows_as_of FROM user_stats WHERE user_id = :userId FOR UPDATE")
+                .setParameter("userId", userId)
+                .getResultList();
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        Object[] row = (Object[]) rows.getFirst();
+        return Optional.of(new LockedStats(((Number) row[0]).longValue(), (byte[]) row[1], toLocalDate(row[2])));
+    }
+
+    @Override
+    public void lockForUpdate(UserStats stats) {
+        entityManager.refresh(stats, LockModeType.PESSIMISTIC_WRITE);
+    }
+
+    @Override
+    public int applyDelta(long userId, UserStatsDelta delta) {
+        boolean hasSolves = delta.getSolves() > 0;
+        // Bound to a real date even without solves; the CASE branches ignore it then.
+        LocalDate solveDate = hasSolves ? delta.getSolveDate() : LocalDate.now();
+        LocalDate firstSolveDate = hasSolves ? delta.getFirstSolveDate() : solveDate;
+        LocalDate windowsAsOf = delta.getWindowsAsOf() != null ? delta.getWindowsAsOf() : solveDate;
+        LocalDate weekStart = windowsAsOf.with(DayOfWeek.MONDAY);
+        LocalDate monthStart = windowsAsOf.withDayOfMonth(1);
+
+        Query query = entityManager.createNativeQuery(APPLY_DELTA)
+                .setParameter("userId", userId)
+                .setParameter("totalSolved", delta.getTotalSolved())
+                .setParameter("totalSolvedWithHelp", delta.getTotalSolvedWithHelp())
+                .setParameter("totalMastered", delta.getTotalMastered())
+                .setParameter("totalAttempted", delta.getTotalAttempted())
+                .setParameter("easySolved", delta.getEasySolved())
+                .setParameter("mediumSolved", delta.getMediumSolved())
+                .setParameter("hardSolved", delta.getHardSolved())
+                .setParameter("totalAttempts", delta.getTotalAttempts())
+                .setParameter("firstAttemptSolves", delta.getFirstAttemptSolves())
+                .setParameter("totalTimeMinutes", delta.getTotalTimeMinutes())
+                .setParameter("distinctTopicsCovered", delta.getDistinctTopicsCovered())
+                .setParameter("distinctPatternsCovered", delta.getDistinctPatternsCovered())
+                .setParameter("hasMistakes", delta.hasMistakeChanges())
+                .setParameter("hasSolves", hasSolves)
+                .setParameter("weekSolves", delta.solvesSince(weekStart))
+                .setParameter("monthSolves", delta.solvesSince(monthStart))
+                .setParameter("solveDate", solveDate)
+                .setParameter("firstSolveDate", firstSolveDate)
+                .setParameter("windowsAsOf", windowsAsOf)
+                .setParameter("weekStart", weekStart)
+                .setParameter("monthStart", monthStart)
+                .setParameter("hasSolveDays", delta.getSolveDays() != null)
+                .setParameter("solveDays", delta.getSolveDays() != null ? delta.getSolveDays() : NO_BYTES)
+                .setParameter("currentStreak", delta.getCurrentStreak())
+                .setParameter("longestStreak", delta.getLongestStreak())
+                .setParameter("stale", delta.isStale())
+                .setParameter("appliedEventId", delta.getAppliedEventId())
+                .setParameter("now", LocalDateTime.now());
+        int[] mistakeCounts = delta.getMistakeCounts();
+        for (int i = 0; i < mistakeCounts.length; i++) {
+            query.setParameter("mistake" + i, mistakeCounts[i]);
+        }
+        return query.executeUpdate();
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        return value instanceof java.sql.Date date ? date.toLocalDate() : (LocalDate) value;
+    }
+}
@@ -2,16 +2,21 @@ package com.atinroy.leetly.user.service;
 
 import com.atinroy.leetly.common.exception.ConflictException;
 import com.atinroy.leetly.common.exception.ResourceNotFoundException;
+import com.atinroy.leetly.common.model.CursorPage;
 import com.atinroy.leetly.problem.dto.ProblemSummaryDto;
+import com.atinroy.leetly.problem.model.MembershipMatch;
 import com.atinroy.leetly.problem.model.Problem;
 import com.atinroy.leetly.problem.repository.AttemptRepository;
 import com.atinroy.leetly.problem.repository.ProblemRepository;
-import com.atinroy.leetly.problem.service.ProblemSpecification;
+import com.atinroy.leetly.problem.service.ProblemKeyset;
 import com.atinroy.leetly.problem.service.ProblemService;
 import com.atinroy.leetly.review.model.ReviewCard;
 import com.atinroy.leetly.review.repository.ReviewCardRepository;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -62,8 +67,10 @@ public class ProblemListService {
             Pageable pageable,
             String difficulty,
             String status,
-            Long topicId,
-            Long patternId,
+            List<Long> topicIds,
+            MembershipMatch topicMatch,
+            List<Long> patternIds,
+            MembershipMatch patternMatch,
             String search
     ) {
         ProblemList list = findByIdAndUser(listId, user);
@@ -73,11 +80,41 @@ public class ProblemListService {
             return Page.empty(pageable);
         }
 
-        Specification<Problem> filters = ProblemSpecification.buildSpec(difficulty, status, topicId, patternId, search);
+        Specification<Problem> filters = problemService.filterSpec(difficulty, status, topicIds, topicMatch, patternIds, patternMatch, search);
         Specification<Problem> inList = (root, query, cb) -> root.get("id").in(listProblemIds);
 
         Page<Problem> page = problemRepository.findAll(inList.and(filters), normalizeSort(pageable));
-        List<Long> ids = page.stream().map(Problem::getId).toList();
+        List<ProblemSummaryDto> summaries = toSummaries(page.getContent(), user);
+        return new PageImpl<>(summaries, page.getPageable(), page.getTotalElements());
+    }
+
+    /**
+     * Keyset-paginated variant of {@link #findProblems}. Membership is a subquery on
+     * the join table rather than the list's loaded problem ids.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ProblemSummaryDto> scrollProblems(long listId, User user, Sort sort, int size, String cursor,
+                                                        boolean includeTotal, String difficulty, String status,
+                                                        List<Long> topicIds, MembershipMatch topicMatch,
+                                                        List<Long> patternIds, MembershipMatch patternMatch,
+                                                        String search) {
+        ProblemList list = findByIdAndUser(listId, user);
+        Specification<Problem> filters = problemService.filterSpec(difficulty, status, topicIds, topicMatch, patternIds, patternMatch, search);
+        Specification<Problem> inList = (root, query, cb) -> {
+            Subquery<Long> members = query.subquery(Long.class);
+            Root<ProblemList> lists = members.from(ProblemList.class);
+            members.select(lists.join("problems").get("id")).where(cb.equal(lists, list));
+            return root.get("id").in(members);
+        };
+        return ProblemKeyset.of(sort).scroll(problemRepository, inList.and(filters), size, cursor, includeTotal,
+                problems -> toSummaries(problems, user));
+    }
+
+    private List<ProblemSummaryDto> toSummaries(List<Problem> problems, User user) {
+        List<Long> ids = problems.stream().map(Problem::getId).toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
 
         Map<Long, Long> attemptCounts = attemptRepository.countByProblemIdsAndUser(ids, user)
                 .stream().collect(Collectors.toMap(row -> (Long) row[0], row -> (Long) row[1]));
@@ -85,7 +122,7 @@ public class ProblemListService {
         Map<Long, ReviewCard> reviewCardMap = reviewCardRepository.findByUserAndProblemIdIn(user, ids)
                 .stream().collect(Collectors.toMap(rc -> rc.getProblem().getId(), rc -> rc));
 
-        return page.map(p -> ProblemSummaryDto.of(p, attemptCounts, reviewCardMap));
+        return problems.stream().map(p -> ProblemSummaryDto.of(p, attemptCounts, reviewCardMap)).toList();
     }
 
     public ProblemList create(User user, String name) {
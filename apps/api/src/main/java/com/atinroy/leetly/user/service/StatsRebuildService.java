@@ -0,0 +1,376 @@
+package com.atinroy.leetly.user.service;
+
+import com.atinroy.leetly.common.exception.ConflictException;
+import com.atinroy.leetly.problem.model.Mistake;
+import com.atinroy.leetly.user.dto.StatsDriftDto;
+import com.atinroy.leetly.user.dto.StatsRebuildFailure;
+import com.atinroy.leetly.user.dto.StatsRebuildReport;
+import com.atinroy.leetly.user.model.SolveDayBitmap;
+import com.atinroy.leetly.user.model.UserStats;
+import com.atinroy.leetly.user.repository.UserRepository;
+import com.atinroy.leetly.user.repository.UserStatsRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Walks every user and compares their materialized {@link UserStats} with a full
+ * recompute from history, reporting the users whose incremental counters drifted.
+ * In repair mode drifted and stale rows are rebuilt as they are found, each in its
+ * own short write transaction so the event worker waits on at most one row.
+ */
+@Slf4j
+@Service
+public class StatsRebuildService {
+
+    private static final int MAX_SAMPLES = 100;
+
+    private static final List<Counter> COMPARED_COUNTERS = List.of(
+            new Counter("totalSolved", UserStats::getTotalSolved),
+            new Counter("totalSolvedWithHelp", UserStats::getTotalSolvedWithHelp),
+            new Counter("totalMastered", UserStats::getTotalMastered),
+            new Counter("totalAttempted", UserStats::getTotalAttempted),
+            new Counter("easySolved", UserStats::getEasySolved),
+            new Counter("mediumSolved", UserStats::getMediumSolved),
+            new Counter("hardSolved", UserStats::getHardSolved),
+            new Counter("totalAttempts", UserStats::getTotalAttempts),
+            new Counter("firstAttemptSolves", UserStats::getFirstAttemptSolves),
+            new Counter("totalTimeMinutes", UserStats::getTotalTimeMinutes),
+            new Counter("currentStreak", UserStats::getCurrentStreak),
+            new Counter("longestStreak", UserStats::getLongestStreak),
+            new Counter("solvedThisWeek", UserStats::getSolvedThisWeek),
+            new Counter("solvedThisMonth", UserStats::getSolvedThisMonth),
+            new Counter("distinctTopicsCovered", UserStats::getDistinctTopicsCovered),
+            new Counter("distinctPatternsCovered", UserStats::getDistinctPatternsCovered)
+    );
+
+    private static final List<Field> COMPARED_FIELDS = List.of(
+            new Field("lastSolvedDate", UserStats::getLastSolvedDate),
+            new Field("firstSolvedDate", UserStats::getFirstSolvedDate),
+            new Field("solveDays", stats -> SolveDayBitmap.fromBytes(stats.getSolveDays()))
+    );
+
+    private final UserRepository userRepository;
+    private final UserStatsRepository userStatsRepository;
+    private final StatsService statsService;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final int pageSize;
+    private final int maxConcurrency;
+    private final boolean scheduledRepair;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile StatsRebuildReport lastReport;
+
+    public StatsRebuildService(
+            UserRepository userRepository,
+            UserStatsRepository userStatsRepository,
+            StatsService statsService,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.stats-rebuild.page-size:500}") int pageSize,
+            @Value("${app.stats-rebuild.max-concurrency:4}") int maxConcurrency,
+            @Value("${app.stats-rebuild.scheduled-repair:false}") boolean scheduledRepair) {
+        this.userRepository = userRepository;
+        this.userStatsRepository = userStatsRepository;
+        this.statsService = statsService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.pageSize = pageSize;
+        this.maxConcurrency = maxConcurrency;
+        this.scheduledRepair = scheduledRepair;
+    }
+
+    @Scheduled(cron = "${app.stats-rebuild.cron:0 30 3 * * *}")
+    public void scheduledRun() {
+        try {
+            StatsRebuildReport report = run(scheduledRepair);
+            log.info("Stats rebuild checked {} users in {} ms: {} drifted, {} stale, {} skipped, {} repaired, {} failed; drift by field {}",
+                    report.usersChecked(), report.durationMillis(), report.usersDrifted(), report.usersStale(),
+                    report.usersSkipped(), report.usersRepaired(), report.usersFailed(), report.driftByField());
+        } catch (ConflictException e) {
+            log.warn("Skipping scheduled stats rebuild: {}", e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Scheduled stats rebuild failed", e);
+        }
+    }
+
+    /** The finished run's report, or the progress of the run in flight. */
+    public Optional<StatsRebuildReport> getLastReport() {
+        return Optional.ofNullable(lastReport);
+    }
+
+    /**
+     * Verifies every user's stats, rebuilding drifted and stale rows when {@code repair}
+     * is set. Only one run may be in progress at a time.
+     */
+    public StatsRebuildReport run(boolean repair) {
+        claim();
+        return walkUsers(repair);
+    }
+
+    /**
+     * Starts {@link #run} on a background thread and returns its first progress report;
+     * follow it with {@link #getLastReport}.
+     */
+    public StatsRebuildReport start(boolean repair) {
+        claim();
+        StatsRebuildReport started = new Tally(repair).report(true);
+        lastReport = started;
+        Thread.ofVirtual().name("stats-rebuild").start(() -> {
+            try {
+                walkUsers(repair);
+            } catch (RuntimeException e) {
+                log.error("Stats rebuild failed", e);
+            }
+        });
+        return started;
+    }
+
+    private void claim() {
+        if (!running.compareAndSet(false, true)) {
+            throw new ConflictException("A stats rebuild is already running");
+        }
+    }
+
+    // Releases the claim taken by run or start.
+    private StatsRebuildReport walkUsers(boolean repair) {
+        Tally tally = new Tally(repair);
+        Semaphore permits = new Semaphore(maxConcurrency);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            long afterId = 0;
+            List<Long> page;
+            do {
+                page = userRepository.findIdsAfter(afterId, PageRequest.of(0, pageSize));
+                List<Future<Verdict>> verdicts = new ArrayList<>(page.size());
+                for (long userId : page) {
+                    // Virtual threads are cheap; the permits bound how many hold a connection.
+                    permits.acquireUninterruptibly();
+                    verdicts.add(executor.submit(() -> {
+                        try {
+                            return check(userId, repair);
+                        } finally {
+                            permits.release();
+                        }
+                    }));
+                }
+
+                for (int i = 0; i < page.size(); i++) {
+                    tally.add(await(page.get(i), verdicts.get(i)));
+                }
+                if (!page.isEmpty()) {
+                    afterId = page.getLast();
+                }
+                lastReport = tally.report(true);
+            } while (page.size() == pageSize);
+
+            StatsRebuildReport report = tally.report(false);
+            lastReport = report;
+            return report;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private Verdict check(long userId, boolean repair) {
+        try {
+            Verdict verdict = verify(userId);
+            if (repair && verdict.needsRepair()) {
+                verdict = verdict.repaired(repair(userId));
+            }
+            return verdict;
+        } catch (RuntimeException e) {
+            log.warn("Stats verification failed for user {}", userId, e);
+            return Verdict.failed(userId, e);
+        }
+    }
+
+    private Verdict verify(long userId) {
+        return readOnlyTransaction.execute(status -> {
+            UserStats stored = userStatsRepository.findByUserId(userId).orElse(null);
+            if (stored == null) {
+                // Rows are created on first read; nothing to verify yet.
+                return Verdict.skipped(userId);
+            }
+            if (statsService.needsRebuild(stored)) {
+                return new Verdict(userId, Kind.STALE, List.of(), false, null);
+            }
+
+            UserStats expected = statsService.recomputeStats(stored.getUser());
+            if (expected.getAppliedEventId() > stored.getAppliedEventId()) {
+                // Queued attempt events are in the history but not yet in the counters.
+                return Verdict.skipped(userId);
+            }
+            // Age the stored windows and streak as a read would; the read-only
+            // transaction never writes them back.
+            statsService.rollTimeWindows(stored, LocalDate.now());
+            return new Verdict(userId, Kind.CHECKED, diff(stored, expected), false, null);
+        });
+    }
+
+    private boolean repair(long userId) {
+        Boolean repaired = writeTransaction.execute(status -> userStatsRepository.findByUserIdForUpdate(userId)
+                .map(stats -> {
+                    statsService.rebuild(stats);
+                    return true;
+                })
+                .orElse(false));
+        return Boolean.TRUE.equals(repaired);
+    }
+
+    private List<String> diff(UserStats stored, UserStats expected) {
+        List<String> fields = new ArrayList<>();
+        for (Counter counter : COMPARED_COUNTERS) {
+            if (counter.getter().applyAsInt(stored) != counter.getter().applyAsInt(expected)) {
+                fields.add(counter.name());
+            }
+        }
+        for (Field field : COMPARED_FIELDS) {
+            if (!Objects.equals(field.getter().apply(stored), field.getter().apply(expected))) {
+                fields.add(field.name());
+            }
+        }
+        if (!Arrays.equals(padMistakes(stored.getMistakeCounts()), padMistakes(expected.getMistakeCounts()))) {
+            fields.add("mistakeCounts");
+        }
+        if (!statsService.getPatternCounts(stored.getUser()).equals(statsService.recomputePatternCounts(stored.getUser()))) {
+            fields.add("patternCounts");
+        }
+        return fields;
+    }
+
+    private int[] padMistakes(int[] counts) {
+        // A row written before a Mistake value was added has a shorter array.
+        return Arrays.copyOf(counts != null ? counts : new int[0], Mistake.values().length);
+    }
+
+    private Verdict await(long userId, Future<Verdict> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Stats rebuild interrupted", e);
+        } catch (ExecutionException e) {
+            log.warn("Stats verification failed for user {}", userId, e.getCause());
+            return Verdict.failed(userId, e.getCause());
+        }
+    }
+
+    private record Counter(String name, ToIntFunction<UserStats> getter) {
+    }
+
+    private record Field(String name, Function<UserStats, Object> getter) {
+    }
+
+    private enum Kind {
+        CHECKED, STALE, SKIPPED, FAILED
+    }
+
+    private record Verdict(long userId, Kind kind, List<String> driftedFields, boolean wasRepaired, String error) {
+
+        static Verdict skipped(long userId) {
+            return new Verdict(userId, Kind.SKIPPED, List.of(), false, null);
+        }
+
+        static Verdict failed(long userId, Throwable cause) {
+            return new Verdict(userId, Kind.FAILED, List.of(), false, String.valueOf(cause));
+        }
+
+        Verdict repaired(boolean repaired) {
+            return new Verdict(userId, kind, driftedFields, repaired, error);
+        }
+
+        boolean drifted() {
+            return !driftedFields.isEmpty();
+        }
+
+        boolean needsRepair() {
+            return kind == Kind.STALE || drifted();
+        }
+    }
+
+    private static final class Tally {
+
+        private final boolean repair;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final long start = System.nanoTime();
+        private int checked;
+        private int stale;
+        private int skipped;
+        private int drifted;
+        private int repaired;
+        private int failed;
+        private final Map<String, Integer> driftByField = new TreeMap<>();
+        private final List<StatsDriftDto> samples = new ArrayList<>();
+        private final List<StatsRebuildFailure> failures = new ArrayList<>();
+
+        private Tally(boolean repair) {
+            this.repair = repair;
+        }
+
+        private void add(Verdict verdict) {
+            switch (verdict.kind()) {
+                case CHECKED -> checked++;
+                case STALE -> stale++;
+                case SKIPPED -> skipped++;
+                case FAILED -> {
+                    failed++;
+                    if (failures.size() < MAX_SAMPLES) {
+                        failures.add(new StatsRebuildFailure(verdict.userId(), verdict.error()));
+                    }
+                }
+            }
+            if (verdict.wasRepaired()) {
+                repaired++;
+            }
+            if (!verdict.drifted()) {
+                return;
+            }
+            drifted++;
+            verdict.driftedFields().forEach(field -> driftByField.merge(field, 1, Integer::sum));
+            if (samples.size() < MAX_SAMPLES) {
+                samples.add(new StatsDriftDto(verdict.userId(), verdict.driftedFields()));
+            }
+        }
+
+        private StatsRebuildReport report(boolean running) {
+            return new StatsRebuildReport(
+                    repair,
+                    running,
+                    startedAt,
+                    Duration.ofNanos(System.nanoTime() - start).toMillis(),
+                    checked,
+                    stale,
+                    skipped,
+                    drifted,
+                    repaired,
+                    failed,
+                    new TreeMap<>(driftByField),
+                    List.copyOf(samples),
+                    List.copyOf(failures)
+            );
+        }
+    }
+}
@@ -2,25 +2,31 @@ package com.atinroy.leetly.user.service;
 
 import com.atinroy.leetly.common.exception.ResourceNotFoundException;
 import com.atinroy.leetly.problem.model.Attempt;
+import com.atinroy.leetly.problem.model.AttemptEvent;
+import com.atinroy.leetly.problem.model.AttemptFacts;
+import com.atinroy.leetly.problem.repository.AttemptEventRepository;
 import com.atinroy.leetly.problem.repository.AttemptRepository;
 import com.atinroy.leetly.problem.model.Difficulty;
 import com.atinroy.leetly.problem.dto.LogAttemptRequest;
 import com.atinroy.leetly.problem.model.Mistake;
 import com.atinroy.leetly.problem.model.Outcome;
+import com.atinroy.leetly.problem.model.Pattern;
 import com.atinroy.leetly.problem.model.Problem;
 import com.atinroy.leetly.problem.repository.ProblemRepository;
 import com.atinroy.leetly.problem.model.ProblemStatus;
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.ByteBuffer;
 import java.time.Duration;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -30,10 +36,18 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import com.atinroy.leetly.user.dto.HeatmapDto;
+import com.atinroy.leetly.user.dto.StatsBreakdownsDto;
 import com.atinroy.leetly.user.model.DailyStat;
+import com.atinroy.leetly.user.model.SolveDayBitmap;
 import com.atinroy.leetly.user.model.User;
 import com.atinroy.leetly.user.model.UserStats;
+import com.atinroy.leetly.user.model.UserStatsDelta;
+import com.atinroy.leetly.user.repository.UserStatsRepositoryCustom;
 import com.atinroy.leetly.user.repository.DailyStatRepository;
+import com.atinroy.leetly.user.repository.UserPatternCountRepository;
 import com.atinroy.leetly.user.repository.UserStatsRepository;
 
 @Service
@@ -41,11 +55,19 @@ import com.atinroy.leetly.user.repository.UserStatsRepository;
 @RequiredArgsConstructor
 public class StatsService {
 
+    /**
+     * Bump whenever the shape or semantics of the materialized counters change so
+     * every existing row is rebuilt once on its next read.
+     */
+    static final int PROJECTION_VERSION = 4;
+
     private final UserStatsRepository userStatsRepository;
     private final ProblemRepository problemRepository;
     private final AttemptRepository attemptRepository;
     private final DailyStatRepository dailyStatRepository;
     private final ObjectMapper objectMapper;
+    private final AttemptEventRepository attemptEventRepository;
+    private final UserPatternCountRepository userPatternCountRepository;
 
     public UserStats getByUser(User user) {
         UserStats stats = userStatsRepository.findByUser(user)
@@ -55,150 +77,289 @@ public class StatsService {
                     return userStatsRepository.save(s);
                 });
 
-        recalculateStats(user, stats);
+        LocalDate today = LocalDate.now();
+        if (!needsRebuild(stats) && today.equals(stats.getWindowsAsOf())) {
+            return stats;
+        }
+        // Both write the whole row when flushed; lock and reload it first so they can't
+        // overwrite a delta the event worker commits in between.
+        userStatsRepository.lockForUpdate(stats);
+        if (needsRebuild(stats)) {
+            rebuild(user, stats);
+        } else {
+            rollTimeWindows(stats, today);
+        }
         return stats;
     }
 
+    public boolean needsRebuild(UserStats stats) {
+        return stats.isStale() || stats.getProjectionVersion() < PROJECTION_VERSION;
+    }
+
+    /**
+     * Rebuilds a stats row and the user's daily stats from history in place. Callers
+     * that may race the event worker must hold the row lock, taken before the row was
+     * read (see {@link #getByUser}).
+     */
+    public void rebuild(UserStats stats) {
+        rebuild(stats.getUser(), stats);
+    }
+
+    private void rebuild(User user, UserStats stats) {
+        recalculateStats(user, stats);
+        rebuildDailyStats(user);
+        userPatternCountRepository.deleteByUserId(user.getId());
+        userPatternCountRepository.insertFromProblems(user.getId(), LocalDateTime.now());
+        stats.setStale(false);
+        stats.setProjectionVersion(PROJECTION_VERSION);
+    }
+
+    /**
+     * Forces the next {@link #getByUser} to rebuild from history. Used for changes
+     * whose effect on the counters cannot be derived cheaply (e.g. problem deletion).
+     */
+    public void markStale(User user) {
+        userStatsRepository.markStale(user);
+    }
+
     @Transactional(readOnly = true)
     public List<DailyStat> getDailyStatsBetween(User user, LocalDate from, LocalDate to) {
-        List<Problem> problems = problemRepository.findAllByUser(user);
-        List<Attempt> attempts = attemptRepository.findByUserOrderByCreatedDateAsc(user);
-        Map<Long, List<Attempt>> attemptsByProblemId = groupAttemptsByProblem(attempts);
-        Map<LocalDate, DailyStat> dailyStats = new LinkedHashMap<>();
-
-        for (Attempt attempt : attempts) {
-            LocalDate attemptDate = toLocalDate(attempt.getCreatedDate());
-            if (attemptDate == null || attemptDate.isBefore(from) || attemptDate.isAfter(to)) {
-                continue;
-            }
+        return dailyStatRepository.findActiveByUserAndDateBetween(user, from, to);
+    }
 
-            DailyStat daily = dailyStats.computeIfAbsent(attemptDate, this::newDailyStat);
-            daily.setAttempted(daily.getAttempted() + 1);
-            if (attempt.getDurationMinutes() != null) {
-                daily.setTimeMinutes(daily.getTimeMinutes() + attempt.getDurationMinutes());
-            }
-        }
+    /**
+     * Reconciles the user's daily_stats rows with their attempt history. Runs alongside
+     * every rebuild of the stats row so both projections recover from drift together.
+     */
+    public void rebuildDailyStats(User user) {
+        dailyStatRepository.deleteByUserId(user.getId());
+        dailyStatRepository.insertFromAttempts(user.getId(), LocalDateTime.now());
+    }
 
-        for (Problem problem : problems) {
-            LocalDate solveDate = findSolveDate(problem, attemptsByProblemId.get(problem.getId()));
-            if (solveDate == null || solveDate.isBefore(from) || solveDate.isAfter(to)) {
-                continue;
+    /**
+     * Mistake and pattern breakdowns as the JSON objects the API has always returned,
+     * e.g. {"WRONG_PATTERN": 5, "OFF_BY_ONE": 3}. Zero counts are left out.
+     */
+    @Transactional(readOnly = true)
+    public StatsBreakdownsDto getBreakdowns(User user, UserStats stats) {
+        Map<String, Integer> mistakes = new LinkedHashMap<>();
+        int[] mistakeCounts = stats.getMistakeCounts();
+        if (mistakeCounts != null) {
+            for (Mistake mistake : Mistake.values()) {
+                if (mistake.ordinal() < mistakeCounts.length && mistakeCounts[mistake.ordinal()] > 0) {
+                    mistakes.put(mistake.name(), mistakeCounts[mistake.ordinal()]);
+                }
             }
+        }
 
-            DailyStat daily = dailyStats.computeIfAbsent(solveDate, this::newDailyStat);
-            daily.setSolved(daily.getSolved() + 1);
+        Map<String, Integer> patterns = new LinkedHashMap<>();
+        for (Object[] row : userPatternCountRepository.findBreakdownByUser(user)) {
+            patterns.put((String) row[0], ((Number) row[1]).intValue());
         }
+        return new StatsBreakdownsDto(writeBreakdown(mistakes), writeBreakdown(patterns));
+    }
 
-        return dailyStats.values().stream()
-                .sorted(Comparator.comparing(DailyStat::getDate))
-                .toList();
+    /** Stored per-pattern problem counts, keyed by pattern id. */
+    @Transactional(readOnly = true)
+    public Map<Long, Integer> getPatternCounts(User user) {
+        return toCountMap(userPatternCountRepository.findCountsByUser(user));
     }
 
+    /** Per-pattern problem counts recomputed from the user's problems, keyed by pattern id. */
     @Transactional(readOnly = true)
-    public Optional<LocalDate> getFirstSolveDate(User user) {
-        List<Problem> problems = problemRepository.findAllByUser(user);
-        List<Attempt> attempts = attemptRepository.findByUserOrderByCreatedDateAsc(user);
-        Map<Long, List<Attempt>> attemptsByProblemId = groupAttemptsByProblem(attempts);
+    public Map<Long, Integer> recomputePatternCounts(User user) {
+        return toCountMap(problemRepository.countByPatternForUser(user));
+    }
 
-        return problems.stream()
-                .map(problem -> findSolveDate(problem, attemptsByProblemId.get(problem.getId())))
-                .filter(Objects::nonNull)
-                .min(LocalDate::compareTo);
+    /**
+     * Strong validator for one year of the heatmap. Every stats mutation stamps the
+     * row's last-modified time, so checking it costs one row lookup, no aggregation.
+     */
+    public String getHeatmapETag(User user, int year) {
+        UserStats stats = getByUser(user);
+        // A rebuild in getByUser is only stamped when flushed.
+        userStatsRepository.flush();
+        long version = ChronoUnit.MICROS.between(LocalDateTime.of(1970, 1, 1, 0, 0), stats.getLastModifiedDate());
+        return "heatmap-" + year + "-" + Long.toHexString(version);
     }
 
-    public void updateOnAttempt(User user, Attempt attempt, boolean isFirstSolve) {
-        UserStats stats = userStatsRepository.findByUser(user)
+    @Transactional(readOnly = true)
+    public HeatmapDto getHeatmap(User user, int year) {
+        if (year < 1970 || year > 9999) {
+            throw new IllegalArgumentException("Unsupported heatmap year: " + year);
+        }
+        LocalDate start = LocalDate.ofYearDay(year, 1);
+        int days = start.lengthOfYear();
+        ByteBuffer packed = ByteBuffer.allocate(days * HeatmapDto.BYTES_PER_DAY);
+        for (DailyStat stat : dailyStatRepository.findActiveByUserAndDateBetween(user, start, start.plusDays(days - 1))) {
+            int offset = (stat.getDate().getDayOfYear() - 1) * HeatmapDto.BYTES_PER_DAY;
+            packed.putShort(offset, toUnsignedShort(stat.getSolved()));
+            packed.putShort(offset + 2, toUnsignedShort(stat.getAttempted()));
+            packed.putShort(offset + 4, toUnsignedShort(stat.getTimeMinutes()));
+        }
+        return new HeatmapDto(year, days, Base64.getEncoder().encodeToString(packed.array()));
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<LocalDate> getFirstSolveDate(User user) {
+        return problemRepository.findFirstSolvedAt(user).map(LocalDateTime::toLocalDate);
+    }
+
+    /**
+     * Folds a batch of one user's attempt events into a single stats UPDATE and one
+     * daily-stat upsert per day. Events at or below the row's applied watermark are
+     * already in the counters from a rebuild, so they only feed daily stats. That is
+     * safe because {@link #rebuild(UserStats)} recreates daily stats with
+     * {@code DailyStatRepository.insertFromAttempts}, which skips attempts whose events
+     * are still queued; if it counted them, these events would be counted twice.
+     */
+    public void applyAttemptEvents(User user, List<AttemptEvent> events) {
+        UserStatsRepositoryCustom.LockedStats locked = userStatsRepository.lockForDelta(user.getId())
                 .orElseThrow(() -> new ResourceNotFoundException("UserStats not found for user: " + user.getId()));
 
-        stats.setTotalAttempts(stats.getTotalAttempts() + 1);
-        if (attempt.getDurationMinutes() != null) {
-            stats.setTotalTimeMinutes(stats.getTotalTimeMinutes() + attempt.getDurationMinutes());
+        UserStatsDelta delta = new UserStatsDelta();
+        SolveDayBitmap solveDays = null;
+        Map<LocalDate, int[]> dailyDeltas = new TreeMap<>();
+        for (AttemptEvent event : events) {
+            int[] daily = dailyDeltas.computeIfAbsent(event.getAttemptDate(), ignored -> new int[3]);
+            daily[0] += event.isFirstSolve() ? 1 : 0;
+            daily[1]++;
+            daily[2] += event.getDurationMinutes();
+
+            if (event.getId() > locked.appliedEventId()) {
+                addAttempt(delta, event);
+                delta.setAppliedEventId(Math.max(delta.getAppliedEventId(), event.getId()));
+                if (event.isFirstSolve()) {
+                    if (solveDays == null) {
+                        solveDays = SolveDayBitmap.fromBytes(locked.solveDays());
+                    }
+                    solveDays.set(event.getAttemptDate());
+                }
+            }
+        }
+
+        if (delta.getSolves() > 0) {
+            // The row is locked, so this is the day its windows are on once the batch applies.
+            LocalDate asOf = locked.windowsAsOf();
+            delta.setWindowsAsOf(asOf != null && asOf.isAfter(delta.getSolveDate()) ? asOf : delta.getSolveDate());
         }
+        if (solveDays != null) {
+            delta.setSolveDays(solveDays.toBytes());
+            delta.setCurrentStreak(solveDays.streakEndingAt(solveDays.lastDay()));
+            delta.setLongestStreak(solveDays.longestStreak());
+        }
+        if (delta.getAppliedEventId() > 0) {
+            applyDelta(user, delta);
+        } else {
+            // Daily stats still change; stamp the row so heatmap ETags move with them.
+            userStatsRepository.touch(user, LocalDateTime.now());
+        }
+        dailyDeltas.forEach((date, daily) -> upsertDailyStat(user, date, daily[0], daily[1], daily[2]));
+    }
 
-        if (isFirstSolve) {
-            stats.setTotalSolved(stats.getTotalSolved() + 1);
-            if (attempt.getAttemptNumber() == 1) {
-                stats.setFirstAttemptSolves(stats.getFirstAttemptSolves() + 1);
+    private void addAttempt(UserStatsDelta delta, AttemptEvent event) {
+        delta.setTotalAttempts(delta.getTotalAttempts() + 1);
+        delta.setTotalTimeMinutes(delta.getTotalTimeMinutes() + event.getDurationMinutes());
+        applyStatusTransition(delta, event.getDifficulty(), event.getPreviousStatus(),
+                event.getDifficulty(), event.getNewStatus());
+
+        if (event.isFirstSolve()) {
+            if (event.getAttemptNumber() == 1) {
+                delta.setFirstAttemptSolves(delta.getFirstAttemptSolves() + 1);
             }
-            incrementDifficultyCount(stats, attempt.getProblem().getDifficulty());
-            updateStreak(stats);
+            delta.recordSolve(event.getAttemptDate());
         }
 
-        updateMistakeBreakdown(stats, attempt.getMistakes(), 1);
-        userStatsRepository.save(stats);
-
-        upsertDailyStat(user, attempt.getDurationMinutes(), isFirstSolve,
-                attempt.getCreatedDate() != null ? attempt.getCreatedDate().toLocalDate() : LocalDate.now(),
-                1);
+        adjustMistakes(delta, event.getMistakes(), 1);
     }
 
     public void adjustOnAttemptDelete(User user, Attempt attempt, AttemptRepository attemptRepository) {
-        UserStats stats = userStatsRepository.findByUser(user)
-                .orElseThrow(() -> new ResourceNotFoundException("UserStats not found for user: " + user.getId()));
-
-        stats.setTotalAttempts(Math.max(0, stats.getTotalAttempts() - 1));
-        if (attempt.getDurationMinutes() != null) {
-            stats.setTotalTimeMinutes(Math.max(0, stats.getTotalTimeMinutes() - attempt.getDurationMinutes()));
-        }
+        UserStatsDelta delta = new UserStatsDelta();
+        delta.setTotalAttempts(-1);
+        int duration = attempt.getDurationMinutes() != null ? attempt.getDurationMinutes() : 0;
+        delta.setTotalTimeMinutes(-duration);
 
         boolean wasOnlyAccepted = attempt.getOutcome() == Outcome.ACCEPTED &&
                 attemptRepository.findByProblemAndUserAndOutcome(attempt.getProblem(), user, Outcome.ACCEPTED)
                         .stream().filter(a -> !a.getId().equals(attempt.getId())).findAny().isEmpty();
 
         if (wasOnlyAccepted) {
-            stats.setTotalSolved(Math.max(0, stats.getTotalSolved() - 1));
+            delta.setTotalSolved(-1);
             if (attempt.getAttemptNumber() == 1) {
-                stats.setFirstAttemptSolves(Math.max(0, stats.getFirstAttemptSolves() - 1));
+                delta.setFirstAttemptSolves(-1);
             }
-            decrementDifficultyCount(stats, attempt.getProblem().getDifficulty());
+            adjustDifficultyCount(delta, attempt.getProblem().getDifficulty(), -1);
+            // Solve dates, streaks and windows can't be unwound from a single attempt.
+            delta.setStale(true);
         }
 
-        updateMistakeBreakdown(stats, attempt.getMistakes(), -1);
-        userStatsRepository.save(stats);
+        adjustMistakes(delta, attempt.getMistakes(), -1);
+        applyDelta(user, delta);
 
-        adjustDailyStat(user, attempt.getDurationMinutes(), wasOnlyAccepted,
-                attempt.getCreatedDate() != null ? attempt.getCreatedDate().toLocalDate() : LocalDate.now(),
-                -1);
+        upsertDailyStat(user, attemptDate(attempt), wasOnlyAccepted ? -1 : 0, -1, -duration);
     }
 
     public void adjustOnAttemptUpdate(User user, Attempt oldAttempt, LogAttemptRequest newRequest) {
-        UserStats stats = userStatsRepository.findByUser(user)
-                .orElseThrow(() -> new ResourceNotFoundException("UserStats not found for user: " + user.getId()));
+        UserStatsDelta delta = new UserStatsDelta();
 
         int oldDuration = oldAttempt.getDurationMinutes() != null ? oldAttempt.getDurationMinutes() : 0;
         int newDuration = resolveDurationMinutes(newRequest);
-        stats.setTotalTimeMinutes(Math.max(0, stats.getTotalTimeMinutes() + newDuration - oldDuration));
+        delta.setTotalTimeMinutes(newDuration - oldDuration);
 
-        updateMistakeBreakdown(stats, oldAttempt.getMistakes(), -1);
-        List<Mistake> newMistakes = newRequest.mistakes() != null ? newRequest.mistakes() : List.of();
-        updateMistakeBreakdown(stats, newMistakes, 1);
+        adjustMistakes(delta, oldAttempt.getMistakes(), -1);
+        adjustMistakes(delta, newRequest.mistakes(), 1);
 
         boolean oldAccepted = oldAttempt.getOutcome() == Outcome.ACCEPTED;
         boolean newAccepted = newRequest.outcome() == Outcome.ACCEPTED;
+        int solvedDelta = 0;
 
-        if (oldAccepted && !newAccepted) {
-            stats.setTotalSolved(Math.max(0, stats.getTotalSolved() - 1));
+        if (oldAccepted != newAccepted) {
+            solvedDelta = newAccepted ? 1 : -1;
+            delta.setTotalSolved(solvedDelta);
             if (oldAttempt.getAttemptNumber() == 1) {
-                stats.setFirstAttemptSolves(Math.max(0, stats.getFirstAttemptSolves() - 1));
+                delta.setFirstAttemptSolves(solvedDelta);
             }
-            decrementDifficultyCount(stats, oldAttempt.getProblem().getDifficulty());
-        } else if (!oldAccepted && newAccepted) {
-            stats.setTotalSolved(stats.getTotalSolved() + 1);
-            if (oldAttempt.getAttemptNumber() == 1) {
-                stats.setFirstAttemptSolves(stats.getFirstAttemptSolves() + 1);
-            }
-            incrementDifficultyCount(stats, oldAttempt.getProblem().getDifficulty());
+            adjustDifficultyCount(delta, oldAttempt.getProblem().getDifficulty(), solvedDelta);
+            delta.setStale(true);
         }
 
-        userStatsRepository.save(stats);
+        applyDelta(user, delta);
 
-        LocalDate attemptDate = oldAttempt.getCreatedDate() != null
-                ? oldAttempt.getCreatedDate().toLocalDate() : LocalDate.now();
-        adjustDailyStatTime(user, attemptDate, newDuration - oldDuration);
-        if (oldAccepted && !newAccepted) {
-            adjustDailyStat(user, 0, true, attemptDate, -1);
-        } else if (!oldAccepted && newAccepted) {
-            upsertDailyStat(user, 0, true, attemptDate, 0);
+        if (solvedDelta != 0 || newDuration != oldDuration) {
+            upsertDailyStat(user, attemptDate(oldAttempt), solvedDelta, 0, newDuration - oldDuration);
+        }
+    }
+
+    public void adjustOnProblemChange(User user, Difficulty oldDifficulty, ProblemStatus oldStatus,
+                                      Difficulty newDifficulty, ProblemStatus newStatus) {
+        if (oldDifficulty == newDifficulty && oldStatus == newStatus) {
+            return;
+        }
+        UserStatsDelta delta = new UserStatsDelta();
+        applyStatusTransition(delta, oldDifficulty, oldStatus, newDifficulty, newStatus);
+        applyDelta(user, delta);
+    }
+
+    public void adjustOnTopicChange(User user, Problem problem, long topicId, int delta) {
+        if (problemRepository.countOtherWithTopic(user, topicId, problem.getId()) == 0) {
+            UserStatsDelta statsDelta = new UserStatsDelta();
+            statsDelta.setDistinctTopicsCovered(delta);
+            applyDelta(user, statsDelta);
+        }
+    }
+
+    public void adjustOnPatternChange(User user, Problem problem, Pattern pattern, int delta) {
+        UserStatsDelta statsDelta = new UserStatsDelta();
+        if (problemRepository.countOtherWithPattern(user, pattern.getId(), problem.getId()) == 0) {
+            statsDelta.setDistinctPatternsCovered(delta);
+        }
+        applyDelta(user, statsDelta);
+        userPatternCountRepository.upsertDelta(user.getId(), pattern.getId(), delta, LocalDateTime.now());
+    }
+
+    private void applyDelta(User user, UserStatsDelta delta) {
+        if (userStatsRepository.applyDelta(user.getId(), delta) == 0) {
+            throw new ResourceNotFoundException("UserStats not found for user: " + user.getId());
         }
     }
 
@@ -215,10 +376,22 @@ public class StatsService {
         return request.durationMinutes() != null ? request.durationMinutes() : 0;
     }
 
+    /**
+     * Recomputes the user's stats from history into a new, unsaved row, leaving the
+     * stored projection untouched. Used to verify the incremental write path.
+     */
+    @Transactional(readOnly = true)
+    public UserStats recomputeStats(User user) {
+        UserStats stats = new UserStats();
+        stats.setUser(user);
+        recalculateStats(user, stats);
+        stats.setStale(false);
+        stats.setProjectionVersion(PROJECTION_VERSION);
+        return stats;
+    }
+
     private void recalculateStats(User user, UserStats stats) {
         List<Problem> problems = problemRepository.findAllByUser(user);
-        List<Attempt> attempts = attemptRepository.findByUserOrderByCreatedDateAsc(user);
-        Map<Long, List<Attempt>> attemptsByProblemId = groupAttemptsByProblem(attempts);
 
         stats.setTotalSolved(0);
         stats.setTotalSolvedWithHelp(0);
@@ -227,41 +400,47 @@ public class StatsService {
         stats.setEasySolved(0);
         stats.setMediumSolved(0);
         stats.setHardSolved(0);
-        stats.setTotalAttempts(attempts.size());
+        stats.setTotalAttempts(0);
         stats.setFirstAttemptSolves(0);
         stats.setTotalTimeMinutes(0);
         stats.setCurrentStreak(0);
         stats.setLongestStreak(0);
         stats.setLastSolvedDate(null);
+        stats.setFirstSolvedDate(null);
         stats.setSolvedThisWeek(0);
         stats.setSolvedThisMonth(0);
         stats.setDistinctTopicsCovered(0);
         stats.setDistinctPatternsCovered(0);
-        stats.setPatternBreakdown(null);
 
-        Map<String, Integer> mistakeBreakdown = new HashMap<>();
-        Map<String, Integer> patternBreakdown = new HashMap<>();
+        int[] mistakeCounts = new int[Mistake.values().length];
         Set<Long> distinctTopicIds = new HashSet<>();
         Set<Long> distinctPatternIds = new HashSet<>();
         List<LocalDate> solveDates = new ArrayList<>();
+        Map<Long, ProblemAttempts> attemptsByProblemId = new HashMap<>();
+
+        // Streamed so memory stays proportional to problems, not lifetime attempts.
+        try (Stream<AttemptFacts> attempts = attemptRepository.streamFactsByUser(user)) {
+            attempts.forEach(attempt -> {
+                stats.setTotalAttempts(stats.getTotalAttempts() + 1);
+                if (attempt.durationMinutes() != null) {
+                    stats.setTotalTimeMinutes(stats.getTotalTimeMinutes() + attempt.durationMinutes());
+                }
+                if (attempt.problemId() != null) {
+                    attemptsByProblemId.computeIfAbsent(attempt.problemId(), ignored -> new ProblemAttempts())
+                            .add(attempt);
+                }
+            });
+        }
 
-        for (Attempt attempt : attempts) {
-            if (attempt.getDurationMinutes() != null) {
-                stats.setTotalTimeMinutes(stats.getTotalTimeMinutes() + attempt.getDurationMinutes());
-            }
-            for (Mistake mistake : attempt.getMistakes()) {
-                mistakeBreakdown.merge(mistake.name(), 1, Integer::sum);
-            }
+        for (Object[] row : attemptRepository.countMistakesByUser(user)) {
+            mistakeCounts[((Mistake) row[0]).ordinal()] = ((Number) row[1]).intValue();
         }
 
         for (Problem problem : problems) {
             problem.getTopics().stream()
                     .map(topic -> topic.getId())
                     .forEach(distinctTopicIds::add);
-            problem.getPatterns().forEach(pattern -> {
-                distinctPatternIds.add(pattern.getId());
-                patternBreakdown.merge(pattern.getName(), 1, Integer::sum);
-            });
+            problem.getPatterns().forEach(pattern -> distinctPatternIds.add(pattern.getId()));
 
             if (problem.getStatus() != ProblemStatus.UNSEEN) {
                 stats.setTotalAttempted(stats.getTotalAttempted() + 1);
@@ -283,130 +462,68 @@ public class StatsService {
                 }
             }
 
-            Attempt firstAcceptedAttempt = findFirstAcceptedAttempt(attemptsByProblemId.get(problem.getId()));
-            if (firstAcceptedAttempt != null && firstAcceptedAttempt.getAttemptNumber() == 1) {
+            ProblemAttempts problemAttempts = attemptsByProblemId.get(problem.getId());
+            if (problemAttempts != null && problemAttempts.firstAccepted != null
+                    && problemAttempts.firstAccepted.attemptNumber() == 1) {
                 stats.setFirstAttemptSolves(stats.getFirstAttemptSolves() + 1);
             }
         }
 
         stats.setDistinctTopicsCovered(distinctTopicIds.size());
         stats.setDistinctPatternsCovered(distinctPatternIds.size());
-        stats.setMistakeBreakdown(writeMistakeBreakdown(mistakeBreakdown));
-        stats.setPatternBreakdown(writeBreakdown(patternBreakdown));
+        stats.setMistakeCounts(mistakeCounts);
         applySolveWindowStats(stats, solveDates);
-    }
-
-    private Map<Long, List<Attempt>> groupAttemptsByProblem(List<Attempt> attempts) {
-        Map<Long, List<Attempt>> attemptsByProblemId = new HashMap<>();
-        for (Attempt attempt : attempts) {
-            if (attempt.getProblem() == null || attempt.getProblem().getId() == null) {
-                continue;
-            }
-            attemptsByProblemId
-                    .computeIfAbsent(attempt.getProblem().getId(), ignored -> new ArrayList<>())
-                    .add(attempt);
-        }
-        return attemptsByProblemId;
+        problems.stream()
+                .map(Problem::getFirstSolvedAt)
+                .filter(Objects::nonNull)
+                .min(LocalDateTime::compareTo)
+                .ifPresent(firstSolvedAt -> stats.setFirstSolvedDate(firstSolvedAt.toLocalDate()));
+        stats.setWindowsAsOf(LocalDate.now());
+        // Events still queued are part of the history just read; don't apply them twice.
+        attemptEventRepository.findMaxIdByUser(user)
+                .ifPresent(maxId -> stats.setAppliedEventId(Math.max(stats.getAppliedEventId(), maxId)));
     }
 
     private void applySolveWindowStats(UserStats stats, List<LocalDate> solveDates) {
-        if (solveDates.isEmpty()) {
-            return;
-        }
-
-        LocalDate startOfWeek = LocalDate.now().with(DayOfWeek.MONDAY);
-        LocalDate startOfMonth = LocalDate.now().withDayOfMonth(1);
-        Set<LocalDate> uniqueDates = new HashSet<>(solveDates);
-
-        stats.setSolvedThisWeek((int) solveDates.stream().filter(date -> !date.isBefore(startOfWeek)).count());
-        stats.setSolvedThisMonth((int) solveDates.stream().filter(date -> !date.isBefore(startOfMonth)).count());
-        stats.setLastSolvedDate(solveDates.stream().max(LocalDate::compareTo).orElse(null));
-        stats.setLongestStreak(calculateLongestStreak(uniqueDates));
-        stats.setCurrentStreak(calculateCurrentStreak(uniqueDates));
-    }
-
-    private int calculateLongestStreak(Set<LocalDate> solveDates) {
-        int longest = 0;
+        LocalDate today = LocalDate.now();
+        LocalDate startOfWeek = today.with(DayOfWeek.MONDAY);
+        LocalDate startOfMonth = today.withDayOfMonth(1);
+        SolveDayBitmap solveDays = new SolveDayBitmap();
+        int solvedThisWeek = 0;
+        int solvedThisMonth = 0;
 
         for (LocalDate date : solveDates) {
-            if (solveDates.contains(date.minusDays(1))) {
-                continue;
+            solveDays.set(date);
+            if (!date.isBefore(startOfWeek)) {
+                solvedThisWeek++;
             }
-
-            int streak = 1;
-            LocalDate cursor = date;
-            while (solveDates.contains(cursor.plusDays(1))) {
-                cursor = cursor.plusDays(1);
-                streak++;
+            if (!date.isBefore(startOfMonth)) {
+                solvedThisMonth++;
             }
-            longest = Math.max(longest, streak);
         }
 
-        return longest;
+        stats.setSolvedThisWeek(solvedThisWeek);
+        stats.setSolvedThisMonth(solvedThisMonth);
+        stats.setSolveDays(solveDays.toBytes());
+        stats.setLastSolvedDate(solveDays.lastDay());
+        stats.setLongestStreak(solveDays.longestStreak());
+        stats.setCurrentStreak(solveDays.currentStreak(today));
     }
 
-    private int calculateCurrentStreak(Set<LocalDate> solveDates) {
-        if (solveDates.isEmpty()) {
-            return 0;
+    /**
+     * The day a problem counts as solved: its first accepted attempt, as recorded by
+     * {@link Problem#getFirstSolvedAt()}. The event worker and the daily_stats rebuild
+     * date solves the same way, so solve days, streaks and windows agree across a
+     * rebuild. A solved status with no accepted attempt has no solve day.
+     */
+    private LocalDate findSolveDate(Problem problem, ProblemAttempts attempts) {
+        if (problem.getFirstSolvedAt() != null) {
+            return problem.getFirstSolvedAt().toLocalDate();
         }
-
-        LocalDate cursor = LocalDate.now();
-        if (!solveDates.contains(cursor)) {
-            cursor = cursor.minusDays(1);
-            if (!solveDates.contains(cursor)) {
-                return 0;
-            }
+        if (attempts != null && attempts.firstAccepted != null) {
+            return toLocalDate(attempts.firstAccepted.createdDate());
         }
-
-        int streak = 0;
-        while (solveDates.contains(cursor)) {
-            streak++;
-            cursor = cursor.minusDays(1);
-        }
-        return streak;
-    }
-
-    private LocalDate findSolveDate(Problem problem, List<Attempt> attempts) {
-        if (!isSolvedStatus(problem.getStatus())) {
-            return null;
-        }
-
-        Attempt mostRecentAttempt = findMostRecentAttempt(attempts);
-        if (mostRecentAttempt != null) {
-            LocalDate attemptDate = toLocalDate(mostRecentAttempt.getCreatedDate());
-            if (attemptDate != null) {
-                return attemptDate;
-            }
-        }
-
-        return toLocalDate(problem.getCreatedDate());
-    }
-
-    private Attempt findMostRecentAttempt(List<Attempt> attempts) {
-        if (attempts == null) {
-            return null;
-        }
-
-        return attempts.stream()
-                .max(Comparator
-                        .comparing((Attempt attempt) -> attempt.getCreatedDate() == null)
-                        .thenComparing(Attempt::getCreatedDate, Comparator.nullsFirst(Comparator.naturalOrder()))
-                        .thenComparingInt(Attempt::getAttemptNumber))
-                .orElse(null);
-    }
-
-    private Attempt findFirstAcceptedAttempt(List<Attempt> attempts) {
-        if (attempts == null) {
-            return null;
-        }
-
-        return attempts.stream()
-                .filter(attempt -> attempt.getOutcome() == Outcome.ACCEPTED)
-                .min(Comparator
-                        .comparing((Attempt attempt) -> attempt.getCreatedDate() == null)
-                        .thenComparing(Attempt::getCreatedDate, Comparator.nullsLast(Comparator.naturalOrder()))
-                        .thenComparingInt(Attempt::getAttemptNumber))
-                .orElse(null);
+        return null;
     }
 
     private boolean isSolvedStatus(ProblemStatus status) {
@@ -415,118 +532,108 @@ public class StatsService {
                 || status == ProblemStatus.MASTERED;
     }
 
-    private void incrementDifficultyCount(UserStats stats, Difficulty difficulty) {
-        switch (difficulty) {
-            case EASY -> stats.setEasySolved(stats.getEasySolved() + 1);
-            case MEDIUM -> stats.setMediumSolved(stats.getMediumSolved() + 1);
-            case HARD -> stats.setHardSolved(stats.getHardSolved() + 1);
+    /**
+     * Ages the date-relative counters without touching history: every solve rolls the
+     * windows forward before incrementing, so a window that started after
+     * {@code windowsAsOf} has seen no solves yet.
+     */
+    void rollTimeWindows(UserStats stats, LocalDate today) {
+        LocalDate asOf = stats.getWindowsAsOf();
+        if (today.equals(asOf)) {
+            return;
         }
-    }
 
-    private void decrementDifficultyCount(UserStats stats, Difficulty difficulty) {
-        switch (difficulty) {
-            case EASY -> stats.setEasySolved(Math.max(0, stats.getEasySolved() - 1));
-            case MEDIUM -> stats.setMediumSolved(Math.max(0, stats.getMediumSolved() - 1));
-            case HARD -> stats.setHardSolved(Math.max(0, stats.getHardSolved() - 1));
+        LocalDate startOfWeek = today.with(DayOfWeek.MONDAY);
+        LocalDate startOfMonth = today.withDayOfMonth(1);
+        if (asOf == null || asOf.isBefore(startOfWeek)) {
+            stats.setSolvedThisWeek(0);
+        }
+        if (asOf == null || asOf.isBefore(startOfMonth)) {
+            stats.setSolvedThisMonth(0);
         }
-    }
 
-    private void updateStreak(UserStats stats) {
-        LocalDate today = LocalDate.now();
         LocalDate lastSolved = stats.getLastSolvedDate();
-
         if (lastSolved == null || lastSolved.isBefore(today.minusDays(1))) {
-            stats.setCurrentStreak(1);
-        } else if (lastSolved.equals(today.minusDays(1))) {
-            stats.setCurrentStreak(stats.getCurrentStreak() + 1);
+            stats.setCurrentStreak(0);
         }
+        stats.setWindowsAsOf(today);
+    }
 
-        if (stats.getCurrentStreak() > stats.getLongestStreak()) {
-            stats.setLongestStreak(stats.getCurrentStreak());
-        }
-        stats.setLastSolvedDate(today);
+    private void applyStatusTransition(UserStatsDelta delta, Difficulty oldDifficulty, ProblemStatus oldStatus,
+                                       Difficulty newDifficulty, ProblemStatus newStatus) {
+        applyStatusContribution(delta, oldDifficulty, oldStatus, -1);
+        applyStatusContribution(delta, newDifficulty, newStatus, 1);
     }
 
-    private void updateMistakeBreakdown(UserStats stats, List<Mistake> mistakes, int delta) {
-        if (mistakes == null || mistakes.isEmpty()) {
+    private void applyStatusContribution(UserStatsDelta delta, Difficulty difficulty, ProblemStatus status, int sign) {
+        if (status == null || status == ProblemStatus.UNSEEN) {
             return;
         }
-        try {
-            Map<String, Integer> breakdown = new HashMap<>();
-            if (stats.getMistakeBreakdown() != null) {
-                breakdown = objectMapper.readValue(stats.getMistakeBreakdown(),
-                        new TypeReference<Map<String, Integer>>() {});
-            }
-            for (Mistake mistake : mistakes) {
-                int newVal = breakdown.getOrDefault(mistake.name(), 0) + delta;
-                if (newVal <= 0) {
-                    breakdown.remove(mistake.name());
-                } else {
-                    breakdown.put(mistake.name(), newVal);
-                }
+
+        delta.setTotalAttempted(delta.getTotalAttempted() + sign);
+        switch (status) {
+            case SOLVED -> delta.setTotalSolved(delta.getTotalSolved() + sign);
+            case SOLVED_WITH_HELP -> delta.setTotalSolvedWithHelp(delta.getTotalSolvedWithHelp() + sign);
+            case MASTERED -> delta.setTotalMastered(delta.getTotalMastered() + sign);
+            default -> {
             }
-            stats.setMistakeBreakdown(objectMapper.writeValueAsString(breakdown));
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to update mistake breakdown", e);
         }
-    }
 
-    private void upsertDailyStat(User user, Integer durationMinutes, boolean isSolve,
-                                 LocalDate date, int attemptDelta) {
-        DailyStat daily = dailyStatRepository.findByUserAndDate(user, date)
-                .orElseGet(() -> {
-                    DailyStat d = new DailyStat();
-                    d.setUser(user);
-                    d.setDate(date);
-                    return d;
-                });
+        if (isSolvedStatus(status)) {
+            adjustDifficultyCount(delta, difficulty, sign);
+        }
+    }
 
-        daily.setAttempted(Math.max(0, daily.getAttempted() + attemptDelta));
-        if (isSolve) {
-            daily.setSolved(daily.getSolved() + 1);
+    private void adjustDifficultyCount(UserStatsDelta delta, Difficulty difficulty, int sign) {
+        if (difficulty == null) {
+            return;
         }
-        if (durationMinutes != null) {
-            daily.setTimeMinutes(Math.max(0, daily.getTimeMinutes() + durationMinutes));
+        switch (difficulty) {
+            case EASY -> delta.setEasySolved(delta.getEasySolved() + sign);
+            case MEDIUM -> delta.setMediumSolved(delta.getMediumSolved() + sign);
+            case HARD -> delta.setHardSolved(delta.getHardSolved() + sign);
         }
-        dailyStatRepository.save(daily);
     }
 
-    private void adjustDailyStat(User user, Integer durationMinutes, boolean wasSolve,
-                                 LocalDate date, int attemptDelta) {
-        dailyStatRepository.findByUserAndDate(user, date).ifPresent(daily -> {
-            daily.setAttempted(Math.max(0, daily.getAttempted() + attemptDelta));
-            if (wasSolve) {
-                daily.setSolved(Math.max(0, daily.getSolved() - 1));
-            }
-            if (durationMinutes != null) {
-                daily.setTimeMinutes(Math.max(0, daily.getTimeMinutes() - durationMinutes));
-            }
-            dailyStatRepository.save(daily);
-        });
+    private void incrementDifficultyCount(UserStats stats, Difficulty difficulty) {
+        switch (difficulty) {
+            case EASY -> stats.setEasySolved(stats.getEasySolved() + 1);
+            case MEDIUM -> stats.setMediumSolved(stats.getMediumSolved() + 1);
+            case HARD -> stats.setHardSolved(stats.getHardSolved() + 1);
+        }
     }
 
-    private void adjustDailyStatTime(User user, LocalDate date, int timeDelta) {
-        if (timeDelta == 0) {
+    private void adjustMistakes(UserStatsDelta delta, List<Mistake> mistakes, int sign) {
+        if (mistakes == null) {
             return;
         }
-        dailyStatRepository.findByUserAndDate(user, date).ifPresent(daily -> {
-            daily.setTimeMinutes(Math.max(0, daily.getTimeMinutes() + timeDelta));
-            dailyStatRepository.save(daily);
-        });
+        for (Mistake mistake : mistakes) {
+            delta.adjustMistake(mistake, sign);
+        }
+    }
+
+    private void upsertDailyStat(User user, LocalDate date, int solvedDelta, int attemptDelta, int timeDelta) {
+        dailyStatRepository.upsertDelta(user.getId(), date, solvedDelta, attemptDelta, timeDelta, LocalDateTime.now());
     }
 
-    private DailyStat newDailyStat(LocalDate date) {
-        DailyStat stat = new DailyStat();
-        stat.setDate(date);
-        return stat;
+    private LocalDate attemptDate(Attempt attempt) {
+        return attempt.getCreatedDate() != null ? attempt.getCreatedDate().toLocalDate() : LocalDate.now();
     }
 
     private LocalDate toLocalDate(LocalDateTime dateTime) {
         return dateTime != null ? dateTime.toLocalDate() : null;
     }
 
-    private String writeMistakeBreakdown(Map<String, Integer> breakdown) {
-        return writeBreakdown(breakdown);
+    private short toUnsignedShort(int value) {
+        return (short) Math.clamp(value, 0, 0xFFFF);
+    }
+
+    private Map<Long, Integer> toCountMap(List<Object[]> rows) {
+        Map<Long, Integer> counts = new HashMap<>();
+        for (Object[] row : rows) {
+            counts.put((Long) row[0], ((Number) row[1]).intValue());
+        }
+        return counts;
     }
 
     private String writeBreakdown(Map<String, Integer> breakdown) {
@@ -536,4 +643,22 @@ public class StatsService {
             throw new RuntimeException("Failed to serialize breakdown", e);
         }
     }
+
+    /** First accepted attempt of one problem, folded while streaming. */
+    private static final class ProblemAttempts {
+
+        private static final Comparator<AttemptFacts> ACCEPTANCE_ORDER = Comparator
+                .comparing((AttemptFacts attempt) -> attempt.createdDate() == null)
+                .thenComparing(AttemptFacts::createdDate, Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparingInt(AttemptFacts::attemptNumber);
+
+        private AttemptFacts firstAccepted;
+
+        private void add(AttemptFacts attempt) {
+            if (attempt.outcome() == Outcome.ACCEPTED
+                    && (firstAccepted == null || ACCEPTANCE_ORDER.compare(attempt, firstAccepted) < 0)) {
+                firstAccepted = attempt;
+            }
+        }
+    }
 }
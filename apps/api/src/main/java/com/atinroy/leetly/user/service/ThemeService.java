@@ -2,11 +2,12 @@ package com.atinroy.leetly.user.service;
 
 import com.atinroy.leetly.common.util.JsonUtils;
 import com.atinroy.leetly.common.exception.ResourceNotFoundException;
+import com.atinroy.leetly.common.service.ReferenceDataCache;
+import com.atinroy.leetly.user.dto.ThemeDto;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
 import com.atinroy.leetly.user.model.Theme;
 import com.atinroy.leetly.user.repository.ThemeRepository;
 
@@ -16,16 +17,16 @@ import com.atinroy.leetly.user.repository.ThemeRepository;
 public class ThemeService {
 
     private final ThemeRepository themeRepository;
+    private final ReferenceDataCache referenceDataCache;
 
-    @Transactional(readOnly = true)
-    public List<Theme> findAll() {
-        return themeRepository.findAll();
+    public ThemeDto findById(long id) {
+        return referenceDataCache.current().theme(id);
     }
 
-    @Transactional(readOnly = true)
-    public Theme findById(long id) {
-        return themeRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Theme not found: " + id));
+    /** An uninitialized reference to the theme for associations, after checking it exists. */
+    public Theme reference(long id) {
+        findById(id);
+        return themeRepository.getReferenceById(id);
     }
 
     public Theme create(String name, String properties) {
@@ -33,18 +34,24 @@ public class ThemeService {
         Theme theme = new Theme();
         theme.setName(name);
         theme.setProperties(properties);
-        return themeRepository.save(theme);
+        Theme saved = themeRepository.save(theme);
+        referenceDataCache.refreshAfterCommit();
+        return saved;
     }
 
     public Theme update(long id, String name, String properties) {
         JsonUtils.assertValidJson(properties);
-        Theme theme = findById(id);
+        Theme theme = themeRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Theme not found: " + id));
         theme.setName(name);
         theme.setProperties(properties);
-        return themeRepository.save(theme);
+        Theme saved = themeRepository.save(theme);
+        referenceDataCache.refreshAfterCommit();
+        return saved;
     }
 
     public void delete(long id) {
         themeRepository.deleteById(id);
+        referenceDataCache.refreshAfterCommit();
     }
 }
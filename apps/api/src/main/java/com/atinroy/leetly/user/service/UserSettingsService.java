@@ -43,7 +43,7 @@ public class UserSettingsService {
 
     public UserSettings updateTheme(User user, Long themeId) {
         UserSettings settings = getByUser(user);
-        settings.setTheme(themeId != null ? themeService.findById(themeId) : null);
+        settings.setTheme(themeId != null ? themeService.reference(themeId) : null);
         return userSettingsRepository.save(settings);
     }
 }
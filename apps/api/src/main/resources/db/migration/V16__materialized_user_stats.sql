@@ -0,0 +1,6 @@
+-- user_stats becomes a materialized projection maintained by deltas on write.
+-- Existing rows start stale so the first read rebuilds them once from history.
+ALTER TABLE user_stats
+    ADD COLUMN IF NOT EXISTS stale BOOLEAN NOT NULL DEFAULT TRUE,
+    ADD COLUMN IF NOT EXISTS projection_version INT NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS windows_as_of DATE;
@@ -0,0 +1,24 @@
+-- Transactional outbox for post-attempt work (user stats, daily stats, review
+-- scheduling). Rows are inserted with the attempt and deleted once drained.
+CREATE TABLE attempt_events (
+    id                  BIGSERIAL    PRIMARY KEY,
+    user_id             BIGINT       NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    problem_id          BIGINT       NOT NULL,
+    attempt_id          BIGINT       NOT NULL,
+    attempt_number      INT          NOT NULL,
+    attempt_date        DATE         NOT NULL,
+    difficulty          VARCHAR(50),
+    previous_status     VARCHAR(50)  NOT NULL,
+    new_status          VARCHAR(50)  NOT NULL,
+    duration_minutes    INT          NOT NULL DEFAULT 0,
+    mistake_mask        INT          NOT NULL DEFAULT 0,
+    first_solve         BOOLEAN      NOT NULL,
+    created_date        TIMESTAMP    NOT NULL,
+    last_modified_date  TIMESTAMP    NOT NULL
+);
+CREATE INDEX idx_attempt_events_user ON attempt_events (user_id, id);
+
+-- Highest attempt event already reflected in the row. A rebuild from history
+-- advances it so events still queued at that point are not counted twice.
+ALTER TABLE user_stats
+    ADD COLUMN IF NOT EXISTS applied_event_id BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,25 @@
+-- /api/me/stats/daily is now served straight from daily_stats, so rebuild every
+-- user's rows from attempts once: one attempt per row of activity and one solve
+-- on the day of each problem's first accepted attempt. Attempts still queued in
+-- attempt_events are left for the worker to add.
+DELETE FROM daily_stats;
+
+INSERT INTO daily_stats (user_id, date, solved, attempted, time_minutes, created_date, last_modified_date)
+SELECT activity.user_id, activity.day, SUM(activity.solved), SUM(activity.attempted), SUM(activity.time_minutes),
+       now(), now()
+FROM (
+    SELECT a.user_id, CAST(a.created_date AS date) AS day, 0 AS solved, 1 AS attempted,
+           COALESCE(a.duration_minutes, 0) AS time_minutes
+    FROM attempts a
+    WHERE NOT EXISTS (SELECT 1 FROM attempt_events e WHERE e.attempt_id = a.id)
+    UNION ALL
+    SELECT a.user_id, CAST(MIN(a.created_date) AS date), 1, 0, 0
+    FROM attempts a
+    WHERE a.outcome = 'ACCEPTED'
+    GROUP BY a.user_id, a.problem_id
+    HAVING NOT EXISTS (
+        SELECT 1 FROM attempt_events e
+        WHERE e.user_id = a.user_id AND e.problem_id = a.problem_id AND e.first_solve
+    )
+) activity
+GROUP BY activity.user_id, activity.day;
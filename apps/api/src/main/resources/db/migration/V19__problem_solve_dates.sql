@@ -0,0 +1,28 @@
+-- Persist first/last accepted attempt per problem and the user's first solve day
+-- so the default daily-stats range resolves with an index lookup.
+ALTER TABLE problems
+    ADD COLUMN IF NOT EXISTS first_solved_at TIMESTAMP,
+    ADD COLUMN IF NOT EXISTS solved_at TIMESTAMP;
+
+UPDATE problems p
+SET first_solved_at = accepted.first_solved_at,
+    solved_at = accepted.solved_at
+FROM (
+    SELECT a.problem_id, MIN(a.created_date) AS first_solved_at, MAX(a.created_date) AS solved_at
+    FROM attempts a
+    WHERE a.outcome = 'ACCEPTED'
+    GROUP BY a.problem_id
+) accepted
+WHERE accepted.problem_id = p.id;
+
+CREATE INDEX IF NOT EXISTS idx_problem_user_first_solved ON problems (user_id, first_solved_at);
+
+ALTER TABLE user_stats
+    ADD COLUMN IF NOT EXISTS first_solved_date DATE;
+
+UPDATE user_stats s
+SET first_solved_date = (
+    SELECT CAST(MIN(p.first_solved_at) AS date)
+    FROM problems p
+    WHERE p.user_id = s.user_id
+);
@@ -0,0 +1,4 @@
+-- Per-user solve-day bitmap (see SolveDayBitmap). Populated by the projection
+-- rebuild that the bumped projection version triggers on each row's next read.
+ALTER TABLE user_stats
+    ADD COLUMN IF NOT EXISTS solve_days BYTEA;
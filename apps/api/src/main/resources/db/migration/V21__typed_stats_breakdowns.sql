@@ -0,0 +1,17 @@
+-- Breakdowns leave jsonb: mistake counts become a fixed-layout array indexed by
+-- Mistake ordinal, pattern counts one row per (user, pattern). Both are filled by
+-- the projection rebuild the bumped projection version triggers on next read.
+ALTER TABLE user_stats
+    ADD COLUMN IF NOT EXISTS mistake_counts INTEGER[],
+    DROP COLUMN IF EXISTS mistake_breakdown,
+    DROP COLUMN IF EXISTS pattern_breakdown;
+
+CREATE TABLE user_pattern_counts (
+    id                  BIGSERIAL    PRIMARY KEY,
+    user_id             BIGINT       NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    pattern_id          BIGINT       NOT NULL REFERENCES patterns (id) ON DELETE CASCADE,
+    problem_count       INT          NOT NULL DEFAULT 0,
+    created_date        TIMESTAMP    NOT NULL,
+    last_modified_date  TIMESTAMP    NOT NULL
+);
+CREATE UNIQUE INDEX idx_user_pattern_count_user_pattern ON user_pattern_counts (user_id, pattern_id);
@@ -0,0 +1,12 @@
+-- Per-user FSRS weights fitted from review_logs by the nightly optimizer.
+CREATE TABLE user_fsrs_weights (
+    id                  BIGSERIAL           PRIMARY KEY,
+    user_id             BIGINT              NOT NULL UNIQUE REFERENCES users (id) ON DELETE CASCADE,
+    weights             DOUBLE PRECISION[]  NOT NULL,
+    review_count        BIGINT              NOT NULL DEFAULT 0,
+    log_loss            DOUBLE PRECISION    NOT NULL,
+    default_log_loss    DOUBLE PRECISION    NOT NULL,
+    trained_at          TIMESTAMP           NOT NULL,
+    created_date        TIMESTAMP           NOT NULL,
+    last_modified_date  TIMESTAMP           NOT NULL
+);
@@ -0,0 +1,8 @@
+-- review_logs ids come from a pooled sequence (Hibernate allocates 50 at a time) so
+-- bulk review sessions can batch their log inserts; IDENTITY forces one round trip per row.
+ALTER TABLE review_logs ALTER COLUMN id DROP IDENTITY;
+
+CREATE SEQUENCE review_logs_id_seq INCREMENT BY 50 OWNED BY review_logs.id;
+
+-- Start past existing ids: the first allocation hands out (value - 49 .. value].
+SELECT setval('review_logs_id_seq', COALESCE((SELECT MAX(id) FROM review_logs), 0) + 50);
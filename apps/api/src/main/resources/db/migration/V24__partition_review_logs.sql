@@ -0,0 +1,136 @@
+-- review_logs becomes range-partitioned by month of reviewed_at. Old months are
+-- rolled into per-card review_log_summaries and dropped, so the live table and its
+-- indexes stay sized to the recent history that scheduling and history pages read.
+
+ALTER SEQUENCE review_logs_id_seq OWNED BY NONE;
+ALTER TABLE review_logs RENAME TO review_logs_unpartitioned;
+
+CREATE TABLE review_logs (
+    id              BIGINT NOT NULL,
+    review_card_id  BIGINT NOT NULL REFERENCES review_cards(id) ON DELETE CASCADE,
+    rating          VARCHAR(10) NOT NULL,
+    state           VARCHAR(20) NOT NULL,
+    stability       DOUBLE PRECISION NOT NULL,
+    difficulty      DOUBLE PRECISION NOT NULL,
+    elapsed_days    INT NOT NULL,
+    scheduled_days  INT NOT NULL,
+    review_type     VARCHAR(20) NOT NULL,
+    attempt_id      BIGINT REFERENCES attempts(id) ON DELETE SET NULL,
+    reviewed_at     TIMESTAMP NOT NULL DEFAULT now(),
+    -- The partition key has to be part of the primary key; ids alone stay unique via the sequence.
+    CONSTRAINT pk_review_logs PRIMARY KEY (id, reviewed_at)
+) PARTITION BY RANGE (reviewed_at);
+
+ALTER SEQUENCE review_logs_id_seq OWNED BY review_logs.id;
+
+-- Catches rows for months whose partition does not exist yet.
+CREATE TABLE review_logs_default PARTITION OF review_logs DEFAULT;
+
+-- Serves keyset-paginated history: newest first, id breaking ties.
+CREATE INDEX idx_review_logs_card_history ON review_logs (review_card_id, reviewed_at DESC, id DESC);
+
+CREATE TABLE review_log_summaries (
+    review_card_id      BIGINT PRIMARY KEY REFERENCES review_cards(id) ON DELETE CASCADE,
+    review_count        INT NOT NULL,
+    again_count         INT NOT NULL,
+    hard_count          INT NOT NULL,
+    good_count          INT NOT NULL,
+    easy_count          INT NOT NULL,
+    first_reviewed_at   TIMESTAMP NOT NULL,
+    last_reviewed_at    TIMESTAMP NOT NULL,
+    -- Every log of the card reviewed before this was archived.
+    archived_before     TIMESTAMP NOT NULL
+);
+
+-- Creates the partition for the month containing month_start; returns false if it
+-- already exists. Rows that landed in the default partition for that month move over.
+CREATE FUNCTION ensure_review_log_partition(month_start DATE) RETURNS BOOLEAN AS $$
+DECLARE
+    from_ts TIMESTAMP := date_trunc('month', month_start);
+    to_ts   TIMESTAMP := date_trunc('month', month_start) + INTERVAL '1 month';
+    part    TEXT      := 'review_logs_' || to_char(from_ts, 'YYYY_MM');
+BEGIN
+    IF to_regclass(part) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+    EXECUTE format('CREATE TABLE %I (LIKE review_logs INCLUDING DEFAULTS)', part);
+    EXECUTE format('INSERT INTO %I SELECT * FROM review_logs_default WHERE reviewed_at >= %L AND reviewed_at < %L',
+                   part, from_ts, to_ts);
+    DELETE FROM review_logs_default WHERE reviewed_at >= from_ts AND reviewed_at < to_ts;
+    EXECUTE format('ALTER TABLE review_logs ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   part, from_ts, to_ts);
+    RETURN TRUE;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Folds the month's logs into review_log_summaries and drops its partition; returns
+-- the number of logs archived, or -1 if the month has no partition.
+CREATE FUNCTION archive_review_log_partition(month_start DATE) RETURNS INTEGER AS $$
+DECLARE
+    from_ts  TIMESTAMP := date_trunc('month', month_start);
+    to_ts    TIMESTAMP := date_trunc('month', month_start) + INTERVAL '1 month';
+    part     TEXT      := 'review_logs_' || to_char(from_ts, 'YYYY_MM');
+    archived INTEGER;
+BEGIN
+    IF to_regclass(part) IS NULL THEN
+        RETURN -1;
+    END IF;
+    EXECUTE format($sql$
+        INSERT INTO review_log_summaries AS s (review_card_id, review_count, again_count, hard_count,
+                                               good_count, easy_count, first_reviewed_at, last_reviewed_at,
+                                               archived_before)
+        SELECT review_card_id,
+               COUNT(*),
+               COUNT(*) FILTER (WHERE rating = 'AGAIN'),
+               COUNT(*) FILTER (WHERE rating = 'HARD'),
+               COUNT(*) FILTER (WHERE rating = 'GOOD'),
+               COUNT(*) FILTER (WHERE rating = 'EASY'),
+               MIN(reviewed_at),
+               MAX(reviewed_at),
+               %L
+        FROM %I
+        GROUP BY review_card_id
+        ON CONFLICT (review_card_id) DO UPDATE SET
+            review_count      = s.review_count + EXCLUDED.review_count,
+            again_count       = s.again_count + EXCLUDED.again_count,
+            hard_count        = s.hard_count + EXCLUDED.hard_count,
+            good_count        = s.good_count + EXCLUDED.good_count,
+            easy_count        = s.easy_count + EXCLUDED.easy_count,
+            first_reviewed_at = LEAST(s.first_reviewed_at, EXCLUDED.first_reviewed_at),
+            last_reviewed_at  = GREATEST(s.last_reviewed_at, EXCLUDED.last_reviewed_at),
+            archived_before   = GREATEST(s.archived_before, EXCLUDED.archived_before)
+        $sql$, to_ts, part);
+    EXECUTE format('SELECT COUNT(*) FROM %I', part) INTO archived;
+    -- Keep "new reviews since the last fit" meaningful for the FSRS retraining job.
+    EXECUTE format($sql$
+        UPDATE user_fsrs_weights w SET review_count = GREATEST(0, w.review_count - a.logs)
+        FROM (SELECT rc.user_id, COUNT(*) AS logs
+              FROM %I l JOIN review_cards rc ON rc.id = l.review_card_id
+              GROUP BY rc.user_id) a
+        WHERE w.user_id = a.user_id
+        $sql$, part);
+    EXECUTE format('ALTER TABLE review_logs DETACH PARTITION %I', part);
+    EXECUTE format('DROP TABLE %I', part);
+    RETURN archived;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Partitions for every month with existing logs through the next three, then the copy.
+DO $$
+DECLARE
+    month DATE := date_trunc('month', COALESCE((SELECT MIN(reviewed_at) FROM review_logs_unpartitioned), now()));
+BEGIN
+    WHILE month <= date_trunc('month', now()) + INTERVAL '3 months' LOOP
+        PERFORM ensure_review_log_partition(month);
+        month := month + INTERVAL '1 month';
+    END LOOP;
+END;
+$$;
+
+INSERT INTO review_logs (id, review_card_id, rating, state, stability, difficulty, elapsed_days,
+                         scheduled_days, review_type, attempt_id, reviewed_at)
+SELECT id, review_card_id, rating, state, stability, difficulty, elapsed_days,
+       scheduled_days, review_type, attempt_id, reviewed_at
+FROM review_logs_unpartitioned;
+
+DROP TABLE review_logs_unpartitioned;
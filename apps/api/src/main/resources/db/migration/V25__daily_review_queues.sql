@@ -0,0 +1,18 @@
+-- Each user's review queue for their current local day, written at local midnight so
+-- the first review-screen load of the day reads one row. Entries are parallel arrays
+-- in due order, with the problem fields the review screen shows copied in.
+CREATE TABLE daily_review_queues (
+    id                  BIGSERIAL       PRIMARY KEY,
+    user_id             BIGINT          NOT NULL UNIQUE REFERENCES users (id) ON DELETE CASCADE,
+    queue_date          DATE            NOT NULL,
+    timezone            VARCHAR(100)    NOT NULL,
+    generated_at        TIMESTAMP       NOT NULL,
+    card_ids            BIGINT[]        NOT NULL,
+    problem_ids         BIGINT[]        NOT NULL,
+    leetcode_ids        BIGINT[]        NOT NULL,
+    titles              TEXT[]          NOT NULL,
+    difficulties        VARCHAR(10)[]   NOT NULL,
+    due_dates           TIMESTAMP[]     NOT NULL,
+    created_date        TIMESTAMP       NOT NULL,
+    last_modified_date  TIMESTAMP       NOT NULL
+);
@@ -0,0 +1,8 @@
+-- Composite indexes matching the keyset sorts of the problem listings: each user's
+-- problems by (created_date, id) and by (last_attempted_at, id), never-attempted last.
+-- They also cover the user_id-only and last_attempted_at-only lookups, so those go.
+CREATE INDEX idx_problems_user_created ON problems (user_id, created_date DESC, id DESC);
+CREATE INDEX idx_problems_user_last_attempted ON problems (user_id, last_attempted_at DESC NULLS LAST, id DESC);
+
+DROP INDEX IF EXISTS idx_problem_user_id;
+DROP INDEX IF EXISTS idx_problems_last_attempted_at;
@@ -0,0 +1,11 @@
+-- Indexed problem search. Titles get a 'simple' tsvector for word-prefix matches and a
+-- trigram index on lower(title) for typo-tolerant word_similarity matches; the trigram
+-- index also serves the listing's substring filter (lower(title) LIKE '%term%').
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+ALTER TABLE problems
+    ADD COLUMN search_vector tsvector
+        GENERATED ALWAYS AS (to_tsvector('simple', coalesce(title, ''))) STORED;
+
+CREATE INDEX idx_problems_search_vector ON problems USING GIN (search_vector);
+CREATE INDEX idx_problems_title_trgm ON problems USING GIN (lower(title) gin_trgm_ops);
@@ -0,0 +1,43 @@
+-- Denormalized topic and pattern membership on problems. Each topic and pattern owns
+-- one bit (0-63) and problems carry the OR of their topics' and patterns' bits, so
+-- topic/pattern filters are bitwise checks with no join or DISTINCT. Topics or
+-- patterns past the 64th get no bit and are filtered through the join tables.
+ALTER TABLE topics ADD COLUMN mask_bit INTEGER;
+ALTER TABLE topics ADD CONSTRAINT uq_topics_mask_bit UNIQUE (mask_bit);
+ALTER TABLE topics ADD CONSTRAINT chk_topics_mask_bit CHECK (mask_bit BETWEEN 0 AND 63);
+
+ALTER TABLE patterns ADD COLUMN mask_bit INTEGER;
+ALTER TABLE patterns ADD CONSTRAINT uq_patterns_mask_bit UNIQUE (mask_bit);
+ALTER TABLE patterns ADD CONSTRAINT chk_patterns_mask_bit CHECK (mask_bit BETWEEN 0 AND 63);
+
+UPDATE topics t
+SET mask_bit = ranked.rn - 1
+FROM (SELECT id, row_number() OVER (ORDER BY id) AS rn FROM topics) ranked
+WHERE t.id = ranked.id AND ranked.rn <= 64;
+
+UPDATE patterns p
+SET mask_bit = ranked.rn - 1
+FROM (SELECT id, row_number() OVER (ORDER BY id) AS rn FROM patterns) ranked
+WHERE p.id = ranked.id AND ranked.rn <= 64;
+
+ALTER TABLE problems
+    ADD COLUMN topic_mask BIGINT NOT NULL DEFAULT 0,
+    ADD COLUMN pattern_mask BIGINT NOT NULL DEFAULT 0;
+
+UPDATE problems p
+SET topic_mask = m.mask
+FROM (SELECT pt.problem_id, bit_or(CAST(1 AS BIGINT) << t.mask_bit) AS mask
+      FROM problem_topics pt
+      JOIN topics t ON t.id = pt.topic_id
+      WHERE t.mask_bit IS NOT NULL
+      GROUP BY pt.problem_id) m
+WHERE p.id = m.problem_id;
+
+UPDATE problems p
+SET pattern_mask = m.mask
+FROM (SELECT pp.problem_id, bit_or(CAST(1 AS BIGINT) << pt.mask_bit) AS mask
+      FROM problem_patterns pp
+      JOIN patterns pt ON pt.id = pp.pattern_id
+      WHERE pt.mask_bit IS NOT NULL
+      GROUP BY pp.problem_id) m
+WHERE p.id = m.problem_id;
@@ -0,0 +1,7 @@
+-- Checksum of the canonical topic/pattern catalog last applied, so startup can skip
+-- the sync when nothing changed.
+CREATE TABLE catalog_sync_state (
+    name        VARCHAR(64) PRIMARY KEY,
+    checksum    VARCHAR(64) NOT NULL,
+    synced_at   TIMESTAMP   NOT NULL
+);
@@ -0,0 +1,8 @@
+-- Failed attempts to apply an outbox event. A failed event is retried after a
+-- growing delay (retry_at). Once it reaches app.attempt-events.max-attempts it is
+-- dead-lettered: kept for inspection, but no longer claimed by the worker.
+ALTER TABLE attempt_events
+    ADD COLUMN IF NOT EXISTS failed_attempts   INT           NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS last_error        VARCHAR(1000),
+    ADD COLUMN IF NOT EXISTS retry_at          TIMESTAMP,
+    ADD COLUMN IF NOT EXISTS dead_lettered_at  TIMESTAMP;
@@ -0,0 +1,57 @@
+-- Review logs written per user, kept current by the review service so the nightly FSRS
+-- retraining can find users with new history without aggregating review_logs.
+CREATE TABLE user_review_log_counts (
+    user_id          BIGINT    PRIMARY KEY REFERENCES users(id) ON DELETE CASCADE,
+    review_count     BIGINT    NOT NULL,
+    last_reviewed_at TIMESTAMP NOT NULL
+);
+
+INSERT INTO user_review_log_counts (user_id, review_count, last_reviewed_at)
+SELECT rc.user_id, COUNT(*), MAX(rl.reviewed_at)
+FROM review_logs rl
+JOIN review_cards rc ON rc.id = rl.review_card_id
+GROUP BY rc.user_id;
+
+-- Fitted weights now record this counter, which archiving leaves alone, so the archive
+-- no longer rewinds user_fsrs_weights.review_count.
+CREATE OR REPLACE FUNCTION archive_review_log_partition(month_start DATE) RETURNS INTEGER AS $$
+DECLARE
+    from_ts  TIMESTAMP := date_trunc('month', month_start);
+    to_ts    TIMESTAMP := date_trunc('month', month_start) + INTERVAL '1 month';
+    part     TEXT      := 'review_logs_' || to_char(from_ts, 'YYYY_MM');
+    archived INTEGER;
+BEGIN
+    IF to_regclass(part) IS NULL THEN
+        RETURN -1;
+    END IF;
+    EXECUTE format($sql$
+        INSERT INTO review_log_summaries AS s (review_card_id, review_count, again_count, hard_count,
+                                               good_count, easy_count, first_reviewed_at, last_reviewed_at,
+                                               archived_before)
+        SELECT review_card_id,
+               COUNT(*),
+               COUNT(*) FILTER (WHERE rating = 'AGAIN'),
+               COUNT(*) FILTER (WHERE rating = 'HARD'),
+               COUNT(*) FILTER (WHERE rating = 'GOOD'),
+               COUNT(*) FILTER (WHERE rating = 'EASY'),
+               MIN(reviewed_at),
+               MAX(reviewed_at),
+               %L
+        FROM %I
+        GROUP BY review_card_id
+        ON CONFLICT (review_card_id) DO UPDATE SET
+            review_count      = s.review_count + EXCLUDED.review_count,
+            again_count       = s.again_count + EXCLUDED.again_count,
+            hard_count        = s.hard_count + EXCLUDED.hard_count,
+            good_count        = s.good_count + EXCLUDED.good_count,
+            easy_count        = s.easy_count + EXCLUDED.easy_count,
+            first_reviewed_at = LEAST(s.first_reviewed_at, EXCLUDED.first_reviewed_at),
+            last_reviewed_at  = GREATEST(s.last_reviewed_at, EXCLUDED.last_reviewed_at),
+            archived_before   = GREATEST(s.archived_before, EXCLUDED.archived_before)
+        $sql$, to_ts, part);
+    EXECUTE format('SELECT COUNT(*) FROM %I', part) INTO archived;
+    EXECUTE format('ALTER TABLE review_logs DETACH PARTITION %I', part);
+    EXECUTE format('DROP TABLE %I', part);
+    RETURN archived;
+END;
+$$ LANGUAGE plpgsql;
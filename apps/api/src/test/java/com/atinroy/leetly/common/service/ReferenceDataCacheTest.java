@@ -0,0 +1,115 @@
+package com.atinroy.leetly.common.service;
+
+import com.atinroy.leetly.common.exception.ResourceNotFoundException;
+import com.atinroy.leetly.problem.model.Pattern;
+import com.atinroy.leetly.problem.model.Topic;
+import com.atinroy.leetly.problem.repository.PatternRepository;
+import com.atinroy.leetly.problem.repository.TopicRepository;
+import com.atinroy.leetly.user.model.Theme;
+import com.atinroy.leetly.user.repository.ThemeRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReferenceDataCacheTest {
+
+    @Mock
+    TopicRepository topicRepository;
+
+    @Mock
+    PatternRepository patternRepository;
+
+    @Mock
+    ThemeRepository themeRepository;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void snapshot_answersLookupsAndSerializesLists() {
+        Topic array = topic(1L, "Array", 0);
+        Topic graph = topic(2L, "Graph", null);
+        Pattern twoPointers = pattern(10L, "Two Pointers", array, 3);
+
+        ReferenceDataCache.Snapshot snapshot = ReferenceDataCache.Snapshot.of(
+                1, List.of(array, graph), List.of(twoPointers), List.of(theme(5L, "Dark")), objectMapper);
+
+        assertThat(snapshot.topic(1L).name()).isEqualTo("Array");
+        assertThat(snapshot.findTopicByName("Graph")).isPresent();
+        assertThat(snapshot.topicMaskBit(1L)).isZero();
+        assertThat(snapshot.topicMaskBit(2L)).isNull();
+        assertThat(snapshot.patternMaskBit(10L)).isEqualTo(3);
+        assertThat(snapshot.pattern(10L).topicName()).isEqualTo("Array");
+        assertThat(snapshot.patternsByTopic(1L)).extracting("name").containsExactly("Two Pointers");
+        assertThat(snapshot.patternsByTopic(2L)).isEmpty();
+        assertThat(snapshot.theme(5L).name()).isEqualTo("Dark");
+        assertThatThrownBy(() -> snapshot.topic(99L))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("Topic not found: 99");
+        assertThatThrownBy(() -> snapshot.patternsByTopic(99L)).isInstanceOf(ResourceNotFoundException.class);
+
+        assertThat(new String(snapshot.topicsJson().body(), StandardCharsets.UTF_8))
+                .startsWith("[{\"id\":1,\"name\":\"Array\"");
+        assertThat(snapshot.topicsJson().etag()).startsWith("\"").endsWith("\"").hasSize(34);
+    }
+
+    @Test
+    void refresh_keepsVersionUntilContentChanges() {
+        Topic array = topic(1L, "Array", 0);
+        when(topicRepository.findAllByOrderByNameAsc()).thenReturn(List.of(array));
+        when(patternRepository.findAllByOrderByNameAsc()).thenReturn(List.of());
+        when(themeRepository.findAll()).thenReturn(List.of());
+        ReferenceDataCache cache = new ReferenceDataCache(topicRepository, patternRepository, themeRepository,
+                objectMapper, transactionManager, new SimpleMeterRegistry());
+
+        ReferenceDataCache.Snapshot first = cache.current();
+        cache.refresh();
+        assertThat(cache.current()).isSameAs(first);
+
+        when(topicRepository.findAllByOrderByNameAsc()).thenReturn(List.of(array, topic(2L, "Graph", 1)));
+        cache.refresh();
+
+        assertThat(cache.current().version()).isEqualTo(2);
+        assertThat(cache.current().topicsJson().etag()).isNotEqualTo(first.topicsJson().etag());
+        assertThat(first.findTopic(2L)).isEmpty();
+    }
+
+    private static Topic topic(long id, String name, Integer maskBit) {
+        Topic topic = new Topic();
+        topic.setId(id);
+        topic.setName(name);
+        topic.setMaskBit(maskBit);
+        return topic;
+    }
+
+    private static Pattern pattern(long id, String name, Topic topic, Integer maskBit) {
+        Pattern pattern = new Pattern();
+        pattern.setId(id);
+        pattern.setName(name);
+        pattern.setTopic(topic);
+        pattern.setMaskBit(maskBit);
+        return pattern;
+    }
+
+    private static Theme theme(long id, String name) {
+        Theme theme = new Theme();
+        theme.setId(id);
+        theme.setName(name);
+        theme.setProperties("{}");
+        return theme;
+    }
+}
@@ -0,0 +1,17 @@
+package com.atinroy.leetly.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JpaConfigTest {
+
+    @Test
+    void auditingDateTimeProvider_stampsWholeMicroseconds() {
+        LocalDateTime now = (LocalDateTime) new JpaConfig().auditingDateTimeProvider().getNow().orElseThrow();
+
+        assertThat(now.getNano() % 1_000).isZero();
+    }
+}
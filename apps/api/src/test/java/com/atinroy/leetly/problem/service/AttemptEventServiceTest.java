@@ -0,0 +1,135 @@
+package com.atinroy.leetly.problem.service;
+
+import com.atinroy.leetly.problem.model.Attempt;
+import com.atinroy.leetly.problem.model.AttemptEvent;
+import com.atinroy.leetly.problem.model.Problem;
+import com.atinroy.leetly.problem.repository.AttemptEventRepository;
+import com.atinroy.leetly.problem.repository.AttemptRepository;
+import com.atinroy.leetly.review.service.ReviewService;
+import com.atinroy.leetly.user.model.User;
+import com.atinroy.leetly.user.service.StatsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AttemptEventServiceTest {
+
+    @Mock
+    AttemptEventRepository attemptEventRepository;
+
+    @Mock
+    AttemptRepository attemptRepository;
+
+    @Mock
+    StatsService statsService;
+
+    @Mock
+    ReviewService reviewService;
+
+    AttemptEventService attemptEventService;
+
+    private final User user = user();
+
+    @BeforeEach
+    void setUp() {
+        attemptEventService = new AttemptEventService(
+                attemptEventRepository, attemptRepository, statsService, reviewService, 3);
+    }
+
+    @Test
+    void processUser_appliesClaimedEventsAsOneBatchAndDeletesThem() {
+        AttemptEvent firstSolve = event(1L, 100L, true);
+        AttemptEvent deletedAttempt = event(2L, 200L, false);
+        Problem problem = new Problem();
+        Attempt attempt = new Attempt();
+        attempt.setProblem(problem);
+        when(attemptEventRepository.findPendingByUserForUpdate(1L, PageRequest.of(0, 10)))
+                .thenReturn(List.of(firstSolve, deletedAttempt));
+        when(attemptRepository.findById(100L)).thenReturn(Optional.of(attempt));
+        when(attemptRepository.findById(200L)).thenReturn(Optional.empty());
+
+        List<AttemptEvent> processed = attemptEventService.processUser(1L, 10);
+
+        assertThat(processed).containsExactly(firstSolve, deletedAttempt);
+        verify(statsService).applyAttemptEvents(user, List.of(firstSolve, deletedAttempt));
+        verify(reviewService).autoEnrollOnFirstSolve(problem, user);
+        verify(reviewService).onAttemptLogged(problem, user, attempt);
+        verify(attemptEventRepository).deleteAllInBatch(List.of(firstSolve, deletedAttempt));
+    }
+
+    @Test
+    void processUser_retriesAFailedBatchOneEventAtATime() {
+        AttemptEvent failed = event(1L, 100L, false);
+        failed.setFailedAttempts(1);
+        AttemptEvent next = event(2L, 200L, false);
+        when(attemptEventRepository.findPendingByUserForUpdate(1L, PageRequest.of(0, 10)))
+                .thenReturn(List.of(failed, next));
+
+        List<AttemptEvent> processed = attemptEventService.processUser(1L, 10);
+
+        assertThat(processed).containsExactly(failed);
+        verify(statsService).applyAttemptEvents(user, List.of(failed));
+        verify(attemptEventRepository).deleteAllInBatch(List.of(failed));
+    }
+
+    @Test
+    void recordFailure_countsTheFailureAndDelaysTheRetry() {
+        AttemptEvent first = event(1L, 100L, false);
+        AttemptEvent second = event(2L, 200L, false);
+        when(attemptEventRepository.findPendingByUserForUpdate(1L, PageRequest.of(0, 10)))
+                .thenReturn(List.of(first, second));
+
+        attemptEventService.recordFailure(1L, 10, new IllegalStateException("boom"));
+
+        assertThat(List.of(first, second)).allSatisfy(event -> {
+            assertThat(event.getFailedAttempts()).isEqualTo(1);
+            assertThat(event.getLastError()).contains("boom");
+            assertThat(event.getRetryAt()).isAfter(LocalDateTime.now());
+            assertThat(event.getDeadLetteredAt()).isNull();
+        });
+        verify(statsService, never()).markStale(any());
+    }
+
+    @Test
+    void recordFailure_deadLettersAtTheLimitAndMarksStatsStale() {
+        AttemptEvent poison = event(1L, 100L, false);
+        poison.setFailedAttempts(2);
+        when(attemptEventRepository.findPendingByUserForUpdate(1L, PageRequest.of(0, 10)))
+                .thenReturn(List.of(poison, event(2L, 200L, false)));
+
+        attemptEventService.recordFailure(1L, 10, new IllegalStateException("boom"));
+
+        assertThat(poison.getFailedAttempts()).isEqualTo(3);
+        assertThat(poison.getDeadLetteredAt()).isNotNull();
+        verify(statsService).markStale(user);
+    }
+
+    private AttemptEvent event(long id, long attemptId, boolean firstSolve) {
+        AttemptEvent event = new AttemptEvent();
+        event.setId(id);
+        event.setUser(user);
+        event.setAttemptId(attemptId);
+        event.setFirstSolve(firstSolve);
+        return event;
+    }
+
+    private static User user() {
+        User user = new User();
+        user.setId(1L);
+        return user;
+    }
+}
@@ -0,0 +1,84 @@
+package com.atinroy.leetly.problem.service;
+
+import com.atinroy.leetly.problem.model.AttemptEvent;
+import com.atinroy.leetly.problem.repository.AttemptEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AttemptEventWorkerTest {
+
+    @Mock
+    AttemptEventService attemptEventService;
+
+    @Mock
+    AttemptEventRepository attemptEventRepository;
+
+    SimpleMeterRegistry meterRegistry;
+
+    AttemptEventWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        worker = new AttemptEventWorker(attemptEventService, attemptEventRepository, meterRegistry, 10);
+    }
+
+    @Test
+    void drain_skipsAFailingUserAndAppliesTheOthers() {
+        RuntimeException failure = new IllegalStateException("boom");
+        when(attemptEventService.findUsersWithPendingEvents(10)).thenReturn(List.of(1L, 2L), List.of());
+        when(attemptEventService.processUser(1L, 10)).thenThrow(failure);
+        when(attemptEventService.processUser(2L, 10)).thenReturn(List.of(event()));
+
+        worker.drain();
+
+        verify(attemptEventService).recordFailure(1L, 10, failure);
+        verify(attemptEventService, never()).recordFailure(eq(2L), anyInt(), any());
+        assertThat(meterRegistry.get("leetly.attempt.events.lag").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void drain_stopsWhenAPassMakesNoProgress() {
+        when(attemptEventService.findUsersWithPendingEvents(10)).thenReturn(List.of(1L));
+        when(attemptEventService.processUser(1L, 10)).thenThrow(new IllegalStateException("boom"));
+
+        worker.drain();
+
+        verify(attemptEventService, times(1)).findUsersWithPendingEvents(10);
+        verify(attemptEventRepository).countPending();
+    }
+
+    @Test
+    void drain_keepsPassingWhileUsersHaveMoreEvents() {
+        when(attemptEventService.findUsersWithPendingEvents(10)).thenReturn(List.of(1L), List.of(1L), List.of());
+        when(attemptEventService.processUser(1L, 10)).thenReturn(List.of(event()), List.of(event()));
+
+        worker.drain();
+
+        verify(attemptEventService, times(2)).processUser(1L, 10);
+        assertThat(meterRegistry.get("leetly.attempt.events.lag").timer().count()).isEqualTo(2);
+    }
+
+    private AttemptEvent event() {
+        AttemptEvent event = new AttemptEvent();
+        event.setCreatedDate(LocalDateTime.now().minusSeconds(1));
+        return event;
+    }
+}
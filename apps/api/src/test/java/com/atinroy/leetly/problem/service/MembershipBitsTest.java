@@ -0,0 +1,34 @@
+package com.atinroy.leetly.problem.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MembershipBitsTest {
+
+    @Test
+    void lowestFree_fillsGapsFirst() {
+        assertThat(MembershipBits.lowestFree(Set.of(0, 1, 3))).isEqualTo(2);
+    }
+
+    @Test
+    void lowestFree_isNullOnceEveryBitIsTaken() {
+        Set<Integer> all = IntStream.range(0, MembershipBits.SIZE).boxed().collect(Collectors.toSet());
+
+        assertThat(MembershipBits.lowestFree(all)).isNull();
+    }
+
+    @Test
+    void mask_skipsMembersWithoutABit() {
+        List<Integer> bits = Arrays.asList(0, null, 63);
+
+        assertThat(MembershipBits.mask(bits, Function.identity())).isEqualTo(1L | Long.MIN_VALUE);
+    }
+}
@@ -0,0 +1,95 @@
+package com.atinroy.leetly.problem.service;
+
+import com.atinroy.leetly.common.service.ReferenceDataCache;
+import com.atinroy.leetly.config.DatabasePlatform;
+import com.atinroy.leetly.problem.model.CatalogSyncState;
+import com.atinroy.leetly.problem.repository.CatalogSyncStateRepository;
+import com.atinroy.leetly.problem.repository.PatternRepository;
+import com.atinroy.leetly.problem.repository.ProblemRepository;
+import com.atinroy.leetly.problem.repository.TopicRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProblemCatalogSyncServiceTest {
+
+    @Mock
+    TopicRepository topicRepository;
+
+    @Mock
+    PatternRepository patternRepository;
+
+    @Mock
+    ProblemRepository problemRepository;
+
+    @Mock
+    CatalogSyncStateRepository catalogSyncStateRepository;
+
+    @Mock
+    DatabasePlatform databasePlatform;
+
+    @Mock
+    ReferenceDataCache referenceDataCache;
+
+    @InjectMocks
+    ProblemCatalogSyncService service;
+
+    @Test
+    void skipsSyncWhenChecksumMatches() {
+        when(catalogSyncStateRepository.findChecksum("problem-catalog"))
+                .thenReturn(Optional.of(ProblemCatalogSyncService.CHECKSUM));
+
+        service.syncCanonicalCatalog();
+
+        verifyNoInteractions(topicRepository, patternRepository, problemRepository, databasePlatform);
+        verify(catalogSyncStateRepository, never()).save(org.mockito.ArgumentMatchers.any());
+        verify(referenceDataCache).refreshAfterCommit();
+    }
+
+    @Test
+    void appliesSetBasedSyncUnderLockOnPostgres() {
+        when(catalogSyncStateRepository.findChecksum("problem-catalog")).thenReturn(Optional.of("stale"));
+        when(databasePlatform.isPostgres()).thenReturn(true);
+
+        service.syncCanonicalCatalog();
+
+        InOrder order = inOrder(catalogSyncStateRepository, topicRepository, patternRepository);
+        order.verify(catalogSyncStateRepository).lockForTransaction(anyLong());
+        order.verify(patternRepository).pruneCatalog(anyString());
+        order.verify(topicRepository).upsertCatalog(anyString());
+        order.verify(patternRepository).upsertCatalog(anyString());
+        order.verify(topicRepository).pruneCatalog(anyString());
+        order.verify(catalogSyncStateRepository).save(argThat((CatalogSyncState state) ->
+                state.getChecksum().equals(ProblemCatalogSyncService.CHECKSUM)));
+        verify(topicRepository, never()).findByName(anyString());
+        verify(referenceDataCache).refreshAfterCommit();
+    }
+
+    @Test
+    void skipsSyncWhenAnotherNodeAppliedItWhileWaitingForTheLock() {
+        when(catalogSyncStateRepository.findChecksum("problem-catalog"))
+                .thenReturn(Optional.empty(), Optional.of(ProblemCatalogSyncService.CHECKSUM));
+        when(databasePlatform.isPostgres()).thenReturn(true);
+
+        service.syncCanonicalCatalog();
+
+        verify(catalogSyncStateRepository).lockForTransaction(anyLong());
+        verifyNoInteractions(topicRepository, patternRepository);
+        verify(catalogSyncStateRepository, never()).save(org.mockito.ArgumentMatchers.any());
+    }
+}
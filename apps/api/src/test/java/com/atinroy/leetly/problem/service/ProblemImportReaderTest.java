@@ -0,0 +1,100 @@
+package com.atinroy.leetly.problem.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProblemImportReaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void json_readsArrayAndNewlineDelimitedRowsAlike() throws IOException {
+        String array = """
+                [{"leetcodeId": 1, "title": "Two Sum", "url": "u", "difficulty": "Easy", "extra": true},
+                 {"leetcodeId": 2, "title": "Add Two Numbers", "url": "u", "difficulty": "MEDIUM", "topics": ["Math"]}]
+                """;
+        String ndjson = """
+                {"leetcodeId": 1, "title": "Two Sum", "url": "u", "difficulty": "Easy", "extra": true}
+                {"leetcodeId": 2, "title": "Add Two Numbers", "url": "u", "difficulty": "MEDIUM", "topics": ["Math"]}
+                """;
+
+        List<ProblemImportReader.Entry> fromArray = readAll(ProblemImportReader.json(objectMapper, stream(array)));
+        List<ProblemImportReader.Entry> fromLines = readAll(ProblemImportReader.json(objectMapper, stream(ndjson)));
+
+        assertThat(fromArray).isEqualTo(fromLines).hasSize(2);
+        assertThat(fromArray.get(1).row().topics()).containsExactly("Math");
+    }
+
+    @Test
+    void json_rejectsBadRowAndContinues() throws IOException {
+        String body = """
+                {"leetcodeId": "abc", "title": "Bad"}
+                {"leetcodeId": 3, "title": "Longest Substring", "url": "u", "difficulty": "MEDIUM"}
+                """;
+
+        List<ProblemImportReader.Entry> entries = readAll(ProblemImportReader.json(objectMapper, stream(body)));
+
+        assertThat(entries).hasSize(2);
+        assertThat(entries.get(0).error()).isNotNull();
+        assertThat(entries.get(1).row().leetcodeId()).isEqualTo(3L);
+    }
+
+    @Test
+    void json_failsOnMalformedInput() throws IOException {
+        ProblemImportReader reader = ProblemImportReader.json(objectMapper, stream("[{\"leetcodeId\": 1,,}]"));
+
+        assertThatThrownBy(reader::next)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Malformed JSON at line 1");
+    }
+
+    @Test
+    void csv_readsQuotedFieldsAndNameLists() throws IOException {
+        String body = "﻿Id,Title,URL,Difficulty,Status,Tags\r\n"
+                + "1,\"Two Sum, Again\",https://leetcode.com/problems/two-sum/,Easy,,Array;Hash Table\r\n"
+                + "\r\n"
+                + "2,\"Say \"\"Hi\"\"\nTwice\",u,Hard,solved,\n"
+                + "x,Bad,u,Easy,,\n";
+
+        List<ProblemImportReader.Entry> entries = readAll(ProblemImportReader.csv(stream(body)));
+
+        assertThat(entries).hasSize(3);
+        assertThat(entries.get(0).row().leetcodeId()).isEqualTo(1L);
+        assertThat(entries.get(0).row().title()).isEqualTo("Two Sum, Again");
+        assertThat(entries.get(0).row().topics()).containsExactly("Array", "Hash Table");
+        assertThat(entries.get(1).row().title()).isEqualTo("Say \"Hi\"\nTwice");
+        assertThat(entries.get(1).row().topics()).isEmpty();
+        assertThat(entries.get(2).error()).isEqualTo("leetcodeId is not a number: x");
+    }
+
+    @Test
+    void csv_requiresHeaderColumns() {
+        ProblemImportReader reader = ProblemImportReader.csv(stream("id,title\n1,Two Sum\n"));
+
+        assertThatThrownBy(reader::next)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("url");
+    }
+
+    private static List<ProblemImportReader.Entry> readAll(ProblemImportReader reader) throws IOException {
+        List<ProblemImportReader.Entry> entries = new ArrayList<>();
+        ProblemImportReader.Entry entry;
+        while ((entry = reader.next()) != null) {
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
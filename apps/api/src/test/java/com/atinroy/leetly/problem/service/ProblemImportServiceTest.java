@@ -0,0 +1,164 @@
+package com.atinroy.leetly.problem.service;
+
+import com.atinroy.leetly.common.service.ReferenceDataCache;
+import com.atinroy.leetly.problem.dto.ProblemImportError;
+import com.atinroy.leetly.problem.dto.ProblemImportProgress;
+import com.atinroy.leetly.problem.model.Topic;
+import com.atinroy.leetly.user.model.User;
+import com.atinroy.leetly.user.repository.ProblemListRepository;
+import com.atinroy.leetly.user.service.StatsService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProblemImportServiceTest {
+
+    @Mock
+    NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Mock
+    JdbcTemplate jdbcTemplate;
+
+    @Mock
+    ProblemListRepository problemListRepository;
+
+    @Mock
+    StatsService statsService;
+
+    @Mock
+    ReferenceDataCache referenceDataCache;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void importRows_writesBatchesAndTalliesDuplicatesAndRejections() throws Exception {
+        User user = new User();
+        user.setId(1L);
+        Topic array = new Topic();
+        array.setId(5L);
+        array.setName("Array");
+        array.setMaskBit(0);
+        when(referenceDataCache.current()).thenReturn(
+                ReferenceDataCache.Snapshot.of(1, List.of(array), List.of(), List.of(), objectMapper));
+        when(problemListRepository.findDefaultIdByUser(user)).thenReturn(Optional.of(7L));
+        when(namedJdbcTemplate.getJdbcTemplate()).thenReturn(jdbcTemplate);
+        // The first batch is new; problem 4 of the second batch already exists.
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT INTO problems"), anyList()))
+                .thenReturn(new int[]{1, 1}, new int[]{0});
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(2);
+            handler.processRow(row(1L, 101L));
+            handler.processRow(row(2L, 102L));
+            return null;
+        }).when(namedJdbcTemplate).query(anyString(), anyMap(), any(RowCallbackHandler.class));
+
+        String csv = """
+                leetcodeId,title,url,difficulty,status,topics
+                1,Two Sum,https://leetcode.com/problems/two-sum/,Easy,,Array;Unknown
+                1,Two Sum,https://leetcode.com/problems/two-sum/,Easy,,
+                2,Add Two Numbers,https://leetcode.com/problems/add-two-numbers/,Medium,solved with help,
+                3,Bad,https://leetcode.com/problems/bad/,Impossible,,
+                4,Median of Two Sorted Arrays,https://leetcode.com/problems/median/,Hard,,
+                """;
+        List<ProblemImportProgress> events = new ArrayList<>();
+        ProblemImportService service = new ProblemImportService(namedJdbcTemplate, problemListRepository,
+                statsService, referenceDataCache, objectMapper, transactionManager, new SimpleMeterRegistry(), 2);
+
+        ProblemImportProgress done = service.importRows(user,
+                ProblemImportReader.csv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))), events::add);
+
+        assertThat(events).containsExactly(new ProblemImportProgress(3, 2, 1, 0, List.of(), false, null));
+        assertThat(done.processed()).isEqualTo(5);
+        assertThat(done.imported()).isEqualTo(2);
+        assertThat(done.duplicates()).isEqualTo(2);
+        assertThat(done.rejected()).isEqualTo(1);
+        assertThat(done.errors()).extracting(ProblemImportError::row).containsExactly(4L);
+        assertThat(done.done()).isTrue();
+        assertThat(done.failure()).isNull();
+
+        // Imports start UNSEEN like created problems, whatever the status column says.
+        ArgumentCaptor<List<Object[]>> problems = listCaptor();
+        verify(jdbcTemplate, times(2)).batchUpdate(startsWith("INSERT INTO problems"), problems.capture());
+        assertThat(problems.getAllValues().stream().flatMap(List::stream).map(row -> row[5]))
+                .containsOnly("UNSEEN");
+        ArgumentCaptor<List<Object[]>> topics = listCaptor();
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO problem_topics"), topics.capture());
+        assertThat(topics.getValue()).containsExactly(new Object[]{101L, 5L});
+        ArgumentCaptor<List<Object[]>> entries = listCaptor();
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO problem_list_problems"), entries.capture());
+        assertThat(entries.getValue()).containsExactly(new Object[]{7L, 101L}, new Object[]{7L, 102L});
+        verify(jdbcTemplate, never()).batchUpdate(startsWith("INSERT INTO problem_patterns"), anyList());
+        verify(namedJdbcTemplate, times(1)).query(anyString(), anyMap(), any(RowCallbackHandler.class));
+        verify(statsService).markStale(user);
+    }
+
+    @Test
+    void importRows_keepsCommittedRowsWhenInputTurnsMalformed() throws Exception {
+        User user = new User();
+        when(referenceDataCache.current()).thenReturn(
+                ReferenceDataCache.Snapshot.of(1, List.of(), List.of(), List.of(), objectMapper));
+        when(problemListRepository.findDefaultIdByUser(user)).thenReturn(Optional.of(7L));
+        when(namedJdbcTemplate.getJdbcTemplate()).thenReturn(jdbcTemplate);
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT INTO problems"), anyList())).thenReturn(new int[]{0});
+
+        String json = """
+                {"leetcodeId": 1, "title": "Two Sum", "url": "u", "difficulty": "EASY"}
+                {"leetcodeId": 2,,
+                """;
+        ProblemImportService service = new ProblemImportService(namedJdbcTemplate, problemListRepository,
+                statsService, referenceDataCache, objectMapper, transactionManager, new SimpleMeterRegistry(), 500);
+
+        ProblemImportProgress done = service.importRows(user, ProblemImportReader.json(objectMapper,
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8))), event -> {});
+
+        assertThat(done.processed()).isEqualTo(1);
+        assertThat(done.duplicates()).isEqualTo(1);
+        assertThat(done.failure()).startsWith("Malformed JSON at line 2");
+        verify(statsService, never()).markStale(eq(user));
+    }
+
+    private static ResultSet row(long leetcodeId, long id) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong("leetcode_id")).thenReturn(leetcodeId);
+        when(rs.getLong("id")).thenReturn(id);
+        return rs;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<List<Object[]>> listCaptor() {
+        return ArgumentCaptor.forClass(List.class);
+    }
+}
@@ -0,0 +1,71 @@
+package com.atinroy.leetly.problem.service;
+
+import com.atinroy.leetly.problem.model.Problem;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProblemKeysetTest {
+
+    private Problem problem(long id, LocalDateTime lastAttemptedAt) {
+        Problem p = new Problem();
+        p.setId(id);
+        p.setCreatedDate(LocalDateTime.of(2026, 1, 1, 9, 0));
+        p.setLastAttemptedAt(lastAttemptedAt);
+        return p;
+    }
+
+    @Test
+    void of_defaultsToNewestCreatedFirst() {
+        ProblemKeyset keyset = ProblemKeyset.of(Sort.unsorted());
+
+        assertThat(keyset.sort()).containsExactly(Sort.Order.desc("createdDate"), Sort.Order.desc("id"));
+    }
+
+    @Test
+    void of_rejectsUnsupportedSort() {
+        assertThatThrownBy(() -> ProblemKeyset.of(Sort.by("title")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void sort_putsNeverAttemptedLastWhenDescending() {
+        Sort.Order key = ProblemKeyset.of(Sort.by(Sort.Direction.DESC, "lastAttemptedAt")).sort().iterator().next();
+
+        assertThat(key.getNullHandling()).isEqualTo(Sort.NullHandling.NULLS_LAST);
+    }
+
+    @Test
+    void cursor_roundTripsForTheSortItWasIssuedFor() {
+        ProblemKeyset keyset = ProblemKeyset.of(Sort.by(Sort.Direction.DESC, "lastAttemptedAt"));
+        String valued = keyset.cursorAfter(problem(7L, LocalDateTime.of(2026, 3, 4, 5, 6, 7)));
+        String neverAttempted = keyset.cursorAfter(problem(8L, null));
+
+        assertThat(valued).doesNotContain("|", "=");
+        assertThatNoException().isThrownBy(() -> keyset.after(valued));
+        assertThatNoException().isThrownBy(() -> keyset.after(neverAttempted));
+    }
+
+    @Test
+    void cursor_isRejectedForADifferentSort() {
+        String cursor = ProblemKeyset.of(Sort.by(Sort.Direction.DESC, "createdDate")).cursorAfter(problem(7L, null));
+
+        assertThatThrownBy(() -> ProblemKeyset.of(Sort.by(Sort.Direction.ASC, "createdDate")).after(cursor))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("sort");
+    }
+
+    @Test
+    void cursor_rejectsGarbage() {
+        ProblemKeyset keyset = ProblemKeyset.of(Sort.unsorted());
+
+        assertThatThrownBy(() -> keyset.after("not a cursor!"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+    }
+}
@@ -0,0 +1,45 @@
+package com.atinroy.leetly.problem.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProblemSearchIndexTest {
+
+    private final ProblemSearchIndex index = ProblemSearchIndex.of(List.of(
+            new Object[]{1L, 371L, "Sum of Two Integers"},
+            new Object[]{2L, 1L, "Two Sum"},
+            new Object[]{3L, 704L, "Binary Search"},
+            new Object[]{4L, 15L, "3Sum"}));
+
+    private List<Long> search(String query) {
+        return index.search(ProblemSearchIndex.normalize(query), 10);
+    }
+
+    @Test
+    void matchesWordPrefixesForTypeahead() {
+        assertThat(search("bin sea")).containsExactly(3L);
+    }
+
+    @Test
+    void toleratesTypos() {
+        assertThat(search("Binary Serch")).containsExactly(3L);
+    }
+
+    @Test
+    void ranksExactLeetcodeIdFirst() {
+        assertThat(search("1").getFirst()).isEqualTo(2L);
+    }
+
+    @Test
+    void ranksTitlesStartingWithTheQueryFirst() {
+        assertThat(search("sum")).startsWith(1L).contains(2L).doesNotContain(3L);
+    }
+
+    @Test
+    void prefixQueryRequiresEveryWord() {
+        assertThat(ProblemSearchIndex.prefixQuery(ProblemSearchIndex.normalize("Two-Sum!"))).isEqualTo("two:* & sum:*");
+    }
+}
@@ -1,11 +1,14 @@
 package com.atinroy.leetly.problem.service;
 
-import com.atinroy.leetly.user.model.ProblemList;
+import com.atinroy.leetly.common.service.ReferenceDataCache;
 import com.atinroy.leetly.user.repository.ProblemListRepository;
 import com.atinroy.leetly.user.model.User;
+import com.atinroy.leetly.user.service.StatsService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -18,14 +21,17 @@ import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import com.atinroy.leetly.problem.dto.CreateProblemRequest;
 import com.atinroy.leetly.problem.model.Difficulty;
 import com.atinroy.leetly.problem.model.Problem;
+import com.atinroy.leetly.problem.model.Topic;
 import com.atinroy.leetly.problem.repository.AttemptRepository;
 import com.atinroy.leetly.problem.repository.ProblemRepository;
 import com.atinroy.leetly.review.repository.ReviewCardRepository;
+import com.atinroy.leetly.review.service.ReviewQueueCache;
 
 @ExtendWith(MockitoExtension.class)
 class ProblemServiceTest {
@@ -48,6 +54,18 @@ class ProblemServiceTest {
     @Mock
     ReviewCardRepository reviewCardRepository;
 
+    @Mock
+    StatsService statsService;
+
+    @Mock
+    AttemptEventService attemptEventService;
+
+    @Mock
+    ReviewQueueCache reviewQueueCache;
+
+    @Mock
+    ReferenceDataCache referenceDataCache;
+
     @InjectMocks
     ProblemService problemService;
 
@@ -56,17 +74,12 @@ class ProblemServiceTest {
         User user = new User();
         user.setId(1L);
 
-        ProblemList defaultList = new ProblemList();
-        defaultList.setUser(user);
-        defaultList.setDefault(true);
-
         when(problemRepository.save(any(Problem.class))).thenAnswer(invocation -> {
             Problem problem = invocation.getArgument(0);
             problem.setId(42L);
             return problem;
         });
-        when(problemListRepository.findByUserAndIsDefaultTrue(user)).thenReturn(Optional.of(defaultList));
-        when(problemListRepository.save(any(ProblemList.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(problemListRepository.findDefaultIdByUser(user)).thenReturn(Optional.of(7L));
 
         Problem created = problemService.create(
                 new CreateProblemRequest(1L, "Two Sum", "https://leetcode.com/problems/two-sum/", Difficulty.EASY, null),
@@ -74,11 +87,7 @@ class ProblemServiceTest {
         );
 
         assertThat(created.getId()).isEqualTo(42L);
-        assertThat(defaultList.getProblems()).contains(created);
-
-        ArgumentCaptor<ProblemList> listCaptor = ArgumentCaptor.forClass(ProblemList.class);
-        verify(problemListRepository).save(listCaptor.capture());
-        assertThat(listCaptor.getValue().getProblems()).contains(created);
+        verify(problemListRepository).addProblem(7L, 42L);
     }
 
     @Test
@@ -96,6 +105,8 @@ class ProblemServiceTest {
                 null,
                 null,
                 null,
+                null,
+                null,
                 null
         );
 
@@ -107,4 +118,54 @@ class ProblemServiceTest {
         assertThat(appliedOrder).isNotNull();
         assertThat(appliedOrder.getNullHandling()).isEqualTo(Sort.NullHandling.NULLS_LAST);
     }
+
+    @Test
+    void topicChanges_keepTopicMaskInStep() {
+        User user = new User();
+        user.setId(1L);
+        Problem problem = new Problem();
+        problem.setId(10L);
+        Topic array = topic(100L, 0);
+        Topic graph = topic(101L, 5);
+        problem.getTopics().add(array);
+        problem.setTopicMask(1L);
+
+        when(problemRepository.findByIdAndUser(10L, user)).thenReturn(Optional.of(problem));
+        when(referenceDataCache.current()).thenReturn(ReferenceDataCache.Snapshot.of(
+                1, java.util.List.of(array, graph), java.util.List.of(), java.util.List.of(), new ObjectMapper()));
+        when(topicService.reference(101L)).thenReturn(graph);
+        when(problemRepository.save(problem)).thenReturn(problem);
+
+        problemService.addTopic(10L, 101L, user);
+        assertThat(problem.getTopicMask()).isEqualTo(0b100001L);
+
+        problemService.removeTopics(10L, java.util.List.of(100L), user);
+        assertThat(problem.getTopicMask()).isEqualTo(0b100000L);
+    }
+
+    @Test
+    void delete_appliesQueuedAttemptEventsBeforeTheCascadeRemovesTheirAttempts() {
+        User user = new User();
+        user.setId(1L);
+        Problem problem = new Problem();
+        problem.setId(10L);
+
+        when(problemRepository.findByIdAndUser(10L, user)).thenReturn(Optional.of(problem));
+
+        problemService.delete(10L, user);
+
+        InOrder order = inOrder(attemptEventService, problemRepository, statsService);
+        order.verify(attemptEventService).drainUser(user);
+        order.verify(problemRepository).delete(problem);
+        order.verify(statsService).markStale(user);
+        verify(reviewQueueCache).invalidate(1L);
+    }
+
+    private Topic topic(long id, Integer maskBit) {
+        Topic topic = new Topic();
+        topic.setId(id);
+        topic.setName("Topic " + id);
+        topic.setMaskBit(maskBit);
+        return topic;
+    }
 }
@@ -0,0 +1,59 @@
+package com.atinroy.leetly.review.service;
+
+import com.atinroy.leetly.review.repository.DailyReviewQueueRepository;
+import com.atinroy.leetly.user.repository.UserSettingsRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DailyReviewQueueJobTest {
+
+    @Mock
+    UserSettingsRepository userSettingsRepository;
+
+    @Mock
+    DailyReviewQueueRepository dailyReviewQueueRepository;
+
+    @Mock
+    DailyReviewQueueService dailyReviewQueueService;
+
+    DailyReviewQueueJob job;
+
+    @BeforeEach
+    void setUp() {
+        job = new DailyReviewQueueJob(userSettingsRepository, dailyReviewQueueRepository, dailyReviewQueueService,
+                new SimpleMeterRegistry(), 60, 500);
+    }
+
+    @Test
+    void run_buildsEachTimezoneUpToItsCurrentSlot() {
+        // 15:20 UTC is 00:20 on June 2 in Tokyo and 17:20 on June 1 in Berlin.
+        Instant now = Instant.parse("2026-06-01T15:20:00Z");
+        when(userSettingsRepository.findDistinctTimezones()).thenReturn(List.of("Asia/Tokyo", "Europe/Berlin"));
+        when(dailyReviewQueueRepository.findUserIdsToMaterialize(eq("Asia/Tokyo"), eq(60L), eq(20L),
+                eq(LocalDate.of(2026, 6, 2)), any())).thenReturn(List.of(3L, 80L));
+        when(dailyReviewQueueRepository.findUserIdsToMaterialize(eq("Europe/Berlin"), eq(60L), eq(59L),
+                eq(LocalDate.of(2026, 6, 1)), any())).thenReturn(List.of());
+
+        int built = job.run(now);
+
+        assertThat(built).isEqualTo(2);
+        verify(dailyReviewQueueService).materialize(3L, ZoneId.of("Asia/Tokyo"), LocalDate.of(2026, 6, 2));
+        verify(dailyReviewQueueService).materialize(80L, ZoneId.of("Asia/Tokyo"), LocalDate.of(2026, 6, 2));
+    }
+}
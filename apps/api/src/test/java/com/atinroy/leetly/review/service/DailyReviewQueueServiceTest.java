@@ -0,0 +1,163 @@
+package com.atinroy.leetly.review.service;
+
+import com.atinroy.leetly.problem.model.Difficulty;
+import com.atinroy.leetly.problem.model.Problem;
+import com.atinroy.leetly.review.dto.DailyReviewQueueDto;
+import com.atinroy.leetly.review.dto.DailyReviewQueueEntryDto;
+import com.atinroy.leetly.review.model.DailyReviewQueue;
+import com.atinroy.leetly.review.model.ReviewCard;
+import com.atinroy.leetly.review.repository.DailyReviewQueueRepository;
+import com.atinroy.leetly.review.repository.ReviewCardRepository;
+import com.atinroy.leetly.user.model.User;
+import com.atinroy.leetly.user.model.UserSettings;
+import com.atinroy.leetly.user.repository.UserRepository;
+import com.atinroy.leetly.user.repository.UserSettingsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DailyReviewQueueServiceTest {
+
+    private static final ZoneId TOKYO = ZoneId.of("Asia/Tokyo");
+
+    @Mock
+    DailyReviewQueueRepository dailyReviewQueueRepository;
+
+    @Mock
+    ReviewCardRepository reviewCardRepository;
+
+    @Mock
+    UserRepository userRepository;
+
+    @Mock
+    UserSettingsRepository userSettingsRepository;
+
+    @Mock
+    ReviewService reviewService;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    DailyReviewQueueService dailyReviewQueueService;
+
+    @BeforeEach
+    void setUp() {
+        dailyReviewQueueService = new DailyReviewQueueService(dailyReviewQueueRepository, reviewCardRepository,
+                userRepository, userSettingsRepository, reviewService, transactionManager, 200);
+    }
+
+    private User user() {
+        User user = new User();
+        user.setId(1L);
+        return user;
+    }
+
+    private ReviewCard card(long id, String title, Difficulty difficulty, LocalDateTime due) {
+        Problem problem = new Problem();
+        problem.setId(id * 10);
+        problem.setLeetcodeId(id * 100);
+        problem.setTitle(title);
+        problem.setDifficulty(difficulty);
+        ReviewCard card = new ReviewCard();
+        card.setId(id);
+        card.setProblem(problem);
+        card.setDue(due);
+        return card;
+    }
+
+    @Test
+    void materialize_storesDueCardsInOrderWithProblemFields() {
+        User user = user();
+        LocalDate date = LocalDate.of(2026, 6, 1);
+        LocalDateTime due = LocalDateTime.of(2026, 5, 31, 8, 0);
+        when(reviewCardRepository.findDueByUser(eq(user), eq(DailyReviewQueueService.endOfDay(TOKYO, date)), any()))
+                .thenReturn(List.of(card(2L, "Two Sum", Difficulty.EASY, due),
+                        card(1L, "LRU Cache", Difficulty.MEDIUM, due.plusHours(1))));
+        when(dailyReviewQueueRepository.findByUser(user)).thenReturn(Optional.empty());
+        when(dailyReviewQueueRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        DailyReviewQueue queue = dailyReviewQueueService.materialize(user, TOKYO, date);
+
+        assertThat(queue.getQueueDate()).isEqualTo(date);
+        assertThat(queue.getTimezone()).isEqualTo("Asia/Tokyo");
+        assertThat(queue.getCardIds()).containsExactly(2L, 1L);
+        assertThat(queue.getProblemIds()).containsExactly(20L, 10L);
+        assertThat(queue.getLeetcodeIds()).containsExactly(200L, 100L);
+        assertThat(queue.getTitles()).containsExactly("Two Sum", "LRU Cache");
+        assertThat(queue.getDifficulties()).containsExactly("EASY", "MEDIUM");
+        assertThat(queue.getDueDates()).containsExactly(due, due.plusHours(1));
+    }
+
+    @Test
+    void getToday_servesStoredQueue_withoutCardsReviewedSince() {
+        User user = user();
+        UserSettings settings = new UserSettings();
+        settings.setTimezone("Asia/Tokyo");
+        LocalDate today = LocalDate.now(TOKYO);
+        DailyReviewQueue queue = new DailyReviewQueue();
+        queue.setQueueDate(today);
+        queue.setTimezone("Asia/Tokyo");
+        queue.setGeneratedAt(LocalDateTime.now());
+        queue.setCardIds(new long[]{2L, 1L});
+        queue.setProblemIds(new long[]{20L, 10L});
+        queue.setLeetcodeIds(new long[]{200L, 100L});
+        queue.setTitles(new String[]{"Two Sum", "LRU Cache"});
+        queue.setDifficulties(new String[]{"EASY", "MEDIUM"});
+        queue.setDueDates(new LocalDateTime[]{LocalDateTime.now(), LocalDateTime.now()});
+        when(userSettingsRepository.findByUser(user)).thenReturn(Optional.of(settings));
+        when(dailyReviewQueueRepository.findByUser(user)).thenReturn(Optional.of(queue));
+        // Card 2 was reviewed this morning and is no longer due today.
+        when(reviewService.findDueAmong(user, List.of(2L, 1L), DailyReviewQueueService.endOfDay(TOKYO, today)))
+                .thenReturn(Set.of(1L));
+
+        DailyReviewQueueDto dto = dailyReviewQueueService.getToday(user);
+
+        assertThat(dto.date()).isEqualTo(today);
+        assertThat(dto.cards()).extracting(DailyReviewQueueEntryDto::cardId).containsExactly(1L);
+        assertThat(dto.cards().getFirst().difficulty()).isEqualTo(Difficulty.MEDIUM);
+        verify(reviewCardRepository, never()).findDueByUser(any(), any(), any());
+    }
+
+    @Test
+    void getToday_buildsMissingQueue_withoutRecheckingItsCards() {
+        User user = user();
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        LocalDateTime due = LocalDateTime.now().minusHours(1);
+        when(userSettingsRepository.findByUser(user)).thenReturn(Optional.empty());
+        when(dailyReviewQueueRepository.findByUser(user)).thenReturn(Optional.empty());
+        when(reviewCardRepository.findDueByUser(eq(user), eq(DailyReviewQueueService.endOfDay(ZoneOffset.UTC, today)), any()))
+                .thenReturn(List.of(card(2L, "Two Sum", Difficulty.EASY, due)));
+        when(dailyReviewQueueRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        DailyReviewQueueDto dto = dailyReviewQueueService.getToday(user);
+
+        assertThat(dto.date()).isEqualTo(today);
+        assertThat(dto.cards()).extracting(DailyReviewQueueEntryDto::cardId).containsExactly(2L);
+        verify(reviewService, never()).findDueAmong(any(), any(), any());
+    }
+
+    @Test
+    void parseZone_fallsBackToUtc_forUnknownIds() {
+        assertThat(DailyReviewQueueService.parseZone("Mars/Olympus")).isEqualTo(ZoneOffset.UTC);
+        assertThat(DailyReviewQueueService.parseZone("Europe/Berlin")).isEqualTo(ZoneId.of("Europe/Berlin"));
+    }
+}
@@ -0,0 +1,78 @@
+package com.atinroy.leetly.review.service;
+
+import com.atinroy.leetly.review.model.Rating;
+import com.atinroy.leetly.review.model.ReviewLogFacts;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FsrsOptimizerTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 9, 0);
+
+    private final FsrsOptimizer optimizer = new FsrsOptimizer(20, 100, 2);
+
+    @AfterEach
+    void tearDown() {
+        optimizer.shutdown();
+    }
+
+    // Cards learned on day 0, then reviewed every `interval` days and recalled with `recall` probability.
+    private List<ReviewLogFacts> history(int cards, int reviewsPerCard, int interval, double recall, long seed) {
+        Random random = new Random(seed);
+        List<ReviewLogFacts> logs = new ArrayList<>();
+        for (long card = 1; card <= cards; card++) {
+            LocalDateTime at = START.plusMinutes(card);
+            logs.add(new ReviewLogFacts(card, Rating.GOOD, at));
+            logs.add(new ReviewLogFacts(card, Rating.GOOD, at.plusMinutes(10)));
+            for (int r = 1; r <= reviewsPerCard; r++) {
+                Rating rating = random.nextDouble() < recall ? Rating.GOOD : Rating.AGAIN;
+                logs.add(new ReviewLogFacts(card, rating, at.plusDays((long) r * interval)));
+                if (rating == Rating.AGAIN) {
+                    logs.add(new ReviewLogFacts(card, Rating.GOOD, at.plusDays((long) r * interval).plusMinutes(1)));
+                }
+            }
+        }
+        return logs;
+    }
+
+    @Test
+    void trainingSet_groupsReviewsByCard() {
+        List<ReviewLogFacts> logs = history(3, 2, 5, 1.0, 1);
+
+        FsrsOptimizer.TrainingSet set = FsrsOptimizer.TrainingSet.from(logs.stream());
+
+        assertThat(set.reviews()).isEqualTo(logs.size());
+    }
+
+    @Test
+    void fit_keepsDefaults_whenHistoryIsTooShort() {
+        FsrsOptimizer.Fit fit = optimizer.fit(FsrsOptimizer.TrainingSet.from(history(5, 3, 5, 0.9, 1).stream()));
+
+        assertThat(fit.trained()).isFalse();
+        assertThat(fit.predictions()).isEqualTo(15);
+        assertThat(fit.weights()).containsExactly(FsrsScheduler.Parameters.DEFAULT.weights());
+    }
+
+    @Test
+    void fit_beatsDefaults_whenUserForgetsFasterThanDefaultsPredict() {
+        FsrsOptimizer.TrainingSet set = FsrsOptimizer.TrainingSet.from(history(200, 4, 20, 0.55, 42).stream());
+
+        FsrsOptimizer.Fit fit = optimizer.fit(set);
+
+        assertThat(fit.trained()).isTrue();
+        assertThat(fit.predictions()).isEqualTo(800);
+        assertThat(fit.logLoss()).isLessThan(fit.defaultLogLoss());
+        double[] defaults = FsrsScheduler.Parameters.DEFAULT.weights();
+        for (int j = 0; j < defaults.length; j++) {
+            assertThat(fit.weights()[j]).isBetween(defaults[j] / FsrsOptimizer.MAX_RATIO - 1e-9,
+                    defaults[j] * FsrsOptimizer.MAX_RATIO + 1e-9);
+        }
+    }
+}
@@ -5,9 +5,15 @@ import com.atinroy.leetly.review.model.Rating;
 import com.atinroy.leetly.review.model.ReviewCard;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class FsrsSchedulerTest {
 
@@ -123,6 +129,136 @@ class FsrsSchedulerTest {
         assertThat(second.stability()).isGreaterThan(firstStability);
     }
 
+    @Test
+    void fuzzRange_widensWithInterval_andLeavesShortIntervalsAlone() {
+        assertThat(FsrsScheduler.fuzzRange(1)).containsExactly(1, 1);
+        assertThat(FsrsScheduler.fuzzRange(2)).containsExactly(2, 2);
+        assertThat(FsrsScheduler.fuzzRange(3)).containsExactly(2, 4);
+        assertThat(FsrsScheduler.fuzzRange(10)).containsExactly(8, 12);
+        assertThat(FsrsScheduler.fuzzRange(100)).containsExactly(93, 107);
+
+        for (int interval = 3; interval <= 3650; interval++) {
+            int[] range = FsrsScheduler.fuzzRange(interval);
+            assertThat(range[0]).isLessThanOrEqualTo(interval).isGreaterThanOrEqualTo(2);
+            assertThat(range[1]).isGreaterThanOrEqualTo(interval);
+        }
+    }
+
+    @Test
+    void scheduleBatch_matchesPerCardSchedule_forRandomCards() {
+        Random random = new Random(42);
+        int size = 5_000;
+        LocalDateTime now = LocalDateTime.of(2026, 3, 15, 9, 30, 12, 250_000_000);
+        List<ReviewCard> cards = new ArrayList<>(size);
+        byte[] ratings = new byte[size];
+        FsrsScheduler.CardBatch batch = new FsrsScheduler.CardBatch(size);
+        for (int i = 0; i < size; i++) {
+            ReviewCard card = randomCard(random, now);
+            cards.add(card);
+            ratings[i] = (byte) (1 + random.nextInt(4));
+            batch.set(i, card);
+        }
+
+        scheduler.scheduleBatch(batch, ratings, now);
+
+        for (int i = 0; i < size; i++) {
+            ReviewCard card = cards.get(i);
+            FsrsScheduler.SchedulingResult expected = scheduler.schedule(card, rating(ratings[i]), now);
+            assertThat(batch.result(i, now)).as("card %d", i).isEqualTo(expected);
+            if (card.getState() != CardState.NEW) {
+                long days = card.getLastReview() == null ? 0 : Duration.between(card.getLastReview(), now).toDays();
+                assertThat(expected.elapsedDays()).isEqualTo((int) Math.max(0, days));
+            }
+            if (expected.scheduledDays() > 0) {
+                assertThat(expected.due()).isEqualTo(now.plusDays(expected.scheduledDays()));
+            } else {
+                assertThat(Duration.between(now, expected.due()).toMinutes()).isIn(1L, 5L, 10L);
+            }
+        }
+    }
+
+    @Test
+    void scheduleBatch_rescheduledInPlace_matchesRepeatedPerCardSchedule() {
+        Random random = new Random(7);
+        int size = 500;
+        LocalDateTime now = LocalDateTime.of(2026, 1, 1, 8, 0);
+        List<ReviewCard> cards = new ArrayList<>(size);
+        FsrsScheduler.CardBatch batch = new FsrsScheduler.CardBatch(size);
+        for (int i = 0; i < size; i++) {
+            cards.add(newCard());
+            batch.set(i, cards.get(i));
+        }
+
+        byte[] ratings = new byte[size];
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < size; i++) {
+                ratings[i] = (byte) (1 + random.nextInt(4));
+            }
+            scheduler.scheduleBatch(batch, ratings, now);
+            for (int i = 0; i < size; i++) {
+                ReviewCard card = cards.get(i);
+                FsrsScheduler.SchedulingResult expected = scheduler.schedule(card, rating(ratings[i]), now);
+                assertThat(batch.result(i, now)).as("round %d card %d", round, i).isEqualTo(expected);
+                applyResult(card, expected, now);
+                batch.lastReviewSeconds[i] = now.toEpochSecond(ZoneOffset.UTC);
+                batch.lastReviewNanos[i] = now.getNano();
+            }
+            now = now.plusHours(1 + random.nextInt(24 * 30)).plusSeconds(random.nextInt(3600));
+        }
+    }
+
+    @Test
+    void schedule_withParameters_usesThoseWeights() {
+        ReviewCard card = newCard();
+        LocalDateTime now = LocalDateTime.of(2026, 1, 1, 0, 0);
+        double[] weights = FsrsScheduler.Parameters.DEFAULT.weights();
+        weights[2] = 20.0;
+
+        FsrsScheduler.SchedulingResult defaults = scheduler.schedule(card, Rating.GOOD, now);
+        FsrsScheduler.SchedulingResult copied = scheduler.schedule(card, Rating.GOOD, now,
+                FsrsScheduler.Parameters.of(FsrsScheduler.Parameters.DEFAULT.weights()));
+        FsrsScheduler.SchedulingResult custom = scheduler.schedule(card, Rating.GOOD, now,
+                FsrsScheduler.Parameters.of(weights));
+
+        assertThat(copied).isEqualTo(defaults);
+        assertThat(custom.stability()).isEqualTo(20.0);
+        assertThatThrownBy(() -> FsrsScheduler.Parameters.of(new double[3]))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void scheduleBatch_rejectsMissingRatings() {
+        FsrsScheduler.CardBatch batch = new FsrsScheduler.CardBatch(3);
+
+        assertThatThrownBy(() -> scheduler.scheduleBatch(batch, new byte[2], LocalDateTime.now()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private ReviewCard randomCard(Random random, LocalDateTime now) {
+        ReviewCard card = newCard();
+        CardState[] states = CardState.values();
+        card.setState(states[random.nextInt(states.length)]);
+        if (card.getState() == CardState.NEW) {
+            return card;
+        }
+        card.setStability(0.01 + random.nextDouble() * 400);
+        card.setDifficulty(random.nextDouble());
+        card.setReps(1 + random.nextInt(50));
+        card.setLapses(random.nextInt(10));
+        card.setScheduledDays(random.nextInt(365));
+        card.setElapsedDays(random.nextInt(365));
+        if (random.nextInt(20) > 0) {
+            // Offsets straddle whole-day boundaries and run slightly into the future.
+            card.setLastReview(now.minusSeconds(random.nextLong(-3_600, 400L * 86_400))
+                    .withNano(random.nextInt(1_000_000_000)));
+        }
+        return card;
+    }
+
+    private Rating rating(byte value) {
+        return Rating.values()[value - 1];
+    }
+
     private void applyResult(ReviewCard card, FsrsScheduler.SchedulingResult result, LocalDateTime reviewedAt) {
         card.setState(result.state());
         card.setStability(result.stability());
@@ -0,0 +1,112 @@
+package com.atinroy.leetly.review.service;
+
+import com.atinroy.leetly.review.dto.ReviewForecastDto;
+import com.atinroy.leetly.review.model.CardState;
+import com.atinroy.leetly.review.model.Rating;
+import com.atinroy.leetly.review.model.ReviewCard;
+import com.atinroy.leetly.review.repository.ReviewCardRepository;
+import com.atinroy.leetly.review.repository.ReviewLogRepository;
+import com.atinroy.leetly.user.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReviewForecastServiceTest {
+
+    @Mock
+    ReviewCardRepository reviewCardRepository;
+
+    @Mock
+    ReviewLogRepository reviewLogRepository;
+
+    @Mock
+    ReviewForecaster reviewForecaster;
+
+    @Mock
+    ReviewService reviewService;
+
+    ReviewForecastService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ReviewForecastService(reviewCardRepository, reviewLogRepository, reviewForecaster, reviewService,
+                10, 3_000, 100);
+    }
+
+    private User user() {
+        User user = new User();
+        user.setId(1L);
+        return user;
+    }
+
+    @Test
+    void buildModel_usesHistoryWhereThereIsEnough() {
+        User user = user();
+        when(reviewLogRepository.countRatingsByStateForUser(user)).thenReturn(List.of(
+                new Object[]{CardState.REVIEW, Rating.AGAIN, 40L},
+                new Object[]{CardState.REVIEW, Rating.GOOD, 30L},
+                new Object[]{CardState.REVIEW, Rating.EASY, 10L},
+                new Object[]{CardState.NEW, Rating.GOOD, 3L}));
+        when(reviewLogRepository.averageMinutesByRatingForUser(user)).thenReturn(List.<Object[]>of(
+                new Object[]{Rating.HARD, 32.5}));
+
+        ReviewForecaster.Model model = service.buildModel(user);
+
+        assertThat(model.recallRatings()).containsExactly(0.0, 0.0, 0.75, 0.25);
+        assertThat(model.firstRatings()).containsExactly(0.15, 0.15, 0.55, 0.15);
+        assertThat(model.minutesPerRating()).containsExactly(10.0, 32.5, 10.0, 10.0);
+    }
+
+    @Test
+    void forecast_rejectsOutOfRangeArguments() {
+        User user = user();
+
+        assertThatThrownBy(() -> service.forecast(user, 0, 0, 10)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.forecast(user, 30, -1, 10)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.forecast(user, 30, 0, ReviewForecastService.MAX_TRIALS + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void forecast_reducesTrialsToTheWorkBudgetAndCachesTheResult() {
+        User user = user();
+        // 10 cards over 30 days is 300 card-days a trial, so a 3000 budget allows 10 trials.
+        when(reviewCardRepository.findByUser(user)).thenReturn(Collections.nCopies(10, new ReviewCard()));
+        when(reviewService.parametersFor(user)).thenReturn(FsrsScheduler.Parameters.DEFAULT);
+        when(reviewForecaster.forecast(any(), eq(0), eq(30), anyInt(), any(), any(), any(), eq(1L)))
+                .thenReturn(new ReviewForecaster.Forecast(10, new double[30], new int[30], new double[30]));
+
+        ReviewForecastDto first = service.forecast(user, 30, 0, 100);
+        ReviewForecastDto second = service.forecast(user, 30, 0, 100);
+
+        assertThat(first.trials()).isEqualTo(10);
+        assertThat(second).isSameAs(first);
+        verify(reviewForecaster, times(1)).forecast(any(), eq(0), eq(30), eq(10), any(), any(), any(), eq(1L));
+        verify(reviewCardRepository, times(1)).findByUser(user);
+    }
+
+    @Test
+    void forecast_rejectsRequestsTooLargeForOneTrial() {
+        User user = user();
+        when(reviewCardRepository.findByUser(user)).thenReturn(Collections.nCopies(10, new ReviewCard()));
+
+        assertThatThrownBy(() -> service.forecast(user, 365, 0, 1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("reduce days or newPerDay");
+    }
+}
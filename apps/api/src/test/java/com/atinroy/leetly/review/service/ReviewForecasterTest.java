@@ -0,0 +1,78 @@
+package com.atinroy.leetly.review.service;
+
+import com.atinroy.leetly.review.model.CardState;
+import com.atinroy.leetly.review.model.ReviewCard;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReviewForecasterTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 6, 1, 12, 0);
+    private static final ReviewForecaster.Model MODEL = new ReviewForecaster.Model(
+            new double[]{0.15, 0.15, 0.55, 0.15},
+            new double[]{0.15, 0.10, 0.70, 0.05},
+            new double[]{0.0, 0.15, 0.75, 0.10},
+            new double[]{20, 15, 10, 5});
+
+    private final ReviewForecaster forecaster = new ReviewForecaster(new FsrsScheduler(), 2);
+
+    @AfterEach
+    void tearDown() {
+        forecaster.shutdown();
+    }
+
+    private FsrsScheduler.CardBatch deck(int size, int dueInDays) {
+        FsrsScheduler.CardBatch deck = new FsrsScheduler.CardBatch(size);
+        for (int i = 0; i < size; i++) {
+            ReviewCard card = new ReviewCard();
+            card.setState(CardState.REVIEW);
+            card.setStability(10.0);
+            card.setDifficulty(0.5);
+            card.setReps(3);
+            card.setScheduledDays(10);
+            card.setLastReview(NOW.minusDays(10 - dueInDays));
+            card.setDue(NOW.plusDays(dueInDays));
+            deck.set(i, card);
+        }
+        return deck;
+    }
+
+    @Test
+    void forecast_isReproducibleForSeed_andLeavesDeckUntouched() {
+        FsrsScheduler.CardBatch deck = deck(200, 3);
+        long[] dueBefore = deck.dueSeconds.clone();
+
+        ReviewForecaster.Forecast first = forecaster.forecast(deck, 5, 30, 50, MODEL, FsrsScheduler.Parameters.DEFAULT, NOW, 99);
+        ReviewForecaster.Forecast second = forecaster.forecast(deck, 5, 30, 50, MODEL, FsrsScheduler.Parameters.DEFAULT, NOW, 99);
+
+        assertThat(first.meanReviews()).containsExactly(second.meanReviews());
+        assertThat(first.p90Reviews()).containsExactly(second.p90Reviews());
+        assertThat(first.meanMinutes()).containsExactly(second.meanMinutes());
+        assertThat(deck.dueSeconds).containsExactly(dueBefore);
+    }
+
+    @Test
+    void forecast_reviewsDeckOnDueDay() {
+        ReviewForecaster.Forecast forecast = forecaster.forecast(deck(100, 3), 0, 5, 20, MODEL, FsrsScheduler.Parameters.DEFAULT, NOW, 1);
+
+        assertThat(forecast.meanReviews()[0]).isZero();
+        assertThat(forecast.meanReviews()[2]).isZero();
+        // Every card is reviewed at least once on day 3; lapses add relearning steps.
+        assertThat(forecast.meanReviews()[3]).isGreaterThanOrEqualTo(100);
+        assertThat(forecast.p90Reviews()[3]).isGreaterThanOrEqualTo((int) forecast.meanReviews()[3]);
+        assertThat(forecast.meanMinutes()[3]).isGreaterThanOrEqualTo(100 * 5.0);
+    }
+
+    @Test
+    void forecast_introducesNewCardsEveryDay() {
+        ReviewForecaster.Forecast forecast = forecaster.forecast(new FsrsScheduler.CardBatch(0), 5, 10, 20, MODEL, FsrsScheduler.Parameters.DEFAULT, NOW, 1);
+
+        assertThat(Arrays.stream(forecast.meanReviews()).allMatch(reviews -> reviews >= 5)).isTrue();
+        assertThat(forecast.trials()).isEqualTo(20);
+    }
+}
@@ -0,0 +1,96 @@
+package com.atinroy.leetly.review.service;
+
+import com.atinroy.leetly.review.model.CardState;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReviewLoadBalancerTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 6, 1, 9, 30);
+
+    private static ReviewQueueCache.Snapshot deck(int... cardsPerDay) {
+        List<Object[]> rows = new ArrayList<>();
+        long id = 1;
+        for (int day = 0; day < cardsPerDay.length; day++) {
+            for (int c = 0; c < cardsPerDay[day]; c++) {
+                rows.add(new Object[]{id++, NOW.plusDays(day), CardState.REVIEW});
+            }
+        }
+        return new ReviewQueueCache(new SimpleMeterRegistry(), 1 << 20, Duration.ofMinutes(5))
+                .get(1L, () -> rows);
+    }
+
+    private static FsrsScheduler.SchedulingResult review(int interval) {
+        return new FsrsScheduler.SchedulingResult(
+                CardState.REVIEW, 12.0, 5.0, NOW.plusDays(interval), interval, 4, 3, 0);
+    }
+
+    @Test
+    void balance_movesToLeastLoadedDayInRange() {
+        // Range for 10 days is 8..12; day 11 is the quietest.
+        ReviewQueueCache.Snapshot deck = deck(0, 0, 0, 0, 0, 0, 0, 0, 5, 4, 9, 1, 3);
+
+        FsrsScheduler.SchedulingResult result = new ReviewLoadBalancer(true)
+                .start(NOW, () -> deck).balance(review(10));
+
+        assertThat(result.scheduledDays()).isEqualTo(11);
+        assertThat(result.due()).isEqualTo(NOW.plusDays(11));
+        assertThat(result.stability()).isEqualTo(12.0);
+    }
+
+    @Test
+    void balance_prefersOriginalIntervalOnTies() {
+        ReviewQueueCache.Snapshot deck = deck(new int[20]);
+
+        FsrsScheduler.SchedulingResult result = new ReviewLoadBalancer(true)
+                .start(NOW, () -> deck).balance(review(10));
+
+        assertThat(result.scheduledDays()).isEqualTo(10);
+    }
+
+    @Test
+    void balance_spreadsCardsPlacedInTheSameRequest() {
+        ReviewQueueCache.Snapshot deck = deck(new int[20]);
+        ReviewLoadBalancer.Placement placement = new ReviewLoadBalancer(true).start(NOW, () -> deck);
+
+        List<Integer> days = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            days.add(placement.balance(review(10)).scheduledDays());
+        }
+
+        assertThat(days).containsExactlyInAnyOrder(8, 9, 10, 11, 12);
+    }
+
+    @Test
+    void balance_leavesLearningCardsAndShortIntervals_withoutLoadingTheDeck() {
+        AtomicInteger loads = new AtomicInteger();
+        ReviewLoadBalancer.Placement placement = new ReviewLoadBalancer(true)
+                .start(NOW, () -> {
+                    loads.incrementAndGet();
+                    return deck();
+                });
+        FsrsScheduler.SchedulingResult learning = new FsrsScheduler.SchedulingResult(
+                CardState.LEARNING, 1.0, 5.0, NOW.plusMinutes(10), 0, 0, 1, 0);
+
+        assertThat(placement.balance(learning)).isSameAs(learning);
+        FsrsScheduler.SchedulingResult shortInterval = review(2);
+        assertThat(placement.balance(shortInterval)).isSameAs(shortInterval);
+        assertThat(loads).hasValue(0);
+    }
+
+    @Test
+    void balance_isANoOp_whenDisabled() {
+        FsrsScheduler.SchedulingResult result = review(10);
+
+        assertThat(new ReviewLoadBalancer(false).start(NOW, () -> deck(0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 9))
+                .balance(result)).isSameAs(result);
+    }
+}
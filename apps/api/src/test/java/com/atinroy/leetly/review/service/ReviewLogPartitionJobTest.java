@@ -0,0 +1,62 @@
+package com.atinroy.leetly.review.service;
+
+import com.atinroy.leetly.review.repository.ReviewLogRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReviewLogPartitionJobTest {
+
+    @Mock
+    ReviewLogRepository reviewLogRepository;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    private ReviewLogPartitionJob job(int retentionMonths) {
+        return new ReviewLogPartitionJob(reviewLogRepository, transactionManager, new SimpleMeterRegistry(),
+                2, retentionMonths);
+    }
+
+    @Test
+    void run_createsUpcomingPartitionsAndArchivesExpiredMonths() {
+        when(reviewLogRepository.findPartitionMonths())
+                .thenReturn(List.of("2024-03", "2024-04", "2024-05", "2026-06"));
+        when(reviewLogRepository.archivePartition(any())).thenReturn(10);
+
+        int archived = job(24).run(YearMonth.of(2026, 5));
+
+        verify(reviewLogRepository).ensurePartition(LocalDate.of(2026, 5, 1));
+        verify(reviewLogRepository).ensurePartition(LocalDate.of(2026, 6, 1));
+        verify(reviewLogRepository).ensurePartition(LocalDate.of(2026, 7, 1));
+        // The cutoff is May 2024: older months go, the cutoff month itself stays.
+        verify(reviewLogRepository).archivePartition(LocalDate.of(2024, 3, 1));
+        verify(reviewLogRepository).archivePartition(LocalDate.of(2024, 4, 1));
+        verify(reviewLogRepository, never()).archivePartition(LocalDate.of(2024, 5, 1));
+        assertThat(archived).isEqualTo(2);
+    }
+
+    @Test
+    void run_keepsEveryMonth_whenRetentionDisabled() {
+        int archived = job(0).run(YearMonth.of(2026, 5));
+
+        verify(reviewLogRepository).ensurePartition(LocalDate.of(2026, 7, 1));
+        verify(reviewLogRepository, never()).findPartitionMonths();
+        verify(reviewLogRepository, never()).archivePartition(any());
+        assertThat(archived).isZero();
+    }
+}
@@ -0,0 +1,132 @@
+package com.atinroy.leetly.review.service;
+
+import com.atinroy.leetly.review.model.CardState;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReviewQueueCacheTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 6, 1, 12, 0);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ReviewQueueCache cache(long maxBytes) {
+        return new ReviewQueueCache(meterRegistry, maxBytes, Duration.ofMinutes(5));
+    }
+
+    // Card i is due i hours from NOW, starting at -2 hours.
+    private Supplier<List<Object[]>> deck(int size, AtomicInteger loads) {
+        return () -> {
+            loads.incrementAndGet();
+            List<Object[]> rows = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                rows.add(new Object[]{(long) i + 1, NOW.plusHours(i - 2), i < 2 ? CardState.REVIEW : CardState.NEW});
+            }
+            return rows;
+        };
+    }
+
+    @Test
+    void get_answersCountsAndPagesFromLoadedDeck() {
+        ReviewQueueCache cache = cache(1 << 20);
+        AtomicInteger loads = new AtomicInteger();
+
+        ReviewQueueCache.Snapshot deck = cache.get(1L, deck(10, loads));
+
+        assertThat(deck.total()).isEqualTo(10);
+        assertThat(deck.countDueBy(NOW)).isEqualTo(3);
+        assertThat(deck.countDueBetween(NOW, NOW.plusHours(3))).isEqualTo(3);
+        assertThat(deck.idsDueBy(NOW, 1, 5)).containsExactly(2L, 3L);
+        assertThat(deck.idsDueBy(NOW, 5, 5)).isEmpty();
+
+        cache.get(1L, deck(10, loads));
+        assertThat(loads).hasValue(1);
+        assertThat(cache.hitRatio()).isEqualTo(0.5);
+    }
+
+    @Test
+    void peek_returnsOnlyACachedDeckAndIsNotCounted() {
+        ReviewQueueCache cache = cache(1 << 20);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThat(cache.peek(1L)).isNull();
+        ReviewQueueCache.Snapshot deck = cache.get(1L, deck(10, loads));
+
+        assertThat(cache.peek(1L)).isSameAs(deck);
+        assertThat(loads).hasValue(1);
+        assertThat(cache.hitRatio()).isEqualTo(0.0);
+    }
+
+    @Test
+    void putAndRemove_updateCachedDeckInDueOrder() {
+        ReviewQueueCache cache = cache(1 << 20);
+        AtomicInteger loads = new AtomicInteger();
+        ReviewQueueCache.Snapshot before = cache.get(1L, deck(5, loads));
+
+        cache.put(1L, 4L, NOW.minusHours(5), CardState.LEARNING);
+        cache.put(1L, 99L, NOW.minusMinutes(1), CardState.NEW);
+        cache.remove(1L, 1L);
+
+        ReviewQueueCache.Snapshot after = cache.get(1L, deck(5, loads));
+        assertThat(loads).hasValue(1);
+        assertThat(after.idsDueBy(NOW, 0, 10)).containsExactly(4L, 2L, 99L, 3L);
+        assertThat(after.total()).isEqualTo(5);
+        assertThat(before.idsDueBy(NOW, 0, 10)).containsExactly(1L, 2L, 3L);
+        assertThat(after.countByState()).containsExactly(3, 1, 1, 0);
+        assertThat(before.countByState()).containsExactly(3, 0, 2, 0);
+    }
+
+    @Test
+    void countDueByDay_bucketsByCalendarDay() {
+        ReviewQueueCache cache = cache(1 << 20);
+        // Due from 10:00 on June 1st, hourly, through 13:00 on June 2nd.
+        ReviewQueueCache.Snapshot deck = cache.get(1L, deck(28, new AtomicInteger()));
+
+        assertThat(deck.countDueBefore(NOW.minusHours(2))).isZero();
+        assertThat(deck.countDueBefore(LocalDate.of(2026, 6, 2).atStartOfDay())).isEqualTo(14);
+        assertThat(deck.countDueByDay(LocalDate.of(2026, 5, 31), 4)).containsExactly(0, 14, 14, 0);
+    }
+
+    @Test
+    void writeDuringLoad_keepsStaleDeckOutOfCache() {
+        ReviewQueueCache cache = cache(1 << 20);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1L, () -> {
+            cache.put(1L, 7L, NOW, CardState.NEW);
+            return deck(3, loads).get();
+        });
+        cache.get(1L, deck(3, loads));
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void overBudget_evictsLeastRecentlyUsedDeck() {
+        // Room for two 100-card decks but not three.
+        ReviewQueueCache cache = cache(2 * (96 + 17 * 100) + 100);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1L, deck(100, loads));
+        cache.get(2L, deck(100, loads));
+        cache.get(1L, deck(100, loads));
+        cache.get(3L, deck(100, loads));
+        assertThat(loads).hasValue(3);
+
+        cache.get(1L, deck(100, loads));
+        assertThat(loads).hasValue(3);
+        cache.get(2L, deck(100, loads));
+        assertThat(loads).hasValue(4);
+        assertThat(cache.bytes()).isLessThanOrEqualTo(2 * (96 + 17 * 100) + 100);
+    }
+}
@@ -4,25 +4,42 @@ import com.atinroy.leetly.common.exception.ConflictException;
 import com.atinroy.leetly.common.exception.ResourceNotFoundException;
 import com.atinroy.leetly.problem.model.Problem;
 import com.atinroy.leetly.problem.repository.ProblemRepository;
+import com.atinroy.leetly.review.dto.BulkReviewItem;
+import com.atinroy.leetly.review.dto.ReviewStatsDto;
 import com.atinroy.leetly.review.model.CardState;
 import com.atinroy.leetly.review.model.Rating;
 import com.atinroy.leetly.review.model.ReviewCard;
+import com.atinroy.leetly.review.model.ReviewLog;
 import com.atinroy.leetly.review.repository.ReviewCardRepository;
 import com.atinroy.leetly.review.repository.ReviewLogRepository;
+import com.atinroy.leetly.review.repository.ReviewLogSummaryRepository;
+import com.atinroy.leetly.review.repository.UserFsrsWeightsRepository;
+import com.atinroy.leetly.review.repository.UserReviewLogCountRepository;
 import com.atinroy.leetly.user.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,12 +51,27 @@ class ReviewServiceTest {
     @Mock
     ReviewLogRepository reviewLogRepository;
 
+    @Mock
+    ReviewLogSummaryRepository reviewLogSummaryRepository;
+
     @Mock
     ProblemRepository problemRepository;
 
+    @Mock
+    UserFsrsWeightsRepository userFsrsWeightsRepository;
+
+    @Mock
+    UserReviewLogCountRepository userReviewLogCountRepository;
+
+    @Mock
+    ReviewQueueCache reviewQueueCache;
+
     @Spy
     FsrsScheduler fsrsScheduler = new FsrsScheduler();
 
+    @Spy
+    ReviewLoadBalancer reviewLoadBalancer = new ReviewLoadBalancer(true);
+
     @InjectMocks
     ReviewService reviewService;
 
@@ -49,6 +81,12 @@ class ReviewServiceTest {
         return user;
     }
 
+    private ReviewCard newCard(long id) {
+        ReviewCard card = new ReviewCard();
+        card.setId(id);
+        return card;
+    }
+
     private Problem testProblem() {
         Problem p = new Problem();
         p.setId(10L);
@@ -107,6 +145,102 @@ class ReviewServiceTest {
 
         assertThat(result.getState()).isNotEqualTo(CardState.NEW);
         verify(reviewLogRepository).save(any());
+        verify(userReviewLogCountRepository).increment(eq(1L), eq(1L), any());
+        verify(reviewQueueCache).put(1L, 100L, result.getDue(), result.getState());
+    }
+
+    @Test
+    void bulkReview_schedulesEveryCardInOneBatch() {
+        User user = testUser();
+        ReviewCard first = newCard(100L);
+        ReviewCard second = newCard(101L);
+
+        when(reviewCardRepository.findByUserAndIdIn(eq(user), any())).thenReturn(List.of(second, first));
+        when(reviewCardRepository.saveAll(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        List<ReviewCard> result = reviewService.bulkReview(List.of(
+            new BulkReviewItem(100L, Rating.GOOD),
+            new BulkReviewItem(101L, Rating.AGAIN)), user);
+
+        assertThat(result).containsExactly(first, second);
+        assertThat(first.getState()).isNotEqualTo(CardState.NEW);
+        assertThat(second.getState()).isNotEqualTo(CardState.NEW);
+        assertThat(first.getDue()).isAfter(second.getDue());
+        verify(reviewLogRepository).saveAll(argThat(logs -> logs instanceof List<?> list && list.size() == 2));
+        verify(userReviewLogCountRepository).increment(eq(1L), eq(2L), any());
+        verify(reviewQueueCache).put(1L, 100L, first.getDue(), first.getState());
+        verify(reviewQueueCache).put(1L, 101L, second.getDue(), second.getState());
+    }
+
+    @Test
+    void bulkReview_rejectsDuplicateCards() {
+        User user = testUser();
+
+        assertThatThrownBy(() -> reviewService.bulkReview(List.of(
+            new BulkReviewItem(100L, Rating.GOOD),
+            new BulkReviewItem(100L, Rating.EASY)), user))
+            .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(reviewLogRepository);
+    }
+
+    @Test
+    void bulkReview_throwsNotFound_ifAnyCardMissing() {
+        User user = testUser();
+        when(reviewCardRepository.findByUserAndIdIn(eq(user), any())).thenReturn(List.of(newCard(100L)));
+
+        assertThatThrownBy(() -> reviewService.bulkReview(List.of(
+            new BulkReviewItem(100L, Rating.GOOD),
+            new BulkReviewItem(999L, Rating.GOOD)), user))
+            .isInstanceOf(ResourceNotFoundException.class)
+            .hasMessageContaining("999");
+        verifyNoInteractions(reviewLogRepository);
+    }
+
+    @Test
+    void getStats_summarizesCachedDeck() {
+        User user = testUser();
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = List.of(
+            new Object[]{1L, now.minusDays(2), CardState.REVIEW},
+            new Object[]{2L, now.toLocalDate().atStartOfDay(), CardState.LEARNING},
+            new Object[]{3L, now.plusDays(3), CardState.REVIEW},
+            new Object[]{4L, now.plusDays(40), CardState.REVIEW});
+        when(reviewQueueCache.get(eq(1L), any())).thenAnswer(inv -> new ReviewQueueCache(
+            new SimpleMeterRegistry(), 1 << 20, Duration.ofMinutes(5)).get(1L, () -> rows));
+
+        ReviewStatsDto stats = reviewService.getStats(user);
+
+        assertThat(stats.dueNow()).isEqualTo(2);
+        assertThat(stats.upcoming7Days()).isEqualTo(1);
+        assertThat(stats.totalEnrolled()).isEqualTo(4);
+        assertThat(stats.overdue()).isEqualTo(1);
+        assertThat(stats.histogramStart()).isEqualTo(now.toLocalDate());
+        assertThat(stats.dueByDay()).hasSize(ReviewService.HISTOGRAM_DAYS);
+        assertThat(stats.dueByDay().stream().mapToInt(Integer::intValue).sum()).isEqualTo(2);
+        assertThat(stats.dueByDay().get(3)).isEqualTo(1);
+        assertThat(stats.byState()).containsEntry(CardState.REVIEW, 3).containsEntry(CardState.LEARNING, 1)
+            .containsEntry(CardState.NEW, 0);
+    }
+
+    @Test
+    void findHistory_returnsPageAndWhetherMoreFollow() {
+        User user = testUser();
+        ReviewCard card = newCard(100L);
+        LocalDateTime before = LocalDateTime.of(2026, 5, 1, 12, 0);
+        when(reviewCardRepository.findByIdAndUser(100L, user)).thenReturn(Optional.of(card));
+        when(reviewLogRepository.findHistoryBefore(card, before, 7L, PageRequest.of(0, 3)))
+            .thenReturn(List.of(new ReviewLog(), new ReviewLog(), new ReviewLog()));
+
+        Slice<ReviewLog> page = reviewService.findHistory(100L, user, before, 7L, 2);
+
+        assertThat(page.getContent()).hasSize(2);
+        assertThat(page.hasNext()).isTrue();
+    }
+
+    @Test
+    void findHistory_rejectsHalfACursor() {
+        assertThatThrownBy(() -> reviewService.findHistory(100L, testUser(), LocalDateTime.now(), null, 20))
+            .isInstanceOf(IllegalArgumentException.class);
     }
 
     @Test
@@ -120,6 +254,7 @@ class ReviewServiceTest {
         reviewService.remove(100L, user);
 
         verify(reviewCardRepository).delete(card);
+        verify(reviewQueueCache).remove(1L, 100L);
     }
 
     @Test
@@ -130,4 +265,15 @@ class ReviewServiceTest {
         assertThatThrownBy(() -> reviewService.remove(999L, user))
             .isInstanceOf(ResourceNotFoundException.class);
     }
+
+    @Test
+    void findDueAmong_checksOnlyTheGivenCardsWhenTheDeckIsNotCached() {
+        User user = testUser();
+        LocalDateTime until = LocalDateTime.of(2026, 6, 2, 0, 0);
+        when(reviewQueueCache.peek(1L)).thenReturn(null);
+        when(reviewCardRepository.findDueIdsByUserAndIdIn(user, List.of(2L, 1L), until)).thenReturn(List.of(1L));
+
+        assertThat(reviewService.findDueAmong(user, List.of(2L, 1L), until)).isEqualTo(Set.of(1L));
+        verify(reviewQueueCache, never()).get(eq(1L), any());
+    }
 }
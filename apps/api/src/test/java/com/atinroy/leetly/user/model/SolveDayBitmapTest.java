@@ -0,0 +1,115 @@
+package com.atinroy.leetly.user.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SolveDayBitmapTest {
+
+    @Test
+    void streaksSpanWordBoundaries() {
+        SolveDayBitmap bitmap = new SolveDayBitmap();
+        LocalDate start = LocalDate.of(2025, 12, 1);
+        for (int i = 0; i < 150; i++) {
+            bitmap.set(start.plusDays(i));
+        }
+        bitmap.set(start.plusDays(200));
+
+        assertThat(bitmap.longestStreak()).isEqualTo(150);
+        assertThat(bitmap.streakEndingAt(start.plusDays(149))).isEqualTo(150);
+        assertThat(bitmap.streakEndingAt(start.plusDays(150))).isZero();
+        assertThat(bitmap.currentStreak(start.plusDays(150))).isEqualTo(150);
+        assertThat(bitmap.currentStreak(start.plusDays(201))).isEqualTo(1);
+        assertThat(bitmap.lastDay()).isEqualTo(start.plusDays(200));
+    }
+
+    @Test
+    void growsBackwardsForEarlierDays() {
+        SolveDayBitmap bitmap = new SolveDayBitmap();
+        bitmap.set(LocalDate.of(2026, 3, 10));
+        bitmap.set(LocalDate.of(2021, 1, 1));
+
+        assertThat(bitmap.streakEndingAt(LocalDate.of(2021, 1, 1))).isEqualTo(1);
+        assertThat(bitmap.streakEndingAt(LocalDate.of(2026, 3, 10))).isEqualTo(1);
+        assertThat(bitmap.streakEndingAt(LocalDate.of(2023, 6, 1))).isZero();
+        assertThat(bitmap.streakEndingAt(LocalDate.of(2020, 12, 31))).isZero();
+        assertThat(bitmap.lastDay()).isEqualTo(LocalDate.of(2026, 3, 10));
+    }
+
+    @Test
+    void roundTripsThroughBytes() {
+        SolveDayBitmap bitmap = new SolveDayBitmap();
+        bitmap.set(LocalDate.of(2024, 2, 29));
+        bitmap.set(LocalDate.of(2026, 1, 1));
+
+        SolveDayBitmap copy = SolveDayBitmap.fromBytes(bitmap.toBytes());
+
+        assertThat(copy).isEqualTo(bitmap);
+        assertThat(copy.lastDay()).isEqualTo(LocalDate.of(2026, 1, 1));
+        assertThat(SolveDayBitmap.fromBytes(null).isEmpty()).isTrue();
+    }
+
+    @Test
+    void equalsComparesDaysNotLayout() {
+        SolveDayBitmap grownBackwards = new SolveDayBitmap();
+        grownBackwards.set(LocalDate.of(2026, 3, 10));
+        grownBackwards.set(LocalDate.of(2021, 1, 1));
+        SolveDayBitmap grownForwards = new SolveDayBitmap();
+        grownForwards.set(LocalDate.of(2021, 1, 1));
+        grownForwards.set(LocalDate.of(2026, 3, 10));
+        SolveDayBitmap other = new SolveDayBitmap();
+        other.set(LocalDate.of(2021, 1, 1));
+
+        assertThat(grownBackwards).isEqualTo(grownForwards).hasSameHashCodeAs(grownForwards);
+        assertThat(grownBackwards).isNotEqualTo(other);
+        assertThat(new SolveDayBitmap()).isEqualTo(SolveDayBitmap.fromBytes(null));
+    }
+
+    @Test
+    void matchesDateSetForRandomHistories() {
+        Random random = new Random(42);
+        LocalDate origin = LocalDate.of(2022, 1, 1);
+        for (int round = 0; round < 50; round++) {
+            SolveDayBitmap bitmap = new SolveDayBitmap();
+            Set<LocalDate> days = new HashSet<>();
+            for (int i = 0; i < 400; i++) {
+                LocalDate day = origin.plusDays(random.nextInt(1500));
+                bitmap.set(day);
+                days.add(day);
+            }
+
+            LocalDate day = origin.plusDays(random.nextInt(1500));
+
+            assertThat(bitmap.longestStreak()).isEqualTo(longestStreak(days));
+            assertThat(bitmap.streakEndingAt(day)).isEqualTo(streakEndingAt(days, day));
+        }
+    }
+
+    private int streakEndingAt(Set<LocalDate> days, LocalDate day) {
+        int streak = 0;
+        while (days.contains(day.minusDays(streak))) {
+            streak++;
+        }
+        return streak;
+    }
+
+    private int longestStreak(Set<LocalDate> days) {
+        int longest = 0;
+        for (LocalDate day : days) {
+            if (days.contains(day.minusDays(1))) {
+                continue;
+            }
+            int streak = 1;
+            while (days.contains(day.plusDays(streak))) {
+                streak++;
+            }
+            longest = Math.max(longest, streak);
+        }
+        return longest;
+    }
+}
@@ -0,0 +1,242 @@
+package com.atinroy.leetly.user.service;
+
+import com.atinroy.leetly.common.exception.ConflictException;
+import com.atinroy.leetly.problem.model.Mistake;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import com.atinroy.leetly.user.dto.StatsDriftDto;
+import com.atinroy.leetly.user.dto.StatsRebuildReport;
+import com.atinroy.leetly.user.model.SolveDayBitmap;
+import com.atinroy.leetly.user.model.User;
+import com.atinroy.leetly.user.model.UserStats;
+import com.atinroy.leetly.user.repository.UserRepository;
+import com.atinroy.leetly.user.repository.UserStatsRepository;
+
+@ExtendWith(MockitoExtension.class)
+class StatsRebuildServiceTest {
+
+    @Mock
+    UserRepository userRepository;
+
+    @Mock
+    UserStatsRepository userStatsRepository;
+
+    @Mock
+    StatsService statsService;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    StatsRebuildService statsRebuildService;
+
+    @BeforeEach
+    void setUp() {
+        statsRebuildService = new StatsRebuildService(
+                userRepository,
+                userStatsRepository,
+                statsService,
+                transactionManager,
+                2,
+                2,
+                false
+        );
+    }
+
+    @Test
+    void run_reportsUsersWhoseCountersDisagreeWithRecompute() {
+        UserStats matching = stats(1L, 3, mistakes(Mistake.OFF_BY_ONE, 2));
+        // Written before later Mistake values existed; missing slots count as zero.
+        UserStats drifted = stats(2L, 5, new int[]{0, 1});
+        when(userRepository.findIdsAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(1L, 2L));
+        when(userRepository.findIdsAfter(eq(2L), any(Pageable.class))).thenReturn(List.of());
+        when(userStatsRepository.findByUserId(1L)).thenReturn(Optional.of(matching));
+        when(userStatsRepository.findByUserId(2L)).thenReturn(Optional.of(drifted));
+        when(statsService.recomputeStats(matching.getUser())).thenReturn(stats(1L, 3, mistakes(Mistake.OFF_BY_ONE, 2)));
+        when(statsService.recomputeStats(drifted.getUser())).thenReturn(stats(2L, 4, mistakes(Mistake.OFF_BY_ONE, 1)));
+
+        StatsRebuildReport report = statsRebuildService.run(false);
+
+        assertThat(report.usersChecked()).isEqualTo(2);
+        assertThat(report.usersDrifted()).isEqualTo(1);
+        assertThat(report.usersRepaired()).isZero();
+        assertThat(report.driftByField()).containsExactly(Map.entry("totalSolved", 1));
+        assertThat(report.samples()).containsExactly(new StatsDriftDto(2L, List.of("totalSolved")));
+        assertThat(statsRebuildService.getLastReport()).contains(report);
+        verify(statsService, never()).rebuild(any());
+    }
+
+    @Test
+    void run_skipsUsersWithQueuedEventsAndCountsStaleRows() {
+        UserStats pending = stats(1L, 3, null);
+        UserStats stale = stats(2L, 3, null);
+        stale.setStale(true);
+        UserStats expected = stats(1L, 4, null);
+        expected.setAppliedEventId(7L);
+        when(userRepository.findIdsAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(1L, 2L));
+        when(userRepository.findIdsAfter(eq(2L), any(Pageable.class))).thenReturn(List.of());
+        when(userStatsRepository.findByUserId(1L)).thenReturn(Optional.of(pending));
+        when(userStatsRepository.findByUserId(2L)).thenReturn(Optional.of(stale));
+        when(statsService.needsRebuild(pending)).thenReturn(false);
+        when(statsService.needsRebuild(stale)).thenReturn(true);
+        when(statsService.recomputeStats(pending.getUser())).thenReturn(expected);
+
+        StatsRebuildReport report = statsRebuildService.run(false);
+
+        assertThat(report.usersChecked()).isZero();
+        assertThat(report.usersSkipped()).isEqualTo(1);
+        assertThat(report.usersStale()).isEqualTo(1);
+        assertThat(report.usersDrifted()).isZero();
+    }
+
+    @Test
+    void run_inRepairModeRebuildsDriftedRowsUnderLock() {
+        UserStats drifted = stats(1L, 5, null);
+        UserStats locked = stats(1L, 5, null);
+        when(userRepository.findIdsAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(1L));
+        when(userStatsRepository.findByUserId(1L)).thenReturn(Optional.of(drifted));
+        when(statsService.recomputeStats(drifted.getUser())).thenReturn(stats(1L, 4, null));
+        when(userStatsRepository.findByUserIdForUpdate(1L)).thenReturn(Optional.of(locked));
+
+        StatsRebuildReport report = statsRebuildService.run(true);
+
+        assertThat(report.usersDrifted()).isEqualTo(1);
+        assertThat(report.usersRepaired()).isEqualTo(1);
+        verify(statsService).rebuild(locked);
+    }
+
+    @Test
+    void run_comparesSolveDatesStreaksAndWindows() {
+        LocalDate today = LocalDate.now();
+        UserStats stored = stats(1L, 2, null);
+        stored.setSolveDays(solveDays(today.minusDays(1), today.minusDays(9)));
+        stored.setLastSolvedDate(today.minusDays(1));
+        stored.setLongestStreak(1);
+        UserStats expected = stats(1L, 2, null);
+        expected.setSolveDays(solveDays(today.minusDays(2), today.minusDays(9)));
+        expected.setLastSolvedDate(today.minusDays(2));
+        expected.setLongestStreak(1);
+        when(userRepository.findIdsAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(1L));
+        when(userStatsRepository.findByUserId(1L)).thenReturn(Optional.of(stored));
+        when(statsService.recomputeStats(stored.getUser())).thenReturn(expected);
+
+        StatsRebuildReport report = statsRebuildService.run(false);
+
+        assertThat(report.samples()).containsExactly(new StatsDriftDto(1L, List.of("lastSolvedDate", "solveDays")));
+        verify(statsService).rollTimeWindows(eq(stored), any(LocalDate.class));
+    }
+
+    @Test
+    void run_recordsFailingUsersAndContinues() {
+        UserStats healthy = stats(2L, 3, null);
+        when(userRepository.findIdsAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(1L, 2L));
+        when(userRepository.findIdsAfter(eq(2L), any(Pageable.class))).thenReturn(List.of());
+        when(userStatsRepository.findByUserId(1L)).thenThrow(new IllegalStateException("boom"));
+        when(userStatsRepository.findByUserId(2L)).thenReturn(Optional.of(healthy));
+        when(statsService.recomputeStats(healthy.getUser())).thenReturn(stats(2L, 3, null));
+
+        StatsRebuildReport report = statsRebuildService.run(true);
+
+        assertThat(report.usersChecked()).isEqualTo(1);
+        assertThat(report.usersFailed()).isEqualTo(1);
+        assertThat(report.failures()).singleElement()
+                .satisfies(failure -> {
+                    assertThat(failure.userId()).isEqualTo(1L);
+                    assertThat(failure.message()).contains("boom");
+                });
+        assertThat(report.running()).isFalse();
+    }
+
+    @Test
+    void start_runsInBackgroundAndPublishesTheFinalReport() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(userRepository.findIdsAfter(eq(0L), any(Pageable.class))).thenAnswer(invocation -> {
+            release.await();
+            return List.of();
+        });
+
+        StatsRebuildReport started = statsRebuildService.start(false);
+
+        assertThat(started.running()).isTrue();
+        assertThat(statsRebuildService.getLastReport()).contains(started);
+        assertThatThrownBy(() -> statsRebuildService.start(false)).isInstanceOf(ConflictException.class);
+
+        release.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (statsRebuildService.getLastReport().orElseThrow().running() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(statsRebuildService.getLastReport()).hasValueSatisfying(report -> {
+            assertThat(report.running()).isFalse();
+            assertThat(report.usersChecked()).isZero();
+        });
+    }
+
+    @Test
+    void run_rejectsConcurrentRuns() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(userRepository.findIdsAfter(eq(0L), any(Pageable.class))).thenAnswer(invocation -> {
+            entered.countDown();
+            release.await();
+            return List.of();
+        });
+
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            Future<StatsRebuildReport> first = executor.submit(() -> statsRebuildService.run(false));
+            entered.await();
+
+            assertThatThrownBy(() -> statsRebuildService.run(false)).isInstanceOf(ConflictException.class);
+
+            release.countDown();
+            assertThat(first.get().usersChecked()).isZero();
+        }
+    }
+
+    private UserStats stats(long userId, int totalSolved, int[] mistakeCounts) {
+        User user = new User();
+        user.setId(userId);
+        UserStats stats = new UserStats();
+        stats.setUser(user);
+        stats.setStale(false);
+        stats.setTotalSolved(totalSolved);
+        stats.setMistakeCounts(mistakeCounts);
+        return stats;
+    }
+
+    private byte[] solveDays(LocalDate... days) {
+        SolveDayBitmap bitmap = new SolveDayBitmap();
+        for (LocalDate day : days) {
+            bitmap.set(day);
+        }
+        return bitmap.toBytes();
+    }
+
+    private int[] mistakes(Mistake mistake, int count) {
+        int[] counts = new int[Mistake.values().length];
+        counts[mistake.ordinal()] = count;
+        return counts;
+    }
+}
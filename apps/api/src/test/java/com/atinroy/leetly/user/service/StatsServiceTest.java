@@ -1,6 +1,10 @@
 package com.atinroy.leetly.user.service;
 
+import com.atinroy.leetly.common.exception.ResourceNotFoundException;
 import com.atinroy.leetly.problem.model.Attempt;
+import com.atinroy.leetly.problem.model.AttemptEvent;
+import com.atinroy.leetly.problem.model.AttemptFacts;
+import com.atinroy.leetly.problem.repository.AttemptEventRepository;
 import com.atinroy.leetly.problem.repository.AttemptRepository;
 import com.atinroy.leetly.problem.model.Difficulty;
 import com.atinroy.leetly.problem.dto.LogAttemptRequest;
@@ -15,25 +19,43 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.nio.ByteBuffer;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import com.atinroy.leetly.user.dto.HeatmapDto;
+import com.atinroy.leetly.user.dto.StatsBreakdownsDto;
 import com.atinroy.leetly.user.model.DailyStat;
+import com.atinroy.leetly.user.model.SolveDayBitmap;
 import com.atinroy.leetly.user.model.User;
 import com.atinroy.leetly.user.model.UserStats;
+import com.atinroy.leetly.user.model.UserStatsDelta;
 import com.atinroy.leetly.user.repository.DailyStatRepository;
+import com.atinroy.leetly.user.repository.UserPatternCountRepository;
 import com.atinroy.leetly.user.repository.UserStatsRepository;
+import com.atinroy.leetly.user.repository.UserStatsRepositoryCustom;
 
 @ExtendWith(MockitoExtension.class)
 class StatsServiceTest {
@@ -50,6 +72,12 @@ class StatsServiceTest {
     @Mock
     DailyStatRepository dailyStatRepository;
 
+    @Mock
+    AttemptEventRepository attemptEventRepository;
+
+    @Mock
+    UserPatternCountRepository userPatternCountRepository;
+
     StatsService statsService;
 
     @BeforeEach
@@ -59,56 +87,218 @@ class StatsServiceTest {
                 problemRepository,
                 attemptRepository,
                 dailyStatRepository,
-                new ObjectMapper());
-        lenient().when(dailyStatRepository.findByUserAndDate(any(), any())).thenReturn(Optional.empty());
+                new ObjectMapper(),
+                attemptEventRepository,
+                userPatternCountRepository);
+        lenient().when(userStatsRepository.applyDelta(anyLong(), any())).thenReturn(1);
+        lenient().when(userStatsRepository.lockForDelta(anyLong()))
+                .thenReturn(Optional.of(new UserStatsRepositoryCustom.LockedStats(0L, null, null)));
         lenient().when(problemRepository.findAllByUser(any())).thenReturn(List.of());
-        lenient().when(attemptRepository.findByUserOrderByCreatedDateAsc(any())).thenReturn(List.of());
+        lenient().when(attemptRepository.streamFactsByUser(any())).thenAnswer(invocation -> Stream.empty());
     }
 
     @Test
-    void updateOnAttempt_incrementsTotalAttempts() {
-        User user = new User();
-        UserStats stats = statsWithAttempts(3);
-        when(userStatsRepository.findByUser(user)).thenReturn(Optional.of(stats));
+    void applyAttemptEvents_incrementsTotalAttempts() {
+        User user = user();
+
+        statsService.applyAttemptEvents(user, List.of(
+                event(1L, ProblemStatus.UNSEEN, ProblemStatus.ATTEMPTED, Difficulty.EASY, 1, false)));
+
+        UserStatsDelta delta = capturedDelta();
+        assertThat(delta.getTotalAttempts()).isEqualTo(1);
+        assertThat(delta.getTotalAttempted()).isEqualTo(1);
+        assertThat(delta.getSolves()).isZero();
+        assertThat(delta.getAppliedEventId()).isEqualTo(1L);
+        verify(userStatsRepository, never()).save(any());
+    }
 
-        statsService.updateOnAttempt(user, attempt(Outcome.WRONG_ANSWER, Difficulty.EASY, 1), false);
+    @Test
+    void applyAttemptEvents_incrementsTotalSolvedAndDifficultyCountOnFirstSolve() {
+        User user = user();
+        AttemptEvent firstSolve = event(1L, ProblemStatus.ATTEMPTED, ProblemStatus.SOLVED, Difficulty.MEDIUM, 1, true);
+        firstSolve.setDurationMinutes(15);
+        firstSolve.setMistakes(List.of(Mistake.OFF_BY_ONE));
+
+        statsService.applyAttemptEvents(user, List.of(firstSolve));
+
+        UserStatsDelta delta = capturedDelta();
+        assertThat(delta.getTotalSolved()).isEqualTo(1);
+        assertThat(delta.getMediumSolved()).isEqualTo(1);
+        assertThat(delta.getTotalAttempted()).isZero();
+        assertThat(delta.getFirstAttemptSolves()).isEqualTo(1);
+        assertThat(delta.getSolves()).isEqualTo(1);
+        assertThat(delta.getSolveDate()).isEqualTo(firstSolve.getAttemptDate());
+        assertThat(delta.getMistakeCounts()[Mistake.OFF_BY_ONE.ordinal()]).isEqualTo(1);
+        SolveDayBitmap expectedDays = new SolveDayBitmap();
+        expectedDays.set(firstSolve.getAttemptDate());
+        assertThat(SolveDayBitmap.fromBytes(delta.getSolveDays())).isEqualTo(expectedDays);
+        assertThat(delta.getCurrentStreak()).isEqualTo(1);
+        assertThat(delta.getLongestStreak()).isEqualTo(1);
+        verify(dailyStatRepository).upsertDelta(eq(1L), eq(firstSolve.getAttemptDate()), eq(1), eq(1), eq(15), any());
+    }
+
+    @Test
+    void applyAttemptEvents_doesNotIncrementTotalSolvedWhenNotFirstSolve() {
+        User user = user();
+
+        statsService.applyAttemptEvents(user, List.of(
+                event(1L, ProblemStatus.SOLVED, ProblemStatus.SOLVED, Difficulty.HARD, 2, false)));
 
-        assertThat(stats.getTotalAttempts()).isEqualTo(4);
-        verify(userStatsRepository).save(stats);
+        UserStatsDelta delta = capturedDelta();
+        assertThat(delta.getTotalSolved()).isZero();
+        assertThat(delta.getHardSolved()).isZero();
+        assertThat(delta.getSolves()).isZero();
     }
 
     @Test
-    void updateOnAttempt_incrementsTotalSolvedAndDifficultyCountOnFirstSolve() {
-        User user = new User();
-        UserStats stats = statsWithAttempts(1);
-        stats.setTotalSolved(5);
-        stats.setMediumSolved(2);
+    void applyAttemptEvents_movesCountersWhenFirstSolveReplacesSolvedWithHelp() {
+        User user = user();
+
+        statsService.applyAttemptEvents(user, List.of(
+                event(1L, ProblemStatus.SOLVED_WITH_HELP, ProblemStatus.SOLVED, Difficulty.EASY, 2, true)));
+
+        UserStatsDelta delta = capturedDelta();
+        assertThat(delta.getTotalSolved()).isEqualTo(1);
+        assertThat(delta.getTotalSolvedWithHelp()).isEqualTo(-1);
+        assertThat(delta.getTotalAttempted()).isZero();
+        assertThat(delta.getEasySolved()).isZero();
+    }
+
+    @Test
+    void applyAttemptEvents_coalescesEventsIntoOneWritePerRowAndDay() {
+        User user = user();
+        AttemptEvent failed = event(1L, ProblemStatus.UNSEEN, ProblemStatus.ATTEMPTED, Difficulty.EASY, 1, false);
+        failed.setDurationMinutes(10);
+        AttemptEvent solved = event(2L, ProblemStatus.ATTEMPTED, ProblemStatus.SOLVED, Difficulty.EASY, 2, true);
+        solved.setDurationMinutes(20);
+        AttemptEvent otherProblem = event(3L, ProblemStatus.UNSEEN, ProblemStatus.ATTEMPTED, Difficulty.HARD, 1, false);
+
+        statsService.applyAttemptEvents(user, List.of(failed, solved, otherProblem));
+
+        UserStatsDelta delta = capturedDelta();
+        assertThat(delta.getTotalAttempts()).isEqualTo(3);
+        assertThat(delta.getTotalAttempted()).isEqualTo(2);
+        assertThat(delta.getTotalSolved()).isEqualTo(1);
+        assertThat(delta.getTotalTimeMinutes()).isEqualTo(30);
+        assertThat(delta.getAppliedEventId()).isEqualTo(3L);
+        verify(dailyStatRepository).upsertDelta(eq(1L), eq(solved.getAttemptDate()), eq(1), eq(3), eq(30), any());
+    }
+
+    @Test
+    void applyAttemptEvents_extendsStreakFromStoredSolveDays() {
+        User user = user();
+        AttemptEvent solve = event(1L, ProblemStatus.ATTEMPTED, ProblemStatus.SOLVED, Difficulty.EASY, 2, true);
+        SolveDayBitmap history = new SolveDayBitmap();
+        history.set(solve.getAttemptDate().minusDays(1));
+        history.set(solve.getAttemptDate().minusDays(2));
+        history.set(solve.getAttemptDate().minusDays(10));
+        history.set(solve.getAttemptDate().minusDays(11));
+        history.set(solve.getAttemptDate().minusDays(12));
+        history.set(solve.getAttemptDate().minusDays(13));
+        when(userStatsRepository.lockForDelta(1L))
+                .thenReturn(Optional.of(new UserStatsRepositoryCustom.LockedStats(0L, history.toBytes(), null)));
+
+        statsService.applyAttemptEvents(user, List.of(solve));
+
+        UserStatsDelta delta = capturedDelta();
+        assertThat(delta.getCurrentStreak()).isEqualTo(3);
+        assertThat(delta.getLongestStreak()).isEqualTo(4);
+    }
+
+    @Test
+    void applyAttemptEvents_keepsRolledWindowsForSolvesQueuedBeforeMidnight() {
+        User user = user();
+        // Rolled to Monday 2026-03-02 by a read before the worker got to Sunday's solve.
+        when(userStatsRepository.lockForDelta(1L)).thenReturn(Optional.of(
+                new UserStatsRepositoryCustom.LockedStats(0L, null, LocalDate.of(2026, 3, 2))));
+        AttemptEvent sunday = event(1L, ProblemStatus.ATTEMPTED, ProblemStatus.SOLVED, Difficulty.EASY, 2, true);
+        sunday.setAttemptDate(LocalDate.of(2026, 3, 1));
+
+        statsService.applyAttemptEvents(user, List.of(sunday));
+
+        UserStatsDelta delta = capturedDelta();
+        assertThat(delta.getWindowsAsOf()).isEqualTo(LocalDate.of(2026, 3, 2));
+        assertThat(delta.solvesSince(LocalDate.of(2026, 3, 2))).isZero();
+        assertThat(delta.solvesSince(LocalDate.of(2026, 3, 1))).isEqualTo(1);
+    }
+
+    @Test
+    void applyAttemptEvents_skipsStatsDeltaForEventsCoveredByRebuild() {
+        User user = user();
+        when(userStatsRepository.lockForDelta(1L))
+                .thenReturn(Optional.of(new UserStatsRepositoryCustom.LockedStats(5L, null, null)));
+        AttemptEvent covered = event(5L, ProblemStatus.ATTEMPTED, ProblemStatus.SOLVED, Difficulty.EASY, 2, true);
+
+        statsService.applyAttemptEvents(user, List.of(covered));
+
+        verify(userStatsRepository, never()).applyDelta(anyLong(), any());
+        verify(userStatsRepository).touch(eq(user), any());
+        verify(dailyStatRepository).upsertDelta(eq(1L), eq(covered.getAttemptDate()), eq(1), eq(1), eq(0), any());
+    }
+
+    @Test
+    void applyAttemptEvents_throwsWhenStatsRowIsMissing() {
+        User user = user();
+        when(userStatsRepository.lockForDelta(1L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> statsService.applyAttemptEvents(user, List.of(
+                event(1L, ProblemStatus.UNSEEN, ProblemStatus.ATTEMPTED, Difficulty.EASY, 1, false))))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void getByUser_servesMaterializedStatsWithoutRescanningHistory() {
+        User user = user();
+        UserStats stats = new UserStats();
+        stats.setStale(false);
+        stats.setProjectionVersion(StatsService.PROJECTION_VERSION);
+        stats.setTotalSolved(7);
+        stats.setLastSolvedDate(LocalDate.now().minusDays(5));
+        stats.setCurrentStreak(3);
+        stats.setWindowsAsOf(LocalDate.now().minusDays(5));
         when(userStatsRepository.findByUser(user)).thenReturn(Optional.of(stats));
 
-        statsService.updateOnAttempt(user, attempt(Outcome.ACCEPTED, Difficulty.MEDIUM, 1), true);
+        UserStats result = statsService.getByUser(user);
 
-        assertThat(stats.getTotalSolved()).isEqualTo(6);
-        assertThat(stats.getMediumSolved()).isEqualTo(3);
-        assertThat(stats.getFirstAttemptSolves()).isEqualTo(1);
+        assertThat(result.getTotalSolved()).isEqualTo(7);
+        assertThat(result.getCurrentStreak()).isEqualTo(0);
+        assertThat(result.getWindowsAsOf()).isEqualTo(LocalDate.now());
+        verify(userStatsRepository).lockForUpdate(stats);
+        verify(problemRepository, never()).findAllByUser(any());
+        verify(attemptRepository, never()).streamFactsByUser(any());
     }
 
     @Test
-    void updateOnAttempt_doesNotIncrementTotalSolvedWhenNotFirstSolve() {
-        User user = new User();
-        UserStats stats = statsWithAttempts(2);
-        stats.setTotalSolved(3);
+    void getByUser_leavesCurrentRowUnlocked() {
+        User user = user();
+        UserStats stats = new UserStats();
+        stats.setStale(false);
+        stats.setProjectionVersion(StatsService.PROJECTION_VERSION);
+        stats.setWindowsAsOf(LocalDate.now());
         when(userStatsRepository.findByUser(user)).thenReturn(Optional.of(stats));
 
-        statsService.updateOnAttempt(user, attempt(Outcome.ACCEPTED, Difficulty.HARD, 2), false);
+        assertThat(statsService.getByUser(user)).isSameAs(stats);
+
+        verify(userStatsRepository, never()).lockForUpdate(any());
+    }
+
+    @Test
+    void adjustOnProblemChange_movesSolvedCountersBetweenStatuses() {
+        User user = user();
+
+        statsService.adjustOnProblemChange(user, Difficulty.HARD, ProblemStatus.SOLVED,
+                Difficulty.HARD, ProblemStatus.MASTERED);
 
-        assertThat(stats.getTotalSolved()).isEqualTo(3);
+        UserStatsDelta delta = capturedDelta();
+        assertThat(delta.getTotalSolved()).isEqualTo(-1);
+        assertThat(delta.getTotalMastered()).isEqualTo(1);
+        assertThat(delta.getTotalAttempted()).isZero();
+        assertThat(delta.getHardSolved()).isZero();
     }
 
     @Test
     void adjustOnAttemptDelete_decrementsTotalAttempts() {
-        User user = new User();
-        UserStats stats = statsWithAttempts(5);
-        when(userStatsRepository.findByUser(user)).thenReturn(Optional.of(stats));
+        User user = user();
 
         AttemptRepository mockAttemptRepo = mock(AttemptRepository.class);
         Attempt attempt = attempt(Outcome.WRONG_ANSWER, Difficulty.EASY, 1);
@@ -116,17 +306,14 @@ class StatsServiceTest {
 
         statsService.adjustOnAttemptDelete(user, attempt, mockAttemptRepo);
 
-        assertThat(stats.getTotalAttempts()).isEqualTo(4);
-        verify(userStatsRepository).save(stats);
+        UserStatsDelta delta = capturedDelta();
+        assertThat(delta.getTotalAttempts()).isEqualTo(-1);
+        assertThat(delta.isStale()).isFalse();
     }
 
     @Test
     void adjustOnAttemptDelete_decrementsTotalSolvedWhenDeletingOnlyAcceptedAttempt() {
-        User user = new User();
-        UserStats stats = statsWithAttempts(2);
-        stats.setTotalSolved(3);
-        stats.setEasySolved(1);
-        when(userStatsRepository.findByUser(user)).thenReturn(Optional.of(stats));
+        User user = user();
 
         AttemptRepository mockAttemptRepo = mock(AttemptRepository.class);
         Attempt attempt = attempt(Outcome.ACCEPTED, Difficulty.EASY, 1);
@@ -136,16 +323,16 @@ class StatsServiceTest {
 
         statsService.adjustOnAttemptDelete(user, attempt, mockAttemptRepo);
 
-        assertThat(stats.getTotalSolved()).isEqualTo(2);
-        assertThat(stats.getEasySolved()).isEqualTo(0);
+        UserStatsDelta delta = capturedDelta();
+        assertThat(delta.getTotalSolved()).isEqualTo(-1);
+        assertThat(delta.getEasySolved()).isEqualTo(-1);
+        assertThat(delta.isStale()).isTrue();
+        verify(dailyStatRepository).upsertDelta(eq(1L), any(), eq(-1), eq(-1), eq(0), any());
     }
 
     @Test
     void adjustOnAttemptDelete_doesNotDecrementTotalSolvedWhenAnotherAcceptedAttemptExists() {
-        User user = new User();
-        UserStats stats = statsWithAttempts(3);
-        stats.setTotalSolved(3);
-        when(userStatsRepository.findByUser(user)).thenReturn(Optional.of(stats));
+        User user = user();
 
         AttemptRepository mockAttemptRepo = mock(AttemptRepository.class);
         Attempt attempt = attempt(Outcome.ACCEPTED, Difficulty.HARD, 2);
@@ -158,15 +345,12 @@ class StatsServiceTest {
 
         statsService.adjustOnAttemptDelete(user, attempt, mockAttemptRepo);
 
-        assertThat(stats.getTotalSolved()).isEqualTo(3);
+        assertThat(capturedDelta().getTotalSolved()).isZero();
     }
 
     @Test
     void adjustOnAttemptUpdate_adjustsTimeDelta() {
-        User user = new User();
-        UserStats stats = new UserStats();
-        stats.setTotalTimeMinutes(60);
-        when(userStatsRepository.findByUser(user)).thenReturn(Optional.of(stats));
+        User user = user();
 
         Attempt oldAttempt = attempt(Outcome.WRONG_ANSWER, Difficulty.EASY, 1);
         oldAttempt.setDurationMinutes(30);
@@ -177,12 +361,13 @@ class StatsServiceTest {
 
         statsService.adjustOnAttemptUpdate(user, oldAttempt, newRequest);
 
-        assertThat(stats.getTotalTimeMinutes()).isEqualTo(75);
+        assertThat(capturedDelta().getTotalTimeMinutes()).isEqualTo(15);
+        verify(dailyStatRepository).upsertDelta(eq(1L), any(), eq(0), eq(0), eq(15), any());
     }
 
     @Test
     void getByUser_recalculatesStatsFromProblemsAndAttempts() {
-        User user = new User();
+        User user = user();
         UserStats stats = new UserStats();
         when(userStatsRepository.findByUser(user)).thenReturn(Optional.of(stats));
 
@@ -191,6 +376,9 @@ class StatsServiceTest {
         Problem solvedWithHelp = problem(2L, ProblemStatus.SOLVED_WITH_HELP, Difficulty.MEDIUM, today);
         Problem mastered = problem(3L, ProblemStatus.MASTERED, Difficulty.HARD, today.minusDays(2));
         Problem attempted = problem(4L, ProblemStatus.ATTEMPTED, Difficulty.MEDIUM, today.minusDays(3));
+        solved.setFirstSolvedAt(today.minusDays(1).atStartOfDay());
+        solvedWithHelp.setFirstSolvedAt(today.atStartOfDay());
+        mastered.setFirstSolvedAt(today.minusDays(2).atStartOfDay());
         solved.getTopics().add(topic(10L));
         solvedWithHelp.getTopics().add(topic(11L));
         mastered.getPatterns().add(pattern(20L));
@@ -216,8 +404,7 @@ class StatsServiceTest {
         failedAttempt.setMistakes(List.of(Mistake.WRONG_PATTERN));
         failedAttempt.setCreatedDate(today.minusDays(3).atStartOfDay());
 
-        when(attemptRepository.findByUserOrderByCreatedDateAsc(user))
-                .thenReturn(List.of(firstTrySolve, helpedSolve, failedAttempt));
+        stubHistory(user, firstTrySolve, helpedSolve, failedAttempt);
 
         UserStats result = statsService.getByUser(user);
 
@@ -236,22 +423,24 @@ class StatsServiceTest {
         assertThat(result.getDistinctTopicsCovered()).isEqualTo(2);
         assertThat(result.getDistinctPatternsCovered()).isEqualTo(2);
         assertThat(result.getLastSolvedDate()).isEqualTo(today);
+        assertThat(result.getFirstSolvedDate()).isEqualTo(today.minusDays(2));
         assertThat(result.getLongestStreak()).isEqualTo(3);
         assertThat(result.getCurrentStreak()).isEqualTo(3);
-        assertThat(result.getMistakeBreakdown()).contains("OFF_BY_ONE");
-        assertThat(result.getMistakeBreakdown()).contains("WRONG_PATTERN");
-        assertThat(result.getPatternBreakdown()).contains("20");
-        assertThat(result.getPatternBreakdown()).contains("21");
+        assertThat(result.getMistakeCounts()[Mistake.OFF_BY_ONE.ordinal()]).isEqualTo(2);
+        assertThat(result.getMistakeCounts()[Mistake.WRONG_PATTERN.ordinal()]).isEqualTo(2);
+        verify(userPatternCountRepository).deleteByUserId(1L);
+        verify(userPatternCountRepository).insertFromProblems(eq(1L), any());
     }
 
     @Test
-    void getByUser_usesMostRecentAttemptAsSolveDateForSolvedProblems() {
-        User user = new User();
+    void getByUser_datesSolvesByFirstAcceptedAttemptLikeTheEventWorker() {
+        User user = user();
         UserStats stats = new UserStats();
         when(userStatsRepository.findByUser(user)).thenReturn(Optional.of(stats));
 
         LocalDate today = LocalDate.now();
         Problem solved = problem(1L, ProblemStatus.SOLVED, Difficulty.MEDIUM, today.minusDays(10));
+        Problem imported = problem(2L, ProblemStatus.SOLVED, Difficulty.EASY, today);
 
         Attempt accepted = attempt(Outcome.ACCEPTED, Difficulty.MEDIUM, 1);
         accepted.setProblem(solved);
@@ -261,75 +450,194 @@ class StatsServiceTest {
         reviewAttempt.setProblem(solved);
         reviewAttempt.setCreatedDate(today.minusDays(1).atStartOfDay());
 
-        when(problemRepository.findAllByUser(user)).thenReturn(List.of(solved));
-        when(attemptRepository.findByUserOrderByCreatedDateAsc(user)).thenReturn(List.of(accepted, reviewAttempt));
+        Attempt laterAccepted = attempt(Outcome.ACCEPTED, Difficulty.MEDIUM, 3);
+        laterAccepted.setProblem(solved);
+        laterAccepted.setCreatedDate(today.atStartOfDay());
+
+        when(problemRepository.findAllByUser(user)).thenReturn(List.of(solved, imported));
+        stubHistory(user, accepted, reviewAttempt, laterAccepted);
 
         UserStats result = statsService.getByUser(user);
 
-        assertThat(result.getLastSolvedDate()).isEqualTo(today.minusDays(1));
-        assertThat(result.getSolvedThisWeek()).isEqualTo(1);
-        assertThat(result.getSolvedThisMonth()).isEqualTo(1);
+        // The event worker recorded this solve on the first accepted attempt's day, and a
+        // solved status without any accepted attempt never produced a solve event.
+        assertThat(result.getLastSolvedDate()).isEqualTo(today.minusDays(5));
+        assertThat(SolveDayBitmap.fromBytes(result.getSolveDays()).lastDay()).isEqualTo(today.minusDays(5));
+        assertThat(result.getCurrentStreak()).isZero();
+        assertThat(result.getLongestStreak()).isEqualTo(1);
+        assertThat(result.getSolvedThisMonth()).isEqualTo(today.minusDays(5).getMonth() == today.getMonth() ? 1 : 0);
     }
 
     @Test
-    void getDailyStatsBetween_recalculatesDailyActivity() {
-        User user = new User();
-        Problem solved = problem(1L, ProblemStatus.SOLVED, Difficulty.EASY, LocalDate.of(2026, 2, 27));
-        Problem masteredWithoutAcceptedAttempt = problem(2L, ProblemStatus.MASTERED, Difficulty.HARD, LocalDate.of(2026, 2, 28));
+    void getByUser_prefersPersistedFirstSolveDate() {
+        User user = user();
+        when(userStatsRepository.findByUser(user)).thenReturn(Optional.of(new UserStats()));
 
-        Attempt accepted = attempt(Outcome.ACCEPTED, Difficulty.EASY, 1);
-        accepted.setProblem(solved);
-        accepted.setDurationMinutes(25);
-        accepted.setCreatedDate(LocalDateTime.of(2026, 2, 27, 10, 0));
+        LocalDate today = LocalDate.now();
+        Problem solved = problem(1L, ProblemStatus.SOLVED, Difficulty.MEDIUM, today.minusDays(10));
+        solved.setFirstSolvedAt(today.minusDays(3).atTime(9, 0));
+        when(problemRepository.findAllByUser(user)).thenReturn(List.of(solved));
+        stubHistory(user);
 
-        Attempt failed = attempt(Outcome.WRONG_ANSWER, Difficulty.HARD, 1);
-        failed.setProblem(masteredWithoutAcceptedAttempt);
-        failed.setDurationMinutes(35);
-        failed.setCreatedDate(LocalDateTime.of(2026, 2, 28, 8, 0));
+        UserStats result = statsService.getByUser(user);
+
+        assertThat(result.getLastSolvedDate()).isEqualTo(today.minusDays(3));
+        assertThat(result.getFirstSolvedDate()).isEqualTo(today.minusDays(3));
+    }
 
-        when(problemRepository.findAllByUser(user)).thenReturn(List.of(solved, masteredWithoutAcceptedAttempt));
-        when(attemptRepository.findByUserOrderByCreatedDateAsc(user)).thenReturn(List.of(accepted, failed));
+    @Test
+    void getDailyStatsBetween_readsRangeFromDailyStatsWithoutScanningHistory() {
+        User user = user();
+        DailyStat day = new DailyStat();
+        day.setDate(LocalDate.of(2026, 2, 27));
+        day.setSolved(1);
+        day.setAttempted(2);
+        day.setTimeMinutes(25);
+        when(dailyStatRepository.findActiveByUserAndDateBetween(
+                user, LocalDate.of(2026, 2, 27), LocalDate.of(2026, 2, 28)))
+                .thenReturn(List.of(day));
 
         List<DailyStat> dailyStats = statsService.getDailyStatsBetween(
                 user,
                 LocalDate.of(2026, 2, 27),
                 LocalDate.of(2026, 2, 28));
 
-        assertThat(dailyStats).hasSize(2);
-        assertThat(dailyStats.get(0).getDate()).isEqualTo(LocalDate.of(2026, 2, 27));
-        assertThat(dailyStats.get(0).getSolved()).isEqualTo(1);
-        assertThat(dailyStats.get(0).getAttempted()).isEqualTo(1);
-        assertThat(dailyStats.get(0).getTimeMinutes()).isEqualTo(25);
-
-        assertThat(dailyStats.get(1).getDate()).isEqualTo(LocalDate.of(2026, 2, 28));
-        assertThat(dailyStats.get(1).getSolved()).isEqualTo(1);
-        assertThat(dailyStats.get(1).getAttempted()).isEqualTo(1);
-        assertThat(dailyStats.get(1).getTimeMinutes()).isEqualTo(35);
+        assertThat(dailyStats).containsExactly(day);
+        verify(problemRepository, never()).findAllByUser(any());
+        verify(attemptRepository, never()).streamFactsByUser(any());
     }
 
     @Test
-    void getFirstSolveDate_returnsEarliestSolvedProblemDate() {
-        User user = new User();
-        Problem olderSolved = problem(1L, ProblemStatus.SOLVED, Difficulty.EASY, LocalDate.of(2026, 1, 15));
-        Problem newerSolved = problem(2L, ProblemStatus.MASTERED, Difficulty.HARD, LocalDate.of(2026, 2, 20));
-        Problem unsolved = problem(3L, ProblemStatus.ATTEMPTED, Difficulty.MEDIUM, LocalDate.of(2026, 1, 1));
+    void getByUser_rebuildsDailyStatsAlongsideStaleStats() {
+        User user = user();
+        when(userStatsRepository.findByUser(user)).thenReturn(Optional.of(new UserStats()));
 
-        Attempt accepted = attempt(Outcome.ACCEPTED, Difficulty.EASY, 1);
-        accepted.setProblem(olderSolved);
-        accepted.setCreatedDate(LocalDateTime.of(2026, 1, 10, 12, 0));
+        statsService.getByUser(user);
 
-        when(problemRepository.findAllByUser(user)).thenReturn(List.of(olderSolved, newerSolved, unsolved));
-        when(attemptRepository.findByUserOrderByCreatedDateAsc(user)).thenReturn(List.of(accepted));
+        InOrder inOrder = inOrder(userStatsRepository, dailyStatRepository);
+        inOrder.verify(userStatsRepository).lockForUpdate(any());
+        inOrder.verify(dailyStatRepository).deleteByUserId(1L);
+        verify(dailyStatRepository).insertFromAttempts(eq(1L), any());
+    }
+
+    @Test
+    void getFirstSolveDate_resolvesFromPersistedProblemSolveDates() {
+        User user = user();
+        when(problemRepository.findFirstSolvedAt(user)).thenReturn(Optional.of(LocalDateTime.of(2026, 1, 10, 12, 0)));
 
         Optional<LocalDate> firstSolveDate = statsService.getFirstSolveDate(user);
 
         assertThat(firstSolveDate).contains(LocalDate.of(2026, 1, 10));
+        verify(attemptRepository, never()).streamFactsByUser(any());
     }
 
-    private UserStats statsWithAttempts(int totalAttempts) {
+    @Test
+    void adjustOnPatternChange_upsertsPatternCountWithoutTouchingJson() {
+        User user = user();
+        Problem problem = problem(1L, ProblemStatus.SOLVED, Difficulty.EASY, LocalDate.now());
+        when(problemRepository.countOtherWithPattern(user, 20L, 1L)).thenReturn(0L);
+
+        statsService.adjustOnPatternChange(user, problem, pattern(20L), 1);
+
+        assertThat(capturedDelta().getDistinctPatternsCovered()).isEqualTo(1);
+        verify(userPatternCountRepository).upsertDelta(eq(1L), eq(20L), eq(1), any());
+    }
+
+    @Test
+    void getBreakdowns_rendersCountsAsTheJsonObjectsTheApiReturns() {
+        User user = user();
+        UserStats stats = new UserStats();
+        int[] mistakeCounts = new int[Mistake.values().length];
+        mistakeCounts[Mistake.WRONG_PATTERN.ordinal()] = 5;
+        mistakeCounts[Mistake.OFF_BY_ONE.ordinal()] = 3;
+        stats.setMistakeCounts(mistakeCounts);
+        List<Object[]> patternRows = List.<Object[]>of(new Object[]{"Sliding Window", 2});
+        when(userPatternCountRepository.findBreakdownByUser(user)).thenReturn(patternRows);
+
+        StatsBreakdownsDto breakdowns = statsService.getBreakdowns(user, stats);
+
+        assertThat(breakdowns.mistakeBreakdown()).isEqualTo("{\"WRONG_PATTERN\":5,\"OFF_BY_ONE\":3}");
+        assertThat(breakdowns.patternBreakdown()).isEqualTo("{\"Sliding Window\":2}");
+    }
+
+    @Test
+    void getHeatmap_packsDailyCountsIntoFixedWidthRecordsPerDayOfYear() {
+        User user = user();
+        DailyStat march2 = new DailyStat();
+        march2.setDate(LocalDate.of(2026, 3, 2));
+        march2.setSolved(2);
+        march2.setAttempted(3);
+        march2.setTimeMinutes(70_000);
+        when(dailyStatRepository.findActiveByUserAndDateBetween(user, LocalDate.of(2026, 1, 1), LocalDate.of(2026, 12, 31)))
+                .thenReturn(List.of(march2));
+
+        HeatmapDto heatmap = statsService.getHeatmap(user, 2026);
+
+        assertThat(heatmap.days()).isEqualTo(365);
+        ByteBuffer packed = ByteBuffer.wrap(Base64.getDecoder().decode(heatmap.data()));
+        assertThat(packed.capacity()).isEqualTo(365 * HeatmapDto.BYTES_PER_DAY);
+        int offset = (march2.getDate().getDayOfYear() - 1) * HeatmapDto.BYTES_PER_DAY;
+        assertThat(Short.toUnsignedInt(packed.getShort(offset))).isEqualTo(2);
+        assertThat(Short.toUnsignedInt(packed.getShort(offset + 2))).isEqualTo(3);
+        assertThat(Short.toUnsignedInt(packed.getShort(offset + 4))).isEqualTo(0xFFFF);
+        assertThat(packed.getShort(0)).isZero();
+    }
+
+    @Test
+    void getHeatmapETag_changesOnlyWhenTheStatsRowIsModified() {
+        User user = user();
         UserStats stats = new UserStats();
-        stats.setTotalAttempts(totalAttempts);
-        return stats;
+        stats.setStale(false);
+        stats.setProjectionVersion(StatsService.PROJECTION_VERSION);
+        stats.setLastModifiedDate(LocalDateTime.of(2026, 3, 2, 10, 0));
+        when(userStatsRepository.findByUser(user)).thenReturn(Optional.of(stats));
+
+        String first = statsService.getHeatmapETag(user, 2026);
+        String unchanged = statsService.getHeatmapETag(user, 2026);
+        stats.setLastModifiedDate(stats.getLastModifiedDate().plusNanos(1_000));
+        String modified = statsService.getHeatmapETag(user, 2026);
+
+        assertThat(unchanged).isEqualTo(first);
+        assertThat(modified).isNotEqualTo(first);
+        assertThat(statsService.getHeatmapETag(user, 2025)).isNotEqualTo(first);
+        verify(dailyStatRepository, never()).findActiveByUserAndDateBetween(any(), any(), any());
+    }
+
+    private UserStatsDelta capturedDelta() {
+        ArgumentCaptor<UserStatsDelta> captor = ArgumentCaptor.forClass(UserStatsDelta.class);
+        verify(userStatsRepository).applyDelta(eq(1L), captor.capture());
+        return captor.getValue();
+    }
+
+    private AttemptEvent event(Long id, ProblemStatus previousStatus, ProblemStatus newStatus,
+                               Difficulty difficulty, int attemptNumber, boolean firstSolve) {
+        AttemptEvent event = new AttemptEvent();
+        event.setId(id);
+        event.setPreviousStatus(previousStatus);
+        event.setNewStatus(newStatus);
+        event.setDifficulty(difficulty);
+        event.setAttemptNumber(attemptNumber);
+        event.setAttemptDate(LocalDate.of(2026, 3, 2));
+        event.setFirstSolve(firstSolve);
+        return event;
+    }
+
+    private void stubHistory(User user, Attempt... attempts) {
+        when(attemptRepository.streamFactsByUser(user)).thenReturn(Stream.of(attempts)
+                .map(attempt -> new AttemptFacts(attempt.getProblem().getId(), attempt.getCreatedDate(),
+                        attempt.getAttemptNumber(), attempt.getOutcome(), attempt.getDurationMinutes())));
+        Map<Mistake, Long> mistakeCounts = Stream.of(attempts)
+                .flatMap(attempt -> attempt.getMistakes().stream())
+                .collect(Collectors.groupingBy(mistake -> mistake, Collectors.counting()));
+        lenient().when(attemptRepository.countMistakesByUser(user)).thenReturn(mistakeCounts.entrySet().stream()
+                .map(entry -> new Object[]{entry.getKey(), entry.getValue()})
+                .toList());
+    }
+
+    private User user() {
+        User user = new User();
+        user.setId(1L);
+        return user;
     }
 
     private Problem problem(Long id, ProblemStatus status, Difficulty difficulty, LocalDate modifiedDate) {
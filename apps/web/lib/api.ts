@@ -1,11 +1,14 @@
 import { format } from "date-fns"
 import type {
   AttemptDto,
+  BulkReviewRequest,
   CreateProblemRequest,
   CreateListRequest,
   CreateNoteRequest,
   CreatePatternRequest,
   CreateTopicRequest,
+  CursorPage,
+  DailyReviewQueueDto,
   DailyStatDto,
   EnrollReviewRequest,
   FriendOverviewDto,
@@ -19,11 +22,13 @@ import type {
   PublicUserProfileDto,
   ProblemDetailDto,
   ProblemFilters,
+  ProblemImportProgress,
+  ProblemScrollFilters,
   ProblemListDto,
   ProblemSummaryDto,
   QuickReviewRequest,
   ReviewCardDto,
-  ReviewLogDto,
+  ReviewHistoryDto,
   ReviewStatsDto,
   SocialUserDto,
   ThemeDto,
@@ -72,8 +77,12 @@ export function getProblems(
   const params = new URLSearchParams()
   if (filters?.difficulty) params.set("difficulty", filters.difficulty)
   if (filters?.status) params.set("status", filters.status)
-  if (filters?.topicId) params.set("topicId", String(filters.topicId))
-  if (filters?.patternId) params.set("patternId", String(filters.patternId))
+  if (filters?.topicId) params.append("topicId", String(filters.topicId))
+  filters?.topicIds?.forEach((id) => params.append("topicId", String(id)))
+  if (filters?.topicMatch) params.set("topicMatch", filters.topicMatch)
+  if (filters?.patternId) params.append("patternId", String(filters.patternId))
+  filters?.patternIds?.forEach((id) => params.append("patternId", String(id)))
+  if (filters?.patternMatch) params.set("patternMatch", filters.patternMatch)
   if (filters?.search) params.set("search", filters.search)
   if (filters?.page != null) params.set("page", String(filters.page))
   if (filters?.size != null) params.set("size", String(filters.size))
@@ -82,6 +91,41 @@ export function getProblems(
   return apiFetch(`/api/problems${qs ? `?${qs}` : ""}`, token)
 }
 
+function scrollParams(filters?: ProblemScrollFilters): string {
+  const params = new URLSearchParams()
+  if (filters?.difficulty) params.set("difficulty", filters.difficulty)
+  if (filters?.status) params.set("status", filters.status)
+  if (filters?.topicId) params.append("topicId", String(filters.topicId))
+  filters?.topicIds?.forEach((id) => params.append("topicId", String(id)))
+  if (filters?.topicMatch) params.set("topicMatch", filters.topicMatch)
+  if (filters?.patternId) params.append("patternId", String(filters.patternId))
+  filters?.patternIds?.forEach((id) => params.append("patternId", String(id)))
+  if (filters?.patternMatch) params.set("patternMatch", filters.patternMatch)
+  if (filters?.search) params.set("search", filters.search)
+  if (filters?.size != null) params.set("size", String(filters.size))
+  if (filters?.sort) params.set("sort", filters.sort)
+  if (filters?.cursor) params.set("cursor", filters.cursor)
+  if (filters?.includeTotal) params.set("includeTotal", "true")
+  const qs = params.toString()
+  return qs ? `?${qs}` : ""
+}
+
+export function getProblemsScroll(
+  token: string | undefined,
+  filters?: ProblemScrollFilters,
+): Promise<CursorPage<ProblemSummaryDto>> {
+  return apiFetch(`/api/problems/scroll${scrollParams(filters)}`, token)
+}
+
+export function searchProblems(
+  token: string | undefined,
+  q: string,
+  limit = 10,
+): Promise<ProblemSummaryDto[]> {
+  const params = new URLSearchParams({ q, limit: String(limit) })
+  return apiFetch(`/api/problems/search?${params}`, token)
+}
+
 export function createProblem(
   token: string | undefined,
   body: CreateProblemRequest,
@@ -92,6 +136,47 @@ export function createProblem(
   })
 }
 
+// Streams the file to the bulk import and calls onProgress for each committed batch.
+// Resolves with the final progress, which has done set.
+export async function importProblems(
+  token: string | undefined,
+  body: Blob | string,
+  format: "json" | "csv",
+  onProgress?: (progress: ProblemImportProgress) => void,
+): Promise<ProblemImportProgress> {
+  const res = await fetch(`${BASE}/api/problems/import`, {
+    method: "POST",
+    body,
+    headers: {
+      "Content-Type": format === "csv" ? "text/csv" : "application/json",
+      Accept: "application/x-ndjson",
+      ...(token ? { Authorization: `Bearer ${token}` } : {}),
+    },
+  })
+  if (!res.ok || !res.body) {
+    const text = await res.text()
+    throw new Error(`${res.status}: ${text}`)
+  }
+  const reader = res.body.pipeThrough(new TextDecoderStream()).getReader()
+  let buffered = ""
+  let last: ProblemImportProgress | undefined
+  for (;;) {
+    const { value, done } = await reader.read()
+    if (done) break
+    buffered += value
+    let newline
+    while ((newline = buffered.indexOf("\n")) >= 0) {
+      const line = buffered.slice(0, newline).trim()
+      buffered = buffered.slice(newline + 1)
+      if (!line) continue
+      last = JSON.parse(line) as ProblemImportProgress
+      onProgress?.(last)
+    }
+  }
+  if (!last?.done) throw new Error("Import ended before it finished")
+  return last
+}
+
 export function getProblem(
   token: string | undefined,
   id: number,
@@ -107,8 +192,12 @@ export function getProblemListProblems(
   const params = new URLSearchParams()
   if (filters?.difficulty) params.set("difficulty", filters.difficulty)
   if (filters?.status) params.set("status", filters.status)
-  if (filters?.topicId) params.set("topicId", String(filters.topicId))
-  if (filters?.patternId) params.set("patternId", String(filters.patternId))
+  if (filters?.topicId) params.append("topicId", String(filters.topicId))
+  filters?.topicIds?.forEach((id) => params.append("topicId", String(id)))
+  if (filters?.topicMatch) params.set("topicMatch", filters.topicMatch)
+  if (filters?.patternId) params.append("patternId", String(filters.patternId))
+  filters?.patternIds?.forEach((id) => params.append("patternId", String(id)))
+  if (filters?.patternMatch) params.set("patternMatch", filters.patternMatch)
   if (filters?.search) params.set("search", filters.search)
   if (filters?.page != null) params.set("page", String(filters.page))
   if (filters?.size != null) params.set("size", String(filters.size))
@@ -117,6 +206,14 @@ export function getProblemListProblems(
   return apiFetch(`/api/me/lists/${listId}/problems${qs ? `?${qs}` : ""}`, token)
 }
 
+export function getProblemListProblemsScroll(
+  token: string | undefined,
+  listId: number,
+  filters?: ProblemScrollFilters,
+): Promise<CursorPage<ProblemSummaryDto>> {
+  return apiFetch(`/api/me/lists/${listId}/problems/scroll${scrollParams(filters)}`, token)
+}
+
 export function deleteProblem(
   token: string | undefined,
   id: number,
@@ -558,6 +655,12 @@ export function getReviewCardsDue(
   return apiFetch(`/api/review-cards/due${qs ? `?${qs}` : ""}`, token)
 }
 
+export function getTodayReviewQueue(
+  token: string | undefined,
+): Promise<DailyReviewQueueDto> {
+  return apiFetch("/api/review-cards/today", token)
+}
+
 export function getReviewStats(
   token: string | undefined,
 ): Promise<ReviewStatsDto> {
@@ -592,9 +695,28 @@ export function quickReview(
   })
 }
 
+export function bulkReview(
+  token: string | undefined,
+  body: BulkReviewRequest,
+): Promise<ReviewCardDto[]> {
+  return apiFetch("/api/review-cards/reviews", token, {
+    method: "POST",
+    body: JSON.stringify(body),
+  })
+}
+
 export function getReviewHistory(
   token: string | undefined,
   cardId: number,
-): Promise<ReviewLogDto[]> {
-  return apiFetch(`/api/review-cards/${cardId}/history`, token)
+  cursor?: { before: string; beforeId: number },
+  size?: number,
+): Promise<ReviewHistoryDto> {
+  const params = new URLSearchParams()
+  if (cursor) {
+    params.set("before", cursor.before)
+    params.set("beforeId", String(cursor.beforeId))
+  }
+  if (size != null) params.set("size", String(size))
+  const qs = params.toString()
+  return apiFetch(`/api/review-cards/${cardId}/history${qs ? `?${qs}` : ""}`, token)
 }
@@ -16,6 +16,7 @@ export const EMPTY_USER_STATS: UserStatsDto = {
   currentStreak: 0,
   longestStreak: 0,
   lastSolvedDate: null,
+  firstSolvedDate: null,
   solvedThisWeek: 0,
   solvedThisMonth: 0,
   distinctTopicsCovered: 0,
@@ -58,6 +58,13 @@ export interface PagedResponse<T> {
   totalPages: number
 }
 
+export interface CursorPage<T> {
+  content: T[]
+  size: number
+  nextCursor: string | null
+  totalElements: number | null
+}
+
 // ─── Problem Domain ───────────────────────────────────────────────────────────
 
 export interface TopicDto {
@@ -157,6 +164,7 @@ export interface UserStatsDto {
   currentStreak: number
   longestStreak: number
   lastSolvedDate: string | null // ISO date
+  firstSolvedDate: string | null // ISO date
   solvedThisWeek: number
   solvedThisMonth: number
   distinctTopicsCovered: number
@@ -255,6 +263,21 @@ export interface CreateProblemRequest {
   aiReview?: string | null
 }
 
+export interface ProblemImportError {
+  row: number
+  message: string
+}
+
+export interface ProblemImportProgress {
+  processed: number
+  imported: number
+  duplicates: number
+  rejected: number
+  errors: ProblemImportError[]
+  done: boolean
+  failure: string | null
+}
+
 export interface UpdateProblemAiReviewRequest {
   aiReview?: string | null
 }
@@ -377,17 +400,28 @@ export interface UpdateProfileRequest {
 
 // ─── Filter Types ─────────────────────────────────────────────────────────────
 
+export type MembershipMatch = "ANY" | "ALL"
+
 export interface ProblemFilters {
   difficulty?: Difficulty
   status?: ProblemStatus
   topicId?: number
+  topicIds?: number[]
+  topicMatch?: MembershipMatch
   patternId?: number
+  patternIds?: number[]
+  patternMatch?: MembershipMatch
   search?: string
   page?: number
   size?: number
   sort?: string
 }
 
+export interface ProblemScrollFilters extends Omit<ProblemFilters, "page"> {
+  cursor?: string
+  includeTotal?: boolean
+}
+
 export interface NoteFilters {
   tag?: NoteTag
   problemId?: number
@@ -445,10 +479,48 @@ export interface ReviewLogDto {
   reviewedAt: string // ISO datetime
 }
 
+export interface ReviewLogSummaryDto {
+  reviewCount: number
+  againCount: number
+  hardCount: number
+  goodCount: number
+  easyCount: number
+  firstReviewedAt: string // ISO datetime
+  lastReviewedAt: string // ISO datetime
+  archivedBefore: string // ISO datetime
+}
+
+export interface ReviewHistoryDto {
+  logs: ReviewLogDto[]
+  nextBefore: string | null // ISO datetime
+  nextBeforeId: number | null
+  archived: ReviewLogSummaryDto | null
+}
+
+export interface DailyReviewQueueEntryDto {
+  cardId: number
+  problemId: number
+  leetcodeId: number
+  problemTitle: string
+  difficulty: Difficulty
+  due: string // ISO datetime
+}
+
+export interface DailyReviewQueueDto {
+  date: string // ISO date, in the user's timezone
+  timezone: string
+  generatedAt: string // ISO datetime
+  cards: DailyReviewQueueEntryDto[]
+}
+
 export interface ReviewStatsDto {
   dueNow: number
   upcoming7Days: number
   totalEnrolled: number
+  overdue: number
+  histogramStart: string
+  dueByDay: number[]
+  byState: Record<CardState, number>
 }
 
 export interface EnrollReviewRequest {
@@ -458,3 +530,12 @@ export interface EnrollReviewRequest {
 export interface QuickReviewRequest {
   rating: Rating
 }
+
+export interface BulkReviewItem {
+  cardId: number
+  rating: Rating
+}
+
+export interface BulkReviewRequest {
+  reviews: BulkReviewItem[]
+}